@@ -622,6 +622,33 @@ CREATE TABLE LEOKASegment (
                 PRIMARY KEY (LEOKASegmentID)
 );
 
+CREATE TABLE ReturnASummary (
+                ORI VARCHAR(9) NOT NULL,
+                Year INT NOT NULL,
+                Month INT NOT NULL,
+                ReturnARowName VARCHAR(50) NOT NULL,
+                ReportedOffenses INT NOT NULL,
+                UnfoundedOffenses INT NOT NULL,
+                ClearedOffenses INT NOT NULL,
+                ClearanceInvolvingOnlyJuvenile INT NOT NULL,
+                PRIMARY KEY (ORI, Year, Month, ReturnARowName)
+);
+
+CREATE TABLE SegmentKey (
+                TableName VARCHAR(50) NOT NULL,
+                NextKey INT NOT NULL,
+                PRIMARY KEY (TableName)
+);
+
+CREATE INDEX AdministrativeSegment_IncidentNumber_idx ON AdministrativeSegment (IncidentNumber);
+CREATE INDEX AdministrativeSegment_IncidentDate_idx ON AdministrativeSegment (IncidentDate);
+CREATE INDEX AdministrativeSegment_ORI_IncidentDate_idx ON AdministrativeSegment (ORI, IncidentDate);
+CREATE INDEX AdministrativeSegment_ExceptionalClearanceDate_idx ON AdministrativeSegment (ExceptionalClearanceDate);
+CREATE INDEX AdministrativeSegment_ORI_ExceptionalClearanceDate_idx ON AdministrativeSegment (ORI, ExceptionalClearanceDate);
+CREATE INDEX ArresteeSegment_ArrestDate_idx ON ArresteeSegment (ArrestDate, AdministrativeSegmentID);
+
+
+
 
 ALTER TABLE AdministrativeSegment ADD CONSTRAINT cargotheftindicatortype_administrativesegment_fk
 FOREIGN KEY (CargoTheftIndicatorTypeID)
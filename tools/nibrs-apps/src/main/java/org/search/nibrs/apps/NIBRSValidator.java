@@ -36,6 +36,7 @@ import org.apache.commons.cli.HelpFormatter;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.tika.exception.TikaException;
+import org.search.nibrs.common.CompactNIBRSError;
 import org.search.nibrs.common.NIBRSError;
 import org.search.nibrs.flatfile.errorexport.ErrorExporter;
 import org.search.nibrs.flatfile.importer.IncidentBuilder;
@@ -67,13 +68,14 @@ public class NIBRSValidator {
 			Writer outputWriter = null;
 
 			final List<NIBRSError> errorList = new ArrayList<>();
+			final CompactNIBRSError.Compactor errorCompactor = new CompactNIBRSError.Compactor();
 //			List<AbstractReport> incidentReports = new ArrayList<>();
 			SubmissionValidator submissionValidator = new SubmissionValidator();
 			ReportListener validatorlistener = new ReportListener() {
 				@Override
 				public void newReport(AbstractReport report, List<NIBRSError> el) {
-					errorList.addAll(el);
-					errorList.addAll(submissionValidator.validateReport(report));
+					el.forEach(e -> errorList.add(errorCompactor.compact(e)));
+					submissionValidator.validateReport(report).forEach(e -> errorList.add(errorCompactor.compact(e)));
 				}
 			};
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.common;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.model.codes.NIBRSErrorCode;
+
+/**
+ * An immutable copy of an error that keeps the header of its report instead of the report itself, so a long list of errors 
+ * does not keep every report with an error, and all of its segments, in memory.  The compacted errors are created by a 
+ * {@link Compactor}, which shares the report headers and the report sources between the errors of a report.
+ */
+public final class CompactNIBRSError extends NIBRSError {
+
+	private static final long serialVersionUID = -6128403349126424455L;
+
+	private CompactNIBRSError(NIBRSError e, ReportHeader reportHeader, ReportSource context) {
+		super(e, reportHeader, context);
+	}
+	
+	@Override
+	public void setReport(AbstractReport report) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setContext(ReportSource context) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setReportUniqueIdentifier(String identifier) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setValue(Object value) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setSegmentType(char segmentType) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setWithinSegmentIdentifier(Object object) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setNIBRSErrorCode(NIBRSErrorCode nibrsErrorCode) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setDataElementIdentifier(String dataElementIdentifier) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setWarning(boolean warning) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void setCrossSegment(boolean crossSegment) {
+		throw new UnsupportedOperationException();
+	}
+	
+	/**
+	 * Compacts the errors of a submission.  The errors of a report arrive together, so the header and the source of the last 
+	 * report are reused while the names of the sources are interned for the whole submission.  A compactor is not thread safe.
+	 */
+	public static final class Compactor {
+		
+		private final Map<String, String> sourceNames = new HashMap<>();
+		private ReportHeader lastReportHeader;
+		private ReportSource lastContext;
+		
+		public CompactNIBRSError compact(NIBRSError e) {
+			if (e instanceof CompactNIBRSError) {
+				return (CompactNIBRSError) e;
+			}
+			return new CompactNIBRSError(e, compactReportHeader(e), compactContext(e.getContext()));
+		}
+		
+		private ReportHeader compactReportHeader(NIBRSError e) {
+			AbstractReport report = e.getReport();
+			if (report == null) {
+				return e.getReportHeader();
+			}
+			if (lastReportHeader == null || !lastReportHeader.isHeaderOf(report)) {
+				lastReportHeader = new ReportHeader(report);
+			}
+			return lastReportHeader;
+		}
+		
+		private ReportSource compactContext(ReportSource context) {
+			if (context == null) {
+				return null;
+			}
+			if (lastContext == null 
+					|| !Objects.equals(context.getSourceLocation(), lastContext.getSourceLocation()) 
+					|| !Objects.equals(context.getSourceName(), lastContext.getSourceName())) {
+				ReportSource compactContext = new ReportSource();
+				String sourceName = context.getSourceName();
+				if (sourceName != null) {
+					compactContext.setSourceName(sourceNames.computeIfAbsent(sourceName, name -> name));
+				}
+				compactContext.setSourceLocation(context.getSourceLocation());
+				lastContext = compactContext;
+			}
+			return lastContext;
+		}
+		
+	}
+
+}
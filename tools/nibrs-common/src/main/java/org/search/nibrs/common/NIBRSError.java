@@ -48,6 +48,7 @@ public class NIBRSError implements Serializable{
 	private static final Logger LOG = LogManager.getLogger(NIBRSError.class);
 	
 	private AbstractReport report;
+	private ReportHeader reportHeader;
 	private ReportSource context;
 	private String reportUniqueIdentifier;
 	private Object value;
@@ -73,9 +74,20 @@ public class NIBRSError implements Serializable{
 		this.dataElementIdentifier = e.dataElementIdentifier;
 		this.warning = e.warning;
 		this.report = e.report;
+		this.reportHeader = e.reportHeader;
 		this.crossSegment = e.crossSegment;
 	}
 	
+	/**
+	 * Copies the error without its report, keeping the header of the report in its place.
+	 */
+	NIBRSError(NIBRSError e, ReportHeader reportHeader, ReportSource context) {
+		this(e);
+		this.report = null;
+		this.reportHeader = reportHeader;
+		this.context = context;
+	}
+	
 	@Override
 	public String toString() {
 		return "NIBRSError [context=" + context + ", ruleNumber=" + getRuleNumber() + ", ruleDescription=" + getShortenedRuleDescription() + ", reportUniqueIdentifier=" + reportUniqueIdentifier +
@@ -115,6 +127,19 @@ public class NIBRSError implements Serializable{
 	}
 	public void setReport(AbstractReport report) {
 		this.report = report;
+		this.reportHeader = null;
+	}
+	
+	/**
+	 * Get the header values of the report with which this error is associated, which outlive the report in a compacted error.
+	 * The header is created again only when the header values of the report have changed.
+	 * @return the report header, or null if the error is not associated with a report
+	 */
+	public ReportHeader getReportHeader() {
+		if (report != null && (reportHeader == null || !reportHeader.isHeaderOf(report))) {
+			reportHeader = new ReportHeader(report);
+		}
+		return reportHeader;
 	}
 
 	/**
@@ -331,24 +356,26 @@ public class NIBRSError implements Serializable{
 	}
 
 	public String getReportUniqueIdentifierOutput() {
+		ReportHeader header = getReportHeader();
 		StringBuilder sb = new StringBuilder(36);
 		
-		sb.append(String.valueOf(report.getYearOfTape()));
-		sb.append(StringUtils.leftPad(String.valueOf(report.getMonthOfTape()), 2, '0'));
+		sb.append(String.valueOf(header.getYearOfTape()));
+		sb.append(StringUtils.leftPad(String.valueOf(header.getMonthOfTape()), 2, '0'));
 		sb.append(StringUtils.leftPad(String.valueOf(this.getContext().getSourceLocation()), 7, '0'));
-		sb.append(String.valueOf(this.getReport().getReportActionType()));
-		sb.append(String.valueOf(this.getReport().getOri()));
+		sb.append(String.valueOf(header.getReportActionType()));
+		sb.append(String.valueOf(header.getOri()));
 		sb.append(StringUtils.rightPad(this.getReportUniqueIdentifier(), 12));
 		return sb.toString();
 	}
 	
 	public String getDateOfTape(){
+		ReportHeader header = getReportHeader();
 		StringBuilder sb = new StringBuilder(6);
-		if ( report != null && report.getYearOfTape() != null){
-			sb.append(String.valueOf(report.getYearOfTape()));
+		if ( header != null && header.getYearOfTape() != null){
+			sb.append(String.valueOf(header.getYearOfTape()));
 		}
-		if ( report!= null && report.getMonthOfTape() != null){
-			sb.append(StringUtils.leftPad(String.valueOf(report.getMonthOfTape()), 2, '0'));
+		if ( header != null && header.getMonthOfTape() != null){
+			sb.append(StringUtils.leftPad(String.valueOf(header.getMonthOfTape()), 2, '0'));
 		}
 		return sb.toString();
 	}
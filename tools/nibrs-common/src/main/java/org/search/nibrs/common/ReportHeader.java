@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.common;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.search.nibrs.model.AbstractReport;
+
+/**
+ * The header values of a report that the error reports need, kept apart from the report so an error does not hold on to the 
+ * segments of the report.
+ */
+public final class ReportHeader implements Serializable {
+
+	private static final long serialVersionUID = -2465091546380452216L;
+	
+	private final Integer yearOfTape;
+	private final Integer monthOfTape;
+	private final char reportActionType;
+	private final String ori;
+	
+	public ReportHeader(AbstractReport report) {
+		this(report.getYearOfTape(), report.getMonthOfTape(), report.getReportActionType(), report.getOri());
+	}
+	
+	public ReportHeader(Integer yearOfTape, Integer monthOfTape, char reportActionType, String ori) {
+		this.yearOfTape = yearOfTape;
+		this.monthOfTape = monthOfTape;
+		this.reportActionType = reportActionType;
+		this.ori = ori;
+	}
+
+	public Integer getYearOfTape() {
+		return yearOfTape;
+	}
+
+	public Integer getMonthOfTape() {
+		return monthOfTape;
+	}
+
+	public char getReportActionType() {
+		return reportActionType;
+	}
+
+	public String getOri() {
+		return ori;
+	}
+	
+	boolean isHeaderOf(AbstractReport report) {
+		return reportActionType == report.getReportActionType() && Objects.equals(ori, report.getOri()) 
+				&& Objects.equals(yearOfTape, report.getYearOfTape()) && Objects.equals(monthOfTape, report.getMonthOfTape());
+	}
+
+	@Override
+	public String toString() {
+		return "ReportHeader [yearOfTape=" + yearOfTape + ", monthOfTape=" + monthOfTape + ", reportActionType=" + reportActionType + ", ori=" + ori + "]";
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package org.search.nibrs.common;
 
+import java.util.Objects;
+
 /**
  * The interface for objects that serve as a source of NIBRS reports (e.g., files, databases, etc.)  Importers or other sources of NIBRS reports use these
  * objects to report information about where each report came from.
@@ -58,4 +60,21 @@ public class ReportSource {
 		this.sourceLocation = sourceLocation;
 	}
 
+	@Override
+	public int hashCode() {
+		return Objects.hash(sourceName, sourceLocation);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (obj == this) {
+			return true;
+		}
+		if (!(obj instanceof ReportSource)) {
+			return false;
+		}
+		ReportSource rs = (ReportSource) obj;
+		return Objects.equals(sourceName, rs.sourceName) && Objects.equals(sourceLocation, rs.sourceLocation);
+	}
+
 }
@@ -43,7 +43,9 @@ public class AbstractIncidentBuilder {
 		public int reportCount = 0;
 		public int errorCount = 0;
 		public void newReport(AbstractReport newReport, List<NIBRSError> errorList) {
-			log.info("Created " + newReport.getUniqueReportDescription());
+			if (log.isDebugEnabled()) {
+				log.debug("Created " + newReport.getUniqueReportDescription());
+			}
 			reportCount++;
 			errorCount += errorList.size();
 		}
@@ -78,7 +80,11 @@ public class AbstractIncidentBuilder {
 		throw new NotImplementedException("The method buildIncidents(Reader, String) is not implemented"); 
 	}
 
-	public void buildIncidents(InputStream inputStream, String readerLocationName) {
+	/**
+	 * Read NIBRS incidents from the input stream
+	 * @throws IOException if the stream cannot be read
+	 */
+	public void buildIncidents(InputStream inputStream, String readerLocationName) throws IOException {
 		throw new NotImplementedException("The method buildIncidents(InputStream, String) is not implemented");
 	}
 
@@ -16,10 +16,10 @@
 package org.search.nibrs.model;
 
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -27,6 +27,8 @@ import org.search.nibrs.common.NIBRSError;
 import org.search.nibrs.common.ReportSource;
 import org.search.nibrs.common.ValidationTarget;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Abstract class of objects representing types of "reports" in NIBRS...  Group A incident reports, Group B arrest reports, and Zero Reports.
  *
@@ -47,6 +49,7 @@ public abstract class AbstractReport implements ValidationTarget, Identifiable,
 	private boolean hasUpstreamErrors;
 	private List<ArresteeSegment> arresteeSegmentList;
 	private ReportSource source;
+	private transient IdentityKey identityKey;
 	
 	public AbstractReport(char adminSegmentLevel) {
 		this.adminSegmentLevel = adminSegmentLevel;
@@ -61,10 +64,7 @@ public abstract class AbstractReport implements ValidationTarget, Identifiable,
 		this.adminSegmentLevel = r.adminSegmentLevel;
 		this.reportActionType = r.reportActionType;
 		this.hasUpstreamErrors = r.hasUpstreamErrors;
-		arresteeSegmentList = CopyUtils.copyList(r.arresteeSegmentList);
-		for (ArresteeSegment s : arresteeSegmentList) {
-			s.setParentReport(this);
-		}
+		this.arresteeSegmentList = SegmentList.copyOf(r.arresteeSegmentList, this, ArresteeSegment::new);
 		this.source = new ReportSource(r.source);
 	}
 	
@@ -125,7 +125,7 @@ public abstract class AbstractReport implements ValidationTarget, Identifiable,
 		arresteeSegmentList.remove(index);
 	}
 	public void removeArrestees() {
-		arresteeSegmentList = new ArrayList<ArresteeSegment>();
+		arresteeSegmentList = SegmentList.empty(this, ArresteeSegment::new);
 	}
 	public void addArrestee(ArresteeSegment arrestee) {
 	    arresteeSegmentList.add(arrestee);
@@ -161,24 +161,98 @@ public abstract class AbstractReport implements ValidationTarget, Identifiable,
 		return sb.toString();
 	}
 
+	/**
+	 * The identity of the report, the class, the ORI, the identifier, the segment level and the action type.  The key is 
+	 * kept until one of its values is replaced, so hashing and comparing the reports does not walk the segments.
+	 */
+	@JsonIgnore
+	public IdentityKey getIdentityKey() {
+		String identifier = getIdentifier();
+		IdentityKey key = identityKey;
+		if (key == null || !key.isKeyOf(this, identifier)) {
+			key = new IdentityKey(this, identifier);
+			identityKey = key;
+		}
+		return key;
+	}
+
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + adminSegmentLevel;
-		result = prime * result + ((arresteeSegmentList == null) ? 0 : arresteeSegmentList.hashCode());
-		result = prime * result + ((cityIndicator == null) ? 0 : cityIndicator.hashCode());
-		result = prime * result + (hasUpstreamErrors ? 1231 : 1237);
-		result = prime * result + ((monthOfTape == null) ? 0 : monthOfTape.hashCode());
-		result = prime * result + ((ori == null) ? 0 : ori.hashCode());
-		result = prime * result + reportActionType;
-		result = prime * result + ((yearOfTape == null) ? 0 : yearOfTape.hashCode());
-		return result;
+		return getIdentityKey().hashCode();
 	}
 
 	@Override
 	public boolean equals(Object obj) {
-		return obj != null && obj.hashCode() == hashCode();
+		return obj == this || obj instanceof AbstractReport && ((AbstractReport) obj).getIdentityKey().equals(getIdentityKey());
+	}
+	
+	/**
+	 * Compares the values and the segments of the reports, unlike {@link #equals(Object)} which only compares their identity.
+	 * The sources of the reports are not compared.
+	 */
+	public boolean structurallyEquals(AbstractReport r) {
+		return r != null && r.getClass() == getClass()
+				&& adminSegmentLevel == r.adminSegmentLevel
+				&& reportActionType == r.reportActionType
+				&& hasUpstreamErrors == r.hasUpstreamErrors
+				&& Objects.equals(ori, r.ori)
+				&& Objects.equals(cityIndicator, r.cityIndicator)
+				&& Objects.equals(monthOfTape, r.monthOfTape)
+				&& Objects.equals(yearOfTape, r.yearOfTape)
+				&& Objects.equals(arresteeSegmentList, r.arresteeSegmentList);
+	}
+	
+	/**
+	 * The identity key of a report, the values are checked by reference against the report to tell whether the key is stale.
+	 */
+	public static final class IdentityKey {
+		
+		private final Class<?> reportClass;
+		private final String ori;
+		private final String identifier;
+		private final char adminSegmentLevel;
+		private final char reportActionType;
+		private final int hash;
+		
+		private IdentityKey(AbstractReport r, String identifier) {
+			this.reportClass = r.getClass();
+			this.ori = r.ori;
+			this.identifier = identifier;
+			this.adminSegmentLevel = r.adminSegmentLevel;
+			this.reportActionType = r.reportActionType;
+			this.hash = Objects.hash(reportClass.getName(), ori, identifier, adminSegmentLevel, reportActionType);
+		}
+		
+		private boolean isKeyOf(AbstractReport r, String identifier) {
+			return reportClass == r.getClass() && ori == r.ori && this.identifier == identifier 
+					&& adminSegmentLevel == r.adminSegmentLevel && reportActionType == r.reportActionType;
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (obj == this) {
+				return true;
+			}
+			if (!(obj instanceof IdentityKey)) {
+				return false;
+			}
+			IdentityKey k = (IdentityKey) obj;
+			return hash == k.hash && reportClass == k.reportClass 
+					&& adminSegmentLevel == k.adminSegmentLevel && reportActionType == k.reportActionType 
+					&& Objects.equals(ori, k.ori) && Objects.equals(identifier, k.identifier);
+		}
+		
+		@Override
+		public String toString() {
+			return reportClass.getSimpleName() + "[ori=" + ori + ", identifier=" + identifier 
+					+ ", adminSegmentLevel=" + adminSegmentLevel + ", reportActionType=" + reportActionType + "]";
+		}
+		
 	}
 	
 	@Override
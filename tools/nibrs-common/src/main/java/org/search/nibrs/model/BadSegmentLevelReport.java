@@ -15,6 +15,8 @@
  */
 package org.search.nibrs.model;
 
+import java.util.Objects;
+
 /**
  * Representation of an individual Bad Segment Level report in a NIBRS submission. 
  *
@@ -32,16 +34,12 @@ public class BadSegmentLevelReport extends AbstractReport {
 	
 	public BadSegmentLevelReport(BadSegmentLevelReport z) {
 		super(z);
+		this.incidentNumber = z.incidentNumber;
 	}
 	
 	@Override
-	public boolean equals(Object o) {
-		return o != null && o.hashCode() == hashCode();
-	}
-	
-	@Override
-	public int hashCode() {
-		return 31*super.hashCode() + getClass().getName().hashCode();
+	public boolean structurallyEquals(AbstractReport r) {
+		return super.structurallyEquals(r) && Objects.equals(incidentNumber, ((BadSegmentLevelReport) r).incidentNumber);
 	}
 
 	@Override
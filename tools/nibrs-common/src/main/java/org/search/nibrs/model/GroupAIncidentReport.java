@@ -80,20 +80,10 @@ public class GroupAIncidentReport extends AbstractReport
 		this.exceptionalClearanceDate = r.exceptionalClearanceDate;
 		this.cargoTheftIndicator = r.cargoTheftIndicator;
 		this.includesLeoka = r.includesLeoka;
-		offenseSegmentList = CopyUtils.copyList(r.offenseSegmentList);
-		setParentReportOnChildSegments(offenseSegmentList);
-		propertySegmentList = CopyUtils.copyList(r.propertySegmentList);
-		setParentReportOnChildSegments(propertySegmentList);
-		victimSegmentList = CopyUtils.copyList(r.victimSegmentList);
-		setParentReportOnChildSegments(victimSegmentList);
-		offenderSegmentList = CopyUtils.copyList(r.offenderSegmentList);
-		setParentReportOnChildSegments(offenderSegmentList);
-	}
-	
-	private final void setParentReportOnChildSegments(List<? extends AbstractSegment> segments) {
-		for (AbstractSegment s : segments) {
-			s.setParentReport(this);
-		}
+		this.offenseSegmentList = SegmentList.copyOf(r.offenseSegmentList, this, OffenseSegment::new);
+		this.propertySegmentList = SegmentList.copyOf(r.propertySegmentList, this, PropertySegment::new);
+		this.victimSegmentList = SegmentList.copyOf(r.victimSegmentList, this, VictimSegment::new);
+		this.offenderSegmentList = SegmentList.copyOf(r.offenderSegmentList, this, OffenderSegment::new);
 	}
 	
 	public boolean includesGamblingOffense() {
@@ -223,7 +213,7 @@ public class GroupAIncidentReport extends AbstractReport
 	}
 
 	public void removeOffenders() {
-		offenderSegmentList = new ArrayList<OffenderSegment>();
+		offenderSegmentList = SegmentList.empty(this, OffenderSegment::new);
 	}
 
 	public void removeVictim(int index) {
@@ -231,7 +221,7 @@ public class GroupAIncidentReport extends AbstractReport
 	}
 
 	public void removeVictims() {
-		victimSegmentList = new ArrayList<VictimSegment>();
+		victimSegmentList = SegmentList.empty(this, VictimSegment::new);
 	}
 
 	public void removeProperty(int index) {
@@ -239,7 +229,7 @@ public class GroupAIncidentReport extends AbstractReport
 	}
 
 	public void removeProperties() {
-		propertySegmentList = new ArrayList<PropertySegment>();
+		propertySegmentList = SegmentList.empty(this, PropertySegment::new);
 	}
 
 	public void removeOffense(int index) {
@@ -247,7 +237,7 @@ public class GroupAIncidentReport extends AbstractReport
 	}
     
 	public void removeOffenses() {
-		offenseSegmentList = new ArrayList<OffenseSegment>();
+		offenseSegmentList = SegmentList.empty(this, OffenseSegment::new);
 	}
     
     public String getCargoTheftIndicator() {
@@ -444,27 +434,23 @@ public class GroupAIncidentReport extends AbstractReport
     }
     
 	@Override
-	public int hashCode() {
-		final int prime = 31;
-		int result = super.hashCode();
-		result = prime * result + ((cargoTheftIndicator == null) ? 0 : cargoTheftIndicator.hashCode());
-		result = prime * result + ((exceptionalClearanceCode == null) ? 0 : exceptionalClearanceCode.hashCode());
-		result = prime * result + ((exceptionalClearanceDate == null) ? 0 : exceptionalClearanceDate.hashCode());
-		result = prime * result + ((incidentDate == null) ? 0 : incidentDate.hashCode());
-		result = prime * result + ((incidentHour == null) ? 0 : incidentHour.hashCode());
-		result = prime * result + ((incidentNumber == null) ? 0 : incidentNumber.hashCode());
-		result = prime * result + (includesLeoka ? 1231 : 1237);
-		result = prime * result + ((offenderSegmentList == null) ? 0 : offenderSegmentList.hashCode());
-		result = prime * result + ((offenseSegmentList == null) ? 0 : offenseSegmentList.hashCode());
-		result = prime * result + ((propertySegmentList == null) ? 0 : propertySegmentList.hashCode());
-		result = prime * result + ((reportDateIndicator == null) ? 0 : reportDateIndicator.hashCode());
-		result = prime * result + ((victimSegmentList == null) ? 0 : victimSegmentList.hashCode());
-		return result;
-	}
-
-	@Override
-	public boolean equals(Object obj) {
-		return obj != null && obj.hashCode() == hashCode();
+	public boolean structurallyEquals(AbstractReport r) {
+		if (!super.structurallyEquals(r)) {
+			return false;
+		}
+		GroupAIncidentReport g = (GroupAIncidentReport) r;
+		return includesLeoka == g.includesLeoka
+				&& Objects.equals(incidentNumber, g.incidentNumber)
+				&& Objects.equals(incidentDate, g.incidentDate)
+				&& Objects.equals(reportDateIndicator, g.reportDateIndicator)
+				&& Objects.equals(incidentHour, g.incidentHour)
+				&& Objects.equals(exceptionalClearanceCode, g.exceptionalClearanceCode)
+				&& Objects.equals(exceptionalClearanceDate, g.exceptionalClearanceDate)
+				&& Objects.equals(cargoTheftIndicator, g.cargoTheftIndicator)
+				&& Objects.equals(offenseSegmentList, g.offenseSegmentList)
+				&& Objects.equals(propertySegmentList, g.propertySegmentList)
+				&& Objects.equals(victimSegmentList, g.victimSegmentList)
+				&& Objects.equals(offenderSegmentList, g.offenderSegmentList);
 	}
 
 	@Override
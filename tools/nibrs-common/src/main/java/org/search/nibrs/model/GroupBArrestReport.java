@@ -33,16 +33,6 @@ public class GroupBArrestReport extends AbstractReport {
 		super(r);
 	}
 	
-	@Override
-	public boolean equals(Object o) {
-		return o != null && o.hashCode() == hashCode();
-	}
-	
-	@Override
-	public int hashCode() {
-		return 31*super.hashCode() + getClass().getName().hashCode();
-	}
-	
 	@Override
 	public String getUniqueReportDescription() {
     	return "Group B Arrest: ATN # " + getATNOrEmpty();
@@ -15,6 +15,9 @@
  */
 package org.search.nibrs.model;
 
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.search.nibrs.common.NIBRSError;
@@ -33,6 +36,15 @@ public class NIBRSAge {
 	private Integer ageMax;
 	private String nonNumericAge;
 	private NIBRSError error;
+	private boolean shared;
+	
+	/**
+	 * The shared ages of the numeric codes, indexed by the min age times 100 plus the max age.
+	 */
+	private static final AtomicReferenceArray<NIBRSAge> SHARED_NUMERIC_AGES = new AtomicReferenceArray<>(100*100);
+	private static final NIBRSAge[] SHARED_NON_NUMERIC_AGES = {
+			share(getNeonateAge()), share(getNewbornAge()), share(getBabyAge()), share(getUnknownAge()), 
+	};
 	
 	public NIBRSAge() {
 	}
@@ -54,18 +66,22 @@ public class NIBRSAge {
 	}
 	
 	public void setError(NIBRSError error) {
+		checkNotShared();
 		this.error = error;
 	}
 	
 	public void setAgeMin(Integer ageMin) {
+		checkNotShared();
 		this.ageMin = ageMin;
 	}
 
 	public void setAgeMax(Integer ageMax) {
+		checkNotShared();
 		this.ageMax = ageMax;
 	}
 	
 	public void setNonNumericAge(String nonNumericAge) {
+		checkNotShared();
 		this.nonNumericAge = nonNumericAge;
 	}
 
@@ -209,8 +225,48 @@ public class NIBRSAge {
 		return ret;
 	}
 	
+	private void checkNotShared() {
+		if (shared) {
+			throw new UnsupportedOperationException("The age " + this + " is shared, copy it to change it");
+		}
+	}
+	
+	private static NIBRSAge share(NIBRSAge age) {
+		age.shared = true;
+		return age;
+	}
+	
 	// static factory methods
 	
+	/**
+	 * Returns the shared, unmodifiable age of a valid age code, so the segments with the same age code hold the same instance.  
+	 * An age outside of the shared ages is returned as a new age.
+	 */
+	public static final NIBRSAge getSharedAge(Integer ageMin, Integer ageMax, String nonNumericAge) {
+		if (nonNumericAge == null) {
+			if (ageMin != null && ageMax != null && ageMin >= 0 && ageMin < 100 && ageMax >= 0 && ageMax < 100) {
+				int index = ageMin * 100 + ageMax;
+				NIBRSAge age = SHARED_NUMERIC_AGES.get(index);
+				if (age == null) {
+					age = share(new NIBRSAge(ageMin, ageMax));
+					if (!SHARED_NUMERIC_AGES.compareAndSet(index, null, age)) {
+						age = SHARED_NUMERIC_AGES.get(index);
+					}
+				}
+				return age;
+			}
+		} else {
+			for (NIBRSAge age : SHARED_NON_NUMERIC_AGES) {
+				if (nonNumericAge.equals(age.nonNumericAge) && Objects.equals(ageMin, age.ageMin) && Objects.equals(ageMax, age.ageMax)) {
+					return age;
+				}
+			}
+		}
+		NIBRSAge age = new NIBRSAge(ageMin, ageMax);
+		age.nonNumericAge = nonNumericAge;
+		return age;
+	}
+	
 	public static final NIBRSAge getNeonateAge() {
 		NIBRSAge ret = new NIBRSAge("NN");
 		ret.ageMax = 0;
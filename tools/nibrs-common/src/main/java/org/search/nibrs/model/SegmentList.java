@@ -0,0 +1,210 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+/**
+ * The segments of one kind of a report.  The segments are mutable and point to their parent report, so the 
+ * segments handed out by a list are never shared.  The segments of a list that were only added, as the builders 
+ * and the exemplar factories do, become a snapshot the first time the report is copied, which the report and its 
+ * copies share, the report keeping its segments when it changes them.  Otherwise the segments are copied once into a snapshot, which the copies of the copy share.  A 
+ * report takes its own copies of the snapshot before any segment is read or changed, and the last report holding 
+ * the snapshot takes its segments as they are. 
+ * <p/>
+ * A segment added to a report belongs to the report: once the report is copied it is changed through the report 
+ * only, not through a reference kept from before the copy. 
+ */
+final class SegmentList<T extends AbstractSegment> extends AbstractList<T> implements RandomAccess, Serializable {
+	
+	private static final long serialVersionUID = -3254325081862286367L;
+
+	/**
+	 * The typed copy constructor of the segments. 
+	 */
+	interface SegmentCopier<T> extends UnaryOperator<T>, Serializable {
+	}
+	
+	/**
+	 * Segments that are not handed out while they are shared, with the number of lists sharing them.  Guarded by 
+	 * the snapshot itself. 
+	 */
+	private static final class Snapshot<T> implements Serializable {
+		private static final long serialVersionUID = 4263862366506442577L;
+		
+		private List<T> segments;
+		private int holders = 1;
+		
+		Snapshot(List<T> segments) {
+			this.segments = segments;
+		}
+	}
+	
+	private final AbstractReport parentReport;
+	private final SegmentCopier<T> copier;
+	private Snapshot<T> snapshot;
+	private List<T> segments;
+	private boolean handedOut;
+	private boolean snapshotOfOwnSegments;
+	
+	private SegmentList(AbstractReport parentReport, SegmentCopier<T> copier, Snapshot<T> snapshot, List<T> segments) {
+		this.parentReport = parentReport;
+		this.copier = copier;
+		this.snapshot = snapshot;
+		this.segments = segments;
+	}
+	
+	/**
+	 * @return an empty list owned by the report. 
+	 */
+	static <T extends AbstractSegment> List<T> empty(AbstractReport parentReport, SegmentCopier<T> copier) {
+		return new SegmentList<>(parentReport, copier, null, new ArrayList<>());
+	}
+	
+	/**
+	 * @return the segments of the copy of a report.  The segments not yet handed out are shared, other segments are 
+	 * copied. 
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends AbstractSegment> List<T> copyOf(List<T> segments, AbstractReport copy, SegmentCopier<T> copier) {
+		if (segments instanceof SegmentList){
+			Snapshot<T> snapshot = ((SegmentList<T>) segments).share();
+			if (snapshot != null){
+				return new SegmentList<>(copy, copier, snapshot, null);
+			}
+		}
+		return new SegmentList<>(copy, copier, new Snapshot<>(copy(segments, copier, copy)), null);
+	}
+	
+	private static <T extends AbstractSegment> List<T> copy(List<T> segments, SegmentCopier<T> copier, 
+			AbstractReport parentReport) {
+		List<T> copies = new ArrayList<>(segments.size());
+		for (T segment : segments){
+			T copy = copier.apply(segment);
+			copy.setParentReport(parentReport);
+			copies.add(copy);
+		}
+		return copies;
+	}
+	
+	/**
+	 * @return the snapshot, counted as shared once more, or null when the segments owned have been handed out.  The 
+	 * segments owned that have not been handed out become the snapshot. 
+	 */
+	private synchronized Snapshot<T> share() {
+		if (snapshot == null && !handedOut){
+			snapshot = new Snapshot<>(segments);
+			snapshotOfOwnSegments = true;
+			segments = null;
+		}
+		if (snapshot != null){
+			synchronized (snapshot){
+				snapshot.holders++;
+			}
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * @return the segments owned by the report, copied first if the snapshot is shared.  A report taking back its 
+	 * own segments leaves copies of them to the other holders of the snapshot. 
+	 */
+	private synchronized List<T> own() {
+		if (segments == null){
+			synchronized (snapshot){
+				if (snapshot.holders == 1){
+					segments = snapshot.segments;
+					segments.forEach(segment -> segment.setParentReport(parentReport));
+				}
+				else {
+					if (snapshotOfOwnSegments){
+						segments = snapshot.segments;
+						snapshot.segments = copy(segments, copier, null);
+					}
+					else {
+						segments = copy(snapshot.segments, copier, parentReport);
+					}
+					snapshot.holders--;
+				}
+			}
+			snapshot = null;
+			snapshotOfOwnSegments = false;
+		}
+		return segments;
+	}
+	
+	/**
+	 * @return the segments owned by the report, which are not shared any more. 
+	 */
+	private synchronized List<T> handOut() {
+		List<T> owned = own(); 
+		handedOut = true;
+		return owned;
+	}
+	
+	private synchronized List<T> current() {
+		if (segments == null){
+			synchronized (snapshot){
+				return snapshot.segments;
+			}
+		}
+		return segments;
+	}
+	
+	@Override
+	public T get(int index) {
+		return handOut().get(index);
+	}
+	
+	@Override
+	public int size() {
+		return current().size();
+	}
+	
+	@Override
+	public T set(int index, T element) {
+		return handOut().set(index, element);
+	}
+	
+	@Override
+	public void add(int index, T element) {
+		own().add(index, element);
+		modCount++;
+	}
+	
+	@Override
+	public T remove(int index) {
+		T removed = own().remove(index);
+		modCount++;
+		return removed;
+	}
+	
+	@Override
+	public int hashCode() {
+		return current().hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return current().toString();
+	}
+	
+}
@@ -15,6 +15,8 @@
  */
 package org.search.nibrs.model;
 
+import java.util.Objects;
+
 /**
  * Representation of an individual "Zero Report" in a NIBRS submission.  A zero report is submitted by an agency to signify that no crime occurred in that month in that agency.
  *
@@ -33,16 +35,12 @@ public class ZeroReport extends AbstractReport {
 	
 	public ZeroReport(ZeroReport z) {
 		super(z);
+		this.incidentNumber = z.incidentNumber;
 	}
 	
 	@Override
-	public boolean equals(Object o) {
-		return o != null && o.hashCode() == hashCode();
-	}
-	
-	@Override
-	public int hashCode() {
-		return 31*super.hashCode() + getClass().getName().hashCode();
+	public boolean structurallyEquals(AbstractReport r) {
+		return super.structurallyEquals(r) && Objects.equals(incidentNumber, ((ZeroReport) r).incidentNumber);
 	}
 
 	@Override
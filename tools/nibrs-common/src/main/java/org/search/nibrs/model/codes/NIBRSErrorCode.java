@@ -564,4 +564,43 @@ public enum NIBRSErrorCode {
 		this.code = code;
 	}
 	
+	/**
+	 * The error codes indexed by their number, the first digit of an error code is the level of the segment it applies to.  
+	 * Only the constants named after their number are in the table, so the numbers declared more than once, or by 
+	 * constants with a qualified name such as {@code _090_ZeroReport}, are left out as {@link #valueOf(String)} would.
+	 */
+	private static final class CodeTable {
+		private static final NIBRSErrorCode[] CODES = new NIBRSErrorCode[1000];
+		static {
+			for (NIBRSErrorCode errorCode : values()) {
+				if (errorCode.name().equals("_" + errorCode.getCode())) {
+					CODES[Integer.parseInt(errorCode.getCode())] = errorCode;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Looks up the error code of a segment level, the equivalent of {@code valueOf("_" + segmentType + suffix)} without 
+	 * building the name of the constant.
+	 * @param segmentType the level of the segment, '0' to '9'
+	 * @param suffix the two digits that follow the segment level in the error code
+	 * @throws IllegalArgumentException if there is no such error code
+	 */
+	public static NIBRSErrorCode forSegment(char segmentType, String suffix) {
+		NIBRSErrorCode errorCode = null;
+		if (suffix.length() == 2) {
+			int level = segmentType - '0';
+			int tens = suffix.charAt(0) - '0';
+			int units = suffix.charAt(1) - '0';
+			if (level >= 0 && level <= 9 && tens >= 0 && tens <= 9 && units >= 0 && units <= 9) {
+				errorCode = CodeTable.CODES[level * 100 + tens * 10 + units];
+			}
+		}
+		if (errorCode == null) {
+			throw new IllegalArgumentException("No error code " + segmentType + suffix);
+		}
+		return errorCode;
+	}
+	
 }
@@ -16,25 +16,133 @@
 package org.search.nibrs.util;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.apache.tika.Tika;
 
 /**
- * Utilities class for getting file content type
+ * Utilities class for getting file content type.  The NIBRS submissions are flat files of fixed width segments, 
+ * IEPD XML documents or ZIP archives of them, which are recognized from the first bytes of the content.  Tika is 
+ * only loaded to detect any other content.
  *
  */
 public class NibrsFileUtils {
-	static Tika defaultTika = new Tika();
 	
+	public static final String APPLICATION_ZIP = "application/zip";
+	public static final String APPLICATION_XML = "application/xml";
+	public static final String TEXT_PLAIN = "text/plain";
+	
+	static final int SNIFF_LENGTH = 512;
+	
+	private static final String XML_PROLOG = "<?xml";
+	private static final String NIBRS_SUBMISSION = "nibrs:Submission";
+	private static final String SEGMENT_LEVELS = "01234567W";
+	
+	private static class DefaultTika {
+		static final Tika INSTANCE = new Tika();
+	}
+	
+	/**
+	 * Detects the media type of the stream.  The stream is reset to its start if it supports mark, otherwise it is 
+	 * left to Tika.
+	 */
 	public static final String getMediaType(InputStream inStream) throws IOException {
-		return defaultTika.detect(inStream);
+		if (inStream.markSupported()){
+			byte[] bytes = new byte[SNIFF_LENGTH];
+			inStream.mark(SNIFF_LENGTH);
+			int length;
+			try {
+				length = read(inStream, bytes);
+			}
+			finally {
+				inStream.reset();
+			}
+			
+			String mediaType = sniffMediaType(bytes, length);
+			if (mediaType != null){
+				return mediaType;
+			}
+		}
+		return DefaultTika.INSTANCE.detect(inStream);
 	}
 	
 	public static final String getMediaType(File file) throws IOException {
-		return defaultTika.detect(file);
+		byte[] bytes = new byte[SNIFF_LENGTH];
+		int length;
+		try (InputStream inStream = new FileInputStream(file)){
+			length = read(inStream, bytes);
+		}
+		
+		String mediaType = sniffMediaType(bytes, length);
+		return mediaType != null ? mediaType : DefaultTika.INSTANCE.detect(file);
+	}
+	
+	/**
+	 * @return the media type of the NIBRS content starting with the bytes, or null if it is none of them.
+	 */
+	static String sniffMediaType(byte[] bytes, int length) {
+		if (length >= 4 && bytes[0] == 'P' && bytes[1] == 'K' 
+				&& ((bytes[2] == 3 && bytes[3] == 4) || (bytes[2] == 5 && bytes[3] == 6))){
+			return APPLICATION_ZIP;
+		}
+		
+		int start = 0; 
+		if (length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF){
+			start = 3;
+		}
+		while (start < length && Character.isWhitespace(bytes[start])){
+			start++;
+		}
+		
+		if (start < length && bytes[start] == '<'){
+			String text = new String(bytes, start, length - start, StandardCharsets.UTF_8);
+			if (text.startsWith(XML_PROLOG) || text.contains(NIBRS_SUBMISSION)){
+				return APPLICATION_XML;
+			}
+			return null;
+		}
+		
+		if (isSegmentStart(bytes, length) && isText(bytes, length)){
+			return TEXT_PLAIN;
+		}
+		return null;
+	}
+	
+	/**
+	 * A flat file segment starts with its length in four digits followed by the segment level. 
+	 */
+	private static boolean isSegmentStart(byte[] bytes, int length) {
+		if (length < 5){
+			return false;
+		}
+		for (int i = 0; i < 4; i++){
+			if (bytes[i] < '0' || bytes[i] > '9'){
+				return false;
+			}
+		}
+		return SEGMENT_LEVELS.indexOf(bytes[4]) >= 0;
+	}
+	
+	private static boolean isText(byte[] bytes, int length) {
+		for (int i = 0; i < length; i++){
+			byte b = bytes[i]; 
+			if ((b < 0x20 || b > 0x7E) && b != '\r' && b != '\n' && b != '\t'){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static int read(InputStream inStream, byte[] bytes) throws IOException {
+		int length = 0; 
+		int count; 
+		while (length < bytes.length && (count = inStream.read(bytes, length, bytes.length - length)) != -1){
+			length += count;
+		}
+		return length;
 	}
 	
 }
-
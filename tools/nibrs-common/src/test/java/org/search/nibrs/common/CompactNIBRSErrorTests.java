@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.common;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.model.codes.NIBRSErrorCode;
+
+public class CompactNIBRSErrorTests {
+	
+	@Test
+	public void testCompact() {
+		
+		GroupAIncidentReport report = new GroupAIncidentReport();
+		report.setOri("WA1234567");
+		report.setIncidentNumber("12345");
+		report.setReportActionType('I');
+		report.setYearOfTape(2016);
+		report.setMonthOfTape(5);
+		ReportSource source = new ReportSource();
+		source.setSourceName(new String("test.txt"));
+		source.setSourceLocation("12");
+		report.setSource(source);
+		
+		NIBRSError e = report.getErrorTemplate();
+		e.setNIBRSErrorCode(NIBRSErrorCode._115);
+		e.setDataElementIdentifier("2");
+		e.setValue("12 45");
+		
+		CompactNIBRSError.Compactor compactor = new CompactNIBRSError.Compactor();
+		CompactNIBRSError compactError = compactor.compact(e);
+		assertNull(compactError.getReport());
+		assertEquals(e, compactError);
+		assertEquals(e.getReportUniqueIdentifierOutput(), compactError.getReportUniqueIdentifierOutput());
+		assertEquals("201605", compactError.getDateOfTape());
+		assertEquals('I', compactError.getReportHeader().getReportActionType());
+		assertEquals("WA1234567", compactError.getReportHeader().getOri());
+		assertSame(compactError, compactor.compact(compactError));
+		
+		try {
+			compactError.setValue("ABC");
+			fail("A compact error can not be changed");
+		} catch (UnsupportedOperationException uoe) {
+			assertEquals("12 45", compactError.getValue());
+		}
+		
+		ReportSource nextSource = new ReportSource();
+		nextSource.setSourceName(new String("test.txt"));
+		nextSource.setSourceLocation("13");
+		GroupAIncidentReport nextReport = new GroupAIncidentReport();
+		nextReport.setOri(new String("WA1234567"));
+		nextReport.setIncidentNumber("12346");
+		nextReport.setReportActionType('I');
+		nextReport.setYearOfTape(Integer.valueOf(2016));
+		nextReport.setMonthOfTape(Integer.valueOf(5));
+		nextReport.setSource(nextSource);
+		CompactNIBRSError nextCompactError = compactor.compact(nextReport.getErrorTemplate());
+		assertSame(compactError.getReportHeader(), nextCompactError.getReportHeader());
+		assertSame(compactError.getContext().getSourceName(), nextCompactError.getContext().getSourceName());
+		assertEquals("13", nextCompactError.getContext().getSourceLocation());
+		
+		NIBRSError nextError = nextReport.getErrorTemplate();
+		assertSame(nextError.getReportHeader(), nextError.getReportHeader());
+		nextReport.setMonthOfTape(6);
+		assertEquals(Integer.valueOf(6), nextError.getReportHeader().getMonthOfTape());
+		
+	}
+
+}
@@ -22,6 +22,7 @@ import java.util.Set;
 
 import org.junit.Test;
 import org.search.nibrs.model.codes.ArresteeWasArmedWithCode;
+import org.search.nibrs.model.codes.NIBRSErrorCode;
 import org.search.nibrs.model.codes.OffenseCode;
 
 public class CodeEnumTests {
@@ -45,4 +46,30 @@ public class CodeEnumTests {
 		assertFalse(OffenseCode.containsGamblingOffenseCode(codes));
 	}
 
+	@Test
+	public void testErrorCodeForSegment() {
+		for (char segmentType = '0'; segmentType <= '9'; segmentType++) {
+			for (int i = 0; i < 100; i++) {
+				String suffix = String.format("%02d", i);
+				NIBRSErrorCode expected = null;
+				try {
+					expected = NIBRSErrorCode.valueOf("_" + segmentType + suffix);
+				} catch (IllegalArgumentException e) {
+					// no constant named after this number
+				}
+				try {
+					assertEquals(expected, NIBRSErrorCode.forSegment(segmentType, suffix));
+				} catch (IllegalArgumentException e) {
+					assertNull(expected);
+				}
+			}
+		}
+		try {
+			NIBRSErrorCode.forSegment('0', "90");
+			fail("The number 090 is declared more than once");
+		} catch (IllegalArgumentException e) {
+			assertEquals(NIBRSErrorCode._090_ZeroReport.getCode(), "0" + "90");
+		}
+	}
+
 }
@@ -24,6 +24,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Test;
 import org.search.nibrs.common.NIBRSError;
+import org.search.nibrs.common.ReportSource;
 
 import io.github.benas.randombeans.EnhancedRandomBuilder;
 import io.github.benas.randombeans.FieldDefinitionBuilder;
@@ -64,6 +65,13 @@ public class EqualsTests {
 			}
 		});
 		
+		builder.randomize(FieldDefinitionBuilder.field().named("identityKey").ofType(AbstractReport.IdentityKey.class).get(), new Randomizer<AbstractReport.IdentityKey>() {
+			@Override
+			public AbstractReport.IdentityKey getRandomValue() {
+				return null;
+			}
+		});
+		
 		builder.randomize(FieldDefinitionBuilder.field().ofType(new String[0].getClass()).get(), new Randomizer<String[]>() {
 
 			@Override
@@ -94,16 +102,58 @@ public class EqualsTests {
 		for (int i = 0; i < 1000; i++) {
 
 			GroupAIncidentReport report = enhancedRandom.nextObject(GroupAIncidentReport.class);
-			assertTrue(report.equals(new GroupAIncidentReport(report)));
+			GroupAIncidentReport reportCopy = new GroupAIncidentReport(report);
+			assertTrue(report.equals(reportCopy));
+			assertTrue(report.structurallyEquals(reportCopy));
 
 			ZeroReport zeroReport = enhancedRandom.nextObject(ZeroReport.class);
-			assertTrue(zeroReport.equals(new ZeroReport(zeroReport)));
+			ZeroReport zeroReportCopy = new ZeroReport(zeroReport);
+			assertTrue(zeroReport.equals(zeroReportCopy));
+			assertTrue(zeroReport.structurallyEquals(zeroReportCopy));
 
 			GroupBArrestReport groupBReport = enhancedRandom.nextObject(GroupBArrestReport.class);
-			assertTrue(groupBReport.equals(new GroupBArrestReport(groupBReport)));
+			GroupBArrestReport groupBReportCopy = new GroupBArrestReport(groupBReport);
+			assertTrue(groupBReport.equals(groupBReportCopy));
+			assertTrue(groupBReport.structurallyEquals(groupBReportCopy));
 
 		}
 		
 	}
+	
+	@Test
+	public void testReportIdentity() {
+		
+		GroupAIncidentReport report = new GroupAIncidentReport();
+		report.setOri("WA1234567");
+		report.setIncidentNumber("12345");
+		report.setReportActionType('I');
+		report.setSource(new ReportSource());
+		
+		GroupAIncidentReport copy = new GroupAIncidentReport(report);
+		copy.setCargoTheftIndicator("Y");
+		assertEquals(report, copy);
+		assertEquals(report.hashCode(), copy.hashCode());
+		assertFalse(report.structurallyEquals(copy));
+		
+		int hashCode = copy.hashCode();
+		copy.setIncidentNumber("54321");
+		assertFalse(report.equals(copy));
+		assertTrue(hashCode != copy.hashCode());
+		
+		ZeroReport zeroReport = new ZeroReport();
+		zeroReport.setOri("WA1234567");
+		zeroReport.setIncidentNumber("12345");
+		zeroReport.setReportActionType('I');
+		assertFalse(report.equals(zeroReport));
+		
+		GroupBArrestReport groupBReport = new GroupBArrestReport();
+		ArresteeSegment arrestee = new ArresteeSegment(ArresteeSegment.GROUP_B_ARRESTEE_SEGMENT_TYPE_IDENTIFIER);
+		groupBReport.addArrestee(arrestee);
+		AbstractReport.IdentityKey identityKey = groupBReport.getIdentityKey();
+		arrestee.setArrestTransactionNumber("ATN1");
+		assertFalse(identityKey.equals(groupBReport.getIdentityKey()));
+		assertSame(groupBReport.getIdentityKey(), groupBReport.getIdentityKey());
+		
+	}
 
 }
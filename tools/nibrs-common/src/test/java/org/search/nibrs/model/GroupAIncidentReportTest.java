@@ -22,6 +22,7 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.search.nibrs.common.ParsedObject;
+import org.search.nibrs.common.ReportSource;
 
 public class GroupAIncidentReportTest {
 	
@@ -77,4 +78,71 @@ public class GroupAIncidentReportTest {
 		assertTrue(incident.getOffendersOfVictim(vs4).isEmpty());
 	}
 
+	@Test
+	public void testCopy() {
+		incident.setSource(new ReportSource());
+		GroupAIncidentReport copy = new GroupAIncidentReport(incident);
+		copy.removeOffenders();
+		assertEquals(0, copy.getOffenderCount());
+		assertEquals(3, incident.getOffenderCount());
+		assertEquals(os1, incident.getOffenders().get(0));
+		
+		copy = new GroupAIncidentReport(incident);
+		assertEquals(incident, copy);
+		VictimSegment victimCopy = copy.getVictims().get(3);
+		assertSame(copy, victimCopy.getParentReport());
+		victimCopy.setOffenderNumberRelated(0, new ParsedObject<>(3));
+		assertEquals(1, copy.getVictimsOfOffender(copy.getOffenders().get(2)).size());
+		assertTrue(incident.getVictimsOfOffender(incident.getOffenders().get(2)).isEmpty());
+		assertTrue(incident.getVictims().stream().allMatch(victim -> victim.getParentReport() == incident));
+		
+		GroupAIncidentReport secondCopy = new GroupAIncidentReport(copy);
+		copy.getVictims().get(0).setOffenderNumberRelated(2, new ParsedObject<>(3));
+		assertEquals(2, copy.getVictimsOfOffender(copy.getOffenders().get(2)).size());
+		assertEquals(1, secondCopy.getVictimsOfOffender(secondCopy.getOffenders().get(2)).size());
+		assertTrue(secondCopy.getVictims().stream().allMatch(victim -> victim.getParentReport() == secondCopy));
+	}
+	
+	@Test
+	public void testCopyOfCopy() {
+		incident.setSource(new ReportSource());
+		GroupAIncidentReport copy = new GroupAIncidentReport(incident);
+		GroupAIncidentReport copyOfCopy = new GroupAIncidentReport(copy);
+		copyOfCopy.getVictims().get(3).setOffenderNumberRelated(0, new ParsedObject<>(3));
+		assertEquals(1, copyOfCopy.getVictimsOfOffender(copyOfCopy.getOffenders().get(2)).size());
+		assertTrue(copy.getVictimsOfOffender(copy.getOffenders().get(2)).isEmpty());
+		assertTrue(copy.getVictims().stream().allMatch(victim -> victim.getParentReport() == copy));
+		
+		incident.getVictims().get(1).setOffenderNumberRelated(1, new ParsedObject<>(3));
+		assertEquals(1, incident.getVictimsOfOffender(os3).size());
+		assertTrue(copy.getVictimsOfOffender(copy.getOffenders().get(2)).isEmpty());
+		assertSame(os1, incident.getOffenders().get(0));
+		assertSame(vs1, incident.getVictims().get(0));
+		assertTrue(incident.getVictims().stream().allMatch(victim -> victim.getParentReport() == incident));
+	}
+	
+	@Test
+	public void testCopyOfBuiltReportSharesUntouchedSegments() {
+		incident.setSource(new ReportSource());
+		GroupAIncidentReport copy = new GroupAIncidentReport(incident);
+		copy.removeVictim(0);
+		assertEquals(3, copy.getVictimCount());
+		assertSame(vs1, incident.getVictims().get(0));
+		
+		// the offenders added to the incident are not copied with it: the copy shares them until it reads them 
+		os1.setOffenderSequenceNumber(new ParsedObject<>(4));
+		OffenderSegment offenderCopy = copy.getOffenders().get(0);
+		assertNotSame(os1, offenderCopy);
+		assertEquals(Integer.valueOf(4), offenderCopy.getOffenderSequenceNumber().getValue());
+		assertSame(copy, offenderCopy.getParentReport());
+		assertSame(os1, incident.getOffenders().get(0));
+		assertSame(incident, os1.getParentReport());
+		
+		// the offenders of the incident have been handed out, so the next copy copies them up front 
+		GroupAIncidentReport secondCopy = new GroupAIncidentReport(incident);
+		os1.setOffenderSequenceNumber(new ParsedObject<>(5));
+		assertEquals(Integer.valueOf(4), secondCopy.getOffenders().get(0).getOffenderSequenceNumber().getValue());
+		assertEquals(Integer.valueOf(4), copy.getOffenders().get(0).getOffenderSequenceNumber().getValue());
+	}
+
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.util;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+public class NibrsFileUtilsTests {
+	
+	private static final String FLAT_FILE = 
+			"00870I022003    TN006000002-000895   20020102 10N                                      \r\n"
+			+ "01062I022003    TN006000002-000895   001220  CN  20  N             88\r\n";
+	
+	@Test
+	public void testFlatFile() throws IOException {
+		assertEquals(NibrsFileUtils.TEXT_PLAIN, getMediaType(FLAT_FILE.getBytes(StandardCharsets.US_ASCII)));
+	}
+	
+	@Test
+	public void testXmlFile() throws IOException {
+		assertEquals(NibrsFileUtils.APPLICATION_XML, 
+				getMediaType("\uFEFF  <?xml version=\"1.0\" encoding=\"UTF-8\"?><nibrs:Submission/>".getBytes(StandardCharsets.UTF_8)));
+		assertEquals(NibrsFileUtils.APPLICATION_XML, 
+				getMediaType("<nibrs:Submission xmlns:nibrs=\"http://fbi.gov/cjis/nibrs/4.2\"/>".getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	@Test
+	public void testZipFile() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(); 
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(bytes)){
+			zipOutputStream.putNextEntry(new ZipEntry("incidents.txt"));
+			zipOutputStream.write(FLAT_FILE.getBytes(StandardCharsets.US_ASCII));
+		}
+		assertEquals(NibrsFileUtils.APPLICATION_ZIP, getMediaType(bytes.toByteArray()));
+	}
+	
+	@Test
+	public void testOtherContent() throws IOException {
+		byte[] bytes = "Not a NIBRS submission".getBytes(StandardCharsets.US_ASCII); 
+		assertNull(NibrsFileUtils.sniffMediaType(bytes, bytes.length));
+		assertEquals("text/plain", getMediaType(bytes));
+		
+		bytes = "0087X".getBytes(StandardCharsets.US_ASCII);
+		assertNull(NibrsFileUtils.sniffMediaType(bytes, bytes.length));
+		
+		bytes = "00870I\u0000\u0001".getBytes(StandardCharsets.US_ASCII);
+		assertNull(NibrsFileUtils.sniffMediaType(bytes, bytes.length));
+	}
+	
+	@Test
+	public void testStreamIsReset() throws IOException {
+		byte[] bytes = FLAT_FILE.getBytes(StandardCharsets.US_ASCII); 
+		InputStream inputStream = new BufferedInputStream(new ByteArrayInputStream(bytes)); 
+		NibrsFileUtils.getMediaType(inputStream);
+		
+		byte[] read = new byte[bytes.length];
+		assertEquals(bytes.length, inputStream.read(read));
+		assertArrayEquals(bytes, read);
+	}
+	
+	private String getMediaType(byte[] bytes) throws IOException {
+		return NibrsFileUtils.getMediaType(new BufferedInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+}
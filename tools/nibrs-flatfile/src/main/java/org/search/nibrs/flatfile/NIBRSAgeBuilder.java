@@ -29,7 +29,19 @@ public final class NIBRSAgeBuilder {
 	
 	public static final NIBRSAge buildAgeFromRawString(String ageString, AbstractSegment segmentContext) {
 		
-		if (ageString == null || ageString.trim().length() == 0) {
+		if (ageString == null) {
+			return null;
+		}
+		
+		int start = 0;
+		int end = ageString.length();
+		while (start < end && ageString.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && ageString.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (start == end) {
 			return null;
 		}
 		
@@ -40,63 +52,62 @@ public final class NIBRSAgeBuilder {
 		Integer ageMax = null;
 		NIBRSError error = null;
 		
-		if (ageString != null) {
-			String ageStringTrim = ageString.trim();
-			if (ageStringTrim.length() == 4) {
-				try {
-					ageMin = Integer.parseInt(ageStringTrim.substring(0, 2));
-				} catch (NumberFormatException nfe) {
+		int length = end - start;
+		if (length == 4) {
+			ageMin = parseTwoDigits(ageString, start);
+			if (ageMin == null) {
+				error = buildNonNumericAgeError(segmentTypeCode, ageString);
+			}
+			ageMax = parseTwoDigits(ageString, start + 2);
+			if (ageMax == null) {
+				error = new NIBRSError();
+				error.setValue(ageString);
+				error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentTypeCode, "09"));
+			}
+			if (ageMin != null && ageMin == 0) {
+				error = new NIBRSError();
+				error.setValue(ageString);
+				error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentTypeCode, "22"));
+			}
+		} else if (length == 2) {
+			char first = ageString.charAt(start);
+			char second = ageString.charAt(start + 1);
+			if (first == 'N' && second == 'N' || first == 'N' && second == 'B' || first == 'B' && second == 'B') {
+				nonNumericAge = first == 'B' ? "BB" : second == 'N' ? "NN" : "NB";
+				ageMin = 0;
+				ageMax = 0;
+				
+				if (segmentTypeCode != '4'){
 					error = buildNonNumericAgeError(segmentTypeCode, ageString);
 				}
-				try {
-					ageMax = Integer.parseInt(ageStringTrim.substring(2, 4));
-				} catch (NumberFormatException nfe) {
-					error = new NIBRSError();
-					error.setValue(ageString);
-					error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentTypeCode + "09"));
-				}
-				if (ageMin == 0) {
-					error = new NIBRSError();
-					error.setValue(ageString);
-					error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentTypeCode + "22"));
-				}
-			} else if (ageStringTrim.length() == 2) {
-				if ("NN".equals(ageStringTrim) || "NB".equals(ageStringTrim) || "BB".equals(ageStringTrim)) {
-					nonNumericAge = ageStringTrim;
-					ageMin = 0;
-					ageMax = 0;
-					
-					if (segmentTypeCode != '4'){
-						error = buildNonNumericAgeError(segmentTypeCode, ageString);
-					}
-				} else if ("00".equals(ageStringTrim)) {
-					nonNumericAge = ageStringTrim;
-				} else {
-					try {
-						ageMin = Integer.parseInt(ageStringTrim.substring(0, 2));
-						ageMax = ageMin;
-					} catch (NumberFormatException nfe) {
-						nonNumericAge = ageStringTrim; 
-						error = buildNonNumericAgeError(segmentTypeCode, ageString);
-					}
-				}
+			} else if (first == '0' && second == '0') {
+				nonNumericAge = "00";
 			} else {
-				nonNumericAge = ageStringTrim; 
-				if (ageStringTrim.length() == 3){
-					error = new NIBRSError();
-					error.setValue(ageString);
-					error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentTypeCode + "09"));
-				}
-				else{
+				ageMin = parseTwoDigits(ageString, start);
+				ageMax = ageMin;
+				if (ageMin == null) {
+					nonNumericAge = ageString.substring(start, end); 
 					error = buildNonNumericAgeError(segmentTypeCode, ageString);
 				}
 			}
+		} else {
+			nonNumericAge = ageString.substring(start, end); 
+			if (length == 3){
+				error = new NIBRSError();
+				error.setValue(ageString);
+				error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentTypeCode, "09"));
+			}
+			else{
+				error = buildNonNumericAgeError(segmentTypeCode, ageString);
+			}
 		}
 		
-		if (error != null) {
-			error.setReport(segmentContext.getParentReport());
+		if (error == null) {
+			return NIBRSAge.getSharedAge(ageMin, ageMax, nonNumericAge);
 		}
 		
+		error.setReport(segmentContext.getParentReport());
+		
 		NIBRSAge ret = new NIBRSAge();
 		ret.setAgeMin(ageMin);
 		ret.setAgeMax(ageMax);
@@ -113,19 +124,39 @@ public final class NIBRSAgeBuilder {
 	
 		switch (segmentContext) {
 		case '4':
-			error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentContext + "04"));
+			error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentContext, "04"));
 			break;
 		case '5':
-			error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentContext + "56"));
+			error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentContext, "56"));
 			break;
 		case '6':
-			error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentContext + "64"));
+			error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentContext, "64"));
 			break;
 		case '7':
-			error.setNIBRSErrorCode(NIBRSErrorCode.valueOf("_" + segmentContext + "57"));
+			error.setNIBRSErrorCode(NIBRSErrorCode.forSegment(segmentContext, "57"));
 			break;
 		}
 		return error;
 	}
 
+	/**
+	 * Parses two characters of the age string as {@link Integer#parseInt(String)} would, without the substring.
+	 * @return the value, or null if the characters are not a number
+	 */
+	private static final Integer parseTwoDigits(String ageString, int offset) {
+		char first = ageString.charAt(offset);
+		int second = Character.digit(ageString.charAt(offset + 1), 10);
+		if (second < 0) {
+			return null;
+		}
+		if (first == '-') {
+			return -second;
+		}
+		if (first == '+') {
+			return second;
+		}
+		int tens = Character.digit(first, 10);
+		return tens < 0 ? null : tens * 10 + second;
+	}
+
 }
@@ -26,7 +26,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.search.nibrs.common.NIBRSError;
-import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.common.ReportHeader;
 import org.search.nibrs.model.ArresteeSegment;
 import org.search.nibrs.model.OffenderSegment;
 import org.search.nibrs.model.OffenseSegment;
@@ -65,24 +65,33 @@ public final class ErrorExporter {
 	 * @param writer
 	 * @throws IOException 
 	 */
-	@SuppressWarnings("unchecked")
 	public void createErrorReport(List<NIBRSError> errorList, Writer writer) throws IOException {
-		BufferedWriter bw = null;
-		if (!(writer instanceof BufferedWriter)) {
-			bw = new BufferedWriter(writer);
-		} else {
-			bw = (BufferedWriter) writer;
-		}
+		BufferedWriter bw = getBufferedWriter(writer);
+		writeErrors(errorList, bw);
+		writeTrailer(bw);
+		bw.close();
+	}
+	
+	/**
+	 * Export the specified list of errors in FBI format to the specified writer, without the trailer line.  Used to 
+	 * write the error report incrementally. 
+	 * @param errorList
+	 * @param writer
+	 * @throws IOException 
+	 */
+	@SuppressWarnings("unchecked")
+	public void writeErrors(List<NIBRSError> errorList, Writer writer) throws IOException {
+		BufferedWriter bw = getBufferedWriter(writer);
 		String line = null;
 		for (NIBRSError error : errorList) {
-			AbstractReport report = error.getReport();
+			ReportHeader report = error.getReportHeader();
 			line = blankLineTemplate;
 			if (report == null) continue;
 			line = modifyLine(line, 1-1, 4, String.valueOf(report.getYearOfTape()));
 			line = modifyLine(line, 5-1, 6, StringUtils.leftPad(String.valueOf(report.getMonthOfTape()), 2, '0'));
 			line = modifyLine(line, 7-1, 13, StringUtils.leftPad(String.valueOf(error.getContext().getSourceLocation()), 7, '0'));
-			line = modifyLine(line, 14-1, 14, String.valueOf(error.getReport().getReportActionType()));
-			line = modifyLine(line, 15-1, 23, error.getReport().getOri());
+			line = modifyLine(line, 14-1, 14, String.valueOf(report.getReportActionType()));
+			line = modifyLine(line, 15-1, 23, report.getOri());
 			line = modifyLine(line, 24-1, 35, StringUtils.rightPad(error.getReportUniqueIdentifier(), 12));
 			char segmentType = error.getSegmentType();
 			if (!error.isCrossSegment()) {
@@ -134,13 +143,29 @@ public final class ErrorExporter {
 				bw.newLine();
 			}
 		}
-		line = blankLineTemplate;
+		bw.flush();
+	}
+	
+	/**
+	 * Write the trailer line that ends the error report to the specified writer
+	 * @param writer
+	 * @throws IOException 
+	 */
+	public void writeTrailer(Writer writer) throws IOException {
+		BufferedWriter bw = getBufferedWriter(writer);
+		String line = blankLineTemplate;
 		line = modifyLine(line, 15-1, 23, "999999999");
 		line = modifyLine(line, 62-1, 140, "IncidentBuilder processed submission on " + new SimpleDateFormat("MM/dd/yy").format(new Date()));
 		bw.write(line);
 		bw.newLine();
 		bw.flush();
-		bw.close();
+	}
+	
+	private BufferedWriter getBufferedWriter(Writer writer) {
+		if (!(writer instanceof BufferedWriter)) {
+			return new BufferedWriter(writer);
+		} 
+		return (BufferedWriter) writer;
 	}
 
 	String modifyLine(String line, int beginPosition, int endPosition, String string) {
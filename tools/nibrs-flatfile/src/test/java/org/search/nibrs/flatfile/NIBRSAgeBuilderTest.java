@@ -207,5 +207,28 @@ public class NIBRSAgeBuilderTest {
 		assertEquals(new Integer(0), age.getAgeMin());
 		assertTrue(age.isNewborn());
 	}
+	
+	@Test
+	public void testSharedAges() {
+		NIBRSAge age1 = NIBRSAgeBuilder.buildAgeFromRawString("2025", TEST_SEGMENT);
+		assertSame(age1, NIBRSAgeBuilder.buildAgeFromRawString(" 2025 ", TEST_SEGMENT));
+		assertSame(NIBRSAgeBuilder.buildAgeFromRawString("BB  ", TEST_SEGMENT), NIBRSAgeBuilder.buildAgeFromRawString("BB", TEST_SEGMENT));
+		assertSame(NIBRSAgeBuilder.buildAgeFromRawString("00  ", TEST_SEGMENT), NIBRSAgeBuilder.buildAgeFromRawString("00", TEST_SEGMENT));
+		assertTrue(NIBRSAgeBuilder.buildAgeFromRawString("00  ", TEST_SEGMENT).isUnknown());
+		try {
+			age1.setAgeMax(30);
+			fail("A shared age can not be changed");
+		} catch (UnsupportedOperationException e) {
+			assertEquals(new Integer(25), age1.getAgeMax());
+		}
+		NIBRSAge copy = new NIBRSAge(age1);
+		copy.setAgeMax(30);
+		assertEquals(new Integer(30), copy.getAgeMax());
+		
+		NIBRSAge invalidAge = NIBRSAgeBuilder.buildAgeFromRawString("AB12", TEST_SEGMENT);
+		assertNotSame(invalidAge, NIBRSAgeBuilder.buildAgeFromRawString("AB12", TEST_SEGMENT));
+		assertEquals(NIBRSErrorCode._404, invalidAge.getError().getNIBRSErrorCode());
+		assertEquals(NIBRSErrorCode._409, NIBRSAgeBuilder.buildAgeFromRawString("123", TEST_SEGMENT).getError().getNIBRSErrorCode());
+	}
 
 }
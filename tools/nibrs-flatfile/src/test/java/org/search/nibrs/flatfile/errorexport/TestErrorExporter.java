@@ -32,6 +32,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.junit.Before;
 import org.junit.Test;
+import org.search.nibrs.common.CompactNIBRSError;
 import org.search.nibrs.common.NIBRSError;
 import org.search.nibrs.common.ParsedObject;
 import org.search.nibrs.common.ReportSource;
@@ -350,6 +351,21 @@ public class TestErrorExporter {
 		
 	}
 	
+	@Test
+	public void testCompactErrorReport() throws IOException {
+		String contents = exportErrorListToString();
+		CompactNIBRSError.Compactor compactor = new CompactNIBRSError.Compactor();
+		List<NIBRSError> compactErrorList = new ArrayList<>();
+		for (NIBRSError e : errorList) {
+			compactErrorList.add(compactor.compact(e));
+		}
+		errorList = compactErrorList;
+		assertEquals(contents, exportErrorListToString());
+		assertNull(errorList.get(0).getReport());
+		assertSame(errorList.get(0).getReportHeader(), errorList.get(1).getReportHeader());
+		assertSame(errorList.get(0).getContext().getSourceName(), errorList.get(1).getContext().getSourceName());
+	}
+	
 	private String exportErrorListToString() throws IOException {
 		StringWriter writer = new StringWriter();
 		errorExporter.createErrorReport(errorList, writer);
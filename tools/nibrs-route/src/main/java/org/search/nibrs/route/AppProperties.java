@@ -25,6 +25,18 @@ public class AppProperties {
     private String multicastEndpoints = "direct:createErrorReport,direct:persistReport";
     private String nibrsFileFolderPath = "/tmp/nibrs";
 	private String stagingDataRestServiceBaseUrl = "http://localhost:8080/";
+	private Integer persistBatchSize = 100;
+	private Long persistBatchWindowMillis = 2000L;
+	private String persistQueueFolderPath = "/tmp/nibrs/queue";
+	private Long persistQueueCapacity = 100000L;
+	private Long persistQueueSegmentBytes = 64L * 1024 * 1024;
+	private Long persistRetryInitialMillis = 1000L;
+	private Long persistRetryMaxMillis = 60000L;
+	private Integer persistRetryMaxAttempts = 5;
+	private Integer validationBufferSize = 100;
+	private String persistWireFormat = "smile";
+	private Boolean persistCompressionEnabled = false;
+	private Integer persistMaxConnections = 20;
 
 	public String getMulticastEndpoints() {
 		return multicastEndpoints;
@@ -50,10 +62,113 @@ public class AppProperties {
 		this.stagingDataRestServiceBaseUrl = stagingDataRestServiceBaseUrl;
 	}
 
+	public Integer getPersistBatchSize() {
+		return persistBatchSize;
+	}
+
+	public void setPersistBatchSize(Integer persistBatchSize) {
+		this.persistBatchSize = persistBatchSize;
+	}
+
+	public Long getPersistBatchWindowMillis() {
+		return persistBatchWindowMillis;
+	}
+
+	public void setPersistBatchWindowMillis(Long persistBatchWindowMillis) {
+		this.persistBatchWindowMillis = persistBatchWindowMillis;
+	}
+
+	public String getPersistQueueFolderPath() {
+		return persistQueueFolderPath;
+	}
+
+	public void setPersistQueueFolderPath(String persistQueueFolderPath) {
+		this.persistQueueFolderPath = persistQueueFolderPath;
+	}
+
+	public Long getPersistQueueCapacity() {
+		return persistQueueCapacity;
+	}
+
+	public void setPersistQueueCapacity(Long persistQueueCapacity) {
+		this.persistQueueCapacity = persistQueueCapacity;
+	}
+
+	public Long getPersistQueueSegmentBytes() {
+		return persistQueueSegmentBytes;
+	}
+
+	public void setPersistQueueSegmentBytes(Long persistQueueSegmentBytes) {
+		this.persistQueueSegmentBytes = persistQueueSegmentBytes;
+	}
+
+	public Long getPersistRetryInitialMillis() {
+		return persistRetryInitialMillis;
+	}
+
+	public void setPersistRetryInitialMillis(Long persistRetryInitialMillis) {
+		this.persistRetryInitialMillis = persistRetryInitialMillis;
+	}
+
+	public Long getPersistRetryMaxMillis() {
+		return persistRetryMaxMillis;
+	}
+
+	public void setPersistRetryMaxMillis(Long persistRetryMaxMillis) {
+		this.persistRetryMaxMillis = persistRetryMaxMillis;
+	}
+
+	public Integer getPersistRetryMaxAttempts() {
+		return persistRetryMaxAttempts;
+	}
+
+	public void setPersistRetryMaxAttempts(Integer persistRetryMaxAttempts) {
+		this.persistRetryMaxAttempts = persistRetryMaxAttempts;
+	}
+
+	public Integer getValidationBufferSize() {
+		return validationBufferSize;
+	}
+
+	public void setValidationBufferSize(Integer validationBufferSize) {
+		this.validationBufferSize = validationBufferSize;
+	}
+
+	public String getPersistWireFormat() {
+		return persistWireFormat;
+	}
+
+	public void setPersistWireFormat(String persistWireFormat) {
+		this.persistWireFormat = persistWireFormat;
+	}
+
+	public Boolean getPersistCompressionEnabled() {
+		return persistCompressionEnabled;
+	}
+
+	public void setPersistCompressionEnabled(Boolean persistCompressionEnabled) {
+		this.persistCompressionEnabled = persistCompressionEnabled;
+	}
+
+	public Integer getPersistMaxConnections() {
+		return persistMaxConnections;
+	}
+
+	public void setPersistMaxConnections(Integer persistMaxConnections) {
+		this.persistMaxConnections = persistMaxConnections;
+	}
+
 	@Override
 	public String toString() {
 		return "ValidatorProperties [multicastEndpoints=" + multicastEndpoints + ", nibrsFileFolderPath="
-				+ nibrsFileFolderPath + ", stagingDataRestServiceBaseUrl=" + stagingDataRestServiceBaseUrl + "]";
+				+ nibrsFileFolderPath + ", stagingDataRestServiceBaseUrl=" + stagingDataRestServiceBaseUrl 
+				+ ", persistBatchSize=" + persistBatchSize + ", persistBatchWindowMillis=" + persistBatchWindowMillis 
+				+ ", persistQueueFolderPath=" + persistQueueFolderPath + ", persistQueueCapacity=" + persistQueueCapacity 
+				+ ", persistQueueSegmentBytes=" + persistQueueSegmentBytes + ", persistRetryInitialMillis=" + persistRetryInitialMillis 
+				+ ", persistRetryMaxMillis=" + persistRetryMaxMillis + ", persistRetryMaxAttempts=" + persistRetryMaxAttempts 
+				+ ", validationBufferSize=" + validationBufferSize 
+				+ ", persistWireFormat=" + persistWireFormat + ", persistCompressionEnabled=" + persistCompressionEnabled 
+				+ ", persistMaxConnections=" + persistMaxConnections + "]";
 	}
 
 }
\ No newline at end of file
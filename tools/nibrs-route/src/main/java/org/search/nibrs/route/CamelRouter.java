@@ -14,13 +14,18 @@
  * limitations under the License.
  */
 package org.search.nibrs.route;
+import java.util.Arrays;
+
 import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.model.ProcessorDefinition;
+import org.search.nibrs.route.service.SubmissionFileProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
  * Camel routes picks up the flatfile from the input folder, drop the error report file into the 
- * result folder and persist the good incident reports by calling the rest service
+ * result folder and queue the good incident reports to be persisted by calling the rest service.  The 
+ * validation results are split by report and streamed to the endpoints as each report is validated.
  * <p/>
  * Use <tt>@Component</tt> to make Camel auto detect this route when starting.
  */
@@ -32,18 +37,32 @@ public class CamelRouter extends RouteBuilder {
 	
     @Override
     public void configure() throws Exception {
-        fromF("file:%s/input?idempotent=true&moveFailed=%s/error&move=processed/", 
+    	String[] multicastEndpoints = appProperties.getMulticastEndpoints().split(",");
+    	
+        boolean createErrorReport = Arrays.asList(multicastEndpoints).contains("direct:createErrorReport");
+        
+        ProcessorDefinition<?> validateRoute = fromF("file:%s/input?idempotent=true&moveFailed=%s/error&move=processed/", 
         		appProperties.getNibrsFileFolderPath(), appProperties.getNibrsFileFolderPath()).routeId("validate")
-        		.transform().method("submissionFileProcessor", "validate")
-        		.multicast().to(appProperties.getMulticastEndpoints().split(","))
-                .end();
+        		.setHeader(SubmissionFileProcessor.ERROR_REPORT_FILE_HEADER).method("submissionFileProcessor", "getErrorReportFileName");
+        
+        if (createErrorReport){
+        	validateRoute.setProperty(SubmissionFileProcessor.ERROR_REPORT_WRITER_PROPERTY).method("submissionFileProcessor", "openErrorReport");
+        }
+        
+        validateRoute.split().method("submissionFileProcessor", "validate").streaming().stopOnException()
+        		.multicast().to(multicastEndpoints).end()
+        	.end();
+        
+        if (createErrorReport){
+        	validateRoute.transform().method("submissionFileProcessor", "completeErrorReport"); 
+        }
         
         from("direct:createErrorReport").routeId("createErrorReport")
         	.transform().method("submissionFileProcessor", "createErrorReport")
         	.end();
         
         from("direct:persistReport").routeId("persistReport")
-        	.transform().method("stagingDataRestClient", "persistIncidentReports")
+        	.transform().method("reportQueue", "appendReports")
         	.end(); 
     }
 
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.camel.Body;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.model.GroupBArrestReport;
+import org.search.nibrs.route.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Append-only, file segment based queue of the reports waiting to be persisted by the staging data
+ * rest service.  Each record is written as the record length, the report type and the JSON of the report.
+ * The read position is kept in a checkpoint file, so the reports not yet acknowledged are read again after a
+ * restart.  Replaying a report is safe because the staging data service replaces a report by its identifier.
+ * <p/>
+ * The queue has a single consumer.  Appending blocks while the number of pending reports is at the
+ * capacity of the queue.  The records that can not be read back as a report, and the reports the consumer gives up 
+ * on, are appended to a dead letter file in the same record format when they are acknowledged.
+ */
+@Component
+public class ReportQueue {
+	private static final Log log = LogFactory.getLog(ReportQueue.class);
+
+	private static final String SEGMENT_FILE_PREFIX = "segment-";
+	private static final String SEGMENT_FILE_SUFFIX = ".dat";
+	private static final String CHECKPOINT_FILE_NAME = "checkpoint";
+	private static final String DEAD_LETTER_FILE_NAME = "dead-letter.dat";
+	private static final int RECORD_HEADER_LENGTH = 5;
+	private static final byte GROUP_A_INCIDENT_REPORT = 'A';
+	private static final byte GROUP_B_ARREST_REPORT = 'B';
+
+	@Autowired
+	AppProperties appProperties;
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().failOnUnknownProperties(false).build();
+	private final Object lock = new Object();
+
+	private File queueDirectory;
+	private DataOutputStream writer;
+	private long writeSegment;
+	private long writeOffset;
+	private long readSegment;
+	private long readOffset;
+	private long peekSegment;
+	private long peekOffset;
+	private int peekCount;
+	private final List<byte[]> peekDeadLetters = new ArrayList<>();
+	private long pendingCount;
+
+	@PostConstruct
+	public void open() throws IOException {
+		synchronized (lock) {
+			queueDirectory = new File(appProperties.getPersistQueueFolderPath());
+			queueDirectory.mkdirs();
+
+			long lastSegment = -1;
+			long firstSegment = -1;
+			for (File file : listSegmentFiles()) {
+				long segment = getSegmentNumber(file);
+				lastSegment = Math.max(lastSegment, segment);
+				firstSegment = firstSegment < 0 ? segment : Math.min(firstSegment, segment);
+			}
+
+			File checkpointFile = new File(queueDirectory, CHECKPOINT_FILE_NAME);
+			if (checkpointFile.exists()) {
+				String[] checkpoint = new String(Files.readAllBytes(checkpointFile.toPath()), StandardCharsets.UTF_8).trim().split(" ");
+				readSegment = Long.parseLong(checkpoint[0]);
+				readOffset = Long.parseLong(checkpoint[1]);
+			}
+			else {
+				readSegment = Math.max(firstSegment, 0);
+				readOffset = 0;
+			}
+
+			writeSegment = Math.max(lastSegment, readSegment) + 1;
+			openWriter();
+			pendingCount = countPendingRecords();
+			log.info("Opened the report queue in " + queueDirectory + " with " + pendingCount + " pending reports.");
+		}
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		synchronized (lock) {
+			if (writer != null) {
+				writer.close();
+				writer = null;
+			}
+		}
+	}
+
+	public void appendReports(@Body ValidationResults validationResults) throws IOException, InterruptedException {
+		for (AbstractReport abstractReport : validationResults.getReportsWithoutErrors()) {
+			append(abstractReport);
+		}
+	}
+
+	/**
+	 * Append the report to the queue, waiting while the queue is full.
+	 */
+	public void append(AbstractReport abstractReport) throws IOException, InterruptedException {
+		byte type = getReportType(abstractReport);
+		if (type == 0) {
+			log.warn("The report type " +  abstractReport.getClass().getName() + " is not supported");
+			return;
+		}
+
+		byte[] record = objectMapper.writeValueAsBytes(abstractReport);
+
+		synchronized (lock) {
+			while (pendingCount >= appProperties.getPersistQueueCapacity()) {
+				lock.wait();
+			}
+
+			if (writeOffset >= appProperties.getPersistQueueSegmentBytes()) {
+				writer.close();
+				writeSegment++;
+				openWriter();
+			}
+
+			writer.writeInt(record.length);
+			writer.writeByte(type);
+			writer.write(record);
+			writer.flush();
+			writeOffset += RECORD_HEADER_LENGTH + record.length;
+			pendingCount++;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Read up to maxCount reports from the head of the queue, waiting up to waitMillis for the queue to hold
+	 * maxCount reports.  The same reports are read again until they are acknowledged.  A record that can not be 
+	 * read as a report is left out of the reports and goes to the dead letter file when the read is acknowledged.
+	 */
+	public List<AbstractReport> read(int maxCount, long waitMillis) throws IOException, InterruptedException {
+		synchronized (lock) {
+			long deadline = System.currentTimeMillis() + waitMillis;
+			long remaining = waitMillis;
+			while (pendingCount < maxCount && remaining > 0) {
+				lock.wait(remaining);
+				remaining = deadline - System.currentTimeMillis();
+			}
+
+			List<AbstractReport> abstractReports = new ArrayList<>();
+			peekDeadLetters.clear();
+			int recordCount = 0;
+			long segment = readSegment;
+			long offset = readOffset;
+
+			while (abstractReports.size() < maxCount) {
+				File segmentFile = getSegmentFile(segment);
+				if (segmentFile.exists()) {
+					try (RandomAccessFile file = new RandomAccessFile(segmentFile, "r")) {
+						long length = file.length();
+						file.seek(offset);
+						while (recordCount < maxCount && offset + RECORD_HEADER_LENGTH <= length) {
+							int recordLength = file.readInt();
+							byte type = file.readByte();
+							if (offset + RECORD_HEADER_LENGTH + recordLength > length) {
+								log.warn("Skipping the incomplete record at the end of " + segmentFile);
+								offset = length;
+								break;
+							}
+							byte[] record = new byte[recordLength];
+							file.readFully(record);
+							offset += RECORD_HEADER_LENGTH + recordLength;
+							recordCount++;
+							try {
+								abstractReports.add(readReport(type, record));
+							}
+							catch (IOException e) {
+								log.error("Failed to read the queued report at " + (offset - RECORD_HEADER_LENGTH - recordLength)
+										+ " of " + segmentFile + ", moving it to the dead letter file", e);
+								peekDeadLetters.add(createRecord(type, record));
+							}
+						}
+
+						if (recordCount < maxCount && offset + RECORD_HEADER_LENGTH > length
+								&& offset < length) {
+							log.warn("Skipping the incomplete record at the end of " + segmentFile);
+							offset = length;
+						}
+					}
+				}
+
+				if (recordCount < maxCount && segment < writeSegment) {
+					segment++;
+					offset = 0;
+				}
+				else {
+					break;
+				}
+			}
+
+			peekSegment = segment;
+			peekOffset = offset;
+			peekCount = recordCount;
+			return abstractReports;
+		}
+	}
+
+	/**
+	 * Remove the reports returned by the last read from the queue, and append the records of the read that could 
+	 * not be read as reports to the dead letter file.
+	 */
+	public void acknowledge() throws IOException {
+		synchronized (lock) {
+			if (peekCount == 0 && peekSegment == readSegment && peekOffset == readOffset) {
+				return;
+			}
+			
+			for (byte[] record : peekDeadLetters) {
+				writeDeadLetter(record);
+			}
+			peekDeadLetters.clear();
+			
+			readSegment = peekSegment;
+			readOffset = peekOffset;
+			pendingCount = Math.max(pendingCount - peekCount, 0);
+			peekCount = 0;
+			writeCheckpoint();
+
+			for (File file : listSegmentFiles()) {
+				if (getSegmentNumber(file) < readSegment) {
+					Files.deleteIfExists(file.toPath());
+				}
+			}
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Append the report the consumer gave up on to the dead letter file.  The report is still removed from the 
+	 * queue by the acknowledgment of the read that returned it.
+	 */
+	public void deadLetter(AbstractReport abstractReport) throws IOException {
+		byte type = getReportType(abstractReport);
+		if (type == 0) {
+			log.warn("The report type " +  abstractReport.getClass().getName() + " is not supported");
+			return;
+		}
+		
+		byte[] record = createRecord(type, objectMapper.writeValueAsBytes(abstractReport));
+		synchronized (lock) {
+			writeDeadLetter(record);
+		}
+	}
+	
+	File getDeadLetterFile() {
+		return new File(queueDirectory, DEAD_LETTER_FILE_NAME);
+	}
+
+	public long getPendingCount() {
+		synchronized (lock) {
+			return pendingCount;
+		}
+	}
+
+	private AbstractReport readReport(byte type, byte[] record) throws IOException {
+		if (type == GROUP_A_INCIDENT_REPORT) {
+			return objectMapper.readValue(record, GroupAIncidentReport.class);
+		}
+		return objectMapper.readValue(record, GroupBArrestReport.class);
+	}
+
+	private byte getReportType(AbstractReport abstractReport) {
+		if (abstractReport instanceof GroupAIncidentReport) {
+			return GROUP_A_INCIDENT_REPORT;
+		}
+		else if (abstractReport instanceof GroupBArrestReport) {
+			return GROUP_B_ARREST_REPORT;
+		}
+		return 0;
+	}
+
+	private byte[] createRecord(byte type, byte[] report) {
+		return ByteBuffer.allocate(RECORD_HEADER_LENGTH + report.length).putInt(report.length).put(type).put(report).array();
+	}
+
+	private void writeDeadLetter(byte[] record) throws IOException {
+		try (FileOutputStream outputStream = new FileOutputStream(getDeadLetterFile(), true)) {
+			outputStream.write(record);
+		}
+	}
+
+	private void openWriter() throws IOException {
+		File segmentFile = getSegmentFile(writeSegment);
+		writer = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(segmentFile, true)));
+		writeOffset = segmentFile.length();
+	}
+
+	private void writeCheckpoint() throws IOException {
+		File checkpointFile = new File(queueDirectory, CHECKPOINT_FILE_NAME);
+		File tempFile = new File(queueDirectory, CHECKPOINT_FILE_NAME + ".tmp");
+		Files.write(tempFile.toPath(), (readSegment + " " + readOffset).getBytes(StandardCharsets.UTF_8));
+		Files.move(tempFile.toPath(), checkpointFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	private long countPendingRecords() throws IOException {
+		long count = 0;
+		for (long segment = readSegment; segment <= writeSegment; segment++) {
+			File segmentFile = getSegmentFile(segment);
+			if (!segmentFile.exists()) {
+				continue;
+			}
+			try (RandomAccessFile file = new RandomAccessFile(segmentFile, "r")) {
+				long length = file.length();
+				long offset = segment == readSegment ? readOffset : 0;
+				while (offset + RECORD_HEADER_LENGTH <= length) {
+					file.seek(offset);
+					offset += RECORD_HEADER_LENGTH + file.readInt();
+					if (offset <= length) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private File getSegmentFile(long segment) {
+		return new File(queueDirectory, SEGMENT_FILE_PREFIX + String.format("%019d", segment) + SEGMENT_FILE_SUFFIX);
+	}
+
+	private File[] listSegmentFiles() {
+		File[] files = queueDirectory.listFiles((dir, name) -> name.startsWith(SEGMENT_FILE_PREFIX) && name.endsWith(SEGMENT_FILE_SUFFIX));
+		return files == null ? new File[0] : files;
+	}
+
+	private long getSegmentNumber(File file) {
+		String name = file.getName();
+		return Long.parseLong(name.substring(SEGMENT_FILE_PREFIX.length(), name.length() - SEGMENT_FILE_SUFFIX.length()));
+	}
+
+}
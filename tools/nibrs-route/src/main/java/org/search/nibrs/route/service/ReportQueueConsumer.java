@@ -0,0 +1,176 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.route.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Drains the report queue into the staging data rest service.  A batch that fails with a server error or a failure 
+ * to connect is retried with an exponential backoff, up to the max number of attempts.  When the attempts run out, or 
+ * the batch is rejected, its reports are posted one at a time and the ones that still fail are moved to the dead 
+ * letter file of the queue, so one bad report does not hold up the reports queued behind it.  While the service can 
+ * not be reached at all, the batch stays in the queue and validation keeps queuing reports.
+ */
+@Component
+public class ReportQueueConsumer implements Runnable {
+	private static final Log log = LogFactory.getLog(ReportQueueConsumer.class);
+
+	@Autowired
+	ReportQueue reportQueue;
+	@Autowired
+	StagingDataRestClient stagingDataRestClient;
+	@Autowired
+	AppProperties appProperties;
+	@Autowired
+	RouteMetrics routeMetrics;
+
+	private volatile boolean running;
+	private ExecutorService executorService;
+
+	@PostConstruct
+	public void start() {
+		running = true;
+		executorService = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "report-queue-consumer"));
+		executorService.execute(this);
+	}
+
+	/**
+	 * Lets the consumer finish posting the batch in progress before the application stops.  The queue is on disk, 
+	 * so the reports that are not acknowledged yet are posted at the next start. 
+	 */
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		executorService.shutdown();
+		if (!executorService.awaitTermination(appProperties.getPersistRetryMaxMillis(), TimeUnit.MILLISECONDS)) {
+			log.warn("The report queue consumer did not finish the batch in progress, interrupting it");
+			executorService.shutdownNow();
+		}
+	}
+
+	@Override
+	public void run() {
+		long backoffMillis = appProperties.getPersistRetryInitialMillis();
+
+		while (running) {
+			try {
+				List<AbstractReport> abstractReports =
+						reportQueue.read(appProperties.getPersistBatchSize(), appProperties.getPersistBatchWindowMillis());
+				if (!abstractReports.isEmpty()) {
+					persistBatch(abstractReports);
+				}
+				reportQueue.acknowledge();
+				backoffMillis = appProperties.getPersistRetryInitialMillis();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (Exception e) {
+				log.error("Failed to process the report queue, retrying in " + backoffMillis + " ms", e);
+				try {
+					Thread.sleep(backoffMillis);
+				}
+				catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				backoffMillis = Math.min(backoffMillis * 2, appProperties.getPersistRetryMaxMillis());
+			}
+		}
+	}
+
+	/**
+	 * Post the batch, retrying a server error or a failure to connect with an exponential backoff.  When the attempts 
+	 * run out or the batch is rejected, the reports are posted one at a time and the ones that fail are moved to the 
+	 * dead letter file.  
+	 * 
+	 * @throws ResourceAccessException if the service can not be reached while posting a single report, the 
+	 * batch is then left in the queue.
+	 */
+	void persistBatch(List<AbstractReport> abstractReports) throws IOException, InterruptedException {
+		long backoffMillis = appProperties.getPersistRetryInitialMillis();
+
+		for (int attempt = 1; ; attempt++) {
+			Timer.Sample sample = Timer.start(routeMetrics.getMeterRegistry());
+			try {
+				stagingDataRestClient.persistReports(abstractReports);
+				sample.stop(routeMetrics.getPersistTimer());
+				routeMetrics.getPersistedReportCounter().increment(abstractReports.size());
+				return;
+			}
+			catch (ResourceAccessException | HttpServerErrorException e) {
+				routeMetrics.getPersistFailureCounter().increment();
+				if (attempt >= appProperties.getPersistRetryMaxAttempts()) {
+					log.warn("Failed to persist " + abstractReports.size() + " queued reports after " + attempt
+							+ " attempts, persisting the reports one at a time: " + e.getMessage());
+					break;
+				}
+				log.warn("Failed to persist " + abstractReports.size() + " queued reports, retrying in "
+						+ backoffMillis + " ms: " + e.getMessage());
+				Thread.sleep(backoffMillis);
+				backoffMillis = Math.min(backoffMillis * 2, appProperties.getPersistRetryMaxMillis());
+			}
+			catch (RuntimeException e) {
+				routeMetrics.getPersistFailureCounter().increment();
+				log.warn("The batch of " + abstractReports.size() + " queued reports was rejected, "
+						+ "persisting the reports one at a time: " + e.getMessage());
+				break;
+			}
+		}
+
+		List<AbstractReport> deadLetters = new ArrayList<>();
+		for (AbstractReport abstractReport : abstractReports) {
+			try {
+				stagingDataRestClient.persistAbstractReport(abstractReport);
+				routeMetrics.getPersistedReportCounter().increment();
+			}
+			catch (ResourceAccessException e) {
+				throw e;
+			}
+			catch (RuntimeException e) {
+				log.error("Failed to persist the report " + abstractReport.getIdentifier() 
+						+ ", moving it to the dead letter file", e);
+				deadLetters.add(abstractReport);
+			}
+		}
+
+		for (AbstractReport abstractReport : deadLetters) {
+			reportQueue.deadLetter(abstractReport);
+			routeMetrics.getDeadLetterCounter().increment();
+		}
+	}
+
+}
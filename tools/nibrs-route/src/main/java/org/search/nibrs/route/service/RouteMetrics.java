@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+
+import org.search.nibrs.validate.common.ValidationMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters of the route stages.  The parse and validate stages are metered by the {@link ValidationMetrics}, 
+ * the error export and persist stages and the depths of the validation buffers and the report queue are 
+ * metered here.  
+ */
+@Component
+public class RouteMetrics {
+	
+	@Autowired
+	ReportQueue reportQueue;
+	
+	private final MeterRegistry meterRegistry;
+	private final ValidationMetrics validationMetrics;
+	private final Timer errorExportTimer;
+	private final Timer persistTimer;
+	private final Counter persistedReportCounter;
+	private final Counter persistFailureCounter;
+	private final Counter deadLetterCounter;
+	private final AtomicInteger bufferedResults = new AtomicInteger();
+	
+	@Autowired
+	public RouteMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		validationMetrics = new ValidationMetrics(meterRegistry);
+		errorExportTimer = Timer.builder("nibrs.route.error.export")
+				.description("Time spent writing the errors of a report to the error report").register(meterRegistry);
+		persistTimer = Timer.builder("nibrs.route.persist")
+				.description("Time spent posting a batch of reports to the staging data service").register(meterRegistry);
+		persistedReportCounter = Counter.builder("nibrs.route.persist.reports")
+				.description("Number of reports persisted by the staging data service").register(meterRegistry);
+		persistFailureCounter = Counter.builder("nibrs.route.persist.failures")
+				.description("Number of failed attempts to persist a batch of reports").register(meterRegistry);
+		deadLetterCounter = Counter.builder("nibrs.route.persist.dead.letters")
+				.description("Number of queued reports moved to the dead letter file").register(meterRegistry);
+		Gauge.builder("nibrs.route.validation.buffer", bufferedResults, AtomicInteger::get)
+				.description("Number of validated reports waiting to be routed").register(meterRegistry);
+	}
+	
+	@PostConstruct
+	public void registerQueueGauge() {
+		Gauge.builder("nibrs.route.queue.pending", reportQueue, ReportQueue::getPendingCount)
+				.description("Number of reports waiting in the report queue").register(meterRegistry);
+	}
+
+	public MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+	public ValidationMetrics getValidationMetrics() {
+		return validationMetrics;
+	}
+
+	public Timer getErrorExportTimer() {
+		return errorExportTimer;
+	}
+
+	public Timer getPersistTimer() {
+		return persistTimer;
+	}
+
+	public Counter getPersistedReportCounter() {
+		return persistedReportCounter;
+	}
+
+	public Counter getPersistFailureCounter() {
+		return persistFailureCounter;
+	}
+
+	public Counter getDeadLetterCounter() {
+		return deadLetterCounter;
+	}
+
+	public AtomicInteger getBufferedResults() {
+		return bufferedResults;
+	}
+	
+}
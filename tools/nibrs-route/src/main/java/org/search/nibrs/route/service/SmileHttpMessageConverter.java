@@ -0,0 +1,43 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Reads and writes the Jackson Smile binary encoding of the JSON data model, with the same ObjectMapper settings 
+ * as the JSON converter. 
+ */
+public class SmileHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+	
+	public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+	
+	public SmileHttpMessageConverter() {
+		super(createObjectMapper(), APPLICATION_SMILE);
+	}
+
+	private static ObjectMapper createObjectMapper() {
+		ObjectMapper objectMapper = new ObjectMapper(new SmileFactory());
+		Jackson2ObjectMapperBuilder.json().configure(objectMapper);
+		return objectMapper;
+	}
+	
+}
@@ -17,28 +17,39 @@
 
 package org.search.nibrs.route.service;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
-import org.apache.camel.Body;
-import org.apache.camel.Header;
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.HttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.search.nibrs.model.AbstractReport;
 import org.search.nibrs.model.GroupAIncidentReport;
 import org.search.nibrs.model.GroupBArrestReport;
 import org.search.nibrs.route.AppProperties;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
 public class StagingDataRestClient {
+	private static final String WIRE_FORMAT_SMILE = "smile";
 
 	private final Log log = LogFactory.getLog(this.getClass());
 
@@ -46,39 +57,55 @@ public class StagingDataRestClient {
 	@Autowired
 	private AppProperties appProperties;
 
-	public StagingDataRestClient() {
-		super();
-		restTemplate = new RestTemplate(); 
+	@PostConstruct
+	public void init() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(appProperties.getPersistMaxConnections());
+		connectionManager.setDefaultMaxPerRoute(appProperties.getPersistMaxConnections());
+		HttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+		
+		restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient)); 
 		restTemplate.setMessageConverters(getMessageConverters());
+		
+		if (BooleanUtils.isTrue(appProperties.getPersistCompressionEnabled())){
+			restTemplate.getInterceptors().add(new GzipRequestInterceptor());
+		}
 	}
 	
-	public void persistIncidentReports(@Body ValidationResults validationResults, @Header("CamelFileName") String fileName) {
-		List<AbstractReport> abstractReports = validationResults.getReportsWithoutErrors(); 
+	/**
+	 * Post the reports to the batch endpoints right away. 
+	 */
+	public void persistReports(List<AbstractReport> abstractReports) {
+		List<GroupAIncidentReport> groupAIncidentReports = new ArrayList<>();
+		List<GroupBArrestReport> groupBArrestReports = new ArrayList<>();
 		
-		logCountsOfReports(abstractReports);
-		int count = 0; 
-		for(AbstractReport abstractReport: abstractReports){
-			try{
-				persistAbstractReport(abstractReport);
-				log.info("Progress: " + (++count) + "/" + abstractReports.size());
+		for (AbstractReport abstractReport: abstractReports){
+			if (abstractReport instanceof GroupAIncidentReport){
+				groupAIncidentReports.add((GroupAIncidentReport) abstractReport);
 			}
-			catch(ResourceAccessException rae){
-				log.error("Failed to connect to the rest service to process the reports in " + fileName);
-				throw rae;
+			else if (abstractReport instanceof GroupBArrestReport){
+				groupBArrestReports.add((GroupBArrestReport) abstractReport);
 			}
-			catch(Exception e){
-				log.warn("Failed to persist incident " + abstractReport.getIdentifier());
-				log.error(e);
-				log.info("Progress: " + (++count) + "/" + abstractReports.size());
+			else {
+				log.warn("The report type " +  abstractReport.getClass().getName() + " is not supported");
 			}
 		}
-		log.info("All reports from the file " + fileName + " are procesed.");
+		
+		if (!groupAIncidentReports.isEmpty()){
+			postBatch("groupAIncidentReports/batch", groupAIncidentReports);
+		}
+		if (!groupBArrestReports.isEmpty()){
+			postBatch("arrestReports/batch", groupBArrestReports);
+		}
 	}
-
-	private void logCountsOfReports(List<AbstractReport> abstractReports) {
-		Set<String> incidentNumbers = new HashSet<>();
-		abstractReports.forEach(item->incidentNumbers.add(item.getIdentifier()));
-		log.info("about to process " + abstractReports.size() + " reports with " + incidentNumbers.size() + " distinct identifiers. ");
+	
+	/**
+	 * Post the reports to the batch endpoint.  Any failure is thrown as is, the caller decides whether to retry the 
+	 * batch or to post its reports one at a time. 
+	 */
+	private void postBatch(String path, List<? extends AbstractReport> abstractReports) {
+		log.info("About to post a batch of " + abstractReports.size() + " reports to " + path);
+		restTemplate.postForObject(appProperties.getStagingDataRestServiceBaseUrl() + path, abstractReports, Integer.class);
 	}
 
 	public void persistAbstractReport(AbstractReport abstractReport) {
@@ -105,15 +132,36 @@ public class StagingDataRestClient {
 			}
 		}
 		else {
-			log.warn("The report type " +  abstractReport.getClass().getName() + "is not supported");
+			log.warn("The report type " +  abstractReport.getClass().getName() + " is not supported");
 		}
 		
 	}
 	
+	/**
+	 * The first converter that can write the reports is used for the request bodies, so the smile converter 
+	 * goes first unless the JSON wire format is configured. 
+	 */
 	private List<HttpMessageConverter<?>> getMessageConverters() {
 	    List<HttpMessageConverter<?>> converters = 
 	      new ArrayList<HttpMessageConverter<?>>();
+	    if (WIRE_FORMAT_SMILE.equalsIgnoreCase(appProperties.getPersistWireFormat())){
+	    	converters.add(new SmileHttpMessageConverter());
+	    }
 	    converters.add(new MappingJackson2HttpMessageConverter());
 	    return converters;
 	}
+	
+	private static class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+
+		@Override
+		public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+				throws IOException {
+			ByteArrayOutputStream compressedBody = new ByteArrayOutputStream(body.length / 4 + 64);
+			try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedBody)){
+				gzipOutputStream.write(body);
+			}
+			request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+			return execution.execute(request, compressedBody.toByteArray());
+		}
+	}
 }
@@ -22,32 +22,34 @@ import java.io.IOException;
 import java.io.Writer;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
-
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.Iterator;
 
 import org.apache.camel.Body;
+import org.apache.camel.Exchange;
+import org.apache.camel.ExchangeProperty;
 import org.apache.camel.Header;
+import org.apache.camel.support.SynchronizationAdapter;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.tika.exception.TikaException;
-import org.search.nibrs.common.NIBRSError;
 import org.search.nibrs.flatfile.errorexport.ErrorExporter;
 import org.search.nibrs.flatfile.importer.IncidentBuilder;
-import org.search.nibrs.importer.ReportListener;
-import org.search.nibrs.model.AbstractReport;
-import org.search.nibrs.validate.common.NibrsValidationUtils;
+import org.search.nibrs.route.AppProperties;
 import org.search.nibrs.validation.SubmissionValidator;
 import org.search.nibrs.xmlfile.importer.XmlIncidentBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
-import org.xml.sax.SAXException;
+
+import io.micrometer.core.instrument.Timer;
 
 @Component
 @Scope("prototype")
 public class SubmissionFileProcessor {
+	public static final String ERROR_REPORT_FILE_HEADER = "NibrsErrorReportFile";
+	public static final String ERROR_REPORT_WRITER_PROPERTY = "NibrsErrorReportWriter";
+	
 	private final Log log = LogFactory.getLog(SubmissionFileProcessor.class);
 
 	@Autowired
@@ -58,58 +60,75 @@ public class SubmissionFileProcessor {
 	SubmissionValidator submissionValidator;
 	@Autowired
 	ErrorExporter errorExporter;
+	@Autowired
+	AppProperties appProperties;
+	@Autowired
+	RouteMetrics routeMetrics;
 	private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
 		
-	public ValidationResults validate(@Body File file) throws IOException, ParserConfigurationException, TikaException, SAXException{
-		ValidationResults validationResults = new ValidationResults();
+	/**
+	 * Validate the file and return the validation results one report at a time. 
+	 */
+	public Iterator<ValidationResults> validate(@Body File file) {
+		return new ValidationResultsIterator(file, submissionValidator, appProperties.getValidationBufferSize(), 
+				routeMetrics);
+	}
+	
+	public String getErrorReportFileName(@Header("CamelFileNameOnly") String fileNameOnly, 
+			@Header("CamelFileParent") String parentPath) {
+		String resultPath = parentPath.replace("/input", "/result"); 
+		File resultDirectory = new File(resultPath);
+		resultDirectory.mkdir();
 		
-		ReportListener validatorListener = new ReportListener() {
+		String baseName = FilenameUtils.getBaseName(fileNameOnly);
+		return resultPath + File.separator + baseName + "-" + formatter.format(LocalDateTime.now()) + ".txt";
+	}
+	
+	/**
+	 * Open the error report once per submission file.  The writer is shared by the split exchanges of the file and 
+	 * closed when the exchange of the file completes or fails. 
+	 */
+	public Writer openErrorReport(@Header(ERROR_REPORT_FILE_HEADER) String errorReportFileName, Exchange exchange) 
+			throws IOException {
+		Writer outputWriter = new BufferedWriter(new FileWriter(errorReportFileName, true));
+		exchange.addOnCompletion(new SynchronizationAdapter() {
 			@Override
-			public void newReport(AbstractReport report, List<NIBRSError> el) {
-				validationResults.getErrorList().addAll(el);
-				validationResults.getErrorList().addAll(submissionValidator.validateReport(report));
-				addReportWithoutErrors(validationResults, report);
+			public void onDone(Exchange exchange) {
+				IOUtils.closeQuietly(outputWriter);
 			}
-		};
-
-		NibrsValidationUtils.validateFile(validatorListener, file);
-
-		return validationResults; 
-
+		});
+		return outputWriter;
 	}
 	
-	private void addReportWithoutErrors(ValidationResults validationResults, AbstractReport report) {
+	/**
+	 * Append the errors of one report to the error report. 
+	 */
+	public void createErrorReport(@Body ValidationResults validationResults,
+			@ExchangeProperty(ERROR_REPORT_WRITER_PROPERTY) Writer outputWriter) throws IOException {
 		if (validationResults.getErrorList().isEmpty()){
-			validationResults.getReportsWithoutErrors().add(report);
+			return; 
 		}
-		else{
-			NIBRSError nibrsError = validationResults.getErrorList().get(validationResults.getErrorList().size()-1);
-			if (report.getIdentifier() != null && 
-					!report.getIdentifier().equals(nibrsError.getReportUniqueIdentifier())) {
-				validationResults.getReportsWithoutErrors().add(report);
-			}
+		
+		Timer.Sample sample = Timer.start(routeMetrics.getMeterRegistry());
+		try {
+			errorExporter.writeErrors(validationResults.getErrorList(), outputWriter);
+		}
+		finally {
+			sample.stop(routeMetrics.getErrorExportTimer());
 		}
 	}
 	
-	public File createErrorReport(@Body ValidationResults validationResults,
-			@Header("CamelFileNameOnly") String fileNameOnly, @Header("CamelFileParent") String parentPath)
-			throws IOException {
-		
-		String resultPath = parentPath.replace("/input", "/result"); 
-		File resultDirectory = new File(resultPath);
-		resultDirectory.mkdir();
-		
-		String baseName = FilenameUtils.getBaseName(fileNameOnly);
-		
-		String fileName = resultPath + File.separator + baseName + "-" + formatter.format(LocalDateTime.now()) + ".txt";
-		File file = new File(fileName);
-		FileWriter filewriter = new FileWriter(file);
-		Writer outputWriter = new BufferedWriter(filewriter);
-		errorExporter.createErrorReport(validationResults.getErrorList(), outputWriter);
-		outputWriter.close();
-		log.info("The error report is writen to " + fileName); 
+	public File completeErrorReport(@Header(ERROR_REPORT_FILE_HEADER) String errorReportFileName, 
+			@ExchangeProperty(ERROR_REPORT_WRITER_PROPERTY) Writer outputWriter) throws IOException {
+		try {
+			errorExporter.writeTrailer(outputWriter);
+		}
+		finally {
+			outputWriter.close();
+		}
+		log.info("The error report is writen to " + errorReportFileName); 
 		
-		return file; 
+		return new File(errorReportFileName); 
 	}
 	
 }
\ No newline at end of file
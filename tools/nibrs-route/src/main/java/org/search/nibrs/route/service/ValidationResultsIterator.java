@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.common.CompactNIBRSError;
+import org.search.nibrs.common.NIBRSError;
+import org.search.nibrs.importer.ReportListener;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.validate.common.NibrsValidationUtils;
+import org.search.nibrs.validate.common.ValidationMetrics;
+import org.search.nibrs.validate.common.ValidationMetrics.FileMetrics;
+import org.search.nibrs.validation.SubmissionValidator;
+
+/**
+ * Iterates over the validation results of a submission file one report at a time.  The file is parsed and
+ * validated by a separate thread that hands over the results through a bounded buffer, so only the reports in
+ * the buffer are held in memory.  Closing the iterator before the end of the file cancels the validation, so 
+ * the thread and the file are released when the split stops early.
+ */
+public class ValidationResultsIterator implements Iterator<ValidationResults>, Closeable {
+	private static final Log log = LogFactory.getLog(ValidationResultsIterator.class);
+
+	private static final ValidationResults END_OF_FILE = new ValidationResults();
+	private static final long OFFER_TIMEOUT_MILLIS = 500;
+
+	private final BlockingQueue<ValidationResults> buffer;
+	private final Thread validatorThread;
+	private final AtomicInteger bufferedResults;
+	private volatile Exception validationException;
+	private volatile boolean closed;
+	private ValidationResults next;
+
+	public ValidationResultsIterator(File file, SubmissionValidator submissionValidator, int bufferSize, 
+			RouteMetrics routeMetrics) {
+		buffer = new ArrayBlockingQueue<>(bufferSize);
+		bufferedResults = routeMetrics.getBufferedResults();
+		ValidationMetrics validationMetrics = routeMetrics.getValidationMetrics();
+		FileMetrics fileMetrics = validationMetrics.startFile();
+		CompactNIBRSError.Compactor errorCompactor = new CompactNIBRSError.Compactor();
+
+		ReportListener validatorListener = new ReportListener() {
+			@Override
+			public void newReport(AbstractReport report, List<NIBRSError> el) {
+				ValidationResults validationResults = new ValidationResults();
+				List<NIBRSError> errorList = validationResults.getErrorList();
+				el.forEach(e -> errorList.add(errorCompactor.compact(e)));
+				validationMetrics.validateReport(submissionValidator, report).forEach(e -> errorList.add(errorCompactor.compact(e)));
+				if (validationResults.getErrorList().isEmpty()) {
+					validationResults.getReportsWithoutErrors().add(report);
+				}
+				put(validationResults);
+			}
+		};
+
+		validatorThread = new Thread(() -> {
+			try {
+				NibrsValidationUtils.validateFile(fileMetrics.instrument(validatorListener), file);
+				fileMetrics.complete();
+			}
+			catch (CancellationException e) {
+				log.info("Cancelled the validation of the file " + file.getName());
+			}
+			catch (Exception e) {
+				if (closed) {
+					log.info("Cancelled the validation of the file " + file.getName());
+					return;
+				}
+				log.error("Failed to validate the file " + file.getName(), e);
+				validationException = e;
+			}
+			finally {
+				try {
+					put(END_OF_FILE);
+				}
+				catch (CancellationException e) {
+					// nobody waits for the end of the file after the iterator is closed
+				}
+			}
+		}, "validator-" + file.getName());
+		validatorThread.setDaemon(true);
+		validatorThread.start();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			try {
+				next = buffer.take();
+				bufferedResults.decrementAndGet();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				validatorThread.interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the validation results", e);
+			}
+		}
+
+		if (next == END_OF_FILE) {
+			if (validationException != null) {
+				throw new IllegalStateException("Failed to validate the file", validationException);
+			}
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public ValidationResults next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ValidationResults validationResults = next;
+		next = null;
+		return validationResults;
+	}
+
+	/**
+	 * Stop the validation and release the buffered results.  Called by the split when it completes or fails. 
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		validatorThread.interrupt();
+		drain();
+	}
+
+	private void drain() {
+		List<ValidationResults> drained = new ArrayList<>();
+		buffer.drainTo(drained);
+		bufferedResults.addAndGet(-drained.size());
+	}
+
+	private void put(ValidationResults validationResults) {
+		bufferedResults.incrementAndGet();
+		try {
+			while (!buffer.offer(validationResults, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (closed) {
+					bufferedResults.decrementAndGet();
+					throw new CancellationException("The validation results are no longer consumed");
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			bufferedResults.decrementAndGet();
+			Thread.currentThread().interrupt();
+			if (closed) {
+				throw new CancellationException("The validation results are no longer consumed");
+			}
+			throw new IllegalStateException("Interrupted while handing over the validation results", e);
+		}
+
+		if (closed) {
+			drain();
+		}
+	}
+
+}
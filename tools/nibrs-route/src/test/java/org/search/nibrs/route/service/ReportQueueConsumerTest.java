@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentMatcher;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.route.AppProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReportQueueConsumerTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private AppProperties appProperties;
+	private ReportQueue reportQueue;
+	private StagingDataRestClient stagingDataRestClient;
+	private ReportQueueConsumer reportQueueConsumer;
+
+	@Before
+	public void setUp() throws Exception {
+		appProperties = new AppProperties();
+		appProperties.setPersistQueueFolderPath(temporaryFolder.newFolder("queue").getAbsolutePath());
+		appProperties.setPersistRetryInitialMillis(1L);
+		appProperties.setPersistRetryMaxMillis(2L);
+		appProperties.setPersistRetryMaxAttempts(3);
+
+		reportQueue = openQueue(appProperties);
+		stagingDataRestClient = mock(StagingDataRestClient.class);
+
+		reportQueueConsumer = new ReportQueueConsumer();
+		reportQueueConsumer.reportQueue = reportQueue;
+		reportQueueConsumer.stagingDataRestClient = stagingDataRestClient;
+		reportQueueConsumer.appProperties = appProperties;
+		reportQueueConsumer.routeMetrics = new RouteMetrics(new SimpleMeterRegistry());
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		reportQueue.close();
+	}
+
+	@Test
+	public void testReportThatAlwaysFails() throws Exception {
+		for (int i = 1; i <= 3; i++) {
+			reportQueue.append(createGroupAIncidentReport(String.valueOf(i)));
+		}
+		doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR))
+				.when(stagingDataRestClient).persistReports(anyListOf(AbstractReport.class));
+		doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR))
+				.when(stagingDataRestClient).persistAbstractReport(argThat(hasIdentifier("2")));
+
+		reportQueueConsumer.persistBatch(reportQueue.read(10, 0));
+		reportQueue.acknowledge();
+
+		verify(stagingDataRestClient, times(3)).persistReports(anyListOf(AbstractReport.class));
+		verify(stagingDataRestClient, times(3)).persistAbstractReport(any(AbstractReport.class));
+		assertThat(reportQueue.getPendingCount(), equalTo(0L));
+		assertThat(reportQueueConsumer.routeMetrics.getPersistedReportCounter().count(), equalTo(2.0));
+		assertThat(reportQueueConsumer.routeMetrics.getDeadLetterCounter().count(), equalTo(1.0));
+		assertThat(getIdentifiers(readDeadLetters()), equalTo("2"));
+
+		reportQueue.append(createGroupAIncidentReport("4"));
+		assertThat(getIdentifiers(reportQueue.read(10, 0)), equalTo("4"));
+	}
+
+	@Test
+	public void testServiceUnreachable() throws Exception {
+		reportQueue.append(createGroupAIncidentReport("1"));
+		doThrow(new ResourceAccessException("Connection refused"))
+				.when(stagingDataRestClient).persistReports(anyListOf(AbstractReport.class));
+		doThrow(new ResourceAccessException("Connection refused"))
+				.when(stagingDataRestClient).persistAbstractReport(any(AbstractReport.class));
+
+		try {
+			reportQueueConsumer.persistBatch(reportQueue.read(10, 0));
+			fail("The batch must stay in the queue while the service can not be reached");
+		}
+		catch (ResourceAccessException e) {
+			assertThat(reportQueue.getPendingCount(), equalTo(1L));
+		}
+		assertFalse(reportQueue.getDeadLetterFile().exists());
+		assertThat(getIdentifiers(reportQueue.read(10, 0)), equalTo("1"));
+	}
+
+	/**
+	 * The dead letter file has the record format of the queue, so it is read back as a queue segment. 
+	 */
+	private List<AbstractReport> readDeadLetters() throws Exception {
+		AppProperties replayProperties = new AppProperties();
+		File replayFolder = temporaryFolder.newFolder("replay");
+		replayProperties.setPersistQueueFolderPath(replayFolder.getAbsolutePath());
+		Files.copy(reportQueue.getDeadLetterFile().toPath(), 
+				new File(replayFolder, "segment-" + String.format("%019d", 0) + ".dat").toPath());
+
+		ReportQueue replayQueue = openQueue(replayProperties);
+		try {
+			return replayQueue.read(10, 0);
+		}
+		finally {
+			replayQueue.close();
+		}
+	}
+
+	private ReportQueue openQueue(AppProperties appProperties) throws Exception {
+		ReportQueue reportQueue = new ReportQueue();
+		reportQueue.appProperties = appProperties;
+		reportQueue.open();
+		return reportQueue;
+	}
+
+	private GroupAIncidentReport createGroupAIncidentReport(String incidentNumber) {
+		GroupAIncidentReport report = new GroupAIncidentReport();
+		report.setIncidentNumber(incidentNumber);
+		report.setOri("WA1234567");
+		report.setReportActionType('I');
+		return report;
+	}
+
+	private ArgumentMatcher<AbstractReport> hasIdentifier(String identifier) {
+		return new ArgumentMatcher<AbstractReport>() {
+			@Override
+			public boolean matches(Object argument) {
+				return argument != null && identifier.equals(((AbstractReport) argument).getIdentifier());
+			}
+		};
+	}
+
+	private String getIdentifiers(List<AbstractReport> reports) {
+		return reports.stream().map(AbstractReport::getIdentifier).collect(Collectors.joining(","));
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.model.GroupBArrestReport;
+import org.search.nibrs.route.AppProperties;
+
+public class ReportQueueTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private AppProperties appProperties;
+
+	@Before
+	public void setUp() throws Exception {
+		appProperties = new AppProperties();
+		appProperties.setPersistQueueFolderPath(temporaryFolder.getRoot().getAbsolutePath());
+		appProperties.setPersistQueueSegmentBytes(200L);
+	}
+
+	@Test
+	public void testReadAndAcknowledge() throws Exception {
+		ReportQueue reportQueue = openQueue();
+		for (int i = 1; i <= 5; i++) {
+			reportQueue.append(createGroupAIncidentReport(String.valueOf(i)));
+		}
+		reportQueue.append(new GroupBArrestReport());
+		assertThat(reportQueue.getPendingCount(), equalTo(6L));
+
+		List<AbstractReport> reports = reportQueue.read(3, 0);
+		assertThat(getIdentifiers(reports), equalTo("1,2,3"));
+		assertThat(getIdentifiers(reportQueue.read(3, 0)), equalTo("1,2,3"));
+
+		reportQueue.acknowledge();
+		assertThat(reportQueue.getPendingCount(), equalTo(3L));
+
+		reports = reportQueue.read(10, 0);
+		assertThat(reports.size(), equalTo(3));
+		assertThat(getIdentifiers(reports.subList(0, 2)), equalTo("4,5"));
+		assertThat(reports.get(2), instanceOf(GroupBArrestReport.class));
+
+		reportQueue.acknowledge();
+		assertThat(reportQueue.getPendingCount(), equalTo(0L));
+		assertThat(reportQueue.read(10, 0).size(), equalTo(0));
+		reportQueue.close();
+	}
+
+	@Test
+	public void testReplayAfterReopen() throws Exception {
+		ReportQueue reportQueue = openQueue();
+		for (int i = 1; i <= 4; i++) {
+			reportQueue.append(createGroupAIncidentReport(String.valueOf(i)));
+		}
+		reportQueue.read(2, 0);
+		reportQueue.acknowledge();
+		reportQueue.read(2, 0);
+		reportQueue.close();
+
+		reportQueue = openQueue();
+		assertThat(reportQueue.getPendingCount(), equalTo(2L));
+		reportQueue.append(createGroupAIncidentReport("5"));
+		assertThat(getIdentifiers(reportQueue.read(10, 0)), equalTo("3,4,5"));
+		reportQueue.close();
+	}
+
+	@Test
+	public void testUnreadableRecord() throws Exception {
+		byte[] record = "not a report".getBytes(StandardCharsets.UTF_8);
+		try (DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(
+				new File(temporaryFolder.getRoot(), "segment-" + String.format("%019d", 0) + ".dat")))) {
+			outputStream.writeInt(record.length);
+			outputStream.writeByte('A');
+			outputStream.write(record);
+		}
+
+		ReportQueue reportQueue = openQueue();
+		reportQueue.append(createGroupAIncidentReport("1"));
+		assertThat(reportQueue.getPendingCount(), equalTo(2L));
+		assertThat(getIdentifiers(reportQueue.read(10, 0)), equalTo("1"));
+		assertFalse(reportQueue.getDeadLetterFile().exists());
+
+		reportQueue.acknowledge();
+		assertThat(reportQueue.getPendingCount(), equalTo(0L));
+		byte[] deadLetters = Files.readAllBytes(reportQueue.getDeadLetterFile().toPath());
+		assertThat(deadLetters.length, equalTo(5 + record.length));
+		assertThat(new String(deadLetters, 5, record.length, StandardCharsets.UTF_8), equalTo("not a report"));
+		reportQueue.close();
+	}
+
+	private ReportQueue openQueue() throws Exception {
+		ReportQueue reportQueue = new ReportQueue();
+		reportQueue.appProperties = appProperties;
+		reportQueue.open();
+		return reportQueue;
+	}
+
+	private GroupAIncidentReport createGroupAIncidentReport(String incidentNumber) {
+		GroupAIncidentReport report = new GroupAIncidentReport();
+		report.setIncidentNumber(incidentNumber);
+		report.setOri("WA1234567");
+		report.setReportActionType('I');
+		return report;
+	}
+
+	private String getIdentifiers(List<AbstractReport> reports) {
+		return reports.stream().map(AbstractReport::getIdentifier).collect(Collectors.joining(","));
+	}
+}
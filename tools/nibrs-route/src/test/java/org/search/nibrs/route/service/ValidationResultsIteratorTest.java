@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.route.service;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.search.nibrs.common.NIBRSError;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.validation.SubmissionValidator;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ValidationResultsIteratorTest {
+
+	private static final String TESTDATA =
+		"00881I022003    TN006000002-000895   20020102 10N                                      N\n" +
+		"00712I022003    TN006000002-000895   220CN  20  N            88        \n" +
+		"01414I022003    TN006000002-000895   001220                           I46  FWNR                                                              \n" +
+		"00465I022003    TN006000002-000895   0124  MW \n" +
+		"00881I022003    TN006000002-003178   20020116 12N                                      Y\n" +
+		"00712I022003    TN006000002-003178   220CN  20  N            88        \n" +
+		"01414I022003    TN006000002-003178   001220                           I28  MWNR                                                              \n" +
+		"00465I022003    TN006000002-003178   0124  MW \n";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testIterateByReport() throws Exception {
+		File file = temporaryFolder.newFile("submission.txt");
+		Files.write(file.toPath(), TESTDATA.getBytes(StandardCharsets.US_ASCII));
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		SubmissionValidator submissionValidator = mock(SubmissionValidator.class);
+		when(submissionValidator.validateReport(any(AbstractReport.class))).thenAnswer(invocation -> {
+			AbstractReport report = invocation.getArgumentAt(0, AbstractReport.class);
+			if ("02-003178".equals(report.getIdentifier())) {
+				NIBRSError error = report.getErrorTemplate();
+				return Collections.singletonList(error);
+			}
+			return Collections.emptyList();
+		});
+
+		ValidationResultsIterator iterator = new ValidationResultsIterator(file, submissionValidator, 1, 
+				new RouteMetrics(meterRegistry));
+		List<ValidationResults> results = new ArrayList<>();
+		iterator.forEachRemaining(results::add);
+
+		assertThat(results.size(), equalTo(2));
+		assertThat(results.get(0).getErrorList().size(), equalTo(0));
+		assertThat(results.get(0).getReportsWithoutErrors().get(0).getIdentifier(), equalTo("02-000895"));
+		assertThat(results.get(1).getErrorList().size(), equalTo(1));
+		assertThat(results.get(1).getReportsWithoutErrors().size(), equalTo(0));
+
+		assertThat(meterRegistry.get("nibrs.validation.reports").counter().count(), equalTo(2.0));
+		assertThat(meterRegistry.get("nibrs.validation.segments").counter().count(), equalTo(8.0));
+		assertThat(meterRegistry.get("nibrs.validation.validate").timer().count(), equalTo(2L));
+		assertThat(meterRegistry.get("nibrs.validation.file").timer().count(), equalTo(1L));
+		assertThat(meterRegistry.get("nibrs.route.validation.buffer").gauge().value(), equalTo(0.0));
+	}
+
+	@Test
+	public void testCloseBeforeEndOfFile() throws Exception {
+		File file = temporaryFolder.newFile("cancelled.txt");
+		Files.write(file.toPath(), (TESTDATA + TESTDATA + TESTDATA).getBytes(StandardCharsets.US_ASCII));
+
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		SubmissionValidator submissionValidator = mock(SubmissionValidator.class);
+		when(submissionValidator.validateReport(any(AbstractReport.class))).thenReturn(Collections.emptyList());
+
+		ValidationResultsIterator iterator = new ValidationResultsIterator(file, submissionValidator, 1, 
+				new RouteMetrics(meterRegistry));
+		iterator.next();
+		iterator.close();
+
+		long deadline = System.currentTimeMillis() + 5000;
+		while (isValidatorRunning("validator-cancelled.txt") && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+		}
+		assertFalse(isValidatorRunning("validator-cancelled.txt"));
+		assertThat(meterRegistry.get("nibrs.route.validation.buffer").gauge().value(), equalTo(0.0));
+	}
+
+	private boolean isValidatorRunning(String threadName) {
+		return Thread.getAllStackTraces().keySet().stream().anyMatch(thread -> threadName.equals(thread.getName()));
+	}
+
+}
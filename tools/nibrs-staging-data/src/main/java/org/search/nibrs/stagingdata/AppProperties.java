@@ -23,6 +23,16 @@ import org.springframework.stereotype.Component;
 public class AppProperties {
 
     private String submittingAgencyOri = "SUBORI123";
+    private Integer batchChunkSize = 50;
+    private String persistMode = "entity";
+    private Integer bulkLoadThreads = 4;
+    private Integer bulkLoadRowsPerStatement = 100;
+    private Boolean returnASummaryEnabled = false;
+    private Integer returnAFormCacheSize = 1000;
+    private Integer returnAFormThreads = 4;
+    private Integer pageSize = 100;
+    private Integer maxPageSize = 1000;
+    private Integer streamFetchSize = 1000;
 
 	public String getSubmittingAgencyOri() {
 		return submittingAgencyOri;
@@ -32,4 +42,78 @@ public class AppProperties {
 		this.submittingAgencyOri = submittingAgencyOri;
 	}
 
+	public Integer getBatchChunkSize() {
+		return batchChunkSize;
+	}
+
+	public void setBatchChunkSize(Integer batchChunkSize) {
+		this.batchChunkSize = batchChunkSize;
+	}
+
+	public String getPersistMode() {
+		return persistMode;
+	}
+
+	public void setPersistMode(String persistMode) {
+		this.persistMode = persistMode;
+	}
+
+	public Integer getBulkLoadThreads() {
+		return bulkLoadThreads;
+	}
+
+	public void setBulkLoadThreads(Integer bulkLoadThreads) {
+		this.bulkLoadThreads = bulkLoadThreads;
+	}
+
+	public Integer getBulkLoadRowsPerStatement() {
+		return bulkLoadRowsPerStatement;
+	}
+
+	public void setBulkLoadRowsPerStatement(Integer bulkLoadRowsPerStatement) {
+		this.bulkLoadRowsPerStatement = bulkLoadRowsPerStatement;
+	}
+
+	public Boolean getReturnASummaryEnabled() {
+		return returnASummaryEnabled;
+	}
+
+	public void setReturnASummaryEnabled(Boolean returnASummaryEnabled) {
+		this.returnASummaryEnabled = returnASummaryEnabled;
+	}
+
+	public Integer getReturnAFormCacheSize() {
+		return returnAFormCacheSize;
+	}
+
+	public void setReturnAFormCacheSize(Integer returnAFormCacheSize) {
+		this.returnAFormCacheSize = returnAFormCacheSize;
+	}
+
+	public Integer getReturnAFormThreads() {
+		return returnAFormThreads;
+	}
+
+	public void setReturnAFormThreads(Integer returnAFormThreads) {
+		this.returnAFormThreads = returnAFormThreads;
+	}
+	public Integer getPageSize() {
+		return pageSize;
+	}
+	public void setPageSize(Integer pageSize) {
+		this.pageSize = pageSize;
+	}
+	public Integer getMaxPageSize() {
+		return maxPageSize;
+	}
+	public void setMaxPageSize(Integer maxPageSize) {
+		this.maxPageSize = maxPageSize;
+	}
+	public Integer getStreamFetchSize() {
+		return streamFetchSize;
+	}
+	public void setStreamFetchSize(Integer streamFetchSize) {
+		this.streamFetchSize = streamFetchSize;
+	}
+
 }
\ No newline at end of file
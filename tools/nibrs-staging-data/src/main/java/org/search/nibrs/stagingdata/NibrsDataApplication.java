@@ -15,8 +15,11 @@
  */
 package org.search.nibrs.stagingdata;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 @SpringBootApplication
 public class NibrsDataApplication {
@@ -24,4 +27,18 @@ public class NibrsDataApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(NibrsDataApplication.class, args);
 	}
+	
+	/**
+	 * The pool of app.returnAFormThreads threads counting the Return A forms of the agencies in parallel.  It is 
+	 * shut down with the application context.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor returnAFormExecutor(@Value("${app.returnAFormThreads:4}") int returnAFormThreads) {
+		int threads = Math.max(returnAFormThreads, 1);
+		ThreadPoolTaskExecutor returnAFormExecutor = new ThreadPoolTaskExecutor();
+		returnAFormExecutor.setCorePoolSize(threads);
+		returnAFormExecutor.setMaxPoolSize(threads);
+		returnAFormExecutor.setThreadNamePrefix("return-a-form-");
+		return returnAFormExecutor;
+	}
 }
@@ -15,27 +15,87 @@
  */
 package org.search.nibrs.stagingdata.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 
 import org.search.nibrs.model.GroupBArrestReport;
+import org.search.nibrs.stagingdata.AppProperties;
 import org.search.nibrs.stagingdata.model.segment.ArrestReportSegment;
 import org.search.nibrs.stagingdata.service.ArrestReportService;
+import org.search.nibrs.stagingdata.service.BulkLoadService;
 import org.search.nibrs.stagingdata.util.BaselineIncidentFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 public class ArrestReportController {
 	@Autowired
 	private ArrestReportService arrestReportService;
+	@Autowired
+	private BulkLoadService bulkLoadService;
+	@Autowired
+	private AppProperties appProperties;
+	@Autowired
+	private ObjectMapper objectMapper;
 	
-	@RequestMapping("/arrestReports")
-	public List<ArrestReportSegment> getAllArrestReport(){
-		return arrestReportService.findAllArrestReportSegment();
+	/**
+	 * Find the arrest report segments in the order of their ids, optionally of one agency and between two 
+	 * arrest dates.  At most app.maxPageSize segments are returned, use /arrestReports/page or 
+	 * /arrestReports/stream to read more. 
+	 */
+	@RequestMapping(value="/arrestReports", method=RequestMethod.GET)
+	public List<ArrestReportSegment> getAllArrestReport(@RequestParam(required=false) String ori, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate startDate, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate endDate){
+		return arrestReportService.findArrestReportSegments(ori, startDate, endDate, appProperties.getPageSize(), 
+				appProperties.getMaxPageSize());
+	}
+	
+	/**
+	 * Page through the arrest report segments in the order of their ids, optionally of one agency and between two 
+	 * arrest dates.  The next page starts after the nextAfterId of the previous one. 
+	 */
+	@RequestMapping(value="/arrestReports/page", method=RequestMethod.GET)
+	public SegmentPage<ArrestReportSegment> getArrestReportPage(@RequestParam(required=false) String ori, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate startDate, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate endDate, 
+			@RequestParam(required=false) Integer afterId, @RequestParam(required=false) Integer size){
+		int pageSize = getPageSize(size);
+		List<ArrestReportSegment> arrestReportSegments = 
+				arrestReportService.findArrestReportSegmentsAfter(afterId, ori, startDate, endDate, pageSize);
+		Integer nextAfterId = arrestReportSegments.size() < pageSize ? 
+				null : arrestReportSegments.get(arrestReportSegments.size() - 1).getArrestReportSegmentId();
+		return new SegmentPage<>(arrestReportSegments, nextAfterId);
+	}
+	
+	/**
+	 * Write the arrest report segments as newline delimited JSON in the order of their ids, optionally of one agency 
+	 * and between two arrest dates.  The segments are read as they are written, so the memory used does not 
+	 * depend on the number of segments. 
+	 */
+	@RequestMapping(value="/arrestReports/stream", method=RequestMethod.GET, produces="application/x-ndjson")
+	public StreamingResponseBody streamArrestReports(@RequestParam(required=false) String ori, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate startDate, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate endDate){
+		return outputStream -> arrestReportService.streamArrestReportSegments(ori, startDate, endDate, 
+				appProperties.getStreamFetchSize(), appProperties.getPageSize(), 
+				arrestReportSegment -> writeNdjson(outputStream, arrestReportSegment));
 	}
 	
 	@RequestMapping("/groupBArrestReport")
@@ -48,9 +108,54 @@ public class ArrestReportController {
 		arrestReportService.saveGroupBArrestReports(groupBArrestReports);
 	}
 	
+	@RequestMapping(value="/arrestReports/batch", method=RequestMethod.POST)
+	public int saveArrestReportsBatch(@RequestBody List<GroupBArrestReport> groupBArrestReports){
+		return persistBatch(groupBArrestReports.iterator());
+	}
+	
+	/**
+	 * Save the newline delimited JSON reports as they are read from the request body.
+	 */
+	@RequestMapping(value="/arrestReports/batch", method=RequestMethod.POST, consumes="application/x-ndjson")
+	public int saveArrestReportsNdjsonBatch(InputStream inputStream) throws IOException{
+		try (MappingIterator<GroupBArrestReport> groupBArrestReports = 
+				objectMapper.readerFor(GroupBArrestReport.class).readValues(inputStream)){
+			return persistBatch(groupBArrestReports);
+		}
+	}
+	
 	@RequestMapping(value="/arrestReports/{identifier}", method=RequestMethod.DELETE)
 	public void deleteArrestReport(@PathVariable("identifier") String identifier){
 		arrestReportService.deleteGroupBArrestReport(identifier);
 	}
 	
+	/**
+	 * Persist the reports with the bulk loader when app.persistMode is jdbc, otherwise with the entity path.
+	 */
+	private int persistBatch(Iterator<GroupBArrestReport> groupBArrestReports){
+		if (bulkLoadService.isEnabled()){
+			return bulkLoadService.loadGroupBArrestReports(groupBArrestReports, appProperties.getBatchChunkSize());
+		}
+		return arrestReportService.saveGroupBArrestReports(groupBArrestReports, appProperties.getBatchChunkSize());
+	}
+	
+	private int getPageSize(Integer size){
+		if (size == null){
+			return appProperties.getPageSize();
+		}
+		if (size < 1){
+			throw new BadRequestException("The page size should be at least 1");
+		}
+		return Math.min(size, appProperties.getMaxPageSize());
+	}
+	
+	private void writeNdjson(OutputStream outputStream, Object value){
+		try {
+			outputStream.write(objectMapper.writeValueAsBytes(value));
+			outputStream.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 }
@@ -15,28 +15,88 @@
  */
 package org.search.nibrs.stagingdata.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
 
 import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.stagingdata.AppProperties;
 import org.search.nibrs.stagingdata.model.segment.AdministrativeSegment;
+import org.search.nibrs.stagingdata.service.BulkLoadService;
 import org.search.nibrs.stagingdata.service.GroupAIncidentService;
 import org.search.nibrs.stagingdata.util.BaselineIncidentFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 public class GroupAIncidentReportController {
 
 	@Autowired
 	private GroupAIncidentService groupAIncidentService;
+	@Autowired
+	private BulkLoadService bulkLoadService;
+	@Autowired
+	private AppProperties appProperties;
+	@Autowired
+	private ObjectMapper objectMapper;
 	
-	@RequestMapping("/groupAIncidentReports")
-	public List<AdministrativeSegment> getAllGroupAIncidentReport(){
-		return groupAIncidentService.findAllAdministrativeSegments();
+	/**
+	 * Find the administrative segments in the order of their ids, optionally of one agency and between two 
+	 * incident dates.  At most app.maxPageSize segments are returned, use /groupAIncidentReports/page or 
+	 * /groupAIncidentReports/stream to read more. 
+	 */
+	@RequestMapping(value="/groupAIncidentReports", method=RequestMethod.GET)
+	public List<AdministrativeSegment> getAllGroupAIncidentReport(@RequestParam(required=false) String ori, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate startDate, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate endDate){
+		return groupAIncidentService.findAdministrativeSegments(ori, startDate, endDate, appProperties.getPageSize(), 
+				appProperties.getMaxPageSize());
+	}
+	
+	/**
+	 * Page through the administrative segments in the order of their ids, optionally of one agency and between two 
+	 * incident dates.  The next page starts after the nextAfterId of the previous one. 
+	 */
+	@RequestMapping(value="/groupAIncidentReports/page", method=RequestMethod.GET)
+	public SegmentPage<AdministrativeSegment> getGroupAIncidentReportPage(@RequestParam(required=false) String ori, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate startDate, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate endDate, 
+			@RequestParam(required=false) Integer afterId, @RequestParam(required=false) Integer size){
+		int pageSize = getPageSize(size);
+		List<AdministrativeSegment> administrativeSegments = 
+				groupAIncidentService.findAdministrativeSegmentsAfter(afterId, ori, startDate, endDate, pageSize);
+		Integer nextAfterId = administrativeSegments.size() < pageSize ? 
+				null : administrativeSegments.get(administrativeSegments.size() - 1).getAdministrativeSegmentId();
+		return new SegmentPage<>(administrativeSegments, nextAfterId);
+	}
+	
+	/**
+	 * Write the administrative segments as newline delimited JSON in the order of their ids, optionally of one agency 
+	 * and between two incident dates.  The segments are read as they are written, so the memory used does not 
+	 * depend on the number of segments. 
+	 */
+	@RequestMapping(value="/groupAIncidentReports/stream", method=RequestMethod.GET, produces="application/x-ndjson")
+	public StreamingResponseBody streamGroupAIncidentReports(@RequestParam(required=false) String ori, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate startDate, 
+			@RequestParam(required=false) @DateTimeFormat(iso=ISO.DATE) LocalDate endDate){
+		return outputStream -> groupAIncidentService.streamAdministrativeSegments(ori, startDate, endDate, 
+				appProperties.getStreamFetchSize(), appProperties.getPageSize(), 
+				administrativeSegment -> writeNdjson(outputStream, administrativeSegment));
 	}
 	
 	@RequestMapping("/groupAIncidentReport")
@@ -49,9 +109,54 @@ public class GroupAIncidentReportController {
 		groupAIncidentService.saveGroupAIncidentReports(groupAIncidentReports);
 	}
 	
+	@RequestMapping(value="/groupAIncidentReports/batch", method=RequestMethod.POST)
+	public int saveBatch(@RequestBody List<GroupAIncidentReport> groupAIncidentReports){
+		return persistBatch(groupAIncidentReports.iterator());
+	}
+	
+	/**
+	 * Save the newline delimited JSON reports as they are read from the request body.
+	 */
+	@RequestMapping(value="/groupAIncidentReports/batch", method=RequestMethod.POST, consumes="application/x-ndjson")
+	public int saveNdjsonBatch(InputStream inputStream) throws IOException{
+		try (MappingIterator<GroupAIncidentReport> groupAIncidentReports = 
+				objectMapper.readerFor(GroupAIncidentReport.class).readValues(inputStream)){
+			return persistBatch(groupAIncidentReports);
+		}
+	}
+	
 	@RequestMapping(value="/groupAIncidentReports/{incidentNumber}", method=RequestMethod.DELETE)
 	public void deleteReport(@PathVariable("incidentNumber") String incidentNumber){
 		groupAIncidentService.deleteGroupAIncidentReport(incidentNumber);
 	}
+	
+	/**
+	 * Persist the reports with the bulk loader when app.persistMode is jdbc, otherwise with the entity path.
+	 */
+	private int persistBatch(Iterator<GroupAIncidentReport> groupAIncidentReports){
+		if (bulkLoadService.isEnabled()){
+			return bulkLoadService.loadGroupAIncidentReports(groupAIncidentReports, appProperties.getBatchChunkSize());
+		}
+		return groupAIncidentService.saveGroupAIncidentReports(groupAIncidentReports, appProperties.getBatchChunkSize());
+	}
+	
+	private int getPageSize(Integer size){
+		if (size == null){
+			return appProperties.getPageSize();
+		}
+		if (size < 1){
+			throw new BadRequestException("The page size should be at least 1");
+		}
+		return Math.min(size, appProperties.getMaxPageSize());
+	}
+	
+	private void writeNdjson(OutputStream outputStream, Object value){
+		try {
+			outputStream.write(objectMapper.writeValueAsBytes(value));
+			outputStream.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.controller;
+
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Decompresses the request bodies sent with the "Content-Encoding: gzip" header. 
+ */
+@Component
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))){
+			filterChain.doFilter(new GzipRequestWrapper(request), response);
+		}
+		else{
+			filterChain.doFilter(request, response);
+		}
+	}
+	
+	private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+		
+		private final ServletInputStream inputStream; 
+		
+		public GzipRequestWrapper(HttpServletRequest request) throws IOException {
+			super(request);
+			GZIPInputStream gzipInputStream = new GZIPInputStream(request.getInputStream());
+			inputStream = new ServletInputStream() {
+				
+				@Override
+				public int read() throws IOException {
+					return gzipInputStream.read();
+				}
+				
+				@Override
+				public int read(byte[] b, int off, int len) throws IOException {
+					return gzipInputStream.read(b, off, len);
+				}
+				
+				@Override
+				public void close() throws IOException {
+					gzipInputStream.close();
+				}
+				
+				@Override
+				public boolean isFinished() {
+					try {
+						return gzipInputStream.available() == 0;
+					} catch (IOException e) {
+						return true;
+					}
+				}
+				
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+				
+				@Override
+				public void setReadListener(ReadListener readListener) {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+		
+		@Override
+		public ServletInputStream getInputStream() throws IOException {
+			return inputStream;
+		}
+		
+		@Override
+		public String getHeader(String name) {
+			return "Content-Encoding".equalsIgnoreCase(name) ? null : super.getHeader(name);
+		}
+		
+		@Override
+		public int getContentLength() {
+			return -1;
+		}
+		
+		@Override
+		public long getContentLengthLong() {
+			return -1;
+		}
+	}
+
+}
@@ -15,11 +15,16 @@
  */
 package org.search.nibrs.stagingdata.controller;
 
+import java.util.List;
+
 import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryPeriod;
 import org.search.nibrs.stagingdata.service.summary.ReturnAFormService;
+import org.search.nibrs.stagingdata.service.summary.ReturnASummaryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -27,10 +32,30 @@ public class ReturnAFormController {
 
 	@Autowired
 	private ReturnAFormService returnAFormService;
+	@Autowired
+	private ReturnASummaryService returnASummaryService;
 	
 	@RequestMapping("/returnAForm/{ori}/{year}/{month}")
 	public ReturnAForm getReturnAForm(@PathVariable String ori, @PathVariable Integer year, @PathVariable Integer month){
 		return returnAFormService.createReturnASummaryReport(ori, year, month);
 	}
 	
+	/**
+	 * @return the statewide form followed by the forms of the agencies with offenses in the month.
+	 */
+	@RequestMapping("/returnAForms/{year}/{month}")
+	public List<ReturnAForm> getAgencyReturnAForms(@PathVariable Integer year, @PathVariable Integer month){
+		return returnAFormService.createAgencyReturnAForms(year, month);
+	}
+	
+	/**
+	 * Regenerate the Return A summary table from the segments.
+	 * 
+	 * @return the periods whose stored counts were wrong.
+	 */
+	@RequestMapping(value="/returnAForm/summary/rebuild", method=RequestMethod.POST)
+	public List<ReturnASummaryPeriod> rebuildReturnASummary(){
+		return returnASummaryService.rebuild();
+	}
+	
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.controller;
+
+import java.util.List;
+
+/**
+ * A page of segments in the order of their ids.  The next page is requested with afterId set to nextAfterId, 
+ * which is null on the last page. 
+ */
+public class SegmentPage<T> {
+	private List<T> content;
+	private Integer nextAfterId;
+	
+	public SegmentPage(List<T> content, Integer nextAfterId) {
+		this.content = content;
+		this.nextAfterId = nextAfterId;
+	}
+	
+	public List<T> getContent() {
+		return content;
+	}
+	public Integer getNextAfterId() {
+		return nextAfterId;
+	}
+}
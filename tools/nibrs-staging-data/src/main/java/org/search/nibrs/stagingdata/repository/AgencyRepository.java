@@ -15,9 +15,13 @@
  */
 package org.search.nibrs.stagingdata.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.search.nibrs.stagingdata.model.Agency;
 import org.springframework.data.repository.CrudRepository;
 
 public interface AgencyRepository extends CrudRepository<Agency, Integer>{
 	public Agency findFirstByAgencyOri(String agencyOri);
+	public List<Agency> findByAgencyOriIn(Collection<String> agencyOris);
 }
@@ -23,11 +23,10 @@ import org.search.nibrs.stagingdata.model.segment.AdministrativeSegment;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 
 @Transactional
 public interface AdministrativeSegmentRepository 
-	extends JpaRepository<AdministrativeSegment, Integer>{
+	extends JpaRepository<AdministrativeSegment, Integer>, AdministrativeSegmentRepositoryCustom{
 	
 	long deleteByIncidentNumber(String incidentNumber);
 	
@@ -47,18 +46,5 @@ public interface AdministrativeSegmentRepository
 	
 	@EntityGraph(value="allAdministrativeSegmentJoins", type=EntityGraphType.LOAD)
 	List<AdministrativeSegment> findAll(Iterable<Integer> ids);
-	
-	@Query("SELECT DISTINCT a.administrativeSegmentId from AdministrativeSegment a "
-			+ "LEFT JOIN a.exceptionalClearanceDateType ae "
-			+ "LEFT JOIN a.arresteeSegments aa "
-			+ "LEFT JOIN aa.arrestDateType aaa "
-			+ "WHERE (?1 = null OR a.ori = ?1) AND "
-			+ "		((ae.year = ?2 AND ( ?3 = 0 OR ae.month = ?3)) "
-			+ "			OR ( aaa.year = ?2 AND ( ?3 = 0 OR aaa.month = ?3 ))) ")
-	List<Integer> findIdsByOriAndClearanceDate(String ori, Integer year, Integer month);
-	
-	@Query("SELECT DISTINCT a.administrativeSegmentId from AdministrativeSegment a "
-			+ "WHERE (?1 = null OR a.ori = ?1) AND "
-			+ "		(year(a.incidentDate) = ?2 AND ( ?3 = 0 OR month(a.incidentDate) = ?3)) ")
-	List<Integer> findIdsByOriAndIncidentDate(String ori, Integer year, Integer month);
+
 }
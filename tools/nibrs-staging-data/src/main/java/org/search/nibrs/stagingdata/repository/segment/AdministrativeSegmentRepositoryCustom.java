@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AdministrativeSegmentRepositoryCustom {
+	
+	/**
+	 * Delete the administrative segments of the incident numbers and all their child segments with a fixed 
+	 * number of set based statements, without loading the entities. 
+	 *  
+	 * @return the number of administrative segments deleted. 
+	 */
+	int deleteByIncidentNumberIn(Collection<String> incidentNumbers);
+	
+	/**
+	 * Find the administrative segments cleared exceptionally or by an arrest in the month. 
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param month the month, or 0 for the whole year.
+	 */
+	List<Integer> findIdsByOriAndClearanceDate(String ori, Integer year, Integer month);
+	
+	/**
+	 * Find the administrative segments of the incidents that occurred in the month. 
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param month the month, or 0 for the whole year.
+	 */
+	List<Integer> findIdsByOriAndIncidentDate(String ori, Integer year, Integer month);
+	
+	/**
+	 * Find the ids of the first size administrative segments with an id greater than afterId, in ascending 
+	 * order. 
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param startDate the first incident date, or null. 
+	 * @param endDate the last incident date, inclusive, or null. 
+	 */
+	List<Integer> findIdsAfter(Integer afterId, String ori, LocalDate startDate, LocalDate endDate, int size);
+	
+	/**
+	 * Stream the ids of the administrative segments in ascending order, fetching fetchSize 
+	 * rows at a time.  The stream must be closed, within the transaction it was opened in. 
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param startDate the first incident date, or null. 
+	 * @param endDate the last incident date, inclusive, or null. 
+	 */
+	Stream<Integer> streamIds(String ori, LocalDate startDate, LocalDate endDate, int fetchSize);
+}
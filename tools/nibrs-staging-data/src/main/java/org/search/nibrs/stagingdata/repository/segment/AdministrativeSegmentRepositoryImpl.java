@@ -0,0 +1,144 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import static org.search.nibrs.stagingdata.repository.segment.SegmentDeleteUtils.deleteWhereIn;
+import static org.search.nibrs.stagingdata.repository.segment.SegmentKeysetUtils.createIdQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.search.nibrs.stagingdata.util.DateUtils;
+
+public class AdministrativeSegmentRepositoryImpl implements AdministrativeSegmentRepositoryCustom {
+	
+	private static final String ADMINISTRATIVE_SEGMENT_IDS = ":ids";
+	private static final String OFFENSE_SEGMENT_IDS = 
+			"SELECT OffenseSegmentID FROM OffenseSegment WHERE AdministrativeSegmentID IN (:ids)";
+	private static final String VICTIM_SEGMENT_IDS = 
+			"SELECT VictimSegmentID FROM VictimSegment WHERE AdministrativeSegmentID IN (:ids)";
+	private static final String PROPERTY_SEGMENT_IDS = 
+			"SELECT PropertySegmentID FROM PropertySegment WHERE AdministrativeSegmentID IN (:ids)";
+	private static final String ARRESTEE_SEGMENT_IDS = 
+			"SELECT ArresteeSegmentID FROM ArresteeSegment WHERE AdministrativeSegmentID IN (:ids)";
+	
+	/**
+	 * The table, the column and the sub query of the delete statements, children first. 
+	 */
+	private static final String[][] DELETE_STATEMENTS = {
+			{"BiasMotivation", "OffenseSegmentID", OFFENSE_SEGMENT_IDS},
+			{"OffenderSuspectedOfUsing", "OffenseSegmentID", OFFENSE_SEGMENT_IDS},
+			{"TypeCriminalActivity", "OffenseSegmentID", OFFENSE_SEGMENT_IDS},
+			{"TypeOfWeaponForceInvolved", "OffenseSegmentID", OFFENSE_SEGMENT_IDS},
+			{"VictimOffenseAssociation", "VictimSegmentID", VICTIM_SEGMENT_IDS},
+			{"VictimOffenderAssociation", "VictimSegmentID", VICTIM_SEGMENT_IDS},
+			{"AggravatedAssaultHomicideCircumstances", "VictimSegmentID", VICTIM_SEGMENT_IDS},
+			{"TypeInjury", "VictimSegmentID", VICTIM_SEGMENT_IDS},
+			{"SuspectedDrugType", "PropertySegmentID", PROPERTY_SEGMENT_IDS},
+			{"PropertyType", "PropertySegmentID", PROPERTY_SEGMENT_IDS},
+			{"ArresteeSegmentWasArmedWith", "ArresteeSegmentID", ARRESTEE_SEGMENT_IDS},
+			{"OffenseSegment", "AdministrativeSegmentID", ADMINISTRATIVE_SEGMENT_IDS},
+			{"VictimSegment", "AdministrativeSegmentID", ADMINISTRATIVE_SEGMENT_IDS},
+			{"OffenderSegment", "AdministrativeSegmentID", ADMINISTRATIVE_SEGMENT_IDS},
+			{"PropertySegment", "AdministrativeSegmentID", ADMINISTRATIVE_SEGMENT_IDS},
+			{"ArresteeSegment", "AdministrativeSegmentID", ADMINISTRATIVE_SEGMENT_IDS},
+	};
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public int deleteByIncidentNumberIn(Collection<String> incidentNumbers) {
+		if (incidentNumbers.isEmpty()){
+			return 0;
+		}
+		
+		List<Integer> ids = entityManager.createQuery("SELECT a.administrativeSegmentId FROM AdministrativeSegment a "
+				+ "WHERE a.incidentNumber IN :incidentNumbers", Integer.class)
+				.setParameter("incidentNumbers", incidentNumbers)
+				.getResultList();
+		if (ids.isEmpty()){
+			return 0;
+		}
+		
+		for (String[] deleteStatement : DELETE_STATEMENTS){
+			deleteWhereIn(entityManager, deleteStatement[0], deleteStatement[1], deleteStatement[2], ids);
+		}
+		return deleteWhereIn(entityManager, "AdministrativeSegment", "AdministrativeSegmentID", ADMINISTRATIVE_SEGMENT_IDS, ids);
+	}
+	
+	/**
+	 * The incidents cleared exceptionally and the incidents with an arrest in the month are looked up separately, 
+	 * each with a range on an indexed date column.
+	 */
+	@Override
+	public List<Integer> findIdsByOriAndClearanceDate(String ori, Integer year, Integer month) {
+		Set<Integer> ids = new LinkedHashSet<>(); 
+		ids.addAll(findIdsInDateRange("SELECT a.administrativeSegmentId FROM AdministrativeSegment a "
+				+ "WHERE a.exceptionalClearanceDate >= :startDate AND a.exceptionalClearanceDate < :endDate", 
+				ori, year, month));
+		ids.addAll(findIdsInDateRange("SELECT DISTINCT a.administrativeSegmentId FROM ArresteeSegment r "
+				+ "JOIN r.administrativeSegment a WHERE r.arrestDate >= :startDate AND r.arrestDate < :endDate", 
+				ori, year, month));
+		return new ArrayList<>(ids);
+	}
+	
+	@Override
+	public List<Integer> findIdsByOriAndIncidentDate(String ori, Integer year, Integer month) {
+		return findIdsInDateRange("SELECT a.administrativeSegmentId FROM AdministrativeSegment a "
+				+ "WHERE a.incidentDate >= :startDate AND a.incidentDate < :endDate", ori, year, month);
+	}
+	
+	private List<Integer> findIdsInDateRange(String query, String ori, Integer year, Integer month) {
+		LocalDate startDate = LocalDate.of(year, month == 0 ? 1 : month, 1); 
+		LocalDate endDate = month == 0 ? startDate.plusYears(1) : startDate.plusMonths(1);  
+		
+		TypedQuery<Integer> typedQuery = entityManager.createQuery(
+				ori == null ? query : query + " AND a.ori = :ori", Integer.class)
+				.setParameter("startDate", DateUtils.asDate(startDate), TemporalType.DATE)
+				.setParameter("endDate", DateUtils.asDate(endDate), TemporalType.DATE); 
+		if (ori != null){
+			typedQuery.setParameter("ori", ori);
+		}
+		return typedQuery.getResultList();
+	}
+	
+	@Override
+	public List<Integer> findIdsAfter(Integer afterId, String ori, LocalDate startDate, LocalDate endDate, int size) {
+		return createIdQuery(entityManager, "AdministrativeSegment", "administrativeSegmentId", "incidentDate", 
+				afterId, ori, startDate, endDate)
+				.setMaxResults(size)
+				.getResultList();
+	}
+	
+	@Override
+	public Stream<Integer> streamIds(String ori, LocalDate startDate, LocalDate endDate, int fetchSize) {
+		TypedQuery<Integer> query = createIdQuery(entityManager, "AdministrativeSegment", "administrativeSegmentId", "incidentDate", 
+				null, ori, startDate, endDate);
+		return SegmentKeysetUtils.streamIds(query, fetchSize);
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package org.search.nibrs.stagingdata.repository.segment;
 
+import java.util.List;
+
 import javax.transaction.Transactional;
 
 import org.search.nibrs.stagingdata.model.segment.ArrestReportSegment;
@@ -23,7 +25,8 @@ import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 @Transactional
-public interface ArrestReportSegmentRepository extends JpaRepository<ArrestReportSegment, Integer>{
+public interface ArrestReportSegmentRepository extends JpaRepository<ArrestReportSegment, Integer>, 
+	ArrestReportSegmentRepositoryCustom{
 	long deleteByArrestTransactionNumber(String arrestTransactionNumber);
 	
 	@EntityGraph(value="allArrestReportSegmentJoins", type=EntityGraphType.LOAD)
@@ -33,5 +36,8 @@ public interface ArrestReportSegmentRepository extends JpaRepository<ArrestRepor
 	
 	@EntityGraph(value="allArrestReportSegmentJoins", type=EntityGraphType.LOAD)
 	ArrestReportSegment findByArrestReportSegmentId(Integer arrestReportSegmentId);
+	
+	@EntityGraph(value="allArrestReportSegmentJoins", type=EntityGraphType.LOAD)
+	List<ArrestReportSegment> findAll(Iterable<Integer> ids);
 
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import static org.search.nibrs.stagingdata.repository.segment.SegmentDeleteUtils.deleteWhereIn;
+import static org.search.nibrs.stagingdata.repository.segment.SegmentKeysetUtils.createIdQuery;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+public class ArrestReportSegmentRepositoryImpl implements ArrestReportSegmentRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	public int deleteByArrestTransactionNumberIn(Collection<String> arrestTransactionNumbers) {
+		if (arrestTransactionNumbers.isEmpty()){
+			return 0;
+		}
+		
+		List<Integer> ids = entityManager.createQuery("SELECT a.arrestReportSegmentId FROM ArrestReportSegment a "
+				+ "WHERE a.arrestTransactionNumber IN :arrestTransactionNumbers", Integer.class)
+				.setParameter("arrestTransactionNumbers", arrestTransactionNumbers)
+				.getResultList();
+		if (ids.isEmpty()){
+			return 0;
+		}
+		
+		deleteWhereIn(entityManager, "ArrestReportSegmentWasArmedWith", "ArrestReportSegmentID", ":ids", ids);
+		return deleteWhereIn(entityManager, "ArrestReportSegment", "ArrestReportSegmentID", ":ids", ids);
+	}
+	
+	@Override
+	public List<Integer> findIdsAfter(Integer afterId, String ori, LocalDate startDate, LocalDate endDate, int size) {
+		return createIdQuery(entityManager, "ArrestReportSegment", "arrestReportSegmentId", "arrestDate", 
+				afterId, ori, startDate, endDate)
+				.setMaxResults(size)
+				.getResultList();
+	}
+	
+	@Override
+	public Stream<Integer> streamIds(String ori, LocalDate startDate, LocalDate endDate, int fetchSize) {
+		TypedQuery<Integer> query = createIdQuery(entityManager, "ArrestReportSegment", "arrestReportSegmentId", "arrestDate", 
+				null, ori, startDate, endDate);
+		return SegmentKeysetUtils.streamIds(query, fetchSize);
+	}
+
+}
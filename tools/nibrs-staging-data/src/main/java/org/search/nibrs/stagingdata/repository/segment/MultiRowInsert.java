@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Collects the rows of one table and inserts them with multi-row INSERT statements, rowsPerStatement rows per 
+ * statement, sent to the database as a single JDBC batch.  
+ */
+class MultiRowInsert {
+	
+	private final String table;
+	private final String[] columns;
+	private final List<Object[]> rows = new ArrayList<>();
+	
+	MultiRowInsert(String table, String... columns) {
+		this.table = table;
+		this.columns = columns;
+	}
+	
+	void addRow(Object... values) {
+		if (values.length != columns.length){
+			throw new IllegalArgumentException("Expected " + columns.length + " values for the table " + table); 
+		}
+		rows.add(values);
+	}
+	
+	/**
+	 * @return the number of rows inserted. 
+	 */
+	int execute(JdbcTemplate jdbcTemplate, int rowsPerStatement) {
+		if (rows.isEmpty()){
+			return 0;
+		}
+		
+		int size = Math.max(rowsPerStatement, 1);
+		int fullStatementRows = rows.size() / size * size;
+		
+		if (fullStatementRows > 0){
+			List<Object[]> batchArgs = new ArrayList<>();
+			for (int i = 0; i < fullStatementRows; i += size){
+				batchArgs.add(flatten(rows.subList(i, i + size)));
+			}
+			jdbcTemplate.batchUpdate(getSql(size), batchArgs);
+		}
+		
+		if (fullStatementRows < rows.size()){
+			List<Object[]> remainingRows = rows.subList(fullStatementRows, rows.size());
+			jdbcTemplate.update(getSql(remainingRows.size()), flatten(remainingRows));
+		}
+		
+		return rows.size();
+	}
+	
+	private String getSql(int rowCount) {
+		String placeholders = "(" + String.join(",", Collections.nCopies(columns.length, "?")) + ")";
+		return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES " 
+				+ String.join(",", Collections.nCopies(rowCount, placeholders));
+	}
+
+	private Object[] flatten(List<Object[]> statementRows) {
+		Object[] values = new Object[statementRows.size() * columns.length];
+		for (int i = 0; i < statementRows.size(); i++){
+			System.arraycopy(statementRows.get(i), 0, values, i * columns.length, columns.length);
+		}
+		return values;
+	}
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.search.nibrs.stagingdata.AppProperties;
+import org.search.nibrs.stagingdata.model.AdditionalJustifiableHomicideCircumstancesType;
+import org.search.nibrs.stagingdata.model.Agency;
+import org.search.nibrs.stagingdata.model.AggravatedAssaultHomicideCircumstancesType;
+import org.search.nibrs.stagingdata.model.ArrestReportSegmentWasArmedWith;
+import org.search.nibrs.stagingdata.model.ArresteeSegmentWasArmedWith;
+import org.search.nibrs.stagingdata.model.ArresteeWasArmedWithType;
+import org.search.nibrs.stagingdata.model.BiasMotivationType;
+import org.search.nibrs.stagingdata.model.CargoTheftIndicatorType;
+import org.search.nibrs.stagingdata.model.ClearedExceptionallyType;
+import org.search.nibrs.stagingdata.model.DateType;
+import org.search.nibrs.stagingdata.model.DispositionOfArresteeUnder18Type;
+import org.search.nibrs.stagingdata.model.EthnicityOfPersonType;
+import org.search.nibrs.stagingdata.model.LocationType;
+import org.search.nibrs.stagingdata.model.MethodOfEntryType;
+import org.search.nibrs.stagingdata.model.MultipleArresteeSegmentsIndicatorType;
+import org.search.nibrs.stagingdata.model.OffenderSuspectedOfUsingType;
+import org.search.nibrs.stagingdata.model.OfficerActivityCircumstanceType;
+import org.search.nibrs.stagingdata.model.OfficerAssignmentTypeType;
+import org.search.nibrs.stagingdata.model.PropertyDescriptionType;
+import org.search.nibrs.stagingdata.model.PropertyType;
+import org.search.nibrs.stagingdata.model.RaceOfPersonType;
+import org.search.nibrs.stagingdata.model.ResidentStatusOfPersonType;
+import org.search.nibrs.stagingdata.model.SegmentActionTypeType;
+import org.search.nibrs.stagingdata.model.SexOfPersonType;
+import org.search.nibrs.stagingdata.model.SuspectedDrugType;
+import org.search.nibrs.stagingdata.model.SuspectedDrugTypeType;
+import org.search.nibrs.stagingdata.model.TypeDrugMeasurementType;
+import org.search.nibrs.stagingdata.model.TypeInjuryType;
+import org.search.nibrs.stagingdata.model.TypeOfArrestType;
+import org.search.nibrs.stagingdata.model.TypeOfCriminalActivityType;
+import org.search.nibrs.stagingdata.model.TypeOfVictimType;
+import org.search.nibrs.stagingdata.model.TypeOfWeaponForceInvolved;
+import org.search.nibrs.stagingdata.model.TypeOfWeaponForceInvolvedType;
+import org.search.nibrs.stagingdata.model.TypePropertyLossEtcType;
+import org.search.nibrs.stagingdata.model.UcrOffenseCodeType;
+import org.search.nibrs.stagingdata.model.VictimOffenderAssociation;
+import org.search.nibrs.stagingdata.model.VictimOffenderRelationshipType;
+import org.search.nibrs.stagingdata.model.segment.AdministrativeSegment;
+import org.search.nibrs.stagingdata.model.segment.ArrestReportSegment;
+import org.search.nibrs.stagingdata.model.segment.ArresteeSegment;
+import org.search.nibrs.stagingdata.model.segment.OffenderSegment;
+import org.search.nibrs.stagingdata.model.segment.OffenseSegment;
+import org.search.nibrs.stagingdata.model.segment.PropertySegment;
+import org.search.nibrs.stagingdata.model.segment.VictimSegment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Inserts new segments and their associations with multi-row JDBC batches instead of the entity manager.  The 
+ * keys of the segment tables are taken from the {@link SegmentKeyAllocator} before the rows are written, so a 
+ * whole chunk of reports is inserted with one batch per table.  The association tables keep their generated keys. 
+ * <p/>
+ * The inserts join the transaction of the caller.
+ */
+@Repository
+public class SegmentBatchInserter {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate; 
+	@Autowired
+	SegmentKeyAllocator segmentKeyAllocator; 
+	@Autowired
+	AppProperties appProperties; 
+	
+	/**
+	 * Insert the administrative segments and all their child segments.  The generated keys are set on the segments.
+	 * 
+	 * @return the number of rows inserted.
+	 */
+	public int insertAdministrativeSegments(Collection<AdministrativeSegment> administrativeSegments) {
+		List<OffenseSegment> offenseSegments = new ArrayList<>();
+		List<VictimSegment> victimSegments = new ArrayList<>();
+		List<OffenderSegment> offenderSegments = new ArrayList<>();
+		List<PropertySegment> propertySegments = new ArrayList<>();
+		List<ArresteeSegment> arresteeSegments = new ArrayList<>();
+		for (AdministrativeSegment administrativeSegment : administrativeSegments){
+			offenseSegments.addAll(nullToEmpty(administrativeSegment.getOffenseSegments()));
+			victimSegments.addAll(nullToEmpty(administrativeSegment.getVictimSegments()));
+			offenderSegments.addAll(nullToEmpty(administrativeSegment.getOffenderSegments()));
+			propertySegments.addAll(nullToEmpty(administrativeSegment.getPropertySegments()));
+			arresteeSegments.addAll(nullToEmpty(administrativeSegment.getArresteeSegments()));
+		}
+		
+		assignKeys("AdministrativeSegment", "AdministrativeSegmentID", administrativeSegments, 
+				AdministrativeSegment::setAdministrativeSegmentId);
+		assignKeys("OffenseSegment", "OffenseSegmentID", offenseSegments, OffenseSegment::setOffenseSegmentId);
+		assignKeys("VictimSegment", "VictimSegmentID", victimSegments, VictimSegment::setVictimSegmentId);
+		assignKeys("OffenderSegment", "OffenderSegmentID", offenderSegments, OffenderSegment::setOffenderSegmentId);
+		assignKeys("PropertySegment", "PropertySegmentID", propertySegments, PropertySegment::setPropertySegmentId);
+		assignKeys("ArresteeSegment", "ArresteeSegmentID", arresteeSegments, ArresteeSegment::setArresteeSegmentId);
+		
+		List<MultiRowInsert> inserts = new ArrayList<>(); 
+		inserts.add(getAdministrativeSegmentInsert(administrativeSegments));
+		inserts.add(getOffenseSegmentInsert(offenseSegments));
+		inserts.addAll(getOffenseAssociationInserts(offenseSegments));
+		inserts.add(getOffenderSegmentInsert(offenderSegments));
+		inserts.add(getVictimSegmentInsert(victimSegments));
+		inserts.addAll(getVictimAssociationInserts(victimSegments));
+		inserts.addAll(getPropertySegmentInserts(propertySegments));
+		inserts.addAll(getArresteeSegmentInserts(arresteeSegments));
+		
+		return execute(inserts);
+	}
+	
+	/**
+	 * Insert the arrest report segments and the weapons the arrestees were armed with.  The generated keys are 
+	 * set on the segments.
+	 * 
+	 * @return the number of rows inserted.
+	 */
+	public int insertArrestReportSegments(Collection<ArrestReportSegment> arrestReportSegments) {
+		assignKeys("ArrestReportSegment", "ArrestReportSegmentID", arrestReportSegments, 
+				ArrestReportSegment::setArrestReportSegmentId);
+		
+		MultiRowInsert arrestReportSegmentInsert = new MultiRowInsert("ArrestReportSegment", 
+				"ArrestReportSegmentID", "SegmentActionTypeTypeID", "MonthOfTape", "YearOfTape", "CityIndicator", 
+				"AgencyID", "ORI", "ArrestTransactionNumber", "ArresteeSequenceNumber", "ArrestDate", "ArrestDateID", 
+				"TypeOfArrestTypeID", "AgeOfArresteeMin", "AgeOfArresteeMax", "SexOfPersonTypeID", "RaceOfPersonTypeID", 
+				"EthnicityOfPersonTypeID", "ResidentStatusOfPersonTypeID", "DispositionOfArresteeUnder18TypeID", 
+				"UCROffenseCodeTypeID");
+		MultiRowInsert armedWithInsert = new MultiRowInsert("ArrestReportSegmentWasArmedWith", 
+				"ArrestReportSegmentID", "ArresteeWasArmedWithTypeID", "AutomaticWeaponIndicator");
+		
+		for (ArrestReportSegment segment : arrestReportSegments){
+			arrestReportSegmentInsert.addRow(segment.getArrestReportSegmentId(), 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getMonthOfTape(), segment.getYearOfTape(), segment.getCityIndicator(), 
+					id(segment.getAgency(), Agency::getAgencyId), segment.getOri(), 
+					segment.getArrestTransactionNumber(), segment.getArresteeSequenceNumber(), 
+					toSqlDate(segment.getArrestDate()), id(segment.getArrestDateType(), DateType::getDateTypeId), 
+					id(segment.getTypeOfArrestType(), TypeOfArrestType::getTypeOfArrestTypeId), 
+					segment.getAgeOfArresteeMin(), segment.getAgeOfArresteeMax(), 
+					id(segment.getSexOfPersonType(), SexOfPersonType::getSexOfPersonTypeId), 
+					id(segment.getRaceOfPersonType(), RaceOfPersonType::getRaceOfPersonTypeId), 
+					id(segment.getEthnicityOfPersonType(), EthnicityOfPersonType::getEthnicityOfPersonTypeId), 
+					id(segment.getResidentStatusOfPersonType(), ResidentStatusOfPersonType::getResidentStatusOfPersonTypeId), 
+					id(segment.getDispositionOfArresteeUnder18Type(), 
+							DispositionOfArresteeUnder18Type::getDispositionOfArresteeUnder18TypeId), 
+					id(segment.getUcrOffenseCodeType(), UcrOffenseCodeType::getUcrOffenseCodeTypeId));
+			
+			for (ArrestReportSegmentWasArmedWith armedWith : nullToEmpty(segment.getArrestReportSegmentWasArmedWiths())){
+				armedWithInsert.addRow(segment.getArrestReportSegmentId(), 
+						id(armedWith.getArresteeWasArmedWithType(), ArresteeWasArmedWithType::getArresteeWasArmedWithTypeId),
+						armedWith.getAutomaticWeaponIndicator());
+			}
+		}
+		
+		return execute(arrestReportSegmentInsert, armedWithInsert);
+	}
+	
+	private MultiRowInsert getAdministrativeSegmentInsert(Collection<AdministrativeSegment> administrativeSegments) {
+		MultiRowInsert insert = new MultiRowInsert("AdministrativeSegment", 
+				"AdministrativeSegmentID", "SegmentActionTypeTypeID", "MonthOfTape", "YearOfTape", "CityIndicator", 
+				"ORI", "AgencyID", "IncidentNumber", "IncidentDate", "IncidentDateID", "ReportDateIndicator", 
+				"IncidentHour", "ClearedExceptionallyTypeID", "ExceptionalClearanceDate", "ExceptionalClearanceDateID", 
+				"CargoTheftIndicatorTypeID");
+		for (AdministrativeSegment segment : administrativeSegments){
+			insert.addRow(segment.getAdministrativeSegmentId(), 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getMonthOfTape(), segment.getYearOfTape(), segment.getCityIndicator(), segment.getOri(), 
+					id(segment.getAgency(), Agency::getAgencyId), segment.getIncidentNumber(), 
+					toSqlDate(segment.getIncidentDate()), id(segment.getIncidentDateType(), DateType::getDateTypeId), 
+					segment.getReportDateIndicator(), segment.getIncidentHour(), 
+					id(segment.getClearedExceptionallyType(), ClearedExceptionallyType::getClearedExceptionallyTypeId), 
+					toSqlDate(segment.getExceptionalClearanceDate()), 
+					id(segment.getExceptionalClearanceDateType(), DateType::getDateTypeId),
+					id(segment.getCargoTheftIndicatorType(), CargoTheftIndicatorType::getCargoTheftIndicatorTypeId));
+		}
+		return insert;
+	}
+	
+	private MultiRowInsert getOffenseSegmentInsert(List<OffenseSegment> offenseSegments) {
+		MultiRowInsert insert = new MultiRowInsert("OffenseSegment", 
+				"OffenseSegmentID", "SegmentActionTypeTypeID", "AdministrativeSegmentID", "UCROffenseCodeTypeID", 
+				"OffenseAttemptedCompleted", "LocationTypeTypeID", "NumberOfPremisesEntered", "MethodOfEntryTypeID");
+		for (OffenseSegment segment : offenseSegments){
+			insert.addRow(segment.getOffenseSegmentId(), 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getAdministrativeSegment().getAdministrativeSegmentId(), 
+					id(segment.getUcrOffenseCodeType(), UcrOffenseCodeType::getUcrOffenseCodeTypeId), 
+					segment.getOffenseAttemptedCompleted(), 
+					id(segment.getLocationType(), LocationType::getLocationTypeTypeId), 
+					segment.getNumberOfPremisesEntered(), 
+					id(segment.getMethodOfEntryType(), MethodOfEntryType::getMethodOfEntryTypeId));
+		}
+		return insert;
+	}
+	
+	private List<MultiRowInsert> getOffenseAssociationInserts(List<OffenseSegment> offenseSegments) {
+		MultiRowInsert weaponInsert = new MultiRowInsert("TypeOfWeaponForceInvolved", 
+				"OffenseSegmentID", "TypeOfWeaponForceInvolvedTypeID", "AutomaticWeaponIndicator");
+		MultiRowInsert suspectedOfUsingInsert = new MultiRowInsert("OffenderSuspectedOfUsing", 
+				"OffenseSegmentID", "OffenderSuspectedOfUsingTypeID");
+		MultiRowInsert criminalActivityInsert = new MultiRowInsert("TypeCriminalActivity", 
+				"OffenseSegmentID", "TypeOfCriminalActivityTypeID");
+		MultiRowInsert biasMotivationInsert = new MultiRowInsert("BiasMotivation", 
+				"OffenseSegmentID", "BiasMotivationTypeID");
+		
+		for (OffenseSegment segment : offenseSegments){
+			Integer offenseSegmentId = segment.getOffenseSegmentId();
+			for (TypeOfWeaponForceInvolved weapon : nullToEmpty(segment.getTypeOfWeaponForceInvolveds())){
+				weaponInsert.addRow(offenseSegmentId, 
+						id(weapon.getTypeOfWeaponForceInvolvedType(), 
+								TypeOfWeaponForceInvolvedType::getTypeOfWeaponForceInvolvedTypeId), 
+						weapon.getAutomaticWeaponIndicator());
+			}
+			for (OffenderSuspectedOfUsingType type : nullToEmpty(segment.getOffenderSuspectedOfUsingTypes())){
+				suspectedOfUsingInsert.addRow(offenseSegmentId, type.getOffenderSuspectedOfUsingTypeId());
+			}
+			for (TypeOfCriminalActivityType type : nullToEmpty(segment.getTypeOfCriminalActivityTypes())){
+				criminalActivityInsert.addRow(offenseSegmentId, type.getTypeOfCriminalActivityTypeId());
+			}
+			for (BiasMotivationType type : nullToEmpty(segment.getBiasMotivationTypes())){
+				biasMotivationInsert.addRow(offenseSegmentId, type.getBiasMotivationTypeId());
+			}
+		}
+		return Arrays.asList(weaponInsert, suspectedOfUsingInsert, criminalActivityInsert, biasMotivationInsert);
+	}
+	
+	private MultiRowInsert getOffenderSegmentInsert(List<OffenderSegment> offenderSegments) {
+		MultiRowInsert insert = new MultiRowInsert("OffenderSegment", 
+				"OffenderSegmentID", "SegmentActionTypeTypeID", "AdministrativeSegmentID", "OffenderSequenceNumber", 
+				"AgeOfOffenderMin", "AgeOfOffenderMax", "SexOfPersonTypeID", "RaceOfPersonTypeID", 
+				"EthnicityOfPersonTypeID");
+		for (OffenderSegment segment : offenderSegments){
+			insert.addRow(segment.getOffenderSegmentId(), 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getAdministrativeSegment().getAdministrativeSegmentId(), 
+					segment.getOffenderSequenceNumber(), segment.getAgeOfOffenderMin(), segment.getAgeOfOffenderMax(), 
+					id(segment.getSexOfPersonType(), SexOfPersonType::getSexOfPersonTypeId), 
+					id(segment.getRaceOfPersonType(), RaceOfPersonType::getRaceOfPersonTypeId), 
+					id(segment.getEthnicityOfPersonType(), EthnicityOfPersonType::getEthnicityOfPersonTypeId));
+		}
+		return insert;
+	}
+	
+	private MultiRowInsert getVictimSegmentInsert(List<VictimSegment> victimSegments) {
+		MultiRowInsert insert = new MultiRowInsert("VictimSegment", 
+				"VictimSegmentID", "SegmentActionTypeTypeID", "AdministrativeSegmentID", "VictimSequenceNumber", 
+				"TypeOfVictimTypeID", "OfficerActivityCircumstanceTypeID", "OfficerAssignmentTypeTypeID", 
+				"OfficerOtherJurisdictionORI", "AgeOfVictimMin", "AgeOfVictimMax", "AgeNeonateIndicator", 
+				"AgeFirstWeekIndicator", "AgeFirstYearIndicator", "SexOfPersonTypeID", "RaceOfPersonTypeID", 
+				"EthnicityOfPersonTypeID", "ResidentStatusOfPersonTypeID", 
+				"AdditionalJustifiableHomicideCircumstancesTypeID");
+		for (VictimSegment segment : victimSegments){
+			insert.addRow(segment.getVictimSegmentId(), 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getAdministrativeSegment().getAdministrativeSegmentId(), 
+					segment.getVictimSequenceNumber(), 
+					id(segment.getTypeOfVictimType(), TypeOfVictimType::getTypeOfVictimTypeId), 
+					id(segment.getOfficerActivityCircumstanceType(), 
+							OfficerActivityCircumstanceType::getOfficerActivityCircumstanceTypeId), 
+					id(segment.getOfficerAssignmentTypeType(), OfficerAssignmentTypeType::getOfficerAssignmentTypeTypeId), 
+					segment.getOfficerOtherJurisdictionOri(), segment.getAgeOfVictimMin(), segment.getAgeOfVictimMax(), 
+					segment.getAgeNeonateIndicator(), segment.getAgeFirstWeekIndicator(), 
+					segment.getAgeFirstYearIndicator(), 
+					id(segment.getSexOfPersonType(), SexOfPersonType::getSexOfPersonTypeId), 
+					id(segment.getRaceOfPersonType(), RaceOfPersonType::getRaceOfPersonTypeId), 
+					id(segment.getEthnicityOfPersonType(), EthnicityOfPersonType::getEthnicityOfPersonTypeId), 
+					id(segment.getResidentStatusOfPersonType(), ResidentStatusOfPersonType::getResidentStatusOfPersonTypeId), 
+					id(segment.getAdditionalJustifiableHomicideCircumstancesType(), 
+							AdditionalJustifiableHomicideCircumstancesType::getAdditionalJustifiableHomicideCircumstancesTypeId));
+		}
+		return insert;
+	}
+	
+	private List<MultiRowInsert> getVictimAssociationInserts(List<VictimSegment> victimSegments) {
+		MultiRowInsert typeInjuryInsert = new MultiRowInsert("TypeInjury", 
+				"VictimSegmentID", "TypeInjuryTypeID");
+		MultiRowInsert victimOffenseInsert = new MultiRowInsert("VictimOffenseAssociation", 
+				"VictimSegmentID", "OffenseSegmentID");
+		MultiRowInsert circumstancesInsert = new MultiRowInsert("AggravatedAssaultHomicideCircumstances", 
+				"VictimSegmentID", "AggravatedAssaultHomicideCircumstancesTypeID");
+		MultiRowInsert victimOffenderInsert = new MultiRowInsert("VictimOffenderAssociation", 
+				"VictimSegmentID", "OffenderSegmentID", "VictimOffenderRelationshipTypeID");
+		
+		for (VictimSegment segment : victimSegments){
+			Integer victimSegmentId = segment.getVictimSegmentId();
+			for (TypeInjuryType type : nullToEmpty(segment.getTypeInjuryTypes())){
+				typeInjuryInsert.addRow(victimSegmentId, type.getTypeInjuryTypeId());
+			}
+			for (OffenseSegment offenseSegment : nullToEmpty(segment.getOffenseSegments())){
+				victimOffenseInsert.addRow(victimSegmentId, offenseSegment.getOffenseSegmentId());
+			}
+			for (AggravatedAssaultHomicideCircumstancesType type : 
+					nullToEmpty(segment.getAggravatedAssaultHomicideCircumstancesTypes())){
+				circumstancesInsert.addRow(victimSegmentId, type.getAggravatedAssaultHomicideCircumstancesTypeId());
+			}
+			for (VictimOffenderAssociation association : nullToEmpty(segment.getVictimOffenderAssociations())){
+				victimOffenderInsert.addRow(victimSegmentId, 
+						id(association.getOffenderSegment(), OffenderSegment::getOffenderSegmentId), 
+						id(association.getVictimOffenderRelationshipType(), 
+								VictimOffenderRelationshipType::getVictimOffenderRelationshipTypeId));
+			}
+		}
+		return Arrays.asList(typeInjuryInsert, victimOffenseInsert, circumstancesInsert, victimOffenderInsert);
+	}
+	
+	private List<MultiRowInsert> getPropertySegmentInserts(List<PropertySegment> propertySegments) {
+		MultiRowInsert propertySegmentInsert = new MultiRowInsert("PropertySegment", 
+				"PropertySegmentID", "SegmentActionTypeTypeID", "AdministrativeSegmentID", "TypePropertyLossEtcTypeID", 
+				"NumberOfStolenMotorVehicles", "NumberOfRecoveredMotorVehicles");
+		MultiRowInsert propertyTypeInsert = new MultiRowInsert("PropertyType", 
+				"PropertySegmentID", "PropertyDescriptionTypeID", "ValueOfProperty", "RecoveredDate", "RecoveredDateID");
+		MultiRowInsert suspectedDrugTypeInsert = new MultiRowInsert("SuspectedDrugType", 
+				"PropertySegmentID", "SuspectedDrugTypeTypeID", "TypeDrugMeasurementTypeID", "EstimatedDrugQuantity");
+		
+		for (PropertySegment segment : propertySegments){
+			Integer propertySegmentId = segment.getPropertySegmentId();
+			propertySegmentInsert.addRow(propertySegmentId, 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getAdministrativeSegment().getAdministrativeSegmentId(), 
+					id(segment.getTypePropertyLossEtcType(), TypePropertyLossEtcType::getTypePropertyLossEtcTypeId), 
+					segment.getNumberOfStolenMotorVehicles(), segment.getNumberOfRecoveredMotorVehicles());
+			
+			for (PropertyType propertyType : nullToEmpty(segment.getPropertyTypes())){
+				propertyTypeInsert.addRow(propertySegmentId, 
+						id(propertyType.getPropertyDescriptionType(), PropertyDescriptionType::getPropertyDescriptionTypeId), 
+						propertyType.getValueOfProperty(), toSqlDate(propertyType.getRecoveredDate()), 
+						id(propertyType.getRecoveredDateType(), DateType::getDateTypeId));
+			}
+			for (SuspectedDrugType suspectedDrugType : nullToEmpty(segment.getSuspectedDrugTypes())){
+				suspectedDrugTypeInsert.addRow(propertySegmentId, 
+						id(suspectedDrugType.getSuspectedDrugTypeType(), SuspectedDrugTypeType::getSuspectedDrugTypeTypeId), 
+						id(suspectedDrugType.getTypeDrugMeasurementType(), TypeDrugMeasurementType::getTypeDrugMeasurementTypeId), 
+						suspectedDrugType.getEstimatedDrugQuantity());
+			}
+		}
+		return Arrays.asList(propertySegmentInsert, propertyTypeInsert, suspectedDrugTypeInsert);
+	}
+	
+	private List<MultiRowInsert> getArresteeSegmentInserts(List<ArresteeSegment> arresteeSegments) {
+		MultiRowInsert arresteeSegmentInsert = new MultiRowInsert("ArresteeSegment", 
+				"ArresteeSegmentID", "SegmentActionTypeTypeID", "AdministrativeSegmentID", "ArresteeSequenceNumber", 
+				"ArrestTransactionNumber", "ArrestDate", "ArrestDateID", "TypeOfArrestTypeID", 
+				"MultipleArresteeSegmentsIndicatorTypeID", "AgeOfArresteeMin", "AgeOfArresteeMax", "SexOfPersonTypeID", 
+				"RaceOfPersonTypeID", "EthnicityOfPersonTypeID", "ResidentStatusOfPersonTypeID", 
+				"DispositionOfArresteeUnder18TypeID", "UCROffenseCodeTypeID");
+		MultiRowInsert armedWithInsert = new MultiRowInsert("ArresteeSegmentWasArmedWith", 
+				"ArresteeSegmentID", "ArresteeWasArmedWithTypeID", "AutomaticWeaponIndicator");
+		
+		for (ArresteeSegment segment : arresteeSegments){
+			arresteeSegmentInsert.addRow(segment.getArresteeSegmentId(), 
+					id(segment.getSegmentActionType(), SegmentActionTypeType::getSegmentActionTypeTypeId),
+					segment.getAdministrativeSegment().getAdministrativeSegmentId(), 
+					segment.getArresteeSequenceNumber(), segment.getArrestTransactionNumber(), 
+					toSqlDate(segment.getArrestDate()), id(segment.getArrestDateType(), DateType::getDateTypeId), 
+					id(segment.getTypeOfArrestType(), TypeOfArrestType::getTypeOfArrestTypeId), 
+					id(segment.getMultipleArresteeSegmentsIndicatorType(), 
+							MultipleArresteeSegmentsIndicatorType::getMultipleArresteeSegmentsIndicatorTypeId), 
+					segment.getAgeOfArresteeMin(), segment.getAgeOfArresteeMax(), 
+					id(segment.getSexOfPersonType(), SexOfPersonType::getSexOfPersonTypeId), 
+					id(segment.getRaceOfPersonType(), RaceOfPersonType::getRaceOfPersonTypeId), 
+					id(segment.getEthnicityOfPersonType(), EthnicityOfPersonType::getEthnicityOfPersonTypeId), 
+					id(segment.getResidentStatusOfPersonType(), ResidentStatusOfPersonType::getResidentStatusOfPersonTypeId), 
+					id(segment.getDispositionOfArresteeUnder18Type(), 
+							DispositionOfArresteeUnder18Type::getDispositionOfArresteeUnder18TypeId), 
+					id(segment.getUcrOffenseCodeType(), UcrOffenseCodeType::getUcrOffenseCodeTypeId));
+			
+			for (ArresteeSegmentWasArmedWith armedWith : nullToEmpty(segment.getArresteeSegmentWasArmedWiths())){
+				armedWithInsert.addRow(segment.getArresteeSegmentId(), 
+						id(armedWith.getArresteeWasArmedWithType(), ArresteeWasArmedWithType::getArresteeWasArmedWithTypeId),
+						armedWith.getAutomaticWeaponIndicator());
+			}
+		}
+		return Arrays.asList(arresteeSegmentInsert, armedWithInsert);
+	}
+	
+	private <T> void assignKeys(String table, String keyColumn, Collection<T> segments, BiConsumer<T, Integer> keySetter) {
+		if (segments.isEmpty()){
+			return;
+		}
+		
+		int key = segmentKeyAllocator.allocate(table, keyColumn, segments.size());
+		for (T segment : segments){
+			keySetter.accept(segment, key++);
+		}
+	}
+	
+	private int execute(MultiRowInsert... inserts) {
+		return execute(Arrays.asList(inserts));
+	}
+
+	private int execute(List<MultiRowInsert> inserts) {
+		int count = 0;
+		for (MultiRowInsert insert : inserts){
+			count += insert.execute(jdbcTemplate, appProperties.getBulkLoadRowsPerStatement());
+		}
+		return count;
+	}
+	
+	private static <T> Integer id(T codeTableType, Function<T, Integer> idGetter) {
+		return Optional.ofNullable(codeTableType).map(idGetter).orElse(null);
+	}
+	
+	private static java.sql.Date toSqlDate(Date date) {
+		return date == null ? null : new java.sql.Date(date.getTime());
+	}
+	
+	private static <T> Set<T> nullToEmpty(Set<T> set) {
+		return set == null ? Collections.emptySet() : set;
+	}
+}
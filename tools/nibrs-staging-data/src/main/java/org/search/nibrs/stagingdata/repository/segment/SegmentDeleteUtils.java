@@ -0,0 +1,46 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.hibernate.SQLQuery;
+
+/**
+ * Set based delete statements shared by the custom segment repositories. 
+ */
+class SegmentDeleteUtils {
+	
+	private SegmentDeleteUtils() {
+	}
+	
+	/**
+	 * Delete the rows of the table whose column value is selected by the sub query with the parameter :ids.  
+	 * 
+	 * @return the number of rows deleted. 
+	 */
+	static int deleteWhereIn(EntityManager entityManager, String table, String column, String subQuery, 
+			Collection<Integer> ids) {
+		Query query = entityManager.createNativeQuery("DELETE FROM " + table + " WHERE " + column + " IN (" + subQuery + ")");
+		query.unwrap(SQLQuery.class).addSynchronizedQuerySpace(table);
+		query.setParameter("ids", ids);
+		return query.executeUpdate();
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out ranges of primary keys for the segment tables, so the bulk loader knows the keys of the parent rows 
+ * before they are inserted.  The next free key of each table is kept in the SegmentKey table and the row is 
+ * locked with SELECT ... FOR UPDATE while a range is taken, so concurrent loads and service instances never get 
+ * the same keys.  A range never starts below the largest key in the table, which catches up with the rows 
+ * inserted by the entity path.  The entity path should still not insert into the segment tables during a bulk 
+ * load, as its generated keys may fall into a range that is not inserted yet.
+ */
+@Repository
+public class SegmentKeyAllocator {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate; 
+	@Autowired
+	PlatformTransactionManager transactionManager; 
+	
+	/**
+	 * Reserve count consecutive keys of the table.  The range is taken in its own transaction, so the SegmentKey 
+	 * row is only locked for the allocation and not for the whole chunk of the caller. 
+	 * 
+	 * @return the first key of the range.
+	 */
+	public int allocate(String table, String keyColumn, int count) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return transactionTemplate.execute(status -> {
+			int nextKey = lockNextKey(table);
+			int maxKey = jdbcTemplate.queryForObject(
+					"SELECT COALESCE(MAX(" + keyColumn + "), 0) FROM " + table, Integer.class);
+			int firstKey = Math.max(nextKey, maxKey + 1);
+			jdbcTemplate.update("UPDATE SegmentKey SET NextKey = ? WHERE TableName = ?", firstKey + count, table);
+			return firstKey;
+		});
+	}
+	
+	private int lockNextKey(String table) {
+		List<Integer> nextKeys = selectNextKeyForUpdate(table);
+		if (nextKeys.isEmpty()){
+			try {
+				jdbcTemplate.update("INSERT INTO SegmentKey (TableName, NextKey) VALUES (?, 1)", table);
+			}
+			catch (DuplicateKeyException e) {
+				// added by a concurrent allocation, which holds the lock until it commits
+			}
+			nextKeys = selectNextKeyForUpdate(table);
+		}
+		return nextKeys.get(0);
+	}
+	
+	private List<Integer> selectNextKeyForUpdate(String table) {
+		return jdbcTemplate.queryForList("SELECT NextKey FROM SegmentKey WHERE TableName = ? FOR UPDATE", 
+				Integer.class, table);
+	}
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.search.nibrs.stagingdata.util.DateUtils;
+
+/**
+ * Keyset queries of the segment ids shared by the custom segment repositories.  The ids are selected in 
+ * ascending order, optionally after a given id, of one ORI and between two dates, so a page starts at the 
+ * last id of the previous page instead of skipping an offset.  
+ */
+class SegmentKeysetUtils {
+	
+	private SegmentKeysetUtils() {
+	}
+	
+	/**
+	 * Create the query of the ids of the entity greater than afterId.  The null criteria are left out. 
+	 * 
+	 * @param endDate the last date, inclusive. 
+	 */
+	static TypedQuery<Integer> createIdQuery(EntityManager entityManager, String entity, String idAttribute, 
+			String dateAttribute, Integer afterId, String ori, LocalDate startDate, LocalDate endDate) {
+		StringBuilder query = new StringBuilder("SELECT s.").append(idAttribute)
+				.append(" FROM ").append(entity).append(" s WHERE s.").append(idAttribute).append(" > :afterId");
+		if (ori != null){
+			query.append(" AND s.ori = :ori");
+		}
+		if (startDate != null){
+			query.append(" AND s.").append(dateAttribute).append(" >= :startDate");
+		}
+		if (endDate != null){
+			query.append(" AND s.").append(dateAttribute).append(" < :endDate");
+		}
+		query.append(" ORDER BY s.").append(idAttribute);
+		
+		TypedQuery<Integer> typedQuery = entityManager.createQuery(query.toString(), Integer.class)
+				.setParameter("afterId", afterId == null ? 0 : afterId);
+		if (ori != null){
+			typedQuery.setParameter("ori", ori);
+		}
+		if (startDate != null){
+			typedQuery.setParameter("startDate", DateUtils.asDate(startDate), TemporalType.DATE);
+		}
+		if (endDate != null){
+			typedQuery.setParameter("endDate", DateUtils.asDate(endDate.plusDays(1)), TemporalType.DATE);
+		}
+		return typedQuery;
+	}
+	
+	/**
+	 * Scroll through the ids forward only, fetching fetchSize rows at a time.  The stream holds the result 
+	 * set open and must be closed. 
+	 */
+	static Stream<Integer> streamIds(TypedQuery<Integer> typedQuery, int fetchSize) {
+		ScrollableResults results = typedQuery.unwrap(Query.class)
+				.setFetchSize(fetchSize)
+				.setReadOnly(true)
+				.scroll(ScrollMode.FORWARD_ONLY);
+		
+		Iterator<Integer> ids = new Iterator<Integer>() {
+			private Boolean hasNext; 
+			
+			@Override
+			public boolean hasNext() {
+				if (hasNext == null){
+					hasNext = results.next();
+				}
+				return hasNext;
+			}
+			
+			@Override
+			public Integer next() {
+				if (!hasNext()){
+					throw new NoSuchElementException();
+				}
+				hasNext = null;
+				return (Integer) results.get(0);
+			}
+		};
+		
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(ids, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(results::close);
+	}
+
+}
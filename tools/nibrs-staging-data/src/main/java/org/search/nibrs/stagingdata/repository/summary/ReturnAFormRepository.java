@@ -0,0 +1,269 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.search.nibrs.model.codes.ClearedExceptionallyCode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Aggregate queries behind the Return A form.  Each incident contributes its reporting offense, the Part I 
+ * offense ranked highest by the hierarchy rule, and the queries return the counts of those offenses grouped by 
+ * every attribute the Return A rows depend on.  No segment is loaded into memory.
+ * <p/>
+ * The hierarchy rank of the offense codes is passed in by the caller.  Offenses of the same rank are ranked by 
+ * their key, so the offense counted is the one stored first.  A stolen motor vehicle property without a number 
+ * of stolen motor vehicles is counted as 0 vehicles. 
+ */
+@Repository
+public class ReturnAFormRepository {
+	
+	public static final int WEAPON_NONE = 0; 
+	public static final int WEAPON_FIREARM = 1; 
+	public static final int WEAPON_KNIFE = 2; 
+	public static final int WEAPON_OTHER_DANGEROUS = 3; 
+	public static final int WEAPON_HANDS_FISTS_FEET = 4; 
+	
+	private static final String WEAPON_EXISTS = "EXISTS (SELECT 1 FROM TypeOfWeaponForceInvolved w "
+			+ "JOIN TypeOfWeaponForceInvolvedType wt ON wt.TypeOfWeaponForceInvolvedTypeID = w.TypeOfWeaponForceInvolvedTypeID "
+			+ "WHERE w.OffenseSegmentID = o.OffenseSegmentID AND wt.FBICode IN (%s))";
+	
+	private static final String WEAPON_CATEGORY = "CASE "
+			+ "WHEN " + String.format(WEAPON_EXISTS, "'11', '12', '13', '14', '15'") + " THEN " + WEAPON_FIREARM + " "
+			+ "WHEN " + String.format(WEAPON_EXISTS, "'20'") + " THEN " + WEAPON_KNIFE + " "
+			+ "WHEN " + String.format(WEAPON_EXISTS, "'30', '35', '50', '60', '65', '70', '85', '90', '95'") 
+			+ " THEN " + WEAPON_OTHER_DANGEROUS + " "
+			+ "WHEN " + String.format(WEAPON_EXISTS, "'40', '99'") + " THEN " + WEAPON_HANDS_FISTS_FEET + " "
+			+ "ELSE " + WEAPON_NONE + " END";
+	
+	private static final String NOT_AGGRAVATED_WEAPON = "CASE WHEN " 
+			+ String.format(WEAPON_EXISTS, "'40', '90', '95', '99', ' '") + " THEN 1 ELSE 0 END";
+	
+	private static final String FEMALE_VICTIM = "CASE WHEN EXISTS (SELECT 1 FROM VictimOffenseAssociation vo "
+			+ "JOIN VictimSegment v ON v.VictimSegmentID = vo.VictimSegmentID "
+			+ "JOIN SexOfPersonType s ON s.SexOfPersonTypeID = v.SexOfPersonTypeID "
+			+ "WHERE vo.OffenseSegmentID = o.OffenseSegmentID AND s.FBICode = 'F') THEN 1 ELSE 0 END";
+	
+	private static final String PREMISES_COUNT = 
+			"CASE WHEN o.NumberOfPremisesEntered > 0 AND l.FBICode = '19' THEN o.NumberOfPremisesEntered ELSE 1 END";
+	
+	private static final String NOT_JUVENILE = "NOT ((%1$s IS NULL AND %2$s IS NULL) OR %2$s < 18 "
+			+ "OR (%1$s < 18 AND FLOOR((%1$s + %2$s) / 2.0) < 18))";
+	
+	/**
+	 * 1 when all the offenders of an exceptionally cleared incident, or all the arrestees of an incident cleared 
+	 * by arrest, are juveniles or of unknown age. 
+	 */
+	private static final String ONLY_JUVENILE = "CASE WHEN ce.FBICode IN (" 
+			+ toSqlList(ClearedExceptionallyCode.applicableCodeSet()) + ") THEN "
+			+ "CASE WHEN EXISTS (SELECT 1 FROM OffenderSegment os WHERE os.AdministrativeSegmentID = a.AdministrativeSegmentID "
+			+ "AND " + String.format(NOT_JUVENILE, "os.AgeOfOffenderMin", "os.AgeOfOffenderMax") + ") THEN 0 ELSE 1 END "
+			+ "ELSE CASE WHEN EXISTS (SELECT 1 FROM ArresteeSegment ars WHERE ars.AdministrativeSegmentID = a.AdministrativeSegmentID "
+			+ "AND " + String.format(NOT_JUVENILE, "ars.AgeOfArresteeMin", "ars.AgeOfArresteeMax") + ") THEN 0 ELSE 1 END END";
+	
+	private static final String MOTOR_VEHICLE_COUNT = "(SELECT COUNT(*) FROM PropertyType pt "
+			+ "JOIN PropertyDescriptionType pd ON pd.PropertyDescriptionTypeID = pt.PropertyDescriptionTypeID "
+			+ "WHERE pt.PropertySegmentID = p.PropertySegmentID AND pd.FBICode IN (%s))";
+	
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate; 
+	
+	/**
+	 * Count the reporting offenses and the attempted or completed 09C offenses of the incidents that occurred in 
+	 * the month.  
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param month the month, or 0 for the whole year.
+	 * @param incidentNumbers the incidents to count, or null for all the incidents.
+	 */
+	public List<ReturnAOffenseCount> findReportedOffenseCounts(String ori, int year, int month, 
+			Collection<String> incidentNumbers, Map<String, Integer> offenseRanks) {
+		String sql = getOffenseCountSql(getIncidentDatePredicate(ori, incidentNumbers), 
+				"(" + getReportingOffensePredicate(offenseRanks) + " OR (o.OffenseAttemptedCompleted IN ('A', 'C') "
+				+ "AND u.FBICode = '09C'))", 
+				"0");
+		return namedParameterJdbcTemplate.query(sql, getParameters(ori, year, month, incidentNumbers), 
+				BeanPropertyRowMapper.newInstance(ReturnAOffenseCount.class));
+	}
+	
+	/**
+	 * Count the reporting offenses of the incidents cleared in the month, exceptionally or by an arrest.  
+	 */
+	public List<ReturnAOffenseCount> findClearedOffenseCounts(String ori, int year, int month, 
+			Collection<String> incidentNumbers, Map<String, Integer> offenseRanks) {
+		String sql = getOffenseCountSql(getClearanceDatePredicate(ori, incidentNumbers), 
+				getReportingOffensePredicate(offenseRanks), ONLY_JUVENILE);
+		return namedParameterJdbcTemplate.query(sql, getParameters(ori, year, month, incidentNumbers), 
+				BeanPropertyRowMapper.newInstance(ReturnAOffenseCount.class));
+	}
+	
+	/**
+	 * Count the stolen property segments of the incidents that occurred in the month and whose reporting offense 
+	 * is a motor vehicle theft.  
+	 */
+	public List<ReturnAMotorVehicleCount> findReportedMotorVehicleCounts(String ori, int year, int month, 
+			Collection<String> incidentNumbers, Map<String, Integer> offenseRanks) {
+		String sql = getMotorVehicleCountSql(getIncidentDatePredicate(ori, incidentNumbers), offenseRanks, "0");
+		return namedParameterJdbcTemplate.query(sql, getParameters(ori, year, month, incidentNumbers), 
+				BeanPropertyRowMapper.newInstance(ReturnAMotorVehicleCount.class));
+	}
+	
+	/**
+	 * Count the stolen property segments of the incidents cleared in the month whose reporting offense is a motor 
+	 * vehicle theft.  
+	 */
+	public List<ReturnAMotorVehicleCount> findClearedMotorVehicleCounts(String ori, int year, int month, 
+			Collection<String> incidentNumbers, Map<String, Integer> offenseRanks) {
+		String sql = getMotorVehicleCountSql(getClearanceDatePredicate(ori, incidentNumbers), offenseRanks, ONLY_JUVENILE);
+		return namedParameterJdbcTemplate.query(sql, getParameters(ori, year, month, incidentNumbers), 
+				BeanPropertyRowMapper.newInstance(ReturnAMotorVehicleCount.class));
+	}
+
+	/**
+	 * @return the ORIs of the agencies with incidents that occurred or were cleared in the month. 
+	 */
+	public List<String> findOris(int year, int month) {
+		String sql = "SELECT DISTINCT a.ORI FROM AdministrativeSegment a WHERE a.ORI IS NOT NULL AND ((" 
+				+ getIncidentDatePredicate(null, null) + ") OR " + getClearanceDatePredicate(null, null) + ")";
+		return namedParameterJdbcTemplate.queryForList(sql, getParameters(null, year, month, null), String.class);
+	}
+
+	private String getOffenseCountSql(String incidentPredicate, String offensePredicate, String onlyJuvenile) {
+		return "SELECT t.offenseCode, t.offenseAttemptedCompleted, t.weaponCategory, t.notAggravatedWeapon, "
+				+ "t.femaleVictim, t.methodOfEntryCode, t.onlyJuvenile, "
+				+ "COUNT(*) AS offenseCount, SUM(t.premisesCount) AS premisesCount "
+				+ "FROM (SELECT u.FBICode AS offenseCode, o.OffenseAttemptedCompleted AS offenseAttemptedCompleted, "
+				+ WEAPON_CATEGORY + " AS weaponCategory, " 
+				+ NOT_AGGRAVATED_WEAPON + " AS notAggravatedWeapon, "
+				+ FEMALE_VICTIM + " AS femaleVictim, "
+				+ "m.FBICode AS methodOfEntryCode, "
+				+ onlyJuvenile + " AS onlyJuvenile, "
+				+ PREMISES_COUNT + " AS premisesCount "
+				+ "FROM AdministrativeSegment a "
+				+ "JOIN OffenseSegment o ON o.AdministrativeSegmentID = a.AdministrativeSegmentID "
+				+ "JOIN UCROffenseCodeType u ON u.UCROffenseCodeTypeID = o.UCROffenseCodeTypeID "
+				+ "LEFT JOIN MethodOfEntryType m ON m.MethodOfEntryTypeID = o.MethodOfEntryTypeID "
+				+ "LEFT JOIN LocationTypeType l ON l.LocationTypeTypeID = o.LocationTypeTypeID "
+				+ "LEFT JOIN ClearedExceptionallyType ce ON ce.ClearedExceptionallyTypeID = a.ClearedExceptionallyTypeID "
+				+ "WHERE " + incidentPredicate + " AND " + offensePredicate + ") t "
+				+ "GROUP BY t.offenseCode, t.offenseAttemptedCompleted, t.weaponCategory, t.notAggravatedWeapon, "
+				+ "t.femaleVictim, t.methodOfEntryCode, t.onlyJuvenile";
+	}
+	
+	private String getMotorVehicleCountSql(String incidentPredicate, Map<String, Integer> offenseRanks, 
+			String onlyJuvenile) {
+		return "SELECT t.offenseAttemptedCompleted, t.numberOfStolenMotorVehicles, t.autoCount, t.truckBusCount, "
+				+ "t.otherVehicleCount, t.onlyJuvenile, COUNT(*) AS propertyCount "
+				+ "FROM (SELECT o.OffenseAttemptedCompleted AS offenseAttemptedCompleted, "
+				+ "COALESCE(p.NumberOfStolenMotorVehicles, 0) AS numberOfStolenMotorVehicles, "
+				+ String.format(MOTOR_VEHICLE_COUNT, "'03'") + " AS autoCount, "
+				+ String.format(MOTOR_VEHICLE_COUNT, "'05', '28', '37'") + " AS truckBusCount, "
+				+ String.format(MOTOR_VEHICLE_COUNT, "'24'") + " AS otherVehicleCount, "
+				+ onlyJuvenile + " AS onlyJuvenile "
+				+ "FROM AdministrativeSegment a "
+				+ "JOIN OffenseSegment o ON o.AdministrativeSegmentID = a.AdministrativeSegmentID "
+				+ "JOIN UCROffenseCodeType u ON u.UCROffenseCodeTypeID = o.UCROffenseCodeTypeID "
+				+ "JOIN PropertySegment p ON p.AdministrativeSegmentID = a.AdministrativeSegmentID "
+				+ "JOIN TypePropertyLossEtcType pl ON pl.TypePropertyLossEtcTypeID = p.TypePropertyLossEtcTypeID "
+				+ "LEFT JOIN ClearedExceptionallyType ce ON ce.ClearedExceptionallyTypeID = a.ClearedExceptionallyTypeID "
+				+ "WHERE " + incidentPredicate + " AND u.FBICode = '240' AND pl.FBICode = '7' AND " 
+				+ getReportingOffensePredicate(offenseRanks) + ") t "
+				+ "GROUP BY t.offenseAttemptedCompleted, t.numberOfStolenMotorVehicles, t.autoCount, t.truckBusCount, "
+				+ "t.otherVehicleCount, t.onlyJuvenile";
+	}
+	
+	/**
+	 * The attempted or completed Part I offense of the incident with the best rank. 
+	 */
+	private String getReportingOffensePredicate(Map<String, Integer> offenseRanks) {
+		String rank = getOffenseRankExpression("u", offenseRanks);
+		String otherRank = getOffenseRankExpression("u2", offenseRanks);
+		return "(o.OffenseAttemptedCompleted IN ('A', 'C') AND " + rank + " < 99 AND NOT EXISTS ("
+				+ "SELECT 1 FROM OffenseSegment o2 "
+				+ "JOIN UCROffenseCodeType u2 ON u2.UCROffenseCodeTypeID = o2.UCROffenseCodeTypeID "
+				+ "WHERE o2.AdministrativeSegmentID = o.AdministrativeSegmentID AND o2.OffenseAttemptedCompleted IN ('A', 'C') "
+				+ "AND (" + otherRank + " < " + rank + " OR (" + otherRank + " = " + rank 
+				+ " AND o2.OffenseSegmentID < o.OffenseSegmentID))))";
+	}
+	
+	private String getOffenseRankExpression(String alias, Map<String, Integer> offenseRanks) {
+		return offenseRanks.entrySet().stream()
+				.map(entry -> "WHEN '" + entry.getKey() + "' THEN " + entry.getValue())
+				.collect(Collectors.joining(" ", "(CASE " + alias + ".FBICode ", " ELSE 99 END)"));
+	}
+	
+	private String getIncidentDatePredicate(String ori, Collection<String> incidentNumbers) {
+		return getOriPredicate(ori) + getIncidentNumberPredicate(incidentNumbers) 
+				+ "a.IncidentDate >= :startDate AND a.IncidentDate < :endDate";
+	}
+	
+	/**
+	 * The incidents cleared exceptionally and the incidents with an arrest in the month are looked up separately 
+	 * with a range on an indexed date column, and the union is materialized before the segments are joined.  When 
+	 * only some incidents are counted, their clearance dates are checked directly instead. 
+	 */
+	private String getClearanceDatePredicate(String ori, Collection<String> incidentNumbers) {
+		if (incidentNumbers != null){
+			return getOriPredicate(ori) + getIncidentNumberPredicate(incidentNumbers) 
+					+ "((a.ExceptionalClearanceDate >= :startDate AND a.ExceptionalClearanceDate < :endDate) "
+					+ "OR EXISTS (SELECT 1 FROM ArresteeSegment ar WHERE ar.AdministrativeSegmentID = a.AdministrativeSegmentID "
+					+ "AND ar.ArrestDate >= :startDate AND ar.ArrestDate < :endDate))";
+		}
+		
+		return getOriPredicate(ori) + "a.AdministrativeSegmentID IN (SELECT c.AdministrativeSegmentID FROM ("
+				+ "SELECT ac.AdministrativeSegmentID FROM AdministrativeSegment ac WHERE " 
+				+ (ori == null ? "" : "ac.ORI = :ori AND ") 
+				+ "ac.ExceptionalClearanceDate >= :startDate AND ac.ExceptionalClearanceDate < :endDate "
+				+ "UNION SELECT ar.AdministrativeSegmentID FROM ArresteeSegment ar "
+				+ "WHERE ar.ArrestDate >= :startDate AND ar.ArrestDate < :endDate) c)";
+	}
+	
+	private String getOriPredicate(String ori) {
+		return ori == null ? "" : "a.ORI = :ori AND ";
+	}
+	
+	private String getIncidentNumberPredicate(Collection<String> incidentNumbers) {
+		return incidentNumbers == null ? "" : "a.IncidentNumber IN (:incidentNumbers) AND ";
+	}
+	
+	private MapSqlParameterSource getParameters(String ori, int year, int month, Collection<String> incidentNumbers) {
+		LocalDate startDate = LocalDate.of(year, month == 0 ? 1 : month, 1); 
+		LocalDate endDate = month == 0 ? startDate.plusYears(1) : startDate.plusMonths(1);  
+		return new MapSqlParameterSource()
+				.addValue("ori", ori)
+				.addValue("incidentNumbers", incidentNumbers)
+				.addValue("startDate", Date.valueOf(startDate))
+				.addValue("endDate", Date.valueOf(endDate));
+	}
+	
+	private static String toSqlList(Iterable<String> codes) {
+		StringBuilder sqlList = new StringBuilder();
+		for (String code : codes){
+			sqlList.append(sqlList.length() == 0 ? "" : ", ").append('\'').append(code).append('\'');
+		}
+		return sqlList.toString();
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+/**
+ * The number of stolen property segments of motor vehicle thefts sharing the vehicle counts.
+ */
+public class ReturnAMotorVehicleCount {
+	
+	private String offenseAttemptedCompleted; 
+	private int numberOfStolenMotorVehicles; 
+	private int autoCount; 
+	private int truckBusCount; 
+	private int otherVehicleCount; 
+	private boolean onlyJuvenile; 
+	private int propertyCount;
+	
+	public String getOffenseAttemptedCompleted() {
+		return offenseAttemptedCompleted;
+	}
+	public void setOffenseAttemptedCompleted(String offenseAttemptedCompleted) {
+		this.offenseAttemptedCompleted = offenseAttemptedCompleted;
+	}
+	public int getNumberOfStolenMotorVehicles() {
+		return numberOfStolenMotorVehicles;
+	}
+	public void setNumberOfStolenMotorVehicles(int numberOfStolenMotorVehicles) {
+		this.numberOfStolenMotorVehicles = numberOfStolenMotorVehicles;
+	}
+	/**
+	 * The number of property descriptions 03 (Automobiles). 
+	 */
+	public int getAutoCount() {
+		return autoCount;
+	}
+	public void setAutoCount(int autoCount) {
+		this.autoCount = autoCount;
+	}
+	/**
+	 * The number of property descriptions 05 (Buses), 28 (Recreational Vehicles) and 37 (Trucks). 
+	 */
+	public int getTruckBusCount() {
+		return truckBusCount;
+	}
+	public void setTruckBusCount(int truckBusCount) {
+		this.truckBusCount = truckBusCount;
+	}
+	/**
+	 * The number of property descriptions 24 (Other Motor Vehicles). 
+	 */
+	public int getOtherVehicleCount() {
+		return otherVehicleCount;
+	}
+	public void setOtherVehicleCount(int otherVehicleCount) {
+		this.otherVehicleCount = otherVehicleCount;
+	}
+	public int getMotorVehicleCount() {
+		return autoCount + truckBusCount + otherVehicleCount;
+	}
+	public boolean isOnlyJuvenile() {
+		return onlyJuvenile;
+	}
+	public void setOnlyJuvenile(boolean onlyJuvenile) {
+		this.onlyJuvenile = onlyJuvenile;
+	}
+	public int getPropertyCount() {
+		return propertyCount;
+	}
+	public void setPropertyCount(int propertyCount) {
+		this.propertyCount = propertyCount;
+	} 
+	
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+/**
+ * The number of reporting offenses sharing the attributes that decide their Return A row.
+ */
+public class ReturnAOffenseCount {
+	
+	private String offenseCode; 
+	private String offenseAttemptedCompleted; 
+	private int weaponCategory; 
+	private boolean notAggravatedWeapon; 
+	private boolean femaleVictim; 
+	private String methodOfEntryCode; 
+	private boolean onlyJuvenile; 
+	private int offenseCount; 
+	private int premisesCount;
+	
+	public String getOffenseCode() {
+		return offenseCode;
+	}
+	public void setOffenseCode(String offenseCode) {
+		this.offenseCode = offenseCode;
+	}
+	public String getOffenseAttemptedCompleted() {
+		return offenseAttemptedCompleted;
+	}
+	public void setOffenseAttemptedCompleted(String offenseAttemptedCompleted) {
+		this.offenseAttemptedCompleted = offenseAttemptedCompleted;
+	}
+	/**
+	 * One of the ReturnAFormRepository.WEAPON_* categories of the most dangerous weapon involved. 
+	 */
+	public int getWeaponCategory() {
+		return weaponCategory;
+	}
+	public void setWeaponCategory(int weaponCategory) {
+		this.weaponCategory = weaponCategory;
+	}
+	/**
+	 * True when a personal weapon, other weapon, no weapon or unknown weapon was involved.
+	 */
+	public boolean isNotAggravatedWeapon() {
+		return notAggravatedWeapon;
+	}
+	public void setNotAggravatedWeapon(boolean notAggravatedWeapon) {
+		this.notAggravatedWeapon = notAggravatedWeapon;
+	}
+	public boolean isFemaleVictim() {
+		return femaleVictim;
+	}
+	public void setFemaleVictim(boolean femaleVictim) {
+		this.femaleVictim = femaleVictim;
+	}
+	public String getMethodOfEntryCode() {
+		return methodOfEntryCode;
+	}
+	public void setMethodOfEntryCode(String methodOfEntryCode) {
+		this.methodOfEntryCode = methodOfEntryCode;
+	}
+	public boolean isOnlyJuvenile() {
+		return onlyJuvenile;
+	}
+	public void setOnlyJuvenile(boolean onlyJuvenile) {
+		this.onlyJuvenile = onlyJuvenile;
+	}
+	public int getOffenseCount() {
+		return offenseCount;
+	}
+	public void setOffenseCount(int offenseCount) {
+		this.offenseCount = offenseCount;
+	}
+	/**
+	 * The number of burglaries: the premises entered of the rental storage facility burglaries, 1 for the others.
+	 */
+	public int getPremisesCount() {
+		return premisesCount;
+	}
+	public void setPremisesCount(int premisesCount) {
+		this.premisesCount = premisesCount;
+	} 
+	
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+import java.util.Objects;
+
+/**
+ * A month of an agency in the Return A summary table.  The month 0 holds the whole year.
+ */
+public class ReturnASummaryPeriod {
+	
+	private String ori; 
+	private int year; 
+	private int month;
+	
+	public ReturnASummaryPeriod() {
+		super();
+	}
+	
+	public ReturnASummaryPeriod(String ori, int year, int month) {
+		this();
+		this.ori = ori; 
+		this.year = year; 
+		this.month = month; 
+	}
+	
+	public String getOri() {
+		return ori;
+	}
+	public void setOri(String ori) {
+		this.ori = ori;
+	}
+	public int getYear() {
+		return year;
+	}
+	public void setYear(int year) {
+		this.year = year;
+	}
+	public int getMonth() {
+		return month;
+	}
+	public void setMonth(int month) {
+		this.month = month;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(ori, year, month);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj){
+			return true;
+		}
+		if (!(obj instanceof ReturnASummaryPeriod)){
+			return false;
+		}
+		ReturnASummaryPeriod other = (ReturnASummaryPeriod) obj;
+		return Objects.equals(ori, other.ori) && year == other.year && month == other.month;
+	}
+	
+	@Override
+	public String toString() {
+		return "ReturnASummaryPeriod [ori=" + ori + ", year=" + year + ", month=" + month + "]";
+	}
+}
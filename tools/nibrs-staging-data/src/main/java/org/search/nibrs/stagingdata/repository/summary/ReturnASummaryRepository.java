@@ -0,0 +1,172 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.model.reports.ReturnAFormRow;
+import org.search.nibrs.model.reports.ReturnARowName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The ReturnASummary table holds the Return A rows of each agency by month, and by year under the month 0.  
+ * Only the rows with a count are stored.  The rows of several agencies are summed when read, so a statewide form 
+ * is a keyed read too.
+ */
+@Repository
+public class ReturnASummaryRepository {
+	
+	/**
+	 * The months an incident is counted in: the month of the incident date for the reported offenses, the months 
+	 * of the exceptional clearance date and of the arrest dates for the cleared offenses.
+	 */
+	private static final String INCIDENT_PERIODS = "SELECT a.ORI AS ori, YEAR(a.IncidentDate) AS year, "
+			+ "MONTH(a.IncidentDate) AS month FROM AdministrativeSegment a WHERE a.ORI IS NOT NULL "
+			+ "AND a.IncidentDate IS NOT NULL%1$s "
+			+ "UNION SELECT a.ORI AS ori, YEAR(a.ExceptionalClearanceDate) AS year, "
+			+ "MONTH(a.ExceptionalClearanceDate) AS month FROM AdministrativeSegment a WHERE a.ORI IS NOT NULL "
+			+ "AND a.ExceptionalClearanceDate IS NOT NULL%1$s "
+			+ "UNION SELECT a.ORI AS ori, YEAR(ar.ArrestDate) AS year, MONTH(ar.ArrestDate) AS month "
+			+ "FROM AdministrativeSegment a "
+			+ "JOIN ArresteeSegment ar ON ar.AdministrativeSegmentID = a.AdministrativeSegmentID "
+			+ "WHERE a.ORI IS NOT NULL AND ar.ArrestDate IS NOT NULL%1$s";
+	
+	@Autowired
+	NamedParameterJdbcTemplate namedParameterJdbcTemplate; 
+	
+	/**
+	 * @return the months the incidents with the incident numbers are counted in. 
+	 */
+	public List<ReturnASummaryPeriod> findIncidentPeriods(Collection<String> incidentNumbers) {
+		if (incidentNumbers.isEmpty()){
+			return Collections.emptyList();
+		}
+		return namedParameterJdbcTemplate.query(
+				String.format(INCIDENT_PERIODS, " AND a.IncidentNumber IN (:incidentNumbers)"), 
+				new MapSqlParameterSource("incidentNumbers", incidentNumbers), 
+				BeanPropertyRowMapper.newInstance(ReturnASummaryPeriod.class));
+	}
+	
+	/**
+	 * @return the months any incident is counted in. 
+	 */
+	public List<ReturnASummaryPeriod> findAllIncidentPeriods() {
+		return namedParameterJdbcTemplate.query(String.format(INCIDENT_PERIODS, ""), 
+				BeanPropertyRowMapper.newInstance(ReturnASummaryPeriod.class));
+	}
+	
+	/**
+	 * @return the periods stored in the summary table. 
+	 */
+	public List<ReturnASummaryPeriod> findSummaryPeriods() {
+		return namedParameterJdbcTemplate.query("SELECT DISTINCT ORI AS ori, Year AS year, Month AS month FROM ReturnASummary", 
+				BeanPropertyRowMapper.newInstance(ReturnASummaryPeriod.class));
+	}
+	
+	/**
+	 * Add the stored rows of the month to the form.
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param month the month, or 0 for the whole year.
+	 */
+	public void fillReturnAForm(ReturnAForm returnAForm, String ori, int year, int month) {
+		String sql = "SELECT ReturnARowName, SUM(ReportedOffenses), SUM(UnfoundedOffenses), SUM(ClearedOffenses), "
+				+ "SUM(ClearanceInvolvingOnlyJuvenile) FROM ReturnASummary "
+				+ "WHERE " + (ori == null ? "" : "ORI = :ori AND ") + "Year = :year AND Month = :month "
+				+ "GROUP BY ReturnARowName";
+		MapSqlParameterSource parameters = new MapSqlParameterSource()
+				.addValue("ori", ori)
+				.addValue("year", year)
+				.addValue("month", month);
+		
+		namedParameterJdbcTemplate.query(sql, parameters, resultSet -> {
+			ReturnAFormRow row = returnAForm.getRows()[ReturnARowName.valueOf(resultSet.getString(1)).ordinal()];
+			row.increaseReportedOffenses(resultSet.getInt(2));
+			row.increaseUnfoundedOffenses(resultSet.getInt(3));
+			row.increaseClearedOffenses(resultSet.getInt(4));
+			row.increaseClearanceInvolvingOnlyJuvenile(resultSet.getInt(5));
+		});
+	}
+	
+	/**
+	 * Add the rows of the form to the stored rows of the period.  The counts are added by the UPDATE statements, 
+	 * so the writers of the same period wait on the row locks instead of overwriting each other's counts.  A 
+	 * missing row is inserted and the rows whose counts drop to 0 are deleted. 
+	 */
+	public void addReturnAForm(ReturnASummaryPeriod period, ReturnAForm returnAForm) {
+		MapSqlParameterSource periodParameters = new MapSqlParameterSource()
+				.addValue("ori", period.getOri())
+				.addValue("year", period.getYear())
+				.addValue("month", period.getMonth());
+		
+		boolean changed = false; 
+		for (ReturnARowName returnARowName : ReturnARowName.values()){
+			ReturnAFormRow row = returnAForm.getRows()[returnARowName.ordinal()];
+			if (row.getReportedOffenses() != 0 || row.getUnfoundedOffenses() != 0 || row.getClearedOffenses() != 0 
+					|| row.getClearanceInvolvingOnlyJuvenile() != 0){
+				addRow(new MapSqlParameterSource(periodParameters.getValues())
+						.addValue("returnARowName", returnARowName.name())
+						.addValue("reportedOffenses", row.getReportedOffenses())
+						.addValue("unfoundedOffenses", row.getUnfoundedOffenses())
+						.addValue("clearedOffenses", row.getClearedOffenses())
+						.addValue("clearanceInvolvingOnlyJuvenile", row.getClearanceInvolvingOnlyJuvenile()));
+				changed = true; 
+			}
+		}
+		
+		if (changed){
+			namedParameterJdbcTemplate.update("DELETE FROM ReturnASummary WHERE ORI = :ori AND Year = :year "
+					+ "AND Month = :month AND ReportedOffenses = 0 AND UnfoundedOffenses = 0 AND ClearedOffenses = 0 "
+					+ "AND ClearanceInvolvingOnlyJuvenile = 0", periodParameters);
+		}
+	}
+	
+	private void addRow(SqlParameterSource rowParameters) {
+		if (updateRow(rowParameters) > 0){
+			return;
+		}
+		
+		try {
+			namedParameterJdbcTemplate.update("INSERT INTO ReturnASummary (ORI, Year, Month, ReturnARowName, "
+					+ "ReportedOffenses, UnfoundedOffenses, ClearedOffenses, ClearanceInvolvingOnlyJuvenile) "
+					+ "VALUES (:ori, :year, :month, :returnARowName, :reportedOffenses, :unfoundedOffenses, "
+					+ ":clearedOffenses, :clearanceInvolvingOnlyJuvenile)", rowParameters);
+		}
+		catch (DuplicateKeyException e) {
+			// inserted by a concurrent writer since the update
+			updateRow(rowParameters);
+		}
+	}
+	
+	private int updateRow(SqlParameterSource rowParameters) {
+		return namedParameterJdbcTemplate.update("UPDATE ReturnASummary SET "
+				+ "ReportedOffenses = ReportedOffenses + :reportedOffenses, "
+				+ "UnfoundedOffenses = UnfoundedOffenses + :unfoundedOffenses, "
+				+ "ClearedOffenses = ClearedOffenses + :clearedOffenses, "
+				+ "ClearanceInvolvingOnlyJuvenile = ClearanceInvolvingOnlyJuvenile + :clearanceInvolvingOnlyJuvenile "
+				+ "WHERE ORI = :ori AND Year = :year AND Month = :month AND ReturnARowName = :returnARowName", 
+				rowParameters);
+	}
+}
@@ -15,12 +15,23 @@
  */
 package org.search.nibrs.stagingdata.service;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
 
 import org.apache.commons.lang3.StringUtils;
@@ -72,8 +83,14 @@ import org.search.nibrs.stagingdata.repository.UcrOffenseCodeTypeRepository;
 import org.search.nibrs.stagingdata.repository.VictimOffenderRelationshipTypeRepository;
 import org.search.nibrs.stagingdata.repository.segment.ArrestReportSegmentRepository;
 import org.search.nibrs.stagingdata.util.DateUtils;
+import org.search.nibrs.stagingdata.util.ReportBatchUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service to process Group B Arrest Report.  
@@ -87,6 +104,12 @@ public class ArrestReportService {
 
 	private static final Log log = LogFactory.getLog(ArrestReportService.class);
 
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	MeterRegistry meterRegistry;
+	@Autowired
+	PlatformTransactionManager transactionManager; 
 	@Autowired
 	ArrestReportSegmentRepository arrestReportSegmentRepository;
 	@Autowired
@@ -160,22 +183,125 @@ public class ArrestReportService {
 		return arrestReportSegmentRepository.findByArrestReportSegmentId(id);
 	}
 	
-	public List<ArrestReportSegment> findAllArrestReportSegment(){
+	/**
+	 * Find the first maxSize arrest report segments in the order of the ids, reading them pageSize at a time.  
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param startDate the first arrest date, or null. 
+	 * @param endDate the last arrest date, inclusive, or null. 
+	 */
+	public List<ArrestReportSegment> findArrestReportSegments(String ori, LocalDate startDate, LocalDate endDate, 
+			int pageSize, int maxSize){
 		List<ArrestReportSegment> arrestReportSegments = new ArrayList<>();
-		arrestReportSegmentRepository.findAll().forEach(arrestReportSegments::add);
+		List<ArrestReportSegment> page = findArrestReportSegmentsAfter(null, ori, startDate, endDate, Math.min(pageSize, maxSize)); 
+		while (!page.isEmpty()){
+			arrestReportSegments.addAll(page);
+			int size = Math.min(pageSize, maxSize - arrestReportSegments.size()); 
+			Integer afterId = page.get(page.size() - 1).getArrestReportSegmentId(); 
+			page = page.size() < pageSize || size == 0 ? 
+					Collections.emptyList() : findArrestReportSegmentsAfter(afterId, ori, startDate, endDate, size);
+		}
 		return arrestReportSegments;
 	}
 	
+	/**
+	 * Find the first size arrest report segments with an id greater than afterId, in the order of the ids.  
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param startDate the first arrest date, or null. 
+	 * @param endDate the last arrest date, inclusive, or null. 
+	 */
+	public List<ArrestReportSegment> findArrestReportSegmentsAfter(Integer afterId, String ori, LocalDate startDate, 
+			LocalDate endDate, int size){
+		return findArrestReportSegments(arrestReportSegmentRepository.findIdsAfter(afterId, ori, startDate, endDate, size));
+	}
+	
+	/**
+	 * Pass the arrest report segments to the consumer in the order of the ids, in one read transaction.  The ids are 
+	 * scrolled with the fetch size and the segments are loaded chunkSize at a time, the persistence context is 
+	 * cleared after each chunk so the memory used does not grow with the number of segments.  
+	 * 
+	 * @return the number of arrest report segments passed to the consumer. 
+	 */
+	@Transactional
+	public int streamArrestReportSegments(String ori, LocalDate startDate, LocalDate endDate, 
+			int fetchSize, int chunkSize, Consumer<ArrestReportSegment> consumer){
+		int count = 0; 
+		try (Stream<Integer> idStream = arrestReportSegmentRepository.streamIds(ori, startDate, endDate, fetchSize)){
+			Iterator<Integer> ids = idStream.iterator(); 
+			List<Integer> chunk = new ArrayList<>(chunkSize); 
+			while (ids.hasNext()){
+				chunk.add(ids.next());
+				if (chunk.size() == chunkSize || !ids.hasNext()){
+					List<ArrestReportSegment> arrestReportSegments = findArrestReportSegments(chunk);
+					arrestReportSegments.forEach(consumer);
+					count += arrestReportSegments.size();
+					entityManager.clear();
+					chunk.clear();
+				}
+			}
+		}
+		return count;
+	}
+	
+	private List<ArrestReportSegment> findArrestReportSegments(List<Integer> ids){
+		if (ids.isEmpty()){
+			return Collections.emptyList();
+		}
+		
+		Map<Integer, ArrestReportSegment> arrestReportSegments = new TreeMap<>(); 
+		arrestReportSegmentRepository.findAll(ids).forEach(arrestReportSegment -> 
+			arrestReportSegments.put(arrestReportSegment.getArrestReportSegmentId(), arrestReportSegment));
+		return new ArrayList<>(arrestReportSegments.values());
+	}
+	
 	public long deleteGroupBArrestReport(String identifier){
 		if ( StringUtils.isBlank(identifier) ){
 			log.error(BAD_DELETE_REQUEST); 
 			throw new BadRequestException(BAD_DELETE_REQUEST);
 		}
-		return arrestReportSegmentRepository.deleteByArrestTransactionNumber(identifier);
+		return arrestReportSegmentRepository.deleteByArrestTransactionNumberIn(Collections.singleton(identifier));
 	}
 	
+	/**
+	 * Save the reports in chunks of chunkSize reports.  The reports with the report action type 'D' are deleted.
+	 * 
+	 * @return the number of reports processed.
+	 */
+	public int saveGroupBArrestReports(Iterator<GroupBArrestReport> groupBArrestReports, int chunkSize){
+		Timer chunkTimer = meterRegistry.timer("nibrs.staging.persist.chunk", "type", "groupB");
+		int count = ReportBatchUtils.processInChunks(groupBArrestReports, chunkSize, 
+				chunk -> chunkTimer.record(() -> saveGroupBArrestReports(chunk.toArray(new GroupBArrestReport[chunk.size()]))), 
+				report -> deleteGroupBArrestReport(report.getIdentifier()));
+
+		meterRegistry.counter("nibrs.staging.reports", "type", "groupB").increment(count);
+		return count;
+	}
+	
+	/**
+	 * Replace the arrest reports.  The existing arrest reports with the same identifiers are deleted with set based 
+	 * statements before the new ones are inserted.  The delete and the insert run in one transaction, so the old 
+	 * arrest reports are kept when the insert fails.
+	 */
 	public Iterable<ArrestReportSegment> saveGroupBArrestReports(GroupBArrestReport... groupBArrestReports){
 		
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			Set<String> identifiers = Arrays.stream(groupBArrestReports)
+					.map(GroupBArrestReport::getIdentifier)
+					.filter(StringUtils::isNotBlank)
+					.collect(Collectors.toSet());
+			arrestReportSegmentRepository.deleteByArrestTransactionNumberIn(identifiers);
+			
+			return arrestReportSegmentRepository.save(createArrestReportSegments(groupBArrestReports));
+		});
+	}
+	
+	/**
+	 * Map the arrest reports to new arrest report segments, resolving the code table and date references.  The 
+	 * reports without an arrestee or an identifier are skipped.  Nothing is saved.
+	 */
+	public List<ArrestReportSegment> createArrestReportSegments(GroupBArrestReport... groupBArrestReports){
+		
 		List<ArrestReportSegment> arrestReportSegments = new ArrayList<>(); 
 		
 		for(GroupBArrestReport groupBArrestReport : groupBArrestReports){
@@ -185,10 +311,7 @@ public class ArrestReportService {
 //				throw new BadRequestException(BAD_SAVE_REQUEST);
 				continue;
 			}
-			
-			if (arrestReportSegmentRepository.existsByArrestTransactionNumber(groupBArrestReport.getIdentifier())){
-				arrestReportSegmentRepository.deleteByArrestTransactionNumber(groupBArrestReport.getIdentifier());
-			}
+
 			ArrestReportSegment arrestReportSegment = new ArrestReportSegment();
 			
 //			Optional<ArrestReportSegment> existingArrestReportSegment = 
@@ -201,7 +324,7 @@ public class ArrestReportService {
 			
 			String reportActionType = String.valueOf(groupBArrestReport.getReportActionType()).trim();
 			SegmentActionTypeType segmentActionType = codeTableService.getCodeTableType(reportActionType, 
-					segmentActionTypeRepository::findFirstByStateCode, SegmentActionTypeType::new);
+					SegmentActionTypeType.class, SegmentActionTypeType::new);
 			arrestReportSegment.setSegmentActionType(segmentActionType);
 			
 			Optional<Integer> monthOfTape = Optional.ofNullable(groupBArrestReport.getMonthOfTape());
@@ -222,42 +345,42 @@ public class ArrestReportService {
 			arrestReportSegment.setArresteeSequenceNumber(groupBArrestReport.getArresteeSequenceNumber());
 			
 			arrestReportSegment.setArrestDate(DateUtils.asDate(groupBArrestReport.getArrestDate()));
-			arrestReportSegment.setArrestDateType(codeTableService.getDateType(DateUtils.asDate(groupBArrestReport.getArrestDate())));
+			arrestReportSegment.setArrestDateType(codeTableService.getDateType(groupBArrestReport.getArrestDate()));
 			
 			TypeOfArrestType typeOfArrestType = codeTableService.getCodeTableType(
-					arrestee.getTypeOfArrest(), typeOfArrestTypeRepository::findFirstByStateCode, TypeOfArrestType::new);
+					arrestee.getTypeOfArrest(), TypeOfArrestType.class, TypeOfArrestType::new);
 			arrestReportSegment.setTypeOfArrestType(typeOfArrestType );
 			
 			arrestReportSegment.setAgeOfArresteeMin(arrestee.getAge().getAgeMin());
 			arrestReportSegment.setAgeOfArresteeMax(arrestee.getAge().getAgeMax());
 	
 			SexOfPersonType sexOfPersonType = codeTableService.getCodeTableType(
-					arrestee.getSex(), sexOfPersonTypeRepository::findFirstByStateCode, SexOfPersonType::new);
+					arrestee.getSex(), SexOfPersonType.class, SexOfPersonType::new);
 			arrestReportSegment.setSexOfPersonType(sexOfPersonType);
 			
 			RaceOfPersonType raceOfPersonType = codeTableService.getCodeTableType(
-					arrestee.getRace(), raceOfPersonTypeRepository::findFirstByStateCode, RaceOfPersonType::new);
+					arrestee.getRace(), RaceOfPersonType.class, RaceOfPersonType::new);
 			arrestReportSegment.setRaceOfPersonType(raceOfPersonType);
 			
 			EthnicityOfPersonType ethnicityOfPersonType = codeTableService.getCodeTableType(
-					arrestee.getEthnicity(), ethnicityOfPersonTypeRepository::findFirstByStateCode, EthnicityOfPersonType::new);
+					arrestee.getEthnicity(), EthnicityOfPersonType.class, EthnicityOfPersonType::new);
 			arrestReportSegment.setEthnicityOfPersonType(ethnicityOfPersonType);
 			
 			ResidentStatusOfPersonType residentStatusOfPersonType = codeTableService.getCodeTableType(
 					arrestee.getResidentStatus(), 
-					residentStatusOfPersonTypeRepository::findFirstByStateCode, 
+					ResidentStatusOfPersonType.class, 
 					ResidentStatusOfPersonType::new);
 			arrestReportSegment.setResidentStatusOfPersonType(residentStatusOfPersonType);
 			
 			DispositionOfArresteeUnder18Type dispositionOfArresteeUnder18Type = codeTableService.getCodeTableType(
 					arrestee.getDispositionOfArresteeUnder18(), 
-					dispositionOfArresteeUnder18TypeRepository::findFirstByStateCode, 
+					DispositionOfArresteeUnder18Type.class, 
 					DispositionOfArresteeUnder18Type::new);
 			arrestReportSegment.setDispositionOfArresteeUnder18Type(dispositionOfArresteeUnder18Type );
 			
 			UcrOffenseCodeType ucrOffenseCodeType = codeTableService.getCodeTableType(
 					arrestee.getUcrArrestOffenseCode(), 
-					ucrOffenseCodeTypeRepository::findFirstByStateCode, 
+					UcrOffenseCodeType.class, 
 					UcrOffenseCodeType::new);;
 			arrestReportSegment.setUcrOffenseCodeType(ucrOffenseCodeType);
 			
@@ -266,7 +389,7 @@ public class ArrestReportService {
 			arrestReportSegments.add(arrestReportSegment);
 		}
 		
-		return arrestReportSegmentRepository.save(arrestReportSegments);
+		return arrestReportSegments;
 	}
 
 	private void processArrestReportSegmentArmedWiths(ArrestReportSegment arrestReportSegment, ArresteeSegment arrestee) {
@@ -284,7 +407,7 @@ public class ArrestReportService {
 				if (StringUtils.isNotBlank(arresteeArmedWithCode)){
 					Optional<ArresteeWasArmedWithType> arresteeWasArmedWithType = 
 							Optional.ofNullable(codeTableService.getCodeTableType(arresteeArmedWithCode,
-									arresteeWasArmedWithTypeRepository::findFirstByStateCode, 
+									ArresteeWasArmedWithType.class, 
 									null));
 					arresteeWasArmedWithType.ifPresent( type ->
 						armedWiths.add(new ArrestReportSegmentWasArmedWith(
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.model.GroupBArrestReport;
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.stagingdata.AppProperties;
+import org.search.nibrs.stagingdata.model.segment.AdministrativeSegment;
+import org.search.nibrs.stagingdata.model.segment.ArrestReportSegment;
+import org.search.nibrs.stagingdata.repository.segment.AdministrativeSegmentRepository;
+import org.search.nibrs.stagingdata.repository.segment.ArrestReportSegmentRepository;
+import org.search.nibrs.stagingdata.repository.segment.SegmentBatchInserter;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryPeriod;
+import org.search.nibrs.stagingdata.service.summary.ReturnASummaryService;
+import org.search.nibrs.stagingdata.util.ReportBatchUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bulk loads the reports with multi-row JDBC inserts instead of the entity manager.  The reports are mapped to 
+ * segments by the {@link GroupAIncidentService} and the {@link ArrestReportService}, so the rows are the same as 
+ * the ones saved by the entity path.  
+ * <p/>
+ * The reports are split by ORI into app.bulkLoadThreads partitions which are loaded in parallel, each on its own 
+ * connection.  The reports of one ORI stay in the same partition and are loaded in the order they are read.  The 
+ * partitions are single threaded executors shared by all the loads and shut down with the application.  
+ * Each chunk of reports replaces the existing reports, inserts the new ones and updates their Return A summary 
+ * in one transaction.
+ */
+@Service
+public class BulkLoadService {
+	private static final Log log = LogFactory.getLog(BulkLoadService.class);
+	
+	public static final String PERSIST_MODE_JDBC = "jdbc"; 
+	
+	@Autowired
+	AppProperties appProperties; 
+	@Autowired
+	MeterRegistry meterRegistry;
+	@Autowired
+	PlatformTransactionManager transactionManager; 
+	@Autowired
+	GroupAIncidentService groupAIncidentService;
+	@Autowired
+	ArrestReportService arrestReportService;
+	@Autowired
+	AdministrativeSegmentRepository administrativeSegmentRepository;
+	@Autowired
+	ArrestReportSegmentRepository arrestReportSegmentRepository;
+	@Autowired
+	SegmentBatchInserter segmentBatchInserter;
+	@Autowired
+	ReturnASummaryService returnASummaryService;
+	
+	private ExecutorService[] partitions;
+	
+	@PostConstruct
+	public void startPartitions() {
+		partitions = new ExecutorService[Math.max(appProperties.getBulkLoadThreads(), 1)];
+		for (int i = 0; i < partitions.length; i++){
+			String threadName = "bulk-load-" + i;
+			partitions[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+		}
+	}
+	
+	@PreDestroy
+	public void stopPartitions() throws InterruptedException {
+		Arrays.stream(partitions).forEach(ExecutorService::shutdown);
+		for (ExecutorService partition : partitions){
+			if (!partition.awaitTermination(30, TimeUnit.SECONDS)){
+				log.warn("The bulk load did not complete before the shutdown");
+				partition.shutdownNow();
+			}
+		}
+	}
+	
+	/**
+	 * @return true when app.persistMode selects the bulk loader over the entity path.
+	 */
+	public boolean isEnabled() {
+		return PERSIST_MODE_JDBC.equalsIgnoreCase(appProperties.getPersistMode());
+	}
+	
+	/**
+	 * Load the incidents in chunks of chunkSize reports.  The reports with the report action type 'D' are deleted.
+	 * 
+	 * @return the number of reports processed.
+	 */
+	public int loadGroupAIncidentReports(Iterator<GroupAIncidentReport> groupAIncidentReports, int chunkSize) {
+		Timer chunkTimer = meterRegistry.timer("nibrs.staging.bulk.chunk", "type", "groupA");
+		int count = loadByOri(groupAIncidentReports, chunkSize, 
+				chunk -> chunkTimer.record(() -> insertGroupAIncidentReports(chunk)), 
+				report -> groupAIncidentService.deleteGroupAIncidentReport(report.getIncidentNumber()));
+		
+		meterRegistry.counter("nibrs.staging.reports", "type", "groupA").increment(count);
+		return count;
+	}
+	
+	/**
+	 * Load the arrest reports in chunks of chunkSize reports.  The reports with the report action type 'D' are 
+	 * deleted.
+	 * 
+	 * @return the number of reports processed.
+	 */
+	public int loadGroupBArrestReports(Iterator<GroupBArrestReport> groupBArrestReports, int chunkSize) {
+		Timer chunkTimer = meterRegistry.timer("nibrs.staging.bulk.chunk", "type", "groupB");
+		int count = loadByOri(groupBArrestReports, chunkSize, 
+				chunk -> chunkTimer.record(() -> insertGroupBArrestReports(chunk)), 
+				report -> arrestReportService.deleteGroupBArrestReport(report.getIdentifier()));
+		
+		meterRegistry.counter("nibrs.staging.reports", "type", "groupB").increment(count);
+		return count;
+	}
+	
+	void insertGroupAIncidentReports(List<GroupAIncidentReport> groupAIncidentReports) {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			Set<String> incidentNumbers = groupAIncidentReports.stream()
+					.map(GroupAIncidentReport::getIncidentNumber)
+					.filter(StringUtils::isNotBlank)
+					.collect(Collectors.toSet());
+			Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = returnASummaryService.countIncidents(incidentNumbers);
+			administrativeSegmentRepository.deleteByIncidentNumberIn(incidentNumbers);
+			
+			List<AdministrativeSegment> administrativeSegments = groupAIncidentService.createAdministrativeSegments(
+					groupAIncidentReports.toArray(new GroupAIncidentReport[groupAIncidentReports.size()]));
+			int count = segmentBatchInserter.insertAdministrativeSegments(administrativeSegments);
+			
+			returnASummaryService.update(incidentNumbers, returnAForms);
+			return count;
+		});
+	}
+	
+	void insertGroupBArrestReports(List<GroupBArrestReport> groupBArrestReports) {
+		new TransactionTemplate(transactionManager).execute(status -> {
+			Set<String> identifiers = groupBArrestReports.stream()
+					.map(GroupBArrestReport::getIdentifier)
+					.filter(StringUtils::isNotBlank)
+					.collect(Collectors.toSet());
+			arrestReportSegmentRepository.deleteByArrestTransactionNumberIn(identifiers);
+			
+			List<ArrestReportSegment> arrestReportSegments = arrestReportService.createArrestReportSegments(
+					groupBArrestReports.toArray(new GroupBArrestReport[groupBArrestReports.size()]));
+			return segmentBatchInserter.insertArrestReportSegments(arrestReportSegments);
+		});
+	}
+	
+	/**
+	 * Hand the reports of each ORI partition to its single threaded executor in chunks, so the partitions are loaded 
+	 * in parallel while the reports of one ORI keep their order.  At most two chunks per partition are handed over 
+	 * and not yet saved, besides the chunk being filled. 
+	 */
+	private <T extends AbstractReport> int loadByOri(Iterator<T> reports, int chunkSize, 
+			Consumer<List<T>> saver, Consumer<T> deleter) {
+		int partitionCount = partitions.length;
+		int size = Math.max(chunkSize, 1);
+		
+		List<List<T>> pendingReports = new ArrayList<>(); 
+		Semaphore[] permits = new Semaphore[partitionCount];
+		for (int i = 0; i < partitionCount; i++){
+			pendingReports.add(new ArrayList<>(size));
+			permits[i] = new Semaphore(2);
+		}
+		
+		List<Future<?>> futures = new ArrayList<>();
+		int count = 0;
+		
+		try {
+			while (reports.hasNext()){
+				T report = reports.next();
+				count++;
+				
+				int partition = Math.floorMod(Objects.hashCode(report.getOri()), partitionCount);
+				List<T> pending = pendingReports.get(partition);
+				pending.add(report);
+				if (pending.size() >= size){
+					removeDone(futures);
+					futures.add(submit(partitions[partition], pending, size, saver, deleter, permits[partition]));
+					pendingReports.set(partition, new ArrayList<>(size));
+				}
+			}
+			
+			for (int i = 0; i < partitionCount; i++){
+				if (!pendingReports.get(i).isEmpty()){
+					futures.add(submit(partitions[i], pendingReports.get(i), size, saver, deleter, permits[i]));
+				}
+			}
+			
+			for (Future<?> future : futures){
+				future.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			futures.forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Interrupted while loading the reports", e);
+		}
+		catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			log.error("Failed to load the reports", e.getCause());
+			throw new IllegalStateException("Failed to load the reports", e.getCause());
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Drop the chunks already saved, so only the chunks in progress are kept.  A chunk that failed ends the load. 
+	 */
+	private void removeDone(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+		for (Iterator<Future<?>> iterator = futures.iterator(); iterator.hasNext();){
+			Future<?> future = iterator.next();
+			if (future.isDone()){
+				future.get();
+				iterator.remove();
+			}
+		}
+	}
+	
+	private <T extends AbstractReport> Future<?> submit(ExecutorService partition, List<T> chunk, int chunkSize, 
+			Consumer<List<T>> saver, Consumer<T> deleter, Semaphore permits) throws InterruptedException {
+		permits.acquire();
+		return partition.submit(() -> {
+			try {
+				ReportBatchUtils.processInChunks(chunk.iterator(), chunkSize, saver, deleter);
+			}
+			finally {
+				permits.release();
+			}
+		});
+	}
+}
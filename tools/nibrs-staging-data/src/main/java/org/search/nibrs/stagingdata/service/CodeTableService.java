@@ -15,14 +15,51 @@
  */
 package org.search.nibrs.stagingdata.service;
 
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.stagingdata.model.AdditionalJustifiableHomicideCircumstancesType;
+import org.search.nibrs.stagingdata.model.AgencyType;
+import org.search.nibrs.stagingdata.model.AggravatedAssaultHomicideCircumstancesType;
+import org.search.nibrs.stagingdata.model.ArresteeWasArmedWithType;
+import org.search.nibrs.stagingdata.model.BiasMotivationType;
+import org.search.nibrs.stagingdata.model.CargoTheftIndicatorType;
+import org.search.nibrs.stagingdata.model.ClearedExceptionallyType;
 import org.search.nibrs.stagingdata.model.DateType;
+import org.search.nibrs.stagingdata.model.DispositionOfArresteeUnder18Type;
+import org.search.nibrs.stagingdata.model.EthnicityOfPersonType;
+import org.search.nibrs.stagingdata.model.LocationType;
+import org.search.nibrs.stagingdata.model.MethodOfEntryType;
+import org.search.nibrs.stagingdata.model.MultipleArresteeSegmentsIndicatorType;
+import org.search.nibrs.stagingdata.model.OffenderSuspectedOfUsingType;
+import org.search.nibrs.stagingdata.model.OfficerActivityCircumstanceType;
+import org.search.nibrs.stagingdata.model.OfficerAssignmentTypeType;
+import org.search.nibrs.stagingdata.model.PropertyDescriptionType;
+import org.search.nibrs.stagingdata.model.RaceOfPersonType;
+import org.search.nibrs.stagingdata.model.ResidentStatusOfPersonType;
+import org.search.nibrs.stagingdata.model.SegmentActionTypeType;
+import org.search.nibrs.stagingdata.model.SexOfPersonType;
+import org.search.nibrs.stagingdata.model.SuspectedDrugTypeType;
+import org.search.nibrs.stagingdata.model.TypeDrugMeasurementType;
+import org.search.nibrs.stagingdata.model.TypeInjuryType;
+import org.search.nibrs.stagingdata.model.TypeOfArrestType;
+import org.search.nibrs.stagingdata.model.TypeOfCriminalActivityType;
+import org.search.nibrs.stagingdata.model.TypeOfVictimType;
+import org.search.nibrs.stagingdata.model.TypeOfWeaponForceInvolvedType;
+import org.search.nibrs.stagingdata.model.TypePropertyLossEtcType;
+import org.search.nibrs.stagingdata.model.UcrOffenseCodeType;
+import org.search.nibrs.stagingdata.model.VictimOffenderRelationshipType;
 import org.search.nibrs.stagingdata.repository.AdditionalJustifiableHomicideCircumstancesTypeRepository;
+import org.search.nibrs.stagingdata.repository.CargoTheftIndicatorTypeRepository;
+import org.search.nibrs.stagingdata.repository.AgencyTypeRepository;
 import org.search.nibrs.stagingdata.repository.AgencyRepository;
 import org.search.nibrs.stagingdata.repository.AggravatedAssaultHomicideCircumstancesTypeRepository;
 import org.search.nibrs.stagingdata.repository.ArresteeWasArmedWithTypeRepository;
@@ -52,7 +89,10 @@ import org.search.nibrs.stagingdata.repository.TypeOfWeaponForceInvolvedTypeRepo
 import org.search.nibrs.stagingdata.repository.TypePropertyLossEtcTypeRepository;
 import org.search.nibrs.stagingdata.repository.UcrOffenseCodeTypeRepository;
 import org.search.nibrs.stagingdata.repository.VictimOffenderRelationshipTypeRepository;
+import org.search.nibrs.stagingdata.util.DateUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
@@ -61,8 +101,11 @@ import org.springframework.stereotype.Service;
  */
 @Service
 public class CodeTableService {
-	SimpleDateFormat formatter = new SimpleDateFormat("MMddyyyy");
+	private static final Log log = LogFactory.getLog(CodeTableService.class);
+	
 
+	@Autowired
+	public DateTypeResolver dateTypeResolver; 
 	@Autowired
 	public DateTypeRepository dateTypeRepository; 
 	@Autowired
@@ -124,15 +167,92 @@ public class CodeTableService {
 	@Autowired
 	public VictimOffenderRelationshipTypeRepository victimOffenderRelationshipTypeRepository;
 	
+	private volatile Map<Class<?>, Map<String, ?>> codeTables;
+	@Autowired
+	public CargoTheftIndicatorTypeRepository cargoTheftIndicatorTypeRepository; 
+	@Autowired
+	public AgencyTypeRepository agencyTypeRepository; 
+	
 	public DateType getDateType(Date date) {
+		return getDateType(DateUtils.asLocalDate(date)); 
+	}
+	
+	public DateType getDateType(LocalDate date) {
+		return Optional.ofNullable(dateTypeResolver.getDateType(date)).orElseGet(() -> new DateType(99998));
+	}
+	
+	/**
+	 * Look up the code table entry by its state code in the preloaded code tables.  The code tables are loaded 
+	 * when the application is ready, and again with the date dimension by {@link #refreshCodeTables()}. 
+	 */
+	public <R> R getCodeTableType(String code, Class<R> codeTableClass, Function<Integer, R> constructorFunction ) {
+		Map<String, ?> codeTable = getCodeTables().get(codeTableClass);
+		if (codeTable == null){
+			throw new IllegalArgumentException(codeTableClass.getSimpleName() + " is not a preloaded code table");
+		}
+		return getCodeTableType(code, stateCode -> codeTableClass.cast(codeTable.get(stateCode)), constructorFunction);
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void refreshCodeTables() {
+		Map<Class<?>, Map<String, ?>> codeTables = new HashMap<>();
+		loadCodeTable(codeTables, AdditionalJustifiableHomicideCircumstancesType.class, additionalJustifiableHomicideCircumstancesTypeRepository.findAll(), AdditionalJustifiableHomicideCircumstancesType::getStateCode);
+		loadCodeTable(codeTables, AgencyType.class, agencyTypeRepository.findAll(), AgencyType::getStateCode);
+		loadCodeTable(codeTables, AggravatedAssaultHomicideCircumstancesType.class, aggravatedAssaultHomicideCircumstancesTypeRepository.findAll(), AggravatedAssaultHomicideCircumstancesType::getStateCode);
+		loadCodeTable(codeTables, ArresteeWasArmedWithType.class, arresteeWasArmedWithTypeRepository.findAll(), ArresteeWasArmedWithType::getStateCode);
+		loadCodeTable(codeTables, BiasMotivationType.class, biasMotivationTypeRepository.findAll(), BiasMotivationType::getStateCode);
+		loadCodeTable(codeTables, CargoTheftIndicatorType.class, cargoTheftIndicatorTypeRepository.findAll(), CargoTheftIndicatorType::getStateCode);
+		loadCodeTable(codeTables, ClearedExceptionallyType.class, clearedExceptionallyTypeRepository.findAll(), ClearedExceptionallyType::getStateCode);
+		loadCodeTable(codeTables, DispositionOfArresteeUnder18Type.class, dispositionOfArresteeUnder18TypeRepository.findAll(), DispositionOfArresteeUnder18Type::getStateCode);
+		loadCodeTable(codeTables, EthnicityOfPersonType.class, ethnicityOfPersonTypeRepository.findAll(), EthnicityOfPersonType::getStateCode);
+		loadCodeTable(codeTables, LocationType.class, locationTypeRepository.findAll(), LocationType::getStateCode);
+		loadCodeTable(codeTables, MethodOfEntryType.class, methodOfEntryTypeRepository.findAll(), MethodOfEntryType::getStateCode);
+		loadCodeTable(codeTables, MultipleArresteeSegmentsIndicatorType.class, multipleArresteeSegmentsIndicatorTypeRepository.findAll(), MultipleArresteeSegmentsIndicatorType::getStateCode);
+		loadCodeTable(codeTables, OffenderSuspectedOfUsingType.class, offenderSuspectedOfUsingTypeRepository.findAll(), OffenderSuspectedOfUsingType::getStateCode);
+		loadCodeTable(codeTables, OfficerActivityCircumstanceType.class, officerActivityCircumstanceTypeRepository.findAll(), OfficerActivityCircumstanceType::getStateCode);
+		loadCodeTable(codeTables, OfficerAssignmentTypeType.class, officerAssignmentTypeTypeRepository.findAll(), OfficerAssignmentTypeType::getStateCode);
+		loadCodeTable(codeTables, PropertyDescriptionType.class, propertyDescriptionTypeRepository.findAll(), PropertyDescriptionType::getStateCode);
+		loadCodeTable(codeTables, RaceOfPersonType.class, raceOfPersonTypeRepository.findAll(), RaceOfPersonType::getStateCode);
+		loadCodeTable(codeTables, ResidentStatusOfPersonType.class, residentStatusOfPersonTypeRepository.findAll(), ResidentStatusOfPersonType::getStateCode);
+		loadCodeTable(codeTables, SegmentActionTypeType.class, segmentActionTypeRepository.findAll(), SegmentActionTypeType::getStateCode);
+		loadCodeTable(codeTables, SexOfPersonType.class, sexOfPersonTypeRepository.findAll(), SexOfPersonType::getStateCode);
+		loadCodeTable(codeTables, SuspectedDrugTypeType.class, suspectedDrugTypeTypeRepository.findAll(), SuspectedDrugTypeType::getStateCode);
+		loadCodeTable(codeTables, TypeDrugMeasurementType.class, typeDrugMeasurementTypeRepository.findAll(), TypeDrugMeasurementType::getStateCode);
+		loadCodeTable(codeTables, TypeInjuryType.class, typeInjuryTypeRepository.findAll(), TypeInjuryType::getStateCode);
+		loadCodeTable(codeTables, TypeOfArrestType.class, typeOfArrestTypeRepository.findAll(), TypeOfArrestType::getStateCode);
+		loadCodeTable(codeTables, TypeOfCriminalActivityType.class, typeOfCriminalActivityTypeRepository.findAll(), TypeOfCriminalActivityType::getStateCode);
+		loadCodeTable(codeTables, TypeOfVictimType.class, typeOfVictimTypeRepository.findAll(), TypeOfVictimType::getStateCode);
+		loadCodeTable(codeTables, TypeOfWeaponForceInvolvedType.class, typeOfWeaponForceInvolvedTypeRepository.findAll(), TypeOfWeaponForceInvolvedType::getStateCode);
+		loadCodeTable(codeTables, TypePropertyLossEtcType.class, typePropertyLossEtcTypeRepository.findAll(), TypePropertyLossEtcType::getStateCode);
+		loadCodeTable(codeTables, UcrOffenseCodeType.class, ucrOffenseCodeTypeRepository.findAll(), UcrOffenseCodeType::getStateCode);
+		loadCodeTable(codeTables, VictimOffenderRelationshipType.class, victimOffenderRelationshipTypeRepository.findAll(), VictimOffenderRelationshipType::getStateCode);
+		this.codeTables = Collections.unmodifiableMap(codeTables);
+		log.info("Loaded " + codeTables.size() + " code tables");
 		
-		Optional<Date> optionalDate = Optional.ofNullable(date); 
-		
-		DateType dateType = getCodeTableType( 
-				optionalDate.map(d -> formatter.format(d)).orElse(""), 
-				dateTypeRepository::findFirstByDateMMDDYYYY, 
-				DateType::new);  
-		return dateType;
+		dateTypeResolver.refresh();
+	}
+	
+	private Map<Class<?>, Map<String, ?>> getCodeTables() {
+		if (codeTables == null){
+			synchronized (this) {
+				if (codeTables == null){
+					refreshCodeTables();
+				}
+			}
+		}
+		return codeTables;
+	}
+	
+	private <R> void loadCodeTable(Map<Class<?>, Map<String, ?>> codeTables, Class<R> codeTableClass, 
+			Iterable<R> entries, Function<R, String> stateCodeFunction) {
+		Map<String, R> codeTable = new HashMap<>();
+		for (R entry : entries){
+			String stateCode = stateCodeFunction.apply(entry);
+			if (stateCode != null){
+				codeTable.putIfAbsent(stateCode, entry);
+			}
+		}
+		codeTables.put(codeTableClass, Collections.unmodifiableMap(codeTable));
 	}
 	
 	public <R> R getCodeTableType(String code,  Function<String, R> findByCodeFunction, Function<Integer, R> constructorFunction ) {
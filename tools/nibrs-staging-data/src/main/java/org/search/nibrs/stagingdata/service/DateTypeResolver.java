@@ -0,0 +1,187 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.stagingdata.model.DateType;
+import org.search.nibrs.stagingdata.repository.DateTypeRepository;
+import org.search.nibrs.stagingdata.util.DateUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Resolves the DateType of a date from an in-memory copy of the date dimension, indexed by the epoch day.  When 
+ * a date is not in the dimension, the missing dates of its year are created in one batch. 
+ * <p/>
+ * The index is replaced as a whole when dates are added, so the lookups need no locking. 
+ */
+@Service
+public class DateTypeResolver {
+	private static final Log log = LogFactory.getLog(DateTypeResolver.class);
+	private static final DateTimeFormatter MMDDYYYY = DateTimeFormatter.ofPattern("MMddyyyy");
+	
+	@Autowired
+	DateTypeRepository dateTypeRepository; 
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	private volatile DateTypeIndex dateTypeIndex;
+	
+	/**
+	 * @return the DateType of the date, or null if the date is null. 
+	 */
+	public DateType getDateType(LocalDate date) {
+		if (date == null){
+			return null; 
+		}
+		
+		DateType dateType = getDateTypeIndex().get(date.toEpochDay());
+		if (dateType == null){
+			dateType = createMissingDateTypes(date);
+		}
+		return dateType;
+	}
+	
+	/**
+	 * Reload the date dimension from the database. 
+	 */
+	public synchronized void refresh() {
+		List<DateType> dateTypes = new ArrayList<>(); 
+		dateTypeRepository.findAll().forEach(dateTypes::add);
+		dateTypeIndex = new DateTypeIndex(dateTypes);
+		log.info("Loaded " + dateTypes.size() + " dates of the date dimension");
+	}
+	
+	private DateTypeIndex getDateTypeIndex() {
+		DateTypeIndex index = dateTypeIndex;
+		if (index == null){
+			synchronized (this) {
+				if (dateTypeIndex == null){
+					refresh();
+				}
+				index = dateTypeIndex;
+			}
+		}
+		return index;
+	}
+	
+	private synchronized DateType createMissingDateTypes(LocalDate date) {
+		DateTypeIndex index = getDateTypeIndex(); 
+		DateType dateType = index.get(date.toEpochDay()); 
+		if (dateType != null){
+			return dateType; 
+		}
+		
+		List<DateType> missingDateTypes = new ArrayList<>();
+		for (LocalDate day = date.withDayOfYear(1); day.getYear() == date.getYear(); day = day.plusDays(1)){
+			if (index.get(day.toEpochDay()) == null){
+				missingDateTypes.add(createDateType(day));
+			}
+		}
+		
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		List<DateType> savedDateTypes = new ArrayList<>();
+		transactionTemplate.execute(status -> {
+			dateTypeRepository.save(missingDateTypes).forEach(savedDateTypes::add);
+			return null;
+		});
+		log.info("Added " + savedDateTypes.size() + " dates of the year " + date.getYear() + " to the date dimension");
+		
+		List<DateType> dateTypes = new ArrayList<>(index.getDateTypes());
+		dateTypes.addAll(savedDateTypes);
+		dateTypeIndex = new DateTypeIndex(dateTypes);
+		return dateTypeIndex.get(date.toEpochDay());
+	}
+	
+	static DateType createDateType(LocalDate date) {
+		DayOfWeek dayOfWeek = date.getDayOfWeek();
+		return new DateType(null, DateUtils.asDate(date), date.getYear(), String.valueOf(date.getYear()), 
+				(date.getMonthValue() - 1) / 3 + 1, date.getMonthValue(), 
+				date.getMonth().getDisplayName(TextStyle.FULL, Locale.US), 
+				date.getYear() + "-" + date.getMonthValue(), date.getDayOfMonth(), 
+				dayOfWeek.getDisplayName(TextStyle.FULL, Locale.US), dayOfWeek.getValue() % 7 + 1, 
+				date.format(MMDDYYYY));
+	}
+	
+	/**
+	 * Immutable index of the dates, the DateType of an epoch day is at the offset of the day from the first day. 
+	 */
+	static class DateTypeIndex {
+		private final List<DateType> dateTypes;
+		private final long firstEpochDay;
+		private final DateType[] dateTypesByDay;
+		
+		DateTypeIndex(List<DateType> dateTypes) {
+			this.dateTypes = dateTypes;
+			
+			long first = Long.MAX_VALUE;
+			long last = Long.MIN_VALUE;
+			List<LocalDate> dates = new ArrayList<>(dateTypes.size());
+			for (DateType dateType : dateTypes){
+				LocalDate date = getCalendarDate(dateType);
+				dates.add(date);
+				if (date != null){
+					first = Math.min(first, date.toEpochDay());
+					last = Math.max(last, date.toEpochDay());
+				}
+			}
+			
+			firstEpochDay = first;
+			dateTypesByDay = new DateType[first > last ? 0 : Math.toIntExact(last - first + 1)];
+			for (int i = 0; i < dateTypes.size(); i++){
+				LocalDate date = dates.get(i);
+				if (date != null && dateTypesByDay[(int) (date.toEpochDay() - firstEpochDay)] == null){
+					dateTypesByDay[(int) (date.toEpochDay() - firstEpochDay)] = dateTypes.get(i);
+				}
+			}
+		}
+		
+		DateType get(long epochDay) {
+			long offset = epochDay - firstEpochDay;
+			if (offset < 0 || offset >= dateTypesByDay.length){
+				return null;
+			}
+			return dateTypesByDay[(int) offset];
+		}
+		
+		List<DateType> getDateTypes() {
+			return dateTypes;
+		}
+		
+		/**
+		 * @return the calendar date, or null for the Unknown and Blank placeholder rows. 
+		 */
+		private static LocalDate getCalendarDate(DateType dateType) {
+			if (dateType.getCalendarDate() == null || dateType.getYear() == null || dateType.getYear() == 0){
+				return null;
+			}
+			return DateUtils.asLocalDate(dateType.getCalendarDate());
+		}
+	}
+}
@@ -15,17 +15,26 @@
  */
 package org.search.nibrs.stagingdata.service;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import javax.transaction.Transactional;
 
 import org.apache.commons.lang3.BooleanUtils;
@@ -35,6 +44,7 @@ import org.apache.commons.logging.LogFactory;
 import org.search.nibrs.common.ParsedObject;
 import org.search.nibrs.model.GroupAIncidentReport;
 import org.search.nibrs.model.NIBRSAge;
+import org.search.nibrs.model.reports.ReturnAForm;
 import org.search.nibrs.stagingdata.controller.BadRequestException;
 import org.search.nibrs.stagingdata.model.AdditionalJustifiableHomicideCircumstancesType;
 import org.search.nibrs.stagingdata.model.Agency;
@@ -56,6 +66,7 @@ import org.search.nibrs.stagingdata.model.PropertyDescriptionType;
 import org.search.nibrs.stagingdata.model.PropertyType;
 import org.search.nibrs.stagingdata.model.RaceOfPersonType;
 import org.search.nibrs.stagingdata.model.ResidentStatusOfPersonType;
+import org.search.nibrs.stagingdata.model.SegmentActionTypeType;
 import org.search.nibrs.stagingdata.model.SexOfPersonType;
 import org.search.nibrs.stagingdata.model.SuspectedDrugType;
 import org.search.nibrs.stagingdata.model.SuspectedDrugTypeType;
@@ -108,9 +119,17 @@ import org.search.nibrs.stagingdata.repository.UcrOffenseCodeTypeRepository;
 import org.search.nibrs.stagingdata.repository.VictimOffenderRelationshipTypeRepository;
 import org.search.nibrs.stagingdata.repository.segment.AdministrativeSegmentRepository;
 import org.search.nibrs.stagingdata.repository.segment.OffenseSegmentRepository;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryPeriod;
+import org.search.nibrs.stagingdata.service.summary.ReturnASummaryService;
 import org.search.nibrs.stagingdata.util.DateUtils;
+import org.search.nibrs.stagingdata.util.ReportBatchUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service to process Group B Arrest Report.  
@@ -120,6 +139,12 @@ import org.springframework.stereotype.Service;
 public class GroupAIncidentService {
 	private static final Log log = LogFactory.getLog(GroupAIncidentService.class);
 	private static final String BAD_DELETE_REQUEST = "The incident number is required to delete an incident";
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	MeterRegistry meterRegistry;
+	@Autowired
+	PlatformTransactionManager transactionManager; 
 	@Autowired
 	AdministrativeSegmentRepository administrativeSegmentRepository;
 	@Autowired
@@ -186,6 +211,8 @@ public class GroupAIncidentService {
 	public VictimOffenderRelationshipTypeRepository victimOffenderRelationshipTypeRepository; 
 	@Autowired
 	public CodeTableService codeTableService; 
+	@Autowired
+	public ReturnASummaryService returnASummaryService; 
 	
 	@Transactional
 	public AdministrativeSegment saveAdministrativeSegment(AdministrativeSegment administrativeSegment){
@@ -194,7 +221,11 @@ public class GroupAIncidentService {
 	
 	@Transactional
 	public long deleteAdministrativeSegment(String incidentNumber){
-		return administrativeSegmentRepository.deleteByIncidentNumber(incidentNumber);
+		Set<String> incidentNumbers = Collections.singleton(incidentNumber);
+		Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = returnASummaryService.countIncidents(incidentNumbers);
+		long count = administrativeSegmentRepository.deleteByIncidentNumber(incidentNumber);
+		returnASummaryService.update(incidentNumbers, returnAForms);
+		return count;
 	}
 	
 	@Transactional
@@ -204,19 +235,89 @@ public class GroupAIncidentService {
 			throw new BadRequestException(BAD_DELETE_REQUEST);
 		}
 
-		return administrativeSegmentRepository.deleteByIncidentNumber(incidentNumber);
+		Set<String> incidentNumbers = Collections.singleton(incidentNumber);
+		Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = returnASummaryService.countIncidents(incidentNumbers);
+		long count = administrativeSegmentRepository.deleteByIncidentNumberIn(incidentNumbers);
+		returnASummaryService.update(incidentNumbers, returnAForms);
+		return count;
 	}
 	
 	public AdministrativeSegment findAdministrativeSegment(Integer id){
 		return administrativeSegmentRepository.findByAdministrativeSegmentId(id);
 	}
 	
-	public List<AdministrativeSegment> findAllAdministrativeSegments(){
+	/**
+	 * Find the first maxSize administrative segments in the order of the ids, reading them pageSize at a time.  
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param startDate the first incident date, or null. 
+	 * @param endDate the last incident date, inclusive, or null. 
+	 */
+	public List<AdministrativeSegment> findAdministrativeSegments(String ori, LocalDate startDate, LocalDate endDate, 
+			int pageSize, int maxSize){
 		List<AdministrativeSegment> administrativeSegments = new ArrayList<>();
-		administrativeSegmentRepository.findAll().forEach(administrativeSegments::add);
+		List<AdministrativeSegment> page = findAdministrativeSegmentsAfter(null, ori, startDate, endDate, Math.min(pageSize, maxSize)); 
+		while (!page.isEmpty()){
+			administrativeSegments.addAll(page);
+			int size = Math.min(pageSize, maxSize - administrativeSegments.size()); 
+			Integer afterId = page.get(page.size() - 1).getAdministrativeSegmentId(); 
+			page = page.size() < pageSize || size == 0 ? 
+					Collections.emptyList() : findAdministrativeSegmentsAfter(afterId, ori, startDate, endDate, size);
+		}
 		return administrativeSegments;
 	}
 	
+	/**
+	 * Find the first size administrative segments with an id greater than afterId, in the order of the ids.  
+	 * 
+	 * @param ori the ORI of the agency, or null for all the agencies.
+	 * @param startDate the first incident date, or null. 
+	 * @param endDate the last incident date, inclusive, or null. 
+	 */
+	public List<AdministrativeSegment> findAdministrativeSegmentsAfter(Integer afterId, String ori, LocalDate startDate, 
+			LocalDate endDate, int size){
+		return findAdministrativeSegments(administrativeSegmentRepository.findIdsAfter(afterId, ori, startDate, endDate, size));
+	}
+	
+	/**
+	 * Pass the administrative segments to the consumer in the order of the ids, in one read transaction.  The ids are 
+	 * scrolled with the fetch size and the segments are loaded chunkSize at a time, the persistence context is 
+	 * cleared after each chunk so the memory used does not grow with the number of segments.  
+	 * 
+	 * @return the number of administrative segments passed to the consumer. 
+	 */
+	@Transactional
+	public int streamAdministrativeSegments(String ori, LocalDate startDate, LocalDate endDate, 
+			int fetchSize, int chunkSize, Consumer<AdministrativeSegment> consumer){
+		int count = 0; 
+		try (Stream<Integer> idStream = administrativeSegmentRepository.streamIds(ori, startDate, endDate, fetchSize)){
+			Iterator<Integer> ids = idStream.iterator(); 
+			List<Integer> chunk = new ArrayList<>(chunkSize); 
+			while (ids.hasNext()){
+				chunk.add(ids.next());
+				if (chunk.size() == chunkSize || !ids.hasNext()){
+					List<AdministrativeSegment> administrativeSegments = findAdministrativeSegments(chunk);
+					administrativeSegments.forEach(consumer);
+					count += administrativeSegments.size();
+					entityManager.clear();
+					chunk.clear();
+				}
+			}
+		}
+		return count;
+	}
+	
+	private List<AdministrativeSegment> findAdministrativeSegments(List<Integer> ids){
+		if (ids.isEmpty()){
+			return Collections.emptyList();
+		}
+		
+		Map<Integer, AdministrativeSegment> administrativeSegments = new TreeMap<>(); 
+		administrativeSegmentRepository.findAll(ids).forEach(administrativeSegment -> 
+			administrativeSegments.put(administrativeSegment.getAdministrativeSegmentId(), administrativeSegment));
+		return new ArrayList<>(administrativeSegments.values());
+	}
+	
 	public OffenseSegment saveOffenseSegment(OffenseSegment offenseSegment){
 		return offenseSegmentRepository.save(offenseSegment);
 	}
@@ -225,14 +326,52 @@ public class GroupAIncidentService {
 		return offenseSegmentRepository.save(offenseSegments);
 	}
 	
+	/**
+	 * Save the reports in chunks of chunkSize reports.  The reports with the report action type 'D' are deleted.
+	 * 
+	 * @return the number of reports processed.
+	 */
+	public int saveGroupAIncidentReports(Iterator<GroupAIncidentReport> groupAIncidentReports, int chunkSize){
+		Timer chunkTimer = meterRegistry.timer("nibrs.staging.persist.chunk", "type", "groupA");
+		int count = ReportBatchUtils.processInChunks(groupAIncidentReports, chunkSize, 
+				chunk -> chunkTimer.record(() -> saveGroupAIncidentReports(chunk.toArray(new GroupAIncidentReport[chunk.size()]))), 
+				report -> deleteGroupAIncidentReport(report.getIncidentNumber()));
+
+		meterRegistry.counter("nibrs.staging.reports", "type", "groupA").increment(count);
+		return count;
+	}
+	
+	/**
+	 * Replace the incidents.  The existing incidents with the same incident numbers are deleted with set based 
+	 * statements before the new ones are inserted.  The difference between the Return A counts of the old and the 
+	 * new incidents is added to the summary.  The delete, the insert and the summary update run in one transaction, 
+	 * so the old incidents are kept when the insert fails.
+	 */
 	public Iterable<AdministrativeSegment> saveGroupAIncidentReports(GroupAIncidentReport... groupAIncidentReports){
+		return new TransactionTemplate(transactionManager).execute(status -> {
+			Set<String> incidentNumbers = Arrays.stream(groupAIncidentReports)
+					.map(GroupAIncidentReport::getIncidentNumber)
+					.filter(StringUtils::isNotBlank)
+					.collect(Collectors.toSet());
+			Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = returnASummaryService.countIncidents(incidentNumbers);
+			administrativeSegmentRepository.deleteByIncidentNumberIn(incidentNumbers);
+			
+			Iterable<AdministrativeSegment> administrativeSegments = 
+					administrativeSegmentRepository.save(createAdministrativeSegments(groupAIncidentReports));
+			
+			returnASummaryService.update(incidentNumbers, returnAForms);
+			return administrativeSegments;
+		});
+	}
+	
+	/**
+	 * Map the incidents to new administrative segments with their child segments, resolving the code table 
+	 * and date references.  Nothing is saved.
+	 */
+	public List<AdministrativeSegment> createAdministrativeSegments(GroupAIncidentReport... groupAIncidentReports){
 		List<AdministrativeSegment> administrativeSegments = new ArrayList<>();
 		
 		for (GroupAIncidentReport groupAIncidentReport: groupAIncidentReports){
-			if (administrativeSegmentRepository.existsByIncidentNumber(groupAIncidentReport.getIncidentNumber())){
-				administrativeSegmentRepository.deleteByIncidentNumber(groupAIncidentReport.getIncidentNumber());
-			}
-			
 			AdministrativeSegment administrativeSegment = new AdministrativeSegment(); 
 //			Optional<AdministrativeSegment> existingAdministrativeSegment = 
 //					Optional.ofNullable(administrativeSegmentRepository.findFirstByIncidentNumber(groupAIncidentReport.getIncidentNumber()));
@@ -242,7 +381,8 @@ public class GroupAIncidentService {
 			administrativeSegment.setAgency(agencyRepository.findFirstByAgencyOri(groupAIncidentReport.getOri()));
 			
 			String reportActionType = String.valueOf(groupAIncidentReport.getReportActionType()).trim();
-			administrativeSegment.setSegmentActionType(segmentActionTypeRepository.findFirstByStateCode(reportActionType));
+			administrativeSegment.setSegmentActionType(
+					codeTableService.getCodeTableType(reportActionType, SegmentActionTypeType.class, null));
 			
 			Optional<Integer> monthOfTape = Optional.ofNullable(groupAIncidentReport.getMonthOfTape());
 			monthOfTape.ifPresent( m-> {
@@ -257,18 +397,18 @@ public class GroupAIncidentService {
 			administrativeSegment.setOri(groupAIncidentReport.getOri());
 			administrativeSegment.setIncidentNumber(groupAIncidentReport.getIncidentNumber());
 			administrativeSegment.setIncidentDate(DateUtils.asDate(groupAIncidentReport.getIncidentDate().getValue()));
-			administrativeSegment.setIncidentDateType(codeTableService.getDateType(DateUtils.asDate(groupAIncidentReport.getIncidentDate().getValue())));
+			administrativeSegment.setIncidentDateType(codeTableService.getDateType(groupAIncidentReport.getIncidentDate().getValue()));
 			administrativeSegment.setReportDateIndicator(groupAIncidentReport.getReportDateIndicator());
 			administrativeSegment.setReportDateIndicator(groupAIncidentReport.getReportDateIndicator());
 			administrativeSegment.setExceptionalClearanceDate(DateUtils.asDate(groupAIncidentReport.getExceptionalClearanceDate().getValue()));
-			administrativeSegment.setExceptionalClearanceDateType(codeTableService.getDateType(DateUtils.asDate(groupAIncidentReport.getExceptionalClearanceDate().getValue())));
+			administrativeSegment.setExceptionalClearanceDateType(codeTableService.getDateType(groupAIncidentReport.getExceptionalClearanceDate().getValue()));
 			
 			Optional<Integer> incidentHour = Optional.ofNullable(groupAIncidentReport.getIncidentHour().getValue());
 			administrativeSegment.setIncidentHour(incidentHour.map(String::valueOf).orElse(""));
 			
 			ClearedExceptionallyType clearedExceptionallyType = 
 					codeTableService.getCodeTableType(groupAIncidentReport.getExceptionalClearanceCode(), 
-							clearedExceptionallyTypeRepository::findFirstByStateCode, 
+							ClearedExceptionallyType.class, 
 							ClearedExceptionallyType::new); 
 			administrativeSegment.setClearedExceptionallyType(clearedExceptionallyType);
 			
@@ -277,7 +417,7 @@ public class GroupAIncidentService {
 			
 			CargoTheftIndicatorType cargoTheftIndicatorType = 
 					codeTableService.getCodeTableType(groupAIncidentReport.getCargoTheftIndicator(), 
-							cargoTheftIndicatorTypeRepository::findFirstByStateCode, CargoTheftIndicatorType::new); 
+							CargoTheftIndicatorType.class, CargoTheftIndicatorType::new); 
 			administrativeSegment.setCargoTheftIndicatorType(cargoTheftIndicatorType);
 			
 			processProperties(administrativeSegment, groupAIncidentReport);
@@ -288,7 +428,7 @@ public class GroupAIncidentService {
 			administrativeSegments.add(administrativeSegment);
 		}
 		
-		return administrativeSegmentRepository.save(administrativeSegments);
+		return administrativeSegments;
 	}
 	private void processProperties(AdministrativeSegment administrativeSegment,
 			GroupAIncidentReport groupAIncidentReport) {
@@ -303,7 +443,7 @@ public class GroupAIncidentService {
 				propertySegment.setAdministrativeSegment(administrativeSegment);
 				
 				TypePropertyLossEtcType typePropertyLossEtcType = codeTableService.getCodeTableType(
-						property.getTypeOfPropertyLoss(), typePropertyLossEtcTypeRepository::findFirstByStateCode, TypePropertyLossEtcType::new);
+						property.getTypeOfPropertyLoss(), TypePropertyLossEtcType.class, TypePropertyLossEtcType::new);
 				propertySegment.setTypePropertyLossEtcType(typePropertyLossEtcType );
 				
 				Integer numberOfRecoveredMotorVehicles = Optional.ofNullable(property.getNumberOfRecoveredMotorVehicles())
@@ -336,7 +476,7 @@ public class GroupAIncidentService {
 				String suspectedDrugTypeString = StringUtils.trimToNull(property.getSuspectedDrugType(i)); 
 				
 				SuspectedDrugTypeType suspectedDrugTypeType = 
-						codeTableService.getCodeTableType(suspectedDrugTypeString, suspectedDrugTypeTypeRepository::findFirstByStateCode, null);
+						codeTableService.getCodeTableType(suspectedDrugTypeString, SuspectedDrugTypeType.class, null);
 				
 				if (suspectedDrugTypeType != null){
 					SuspectedDrugType suspectedDrugType = new SuspectedDrugType(); 
@@ -349,7 +489,7 @@ public class GroupAIncidentService {
 					
 					
 					TypeDrugMeasurementType typeDrugMeasurementType = codeTableService.getCodeTableType(
-							property.getTypeDrugMeasurement(i), typeDrugMeasurementTypeRepository::findFirstByStateCode, TypeDrugMeasurementType::new);
+							property.getTypeDrugMeasurement(i), TypeDrugMeasurementType.class, TypeDrugMeasurementType::new);
 					suspectedDrugType.setTypeDrugMeasurementType(typeDrugMeasurementType );
 					
 					suspectedDrugTypes.add(suspectedDrugType);
@@ -370,7 +510,7 @@ public class GroupAIncidentService {
 				String propertyDescription = StringUtils.trimToNull(property.getPropertyDescription(i)); 
 				
 				PropertyDescriptionType propertyDescriptionType = 
-						codeTableService.getCodeTableType(propertyDescription, propertyDescriptionTypeRepository::findFirstByStateCode, null);
+						codeTableService.getCodeTableType(propertyDescription, PropertyDescriptionType.class, null);
 				
 				if (propertyDescriptionType != null){
 					PropertyType propertyType = new PropertyType(); 
@@ -385,7 +525,7 @@ public class GroupAIncidentService {
 
 					Date dateRecovered = DateUtils.asDate(property.getDateRecovered()[i].getValue());
 					propertyType.setRecoveredDate(dateRecovered);
-					propertyType.setRecoveredDateType(codeTableService.getDateType(dateRecovered));
+					propertyType.setRecoveredDateType(codeTableService.getDateType(property.getDateRecovered()[i].getValue()));
 					
 					propertyTypes.add(propertyType);
 				}
@@ -434,18 +574,18 @@ public class GroupAIncidentService {
 				victimSegment.setVictimSequenceNumber(victim.getVictimSequenceNumber().getValue());
 
 				TypeOfVictimType typeOfVictimType = 
-						codeTableService.getCodeTableType(victim.getTypeOfVictim(), typeOfVictimTypeRepository::findFirstByStateCode, TypeOfVictimType::new);
+						codeTableService.getCodeTableType(victim.getTypeOfVictim(), TypeOfVictimType.class, TypeOfVictimType::new);
 				victimSegment.setTypeOfVictimType(typeOfVictimType);
 				
 				OfficerActivityCircumstanceType officerActivityCircumstanceType = 
 						codeTableService.getCodeTableType(victim.getTypeOfOfficerActivityCircumstance(), 
-								officerActivityCircumstanceTypeRepository::findFirstByStateCode, 
+								OfficerActivityCircumstanceType.class, 
 								OfficerActivityCircumstanceType::new);
 				victimSegment.setOfficerActivityCircumstanceType(officerActivityCircumstanceType);
 				
 				OfficerAssignmentTypeType officerAssignmentTypeType = 
 						codeTableService.getCodeTableType(victim.getOfficerAssignmentType(), 
-								officerAssignmentTypeTypeRepository::findFirstByStateCode, 
+								OfficerAssignmentTypeType.class, 
 								OfficerAssignmentTypeType::new);
 				victimSegment.setOfficerAssignmentTypeType(officerAssignmentTypeType);
 				
@@ -459,26 +599,26 @@ public class GroupAIncidentService {
 				victimSegment.setAgeFirstYearIndicator(BooleanUtils.toIntegerObject(victimAge.map(NIBRSAge::isBaby).orElse(false)));
 				
 				SexOfPersonType sexOfPersonType = codeTableService.getCodeTableType(
-						victim.getSex(), sexOfPersonTypeRepository::findFirstByStateCode, SexOfPersonType::new);
+						victim.getSex(), SexOfPersonType.class, SexOfPersonType::new);
 				victimSegment.setSexOfPersonType(sexOfPersonType);
 				
 				RaceOfPersonType raceOfPersonType = codeTableService.getCodeTableType(
-						victim.getRace(), raceOfPersonTypeRepository::findFirstByStateCode, RaceOfPersonType::new);
+						victim.getRace(), RaceOfPersonType.class, RaceOfPersonType::new);
 				victimSegment.setRaceOfPersonType(raceOfPersonType);
 				
 				EthnicityOfPersonType ethnicityOfPersonType = codeTableService.getCodeTableType(
-						victim.getEthnicity(), ethnicityOfPersonTypeRepository::findFirstByStateCode, EthnicityOfPersonType::new);
+						victim.getEthnicity(), EthnicityOfPersonType.class, EthnicityOfPersonType::new);
 				victimSegment.setEthnicityOfPersonType(ethnicityOfPersonType);
 				
 				ResidentStatusOfPersonType residentStatusOfPersonType = codeTableService.getCodeTableType(
 						victim.getResidentStatus(), 
-						residentStatusOfPersonTypeRepository::findFirstByStateCode, 
+						ResidentStatusOfPersonType.class, 
 						ResidentStatusOfPersonType::new);
 				victimSegment.setResidentStatusOfPersonType(residentStatusOfPersonType);
 				
 				AdditionalJustifiableHomicideCircumstancesType additionalJustifiableHomicideCircumstancesType = codeTableService.getCodeTableType(
 						victim.getAdditionalJustifiableHomicideCircumstances(), 
-						additionalJustifiableHomicideCircumstancesTypeRepository::findFirstByStateCode, 
+						AdditionalJustifiableHomicideCircumstancesType.class, 
 						AdditionalJustifiableHomicideCircumstancesType::new);
 				victimSegment.setAdditionalJustifiableHomicideCircumstancesType(additionalJustifiableHomicideCircumstancesType);
 				
@@ -523,7 +663,7 @@ public class GroupAIncidentService {
 					VictimOffenderRelationshipType victimOffenderRelationshipType = codeTableService
 							.getCodeTableType(
 									victimOffenderRelationship, 
-									victimOffenderRelationshipTypeRepository::findFirstByStateCode, 
+									VictimOffenderRelationshipType.class, 
 									VictimOffenderRelationshipType::new);
 					victimOffenderAssociation.setVictimOffenderRelationshipType(victimOffenderRelationshipType);	
 					victimOffenderAssociations.add(victimOffenderAssociation);
@@ -541,7 +681,7 @@ public class GroupAIncidentService {
 					.filter(StringUtils::isNotBlank)
 					.map(item -> codeTableService.getCodeTableType(
 								item, 
-								aggravatedAssaultHomicideCircumstancesTypeRepository::findFirstByStateCode, 
+								AggravatedAssaultHomicideCircumstancesType.class, 
 								null) )
 					.filter(Objects::nonNull)
 					.forEach(aggravatedAssaultHomicideCircumstancesTypes::add);
@@ -554,7 +694,7 @@ public class GroupAIncidentService {
 			Set<TypeInjuryType> typeInjuryTypes = new HashSet<>();
 			Arrays.stream(victim.getTypeOfInjury())
 					.filter(StringUtils::isNotBlank)
-					.map(item -> codeTableService.getCodeTableType(item, typeInjuryTypeRepository::findFirstByStateCode, null))
+					.map(item -> codeTableService.getCodeTableType(item, TypeInjuryType.class, null))
 					.filter(Objects::nonNull)
 					.forEach(typeInjuryTypes::add);
 			victimSegment.setTypeInjuryTypes(typeInjuryTypes);
@@ -574,7 +714,7 @@ public class GroupAIncidentService {
 				if (StringUtils.isNotBlank(arresteeArmedWithCode)){
 					Optional<ArresteeWasArmedWithType> arresteeWasArmedWithType = 
 							Optional.ofNullable(codeTableService.getCodeTableType(arresteeArmedWithCode,
-									arresteeWasArmedWithTypeRepository::findFirstByStateCode, 
+									ArresteeWasArmedWithType.class, 
 									null));
 					arresteeWasArmedWithType.ifPresent( type ->
 						armedWiths.add(new ArresteeSegmentWasArmedWith(
@@ -602,16 +742,16 @@ public class GroupAIncidentService {
 				arresteeSegment.setArresteeSequenceNumber(arrestee.getArresteeSequenceNumber().getValue());
 				arresteeSegment.setArrestTransactionNumber(arrestee.getArrestTransactionNumber());
 				arresteeSegment.setArrestDate(DateUtils.asDate(arrestee.getArrestDate().getValue()));
-				arresteeSegment.setArrestDateType(codeTableService.getDateType(DateUtils.asDate(arrestee.getArrestDate().getValue())));
+				arresteeSegment.setArrestDateType(codeTableService.getDateType(arrestee.getArrestDate().getValue()));
 				
 				TypeOfArrestType typeOfArrestType = codeTableService.getCodeTableType(
-						arrestee.getTypeOfArrest(), typeOfArrestTypeRepository::findFirstByStateCode, TypeOfArrestType::new);
+						arrestee.getTypeOfArrest(), TypeOfArrestType.class, TypeOfArrestType::new);
 				arresteeSegment.setTypeOfArrestType(typeOfArrestType );
 				
 				MultipleArresteeSegmentsIndicatorType multipleArresteeSegmentsIndicatorType = 
 						codeTableService.getCodeTableType(
 							arrestee.getMultipleArresteeSegmentsIndicator(), 
-							multipleArresteeSegmentsIndicatorTypeRepository::findFirstByStateCode, 
+							MultipleArresteeSegmentsIndicatorType.class, 
 							MultipleArresteeSegmentsIndicatorType::new);
 				arresteeSegment.setMultipleArresteeSegmentsIndicatorType(multipleArresteeSegmentsIndicatorType);
 				
@@ -619,32 +759,32 @@ public class GroupAIncidentService {
 				arresteeSegment.setAgeOfArresteeMax(arrestee.getAge().getAgeMax());
 
 				SexOfPersonType sexOfPersonType = codeTableService.getCodeTableType(
-						arrestee.getSex(), sexOfPersonTypeRepository::findFirstByStateCode, SexOfPersonType::new);
+						arrestee.getSex(), SexOfPersonType.class, SexOfPersonType::new);
 				arresteeSegment.setSexOfPersonType(sexOfPersonType);
 				
 				RaceOfPersonType raceOfPersonType = codeTableService.getCodeTableType(
-						arrestee.getRace(), raceOfPersonTypeRepository::findFirstByStateCode, RaceOfPersonType::new);
+						arrestee.getRace(), RaceOfPersonType.class, RaceOfPersonType::new);
 				arresteeSegment.setRaceOfPersonType(raceOfPersonType);
 				
 				EthnicityOfPersonType ethnicityOfPersonType = codeTableService.getCodeTableType(
-						arrestee.getEthnicity(), ethnicityOfPersonTypeRepository::findFirstByStateCode, EthnicityOfPersonType::new);
+						arrestee.getEthnicity(), EthnicityOfPersonType.class, EthnicityOfPersonType::new);
 				arresteeSegment.setEthnicityOfPersonType(ethnicityOfPersonType);
 				
 				ResidentStatusOfPersonType residentStatusOfPersonType = codeTableService.getCodeTableType(
 						arrestee.getResidentStatus(), 
-						residentStatusOfPersonTypeRepository::findFirstByStateCode, 
+						ResidentStatusOfPersonType.class, 
 						ResidentStatusOfPersonType::new);
 				arresteeSegment.setResidentStatusOfPersonType(residentStatusOfPersonType);
 				
 				DispositionOfArresteeUnder18Type dispositionOfArresteeUnder18Type = codeTableService.getCodeTableType(
 						arrestee.getDispositionOfArresteeUnder18(), 
-						dispositionOfArresteeUnder18TypeRepository::findFirstByStateCode, 
+						DispositionOfArresteeUnder18Type.class, 
 						DispositionOfArresteeUnder18Type::new);
 				arresteeSegment.setDispositionOfArresteeUnder18Type(dispositionOfArresteeUnder18Type );
 				
 				UcrOffenseCodeType ucrOffenseCodeType = codeTableService.getCodeTableType(
 						arrestee.getUcrArrestOffenseCode(), 
-						ucrOffenseCodeTypeRepository::findFirstByStateCode, 
+						UcrOffenseCodeType.class, 
 						UcrOffenseCodeType::new);;
 				arresteeSegment.setUcrOffenseCodeType(ucrOffenseCodeType);
 	
@@ -674,15 +814,15 @@ public class GroupAIncidentService {
 				offenderSegment.setOffenderSequenceNumber(offender.getOffenderSequenceNumber().getValue());
 				
 				SexOfPersonType sexOfPersonType = codeTableService.getCodeTableType(
-						offender.getSex(), sexOfPersonTypeRepository::findFirstByStateCode, SexOfPersonType::new);
+						offender.getSex(), SexOfPersonType.class, SexOfPersonType::new);
 				offenderSegment.setSexOfPersonType(sexOfPersonType);
 				
 				RaceOfPersonType raceOfPersonType = codeTableService.getCodeTableType(
-						offender.getRace(), raceOfPersonTypeRepository::findFirstByStateCode, RaceOfPersonType::new);
+						offender.getRace(), RaceOfPersonType.class, RaceOfPersonType::new);
 				offenderSegment.setRaceOfPersonType(raceOfPersonType);
 				
 				EthnicityOfPersonType ethnicityOfPersonType = codeTableService.getCodeTableType(
-						offender.getEthnicity(), ethnicityOfPersonTypeRepository::findFirstByStateCode, EthnicityOfPersonType::new);
+						offender.getEthnicity(), EthnicityOfPersonType.class, EthnicityOfPersonType::new);
 				offenderSegment.setEthnicityOfPersonType(ethnicityOfPersonType);
 
 				offenderSegments.add(offenderSegment);
@@ -706,20 +846,20 @@ public class GroupAIncidentService {
 				
 				UcrOffenseCodeType ucrOffenseCodeType = 
 						codeTableService.getCodeTableType(offense.getUcrOffenseCode(), 
-								ucrOffenseCodeTypeRepository::findFirstByStateCode, UcrOffenseCodeType::new);
+								UcrOffenseCodeType.class, UcrOffenseCodeType::new);
 				offenseSegment.setUcrOffenseCodeType(ucrOffenseCodeType);
 				offenseSegment.setOffenseAttemptedCompleted(offense.getOffenseAttemptedCompleted());
 				
 				LocationType locationType = 
 						codeTableService.getCodeTableType(offense.getLocationType(), 
-								locationTypeRepository::findFirstByStateCode, LocationType::new);
+								LocationType.class, LocationType::new);
 				offenseSegment.setLocationType(locationType);
 				
 				offenseSegment.setNumberOfPremisesEntered(offense.getNumberOfPremisesEntered().getValue());
 				
 				MethodOfEntryType methodOfEntryType = 
 						codeTableService.getCodeTableType(offense.getMethodOfEntry(), 
-								methodOfEntryTypeRepository::findFirstByStateCode, MethodOfEntryType::new);
+								MethodOfEntryType.class, MethodOfEntryType::new);
 				offenseSegment.setMethodOfEntryType(methodOfEntryType);
 				processTypeOfWeaponForceInvolved(offenseSegment, offense); 
 				processTypeOfCriminalActivityCount(offenseSegment, offense); 
@@ -729,7 +869,7 @@ public class GroupAIncidentService {
 				Arrays.stream(offense.getBiasMotivation())
 					.filter(StringUtils::isNotBlank)
 					.map(code -> codeTableService.getCodeTableType(code, 
-								biasMotivationTypeRepository::findFirstByStateCode, null))
+								BiasMotivationType.class, null))
 					.filter(Objects::nonNull)
 					.forEach(biasMotivationTypes::add);
 					
@@ -750,7 +890,7 @@ public class GroupAIncidentService {
 			for (int i = 0; i < offense.getPopulatedOffendersSuspectedOfUsingCount(); i++){
 				String offenderSuspectedUsingCode = StringUtils.trimToNull(offense.getOffendersSuspectedOfUsing(i));
 				OffenderSuspectedOfUsingType offenderSuspectedOfUsingType = 
-						codeTableService.getCodeTableType(offenderSuspectedUsingCode, offenderSuspectedOfUsingTypeRepository::findFirstByStateCode, null);
+						codeTableService.getCodeTableType(offenderSuspectedUsingCode, OffenderSuspectedOfUsingType.class, null);
 				if (offenderSuspectedOfUsingType != null){
 					offenderSuspectedOfUsingTypes.add(offenderSuspectedOfUsingType); 
 				}
@@ -767,7 +907,7 @@ public class GroupAIncidentService {
 			for (int i = 0; i < offense.getPopulatedTypeOfCriminalActivityCount(); i++){
 				String typeOfCriminalActivityCode = StringUtils.trimToNull(offense.getTypeOfCriminalActivity(i));
 				TypeOfCriminalActivityType typeOfCriminalActivityType = 
-						codeTableService.getCodeTableType(typeOfCriminalActivityCode, typeOfCriminalActivityTypeRepository::findFirstByStateCode, null);
+						codeTableService.getCodeTableType(typeOfCriminalActivityCode, TypeOfCriminalActivityType.class, null);
 				if (typeOfCriminalActivityType != null){
 					typeOfCriminalActivityTypes.add(typeOfCriminalActivityType); 
 				}
@@ -789,7 +929,7 @@ public class GroupAIncidentService {
 				if (StringUtils.isNotBlank(typeOfWeaponForceInvolvedCode)){
 					Optional<TypeOfWeaponForceInvolvedType> typeOfWeaponForceInvolvedType = 
 							Optional.ofNullable(codeTableService.getCodeTableType(typeOfWeaponForceInvolvedCode,
-									typeOfWeaponForceInvolvedTypeRepository::findFirstByStateCode, 
+									TypeOfWeaponForceInvolvedType.class, 
 									null));
 					typeOfWeaponForceInvolvedType.ifPresent( type ->
 						typeOfWeaponForceInvolveds.add(new TypeOfWeaponForceInvolved(
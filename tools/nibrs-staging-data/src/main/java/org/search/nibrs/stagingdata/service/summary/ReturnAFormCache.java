@@ -0,0 +1,186 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service.summary;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.stagingdata.AppProperties;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryPeriod;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * A least recently used cache of the Return A forms, holding at most app.returnAFormCacheSize forms.  The forms 
+ * of a month, of its year and of the state are evicted when an incident counted in the month is saved or deleted. 
+ * The hit and miss counts are published as the cache.gets meter with the cache tag returnAForm.
+ */
+@Component
+public class ReturnAFormCache {
+	
+	public static final String STATE_WIDE = "StateWide"; 
+
+	@Autowired
+	AppProperties appProperties;
+	@Autowired
+	MeterRegistry meterRegistry;
+	
+	private final AtomicLong hitCount = new AtomicLong(); 
+	private final AtomicLong missCount = new AtomicLong(); 
+	private final AtomicLong putCount = new AtomicLong(); 
+	private final AtomicLong evictionCount = new AtomicLong(); 
+	
+	private final Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = 
+			new LinkedHashMap<ReturnASummaryPeriod, ReturnAForm>(16, 0.75f, true){
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<ReturnASummaryPeriod, ReturnAForm> eldest) {
+					if (size() > appProperties.getReturnAFormCacheSize()){
+						evictionCount.incrementAndGet();
+						return true;
+					}
+					return false;
+				}
+			};
+	
+	/**
+	 * Incremented by every invalidation, so a form loaded while an invalidation happens is not cached.
+	 */
+	private long generation; 
+	
+	@PostConstruct
+	public void bindMetrics() {
+		new ReturnAFormCacheMetrics().bindTo(meterRegistry);
+	}
+	
+	/**
+	 * @return the cached form of the period, or the form loaded by the loader. 
+	 */
+	public ReturnAForm get(String ori, int year, int month, Supplier<ReturnAForm> loader) {
+		if (appProperties.getReturnAFormCacheSize() <= 0){
+			return loader.get();
+		}
+		
+		ReturnASummaryPeriod key = new ReturnASummaryPeriod(
+				STATE_WIDE.equalsIgnoreCase(ori) ? STATE_WIDE : ori, year, month);
+		long loadGeneration; 
+		synchronized (returnAForms) {
+			ReturnAForm returnAForm = returnAForms.get(key);
+			if (returnAForm != null){
+				hitCount.incrementAndGet();
+				return returnAForm;
+			}
+			missCount.incrementAndGet();
+			loadGeneration = generation; 
+		}
+		
+		ReturnAForm returnAForm = loader.get();
+		synchronized (returnAForms) {
+			if (loadGeneration == generation){
+				returnAForms.put(key, returnAForm);
+				putCount.incrementAndGet();
+			}
+		}
+		return returnAForm;
+	}
+	
+	/**
+	 * Evict the forms of the periods, and the statewide forms of the same months.  Within a transaction the forms 
+	 * are evicted again once it commits, in case they were reloaded from the uncommitted state.
+	 */
+	public void invalidate(Collection<ReturnASummaryPeriod> periods) {
+		if (periods.isEmpty()){
+			return;
+		}
+		
+		remove(periods);
+		if (TransactionSynchronizationManager.isSynchronizationActive()){
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					remove(periods);
+				}
+			});
+		}
+	}
+	
+	public void clear() {
+		synchronized (returnAForms) {
+			generation++; 
+			returnAForms.clear();
+		}
+	}
+	
+	private void remove(Collection<ReturnASummaryPeriod> periods) {
+		synchronized (returnAForms) {
+			generation++; 
+			for (ReturnASummaryPeriod period : periods){
+				returnAForms.remove(period);
+				returnAForms.remove(new ReturnASummaryPeriod(STATE_WIDE, period.getYear(), period.getMonth()));
+			}
+		}
+	}
+	
+	private class ReturnAFormCacheMetrics extends CacheMeterBinder {
+		
+		ReturnAFormCacheMetrics() {
+			super(returnAForms, "returnAForm", Collections.emptyList());
+		}
+		
+		@Override
+		protected Long size() {
+			synchronized (returnAForms) {
+				return (long) returnAForms.size();
+			}
+		}
+
+		@Override
+		protected long hitCount() {
+			return hitCount.get();
+		}
+
+		@Override
+		protected Long missCount() {
+			return missCount.get();
+		}
+
+		@Override
+		protected Long evictionCount() {
+			return evictionCount.get();
+		}
+
+		@Override
+		protected long putCount() {
+			return putCount.get();
+		}
+
+		@Override
+		protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+		}
+	}
+}
@@ -19,35 +19,30 @@ package org.search.nibrs.stagingdata.service.summary;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
-import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.search.nibrs.model.codes.ClearedExceptionallyCode;
-import org.search.nibrs.model.codes.LocationTypeCode;
 import org.search.nibrs.model.codes.OffenseCode;
-import org.search.nibrs.model.codes.PropertyDescriptionCode;
-import org.search.nibrs.model.codes.TypeOfPropertyLossCode;
 import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.model.reports.ReturnAFormRow;
 import org.search.nibrs.model.reports.ReturnARowName;
+import org.search.nibrs.stagingdata.AppProperties;
 import org.search.nibrs.stagingdata.model.Agency;
-import org.search.nibrs.stagingdata.model.TypeOfWeaponForceInvolved;
-import org.search.nibrs.stagingdata.model.TypeOfWeaponForceInvolvedType;
-import org.search.nibrs.stagingdata.model.segment.AdministrativeSegment;
-import org.search.nibrs.stagingdata.model.segment.ArresteeSegment;
-import org.search.nibrs.stagingdata.model.segment.OffenderSegment;
-import org.search.nibrs.stagingdata.model.segment.OffenseSegment;
-import org.search.nibrs.stagingdata.model.segment.PropertySegment;
-import org.search.nibrs.stagingdata.model.segment.VictimSegment;
 import org.search.nibrs.stagingdata.repository.AgencyRepository;
-import org.search.nibrs.stagingdata.service.AdministrativeSegmentService;
+import org.search.nibrs.stagingdata.repository.summary.ReturnAFormRepository;
+import org.search.nibrs.stagingdata.repository.summary.ReturnAMotorVehicleCount;
+import org.search.nibrs.stagingdata.repository.summary.ReturnAOffenseCount;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -56,9 +51,17 @@ public class ReturnAFormService {
 	@SuppressWarnings("unused")
 	private final Log log = LogFactory.getLog(this.getClass());
 	@Autowired
-	AdministrativeSegmentService administrativeSegmentService;
+	ReturnAFormRepository returnAFormRepository;
+	@Autowired
+	ReturnASummaryRepository returnASummaryRepository;
+	@Autowired
+	ReturnAFormCache returnAFormCache;
+	@Autowired
+	AppProperties appProperties;
 	@Autowired
 	public AgencyRepository agencyRepository; 
+	@Autowired
+	AsyncTaskExecutor returnAFormExecutor; 
 
 	private Map<String, Integer> partIOffensesMap; 
 	
@@ -83,31 +86,156 @@ public class ReturnAFormService {
 		partIOffensesMap.put("23F", 10); 
 	}
 	
+	/**
+	 * @return the form of the agency or of the state.  The empty form of an unknown agency is not cached, so the 
+	 * agency's form is created once it is loaded. 
+	 */
 	public ReturnAForm createReturnASummaryReport(String ori, Integer year,  Integer month ) {
+		if ("StateWide".equalsIgnoreCase(ori)){
+			return returnAFormCache.get(ori, year, month, () -> createReturnAForm(ori, year, month, null));
+		}
+		
+		Agency agency = agencyRepository.findFirstByAgencyOri(ori); 
+		if (agency == null){
+			return new ReturnAForm(ori, year, month); 
+		}
+		return returnAFormCache.get(ori, year, month, () -> createReturnAForm(ori, year, month, agency));
+	}
+	
+	private ReturnAForm createReturnAForm(String ori, Integer year,  Integer month, Agency agency ) {
 		
 		ReturnAForm returnAForm = new ReturnAForm(ori, year, month); 
 		
-		if (!"StateWide".equalsIgnoreCase(ori)){
-			Agency agency = agencyRepository.findFirstByAgencyOri(ori); 
-			if (agency!= null){
-				returnAForm.setAgencyName(agency.getAgencyName());
-				returnAForm.setStateName(agency.getStateName());
-				returnAForm.setStateCode(agency.getStateCode());
-				returnAForm.setPopulation(agency.getPopulation());
-			}
-			else{
-				return returnAForm; 
+		if (agency != null){
+			fillAgencyHeader(returnAForm, agency);
+		}
+		else{
+			fillStateWideHeader(returnAForm, ori);
+		}
+
+		if (appProperties.getReturnASummaryEnabled()){
+			returnASummaryRepository.fillReturnAForm(returnAForm, getOriFilter(ori), year, month);
+		}
+		else if ("StateWide".equalsIgnoreCase(ori)){
+			for (ReturnAForm agencyReturnAForm : countAgencyReturnAForms(year, month).values()){
+				addRows(returnAForm, agencyReturnAForm);
 			}
 		}
 		else{
-			returnAForm.setAgencyName(ori);
-			returnAForm.setStateName("");
-			returnAForm.setStateCode("");
-			returnAForm.setPopulation(null);
+			fillReturnAForm(returnAForm, ori, year, month);
 		}
 
-		processReportedOffenses(ori, year, month, returnAForm);
-		processOffenseClearances(ori, year, month, returnAForm);
+		return returnAForm;
+	}
+	
+	/**
+	 * Count the forms of the state and of its agencies in one pass.  
+	 * 
+	 * @return the statewide form followed by the forms of the agencies with offenses in the month, ordered by ORI.
+	 */
+	public List<ReturnAForm> createAgencyReturnAForms(Integer year, Integer month) {
+		ReturnAForm stateWideReturnAForm = new ReturnAForm(ReturnAFormCache.STATE_WIDE, year, month);
+		fillStateWideHeader(stateWideReturnAForm, ReturnAFormCache.STATE_WIDE);
+		
+		Map<String, ReturnAForm> agencyReturnAForms = countAgencyReturnAForms(year, month);
+		Map<String, Agency> agencies = agencyRepository.findByAgencyOriIn(agencyReturnAForms.keySet())
+				.stream()
+				.collect(Collectors.toMap(Agency::getAgencyOri, agency -> agency, (agency, otherAgency) -> agency));
+		
+		List<ReturnAForm> returnAForms = new ArrayList<>();
+		returnAForms.add(stateWideReturnAForm);
+		for (ReturnAForm agencyReturnAForm : agencyReturnAForms.values()){
+			addRows(stateWideReturnAForm, agencyReturnAForm);
+			
+			Agency agency = agencies.get(agencyReturnAForm.getOri()); 
+			if (agency != null){
+				fillAgencyHeader(agencyReturnAForm, agency);
+			}
+			returnAForms.add(agencyReturnAForm);
+		}
+		return returnAForms;
+	}
+	
+	/**
+	 * Count the forms of the agencies with offenses reported or cleared in the month.  Each agency is counted by 
+	 * its own task on the returnAFormExecutor pool of app.returnAFormThreads threads, so the agencies are counted 
+	 * in parallel, each on its own connection.
+	 * 
+	 * @return the forms without the agency headers by ORI.
+	 */
+	public Map<String, ReturnAForm> countAgencyReturnAForms(Integer year, Integer month) {
+		List<Future<ReturnAForm>> futures = returnAFormRepository.findOris(year, month)
+				.stream()
+				.map(ori -> returnAFormExecutor.submit(() -> {
+					ReturnAForm returnAForm = new ReturnAForm(ori, year, month); 
+					fillReturnAForm(returnAForm, ori, year, month);
+					return returnAForm;
+				}))
+				.collect(Collectors.toList()); 
+		
+		Map<String, ReturnAForm> returnAForms = new TreeMap<>();
+		try {
+			for (Future<ReturnAForm> future : futures){
+				ReturnAForm returnAForm = future.get(); 
+				returnAForms.put(returnAForm.getOri(), returnAForm);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			futures.forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Interrupted while counting the Return A forms", e);
+		}
+		catch (ExecutionException e) {
+			futures.forEach(future -> future.cancel(true));
+			throw new IllegalStateException("Failed to count the Return A forms", e.getCause());
+		}
+		return returnAForms;
+	}
+
+	private void fillAgencyHeader(ReturnAForm returnAForm, Agency agency) {
+		returnAForm.setAgencyName(agency.getAgencyName());
+		returnAForm.setStateName(agency.getStateName());
+		returnAForm.setStateCode(agency.getStateCode());
+		returnAForm.setPopulation(agency.getPopulation());
+	}
+
+	private void fillStateWideHeader(ReturnAForm returnAForm, String ori) {
+		returnAForm.setAgencyName(ori);
+		returnAForm.setStateName("");
+		returnAForm.setStateCode("");
+		returnAForm.setPopulation(null);
+	}
+	
+	private void addRows(ReturnAForm returnAForm, ReturnAForm agencyReturnAForm) {
+		for (int i = 0; i < returnAForm.getRows().length; i++){
+			ReturnAFormRow row = returnAForm.getRows()[i]; 
+			ReturnAFormRow agencyRow = agencyReturnAForm.getRows()[i]; 
+			row.increaseReportedOffenses(agencyRow.getReportedOffenses());
+			row.increaseUnfoundedOffenses(agencyRow.getUnfoundedOffenses());
+			row.increaseClearedOffenses(agencyRow.getClearedOffenses());
+			row.increaseClearanceInvolvingOnlyJuvenile(agencyRow.getClearanceInvolvingOnlyJuvenile());
+		}
+	}
+	
+	/**
+	 * Count the offenses of the month in the segments and fill the rows of the form, including the total rows.
+	 * 
+	 * @param ori the ORI of the agency, or "StateWide" for all the agencies.
+	 * @param month the month, or 0 for the whole year.
+	 */
+	public void fillReturnAForm(ReturnAForm returnAForm, String ori, Integer year, Integer month) {
+		fillReturnAForm(returnAForm, ori, year, month, null);
+	}
+	
+	/**
+	 * Count the offenses of the month of some incidents only, which is what the incidents add to the form. 
+	 * 
+	 * @param incidentNumbers the incidents to count, or null for all the incidents.
+	 */
+	public void fillReturnAForm(ReturnAForm returnAForm, String ori, Integer year, Integer month, 
+			Collection<String> incidentNumbers) {
+		processReportedOffenses(ori, year, month, incidentNumbers, returnAForm);
+		processOffenseClearances(ori, year, month, incidentNumbers, returnAForm);
 		
 		fillTheForcibleRapTotalRow(returnAForm);
 		fillTheRobberyTotalRow(returnAForm);
@@ -115,290 +243,176 @@ public class ReturnAFormService {
 		fillTheBurglaryTotalRow(returnAForm);
 		fillTheMotorVehicleTheftTotalRow(returnAForm);
 		fillTheGrandTotalRow(returnAForm);
-
-		return returnAForm;
 	}
 
-	private void processOffenseClearances(String ori, Integer year, Integer month, ReturnAForm returnAForm) {
-		List<AdministrativeSegment> administrativeSegments = administrativeSegmentService.findIdsByOriAndClearanceDate(ori, year, month);
+	private void processOffenseClearances(String ori, Integer year, Integer month, Collection<String> incidentNumbers, 
+			ReturnAForm returnAForm) {
+		List<ReturnAOffenseCount> offenseCounts = returnAFormRepository.findClearedOffenseCounts(
+				getOriFilter(ori), year, month, incidentNumbers, partIOffensesMap);
 		
-		for (AdministrativeSegment administrativeSegment: administrativeSegments){
-			if (administrativeSegment.getOffenseSegments().size() == 0) continue;
-			
-			boolean isClearanceInvolvingOnlyJuvenile = isClearanceInvolvingOnlyJuvenile(administrativeSegment);
-			
-			List<OffenseSegment> offenses = getClearedOffenses(administrativeSegment);
-			for (OffenseSegment offense: offenses){
-				ReturnARowName returnARowName = null; 
-				switch (OffenseCode.forCode(offense.getUcrOffenseCodeType().getFbiCode())){
-				case _09A:
-					returnARowName = ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE;
-					break; 
-				case _09B: 
-					returnARowName = ReturnARowName.MANSLAUGHTER_BY_NEGLIGENCE; 
-					break; 
-				case _11A: 
-					returnARowName = getRowFor11AOffense(administrativeSegment, offense);
-					break;
-				case _120:
-					returnARowName = getReturnARowForRobbery(offense);
-					break; 
-				case _13A:
-					returnARowName = getReturnARowForAssault(offense);
-					break;
-				case _13B: 
-				case _13C: 
-					returnARowName = getReturnARowFor13B13COffense(offense);
-					break;
-				case _220: 
-					countClearedBurglaryOffense(returnAForm, offense, isClearanceInvolvingOnlyJuvenile);
-					break;
-				case _23A: 
-				case _23B:
-				case _23C: 
-				case _23D: 
-				case _23E: 
-				case _23F: 
-				case _23G: 
-				case _23H: 
-					returnARowName = ReturnARowName.LARCENCY_THEFT_TOTAL; 
-					break; 
-				case _240: 
-					countClearedMotorVehicleTheftOffense(returnAForm, offense, isClearanceInvolvingOnlyJuvenile );
-					break; 
-				default: 
-				}
+		for (ReturnAOffenseCount offenseCount: offenseCounts){
+			ReturnARowName returnARowName = getReturnARowName(offenseCount); 
+			if (returnARowName != null){
+				int count = getOffenseCount(offenseCount);
+				returnAForm.getRows()[returnARowName.ordinal()].increaseClearedOffenses(count);
 				
-				if (returnARowName != null){
-					returnAForm.getRows()[returnARowName.ordinal()].increaseClearedOffenses(1);
-					
-					if (isClearanceInvolvingOnlyJuvenile){
-						returnAForm.getRows()[returnARowName.ordinal()].increaseClearanceInvolvingOnlyJuvenile(1);
-					}
+				if (offenseCount.isOnlyJuvenile()){
+					returnAForm.getRows()[returnARowName.ordinal()].increaseClearanceInvolvingOnlyJuvenile(count);
 				}
 			}
-
+		}
+		
+		List<ReturnAMotorVehicleCount> motorVehicleCounts = returnAFormRepository.findClearedMotorVehicleCounts(
+				getOriFilter(ori), year, month, incidentNumbers, partIOffensesMap);
+		for (ReturnAMotorVehicleCount motorVehicleCount: motorVehicleCounts){
+			countClearedMotorVehicleTheftOffense(returnAForm, motorVehicleCount);
 		}
 	}
 
-	private void countClearedMotorVehicleTheftOffense(ReturnAForm returnAForm, OffenseSegment offense,
-			boolean isClearanceInvolvingOnlyJuvenile) {
-		List<PropertySegment> properties =  offense.getAdministrativeSegment().getPropertySegments()
-				.stream().filter(property->TypeOfPropertyLossCode._7.code.equals(property.getTypePropertyLossEtcType().getFbiCode()))
-				.collect(Collectors.toList());
+	private void countClearedMotorVehicleTheftOffense(ReturnAForm returnAForm, ReturnAMotorVehicleCount count) {
+		int propertyCount = count.getPropertyCount(); 
+		boolean isClearanceInvolvingOnlyJuvenile = count.isOnlyJuvenile(); 
+		int numberOfStolenMotorVehicles = count.getNumberOfStolenMotorVehicles();
 		
-		for (PropertySegment property: properties){
-			List<String> motorVehicleCodes = property.getPropertyTypes().stream()
-					.map(propertyType -> propertyType.getPropertyDescriptionType().getFbiCode())
-					.filter(code -> PropertyDescriptionCode.isMotorVehicleCode(code))
-					.collect(Collectors.toList()); 
-			if ("A".equals(offense.getOffenseAttemptedCompleted())){
-				returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseReportedOffenses(motorVehicleCodes.size());
-			}
-			else if (property.getNumberOfStolenMotorVehicles() > 0){
-				int numberOfStolenMotorVehicles = Optional.ofNullable(property.getNumberOfStolenMotorVehicles()).orElse(0);
+		if ("A".equals(count.getOffenseAttemptedCompleted())){
+			returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseReportedOffenses(count.getMotorVehicleCount() * propertyCount);
+		}
+		else if (numberOfStolenMotorVehicles > 0){
+			if (count.getAutoCount() > 0){
+				increaseClearedOffenses(returnAForm, ReturnARowName.TRUCKS_BUSES_THEFT, 
+						count.getTruckBusCount() * propertyCount, isClearanceInvolvingOnlyJuvenile);
+				increaseClearedOffenses(returnAForm, ReturnARowName.OTHER_VEHICLES_THEFT, 
+						count.getOtherVehicleCount() * propertyCount, isClearanceInvolvingOnlyJuvenile);
 				
-				if (motorVehicleCodes.contains(PropertyDescriptionCode._03.code)){
-					for (String code: motorVehicleCodes){
-						switch (code){
-						case "05":
-						case "28": 
-						case "37": 
-							numberOfStolenMotorVehicles --; 
-							returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseClearedOffenses(1);
-							
-							if(isClearanceInvolvingOnlyJuvenile){
-								returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(1);
-							}
-							break; 
-						case "24": 
-							numberOfStolenMotorVehicles --; 
-							returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseClearedOffenses(1);
-							if(isClearanceInvolvingOnlyJuvenile){
-								returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(1);
-							}
-							break; 
-						}
-					}
-					
-					if (numberOfStolenMotorVehicles > 0){
-						returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseClearedOffenses(numberOfStolenMotorVehicles);
-						if(isClearanceInvolvingOnlyJuvenile){
-							returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(1);
-						}
-					}
-				}
-				else if (CollectionUtils.containsAny(motorVehicleCodes, 
-						Arrays.asList(PropertyDescriptionCode._05.code, PropertyDescriptionCode._28.code, PropertyDescriptionCode._37.code))){
-					int countOfOtherVehicles = Long.valueOf(motorVehicleCodes.stream()
-							.filter(code -> code.equals(PropertyDescriptionCode._24.code)).count()).intValue();
-					numberOfStolenMotorVehicles -= Long.valueOf(countOfOtherVehicles).intValue();
-					
-					returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseClearedOffenses(countOfOtherVehicles);
+				numberOfStolenMotorVehicles -= count.getTruckBusCount() + count.getOtherVehicleCount(); 
+				if (numberOfStolenMotorVehicles > 0){
+					returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseClearedOffenses(numberOfStolenMotorVehicles * propertyCount);
 					if(isClearanceInvolvingOnlyJuvenile){
-						returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(countOfOtherVehicles);
-					}
-					
-					if (numberOfStolenMotorVehicles > 0){
-						returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseClearedOffenses(numberOfStolenMotorVehicles);
-						if(isClearanceInvolvingOnlyJuvenile){
-							returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(numberOfStolenMotorVehicles);
-						}
+						returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(propertyCount);
 					}
 				}
-				else if (motorVehicleCodes.contains(PropertyDescriptionCode._24.code)){
-					returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseClearedOffenses(numberOfStolenMotorVehicles);
-					if(isClearanceInvolvingOnlyJuvenile){
-						returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseClearanceInvolvingOnlyJuvenile(numberOfStolenMotorVehicles);
-					}
+			}
+			else if (count.getTruckBusCount() > 0){
+				increaseClearedOffenses(returnAForm, ReturnARowName.OTHER_VEHICLES_THEFT, 
+						count.getOtherVehicleCount() * propertyCount, isClearanceInvolvingOnlyJuvenile);
+				
+				numberOfStolenMotorVehicles -= count.getOtherVehicleCount();
+				if (numberOfStolenMotorVehicles > 0){
+					increaseClearedOffenses(returnAForm, ReturnARowName.TRUCKS_BUSES_THEFT, 
+							numberOfStolenMotorVehicles * propertyCount, isClearanceInvolvingOnlyJuvenile);
 				}
 			}
+			else if (count.getOtherVehicleCount() > 0){
+				increaseClearedOffenses(returnAForm, ReturnARowName.OTHER_VEHICLES_THEFT, 
+						numberOfStolenMotorVehicles * propertyCount, isClearanceInvolvingOnlyJuvenile);
+			}
 		}
-		
 	}
 
-	private boolean isClearanceInvolvingOnlyJuvenile(AdministrativeSegment administrativeSegment) {
-		boolean isClearanceInvolvingOnlyJuvenile = false; 
-		if (ClearedExceptionallyCode.applicableCodeSet().contains(administrativeSegment.getClearedExceptionallyType().getFbiCode())){
-			Set<OffenderSegment> offenders = administrativeSegment.getOffenderSegments();
-			isClearanceInvolvingOnlyJuvenile = offenders.stream().allMatch(offender -> offender.isJuvenile() || offender.isAgeUnknown()); 
+	private void increaseClearedOffenses(ReturnAForm returnAForm, ReturnARowName returnARowName, int count, 
+			boolean isClearanceInvolvingOnlyJuvenile) {
+		returnAForm.getRows()[returnARowName.ordinal()].increaseClearedOffenses(count);
+		if(isClearanceInvolvingOnlyJuvenile){
+			returnAForm.getRows()[returnARowName.ordinal()].increaseClearanceInvolvingOnlyJuvenile(count);
 		}
-		else {
-			Set<ArresteeSegment> arrestees = administrativeSegment.getArresteeSegments();
-			isClearanceInvolvingOnlyJuvenile = arrestees.stream().allMatch(arrestee -> arrestee.isJuvenile() || arrestee.isAgeUnknown()); 
+	}
+
+	private ReturnARowName getReturnARowName(ReturnAOffenseCount offenseCount) {
+		ReturnARowName returnARowName = null; 
+		switch (OffenseCode.forCode(offenseCount.getOffenseCode())){
+		case _09A:
+		case _09C: 
+			returnARowName = ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE;
+			break; 
+		case _09B: 
+			returnARowName = ReturnARowName.MANSLAUGHTER_BY_NEGLIGENCE; 
+			break; 
+		case _11A: 
+			returnARowName = getRowFor11AOffense(offenseCount);
+			break;
+		case _120:
+			returnARowName = getReturnARowForRobbery(offenseCount);
+			break; 
+		case _13A:
+			returnARowName = getReturnARowForAssault(offenseCount);
+			break;
+		case _13B: 
+		case _13C: 
+			returnARowName = offenseCount.isNotAggravatedWeapon() ? ReturnARowName.OTHER_ASSAULT_NOT_AGGRAVATED : null;
+			break;
+		case _220: 
+			returnARowName = getBurglaryRow(offenseCount);
+			break;
+		case _23A: 
+		case _23B:
+		case _23C: 
+		case _23D: 
+		case _23E: 
+		case _23F: 
+		case _23G: 
+		case _23H: 
+			returnARowName = ReturnARowName.LARCENCY_THEFT_TOTAL; 
+			break; 
+		default: 
 		}
-		return isClearanceInvolvingOnlyJuvenile;
+		return returnARowName;
 	}
 
-	private void countClearedBurglaryOffense(ReturnAForm returnAForm, OffenseSegment offense, boolean isClearanceInvolvingOnlyJuvenile) {
-		ReturnARowName returnARowName = getBurglaryRow(offense);
-		
-//		If there is an entry in Data Element 10 (Number of Premises Entered) and an entry of 19 
-//		(Rental Storage Facility) in Data Element 9 (Location Type), use the number of premises 
-//		listed in Data Element 10 as the number of burglaries to be counted.
-		
-		if (returnARowName != null){
-			
-			int increment = 1;
-			int numberOfPremisesEntered = Optional.ofNullable(offense.getNumberOfPremisesEntered()).orElse(0);
-			if (numberOfPremisesEntered > 0 && "19".equals(offense.getLocationType().getFbiCode())){
-				increment = offense.getNumberOfPremisesEntered(); 
-			}
-			
-			returnAForm.getRows()[returnARowName.ordinal()].increaseClearedOffenses(increment);
-			
-			if (isClearanceInvolvingOnlyJuvenile){
-				returnAForm.getRows()[returnARowName.ordinal()].increaseClearanceInvolvingOnlyJuvenile(increment);
-			}
+	/**
+	 * The number of offenses to count.  If there is an entry in Data Element 10 (Number of Premises Entered) and 
+	 * an entry of 19 (Rental Storage Facility) in Data Element 9 (Location Type), use the number of premises 
+	 * listed in Data Element 10 as the number of burglaries to be counted.
+	 */
+	private int getOffenseCount(ReturnAOffenseCount offenseCount) {
+		if (OffenseCode._220.code.equals(offenseCount.getOffenseCode())){
+			return offenseCount.getPremisesCount(); 
 		}
+		return offenseCount.getOffenseCount();
 	}
 
-	private ReturnARowName getBurglaryRow(OffenseSegment offense) {
+	private ReturnARowName getBurglaryRow(ReturnAOffenseCount offenseCount) {
 		ReturnARowName returnARowName = null; 
-		if ("C".equals(offense.getOffenseAttemptedCompleted())){
-			if (offense.getMethodOfEntryType().getFbiCode().equals("F")){
+		String methodOfEntryCode = offenseCount.getMethodOfEntryCode(); 
+		if ("C".equals(offenseCount.getOffenseAttemptedCompleted())){
+			if ("F".equals(methodOfEntryCode)){
 				returnARowName = ReturnARowName.FORCIBLE_ENTRY_BURGLARY; 
 			}
-			else if (offense.getMethodOfEntryType().getFbiCode().equals("N")){
+			else if ("N".equals(methodOfEntryCode)){
 				returnARowName = ReturnARowName.UNLAWFUL_ENTRY_NO_FORCE_BURGLARY; 
 			}
 		}
-		else if ("A".equals(offense.getOffenseAttemptedCompleted()) && 
-				Arrays.asList("N", "F").contains(offense.getMethodOfEntryType().getFbiCode())){
+		else if ("A".equals(offenseCount.getOffenseAttemptedCompleted()) && 
+				Arrays.asList("N", "F").contains(methodOfEntryCode)){
 			returnARowName = ReturnARowName.ATTEMPTED_FORCIBLE_ENTRY_BURGLARY; 
 		}
 		return returnARowName;
 	}
 
-	private List<OffenseSegment> getClearedOffenses(AdministrativeSegment administrativeSegment) {
-		//TODO need to handle the Time-Window submission types and Time-Window offenses  
-		List<OffenseSegment> offenses = new ArrayList<>(); 
-		
-		OffenseSegment reportingOffense = null; 
-		Integer reportingOffenseValue = 99; 
-		for (OffenseSegment offense: administrativeSegment.getOffenseSegments()){
-			if (!Arrays.asList("A", "C").contains(offense.getOffenseAttemptedCompleted())){
-				continue;
-			}
-			
-			if (offense.getUcrOffenseCodeType().getFbiCode().equals(OffenseCode._200.code)){
-				offenses.add(offense);
-				continue;
-			}
-			Integer offenseValue = Optional.ofNullable(partIOffensesMap.get(offense.getUcrOffenseCodeType().getFbiCode())).orElse(99); 
-			
-			if (offenseValue < reportingOffenseValue){
-				reportingOffense = offense; 
-				reportingOffenseValue = offenseValue; 
-			}
-		}
-		
-		if (reportingOffense != null){
-			offenses.add(reportingOffense);
-		}
-		return offenses;
-	}
+	private void processReportedOffenses(String ori, Integer year, Integer month, Collection<String> incidentNumbers, 
+			ReturnAForm returnAForm) {
+		List<ReturnAOffenseCount> offenseCounts = returnAFormRepository.findReportedOffenseCounts(
+				getOriFilter(ori), year, month, incidentNumbers, partIOffensesMap);
 
-	private void processReportedOffenses(String ori, Integer year, Integer month, ReturnAForm returnAForm) {
-		List<AdministrativeSegment> administrativeSegments = administrativeSegmentService.findByOriAndIncidentDate(ori, year, month);
-
-		for (AdministrativeSegment administrativeSegment: administrativeSegments){
-			if (administrativeSegment.getOffenseSegments().size() == 0) continue; 
-			
-			List<OffenseSegment> offensesToReport = getReturnAOffenses(administrativeSegment); 
-			for (OffenseSegment offense: offensesToReport){
+		for (ReturnAOffenseCount offenseCount: offenseCounts){
+			ReturnARowName returnARowName = getReturnARowName(offenseCount); 
+			if (returnARowName != null){
+				returnAForm.getRows()[returnARowName.ordinal()].increaseReportedOffenses(getOffenseCount(offenseCount));
 				
-				ReturnARowName returnARowName = null; 
-				switch (OffenseCode.forCode(offense.getUcrOffenseCodeType().getFbiCode())){
-				case _09A:
-					returnARowName = ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE; 
-					break; 
-				case _09B: 
-					returnARowName = ReturnARowName.MANSLAUGHTER_BY_NEGLIGENCE; 
-					break; 
-				case _09C: 
-					returnARowName = ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE; 
-					returnAForm.getRows()[returnARowName.ordinal()].increaseUnfoundedOffenses(1);
-					break; 
-				case _11A: 
-					returnARowName = getRowFor11AOffense(administrativeSegment, offense);
-					break;
-				case _120:
-					returnARowName = getReturnARowForRobbery(offense);
-					break; 
-				case _13A:
-					returnARowName = getReturnARowForAssault(offense);
-					break;
-				case _13B: 
-				case _13C: 
-					returnARowName = getReturnARowFor13B13COffense(offense);
-					break;
-				case _220: 
-					countBurglaryOffense(returnAForm, offense);
-					break;
-				case _23A: 
-				case _23B:
-				case _23C: 
-				case _23D: 
-				case _23E: 
-				case _23F: 
-				case _23G: 
-				case _23H: 
-					returnARowName = ReturnARowName.LARCENCY_THEFT_TOTAL; 
-					break; 
-				case _240: 
-					countMotorVehicleTheftOffense(returnAForm, offense);
-					break; 
-				default: 
-				}
-				
-				if (returnARowName != null){
-					returnAForm.getRows()[returnARowName.ordinal()].increaseReportedOffenses(1);
+				if (OffenseCode._09C.code.equals(offenseCount.getOffenseCode())){
+					returnAForm.getRows()[returnARowName.ordinal()].increaseUnfoundedOffenses(offenseCount.getOffenseCount());
 				}
 			}
-			
 		}
 		
+		List<ReturnAMotorVehicleCount> motorVehicleCounts = returnAFormRepository.findReportedMotorVehicleCounts(
+				getOriFilter(ori), year, month, incidentNumbers, partIOffensesMap);
+		for (ReturnAMotorVehicleCount motorVehicleCount: motorVehicleCounts){
+			countMotorVehicleTheftOffense(returnAForm, motorVehicleCount);
+		}
+	}
+
+	private String getOriFilter(String ori) {
+		return "StateWide".equalsIgnoreCase(ori) ? null : ori;
 	}
 
 	private void fillTheMotorVehicleTheftTotalRow(ReturnAForm returnAForm) {
@@ -484,156 +498,73 @@ public class ReturnAFormService {
 				ReturnARowName.ATTEMPTS_TO_COMMIT_FORCIBLE_RAPE);
 	}
 
-	private void countMotorVehicleTheftOffense(ReturnAForm returnAForm, OffenseSegment offense) {
-		
-		List<PropertySegment> properties =  offense.getAdministrativeSegment().getPropertySegments()
-				.stream().filter(property->TypeOfPropertyLossCode._7.code.equals(property.getTypePropertyLossEtcType().getFbiCode()))
-				.collect(Collectors.toList());
+	private void countMotorVehicleTheftOffense(ReturnAForm returnAForm, ReturnAMotorVehicleCount count) {
+		int propertyCount = count.getPropertyCount(); 
+		int numberOfStolenMotorVehicles = count.getNumberOfStolenMotorVehicles();
 		
-		for (PropertySegment property: properties){
-			List<String> motorVehicleCodes = property.getPropertyTypes().stream()
-					.map(propertyType -> propertyType.getPropertyDescriptionType().getFbiCode())
-					.filter(code -> PropertyDescriptionCode.isMotorVehicleCode(code))
-					.collect(Collectors.toList()); 
-			
-			int numberOfStolenMotorVehicles = Optional.ofNullable(property.getNumberOfStolenMotorVehicles()).orElse(0);
-			
-			if ("A".equals(offense.getOffenseAttemptedCompleted())){
-				returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseReportedOffenses(motorVehicleCodes.size());
-			}
-			else if ( numberOfStolenMotorVehicles > 0){
-				if (motorVehicleCodes.contains(PropertyDescriptionCode._03.code)){
-					for (String code: motorVehicleCodes){
-						switch (code){
-						case "05":
-						case "28": 
-						case "37": 
-							numberOfStolenMotorVehicles --; 
-							returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseReportedOffenses(1);
-							break; 
-						case "24": 
-							numberOfStolenMotorVehicles --; 
-							returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseReportedOffenses(1);
-							break; 
-						}
-					}
-					
-					if (numberOfStolenMotorVehicles > 0){
-						returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseReportedOffenses(numberOfStolenMotorVehicles);
-					}
-				}
-				else if (CollectionUtils.containsAny(motorVehicleCodes, 
-						Arrays.asList(PropertyDescriptionCode._05.code, PropertyDescriptionCode._28.code, PropertyDescriptionCode._37.code))){
-					int countOfOtherVehicles = Long.valueOf(motorVehicleCodes.stream()
-							.filter(code -> code.equals(PropertyDescriptionCode._24.code)).count()).intValue();
-					numberOfStolenMotorVehicles -= countOfOtherVehicles;
-					returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseReportedOffenses(countOfOtherVehicles);
-					
-					if (numberOfStolenMotorVehicles > 0){
-						returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseReportedOffenses(numberOfStolenMotorVehicles);
-					}
-				}
-				else if (motorVehicleCodes.contains(PropertyDescriptionCode._24.code)){
-					returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseReportedOffenses(numberOfStolenMotorVehicles);
+		if ("A".equals(count.getOffenseAttemptedCompleted())){
+			returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseReportedOffenses(count.getMotorVehicleCount() * propertyCount);
+		}
+		else if ( numberOfStolenMotorVehicles > 0){
+			if (count.getAutoCount() > 0){
+				returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseReportedOffenses(count.getTruckBusCount() * propertyCount);
+				returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseReportedOffenses(count.getOtherVehicleCount() * propertyCount);
+				
+				numberOfStolenMotorVehicles -= count.getTruckBusCount() + count.getOtherVehicleCount(); 
+				if (numberOfStolenMotorVehicles > 0){
+					returnAForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].increaseReportedOffenses(numberOfStolenMotorVehicles * propertyCount);
 				}
 			}
-		}
-		
-	}
-
-	private void countBurglaryOffense(ReturnAForm returnAForm, OffenseSegment offense) {
-		ReturnARowName returnARowName = getBurglaryRow(offense);
-		
-//		If there is an entry in Data Element 10 (Number of Premises Entered) and an entry of 19 
-//		(Rental Storage Facility) in Data Element 9 (Location Type), use the number of premises 
-//		listed in Data Element 10 as the number of burglaries to be counted.
-		
-		if (returnARowName != null){
-			int numberOfPremisesEntered = Optional.ofNullable(offense.getNumberOfPremisesEntered()).orElse(0);
-			if ( numberOfPremisesEntered > 0 
-					&& LocationTypeCode._19.code.equals(offense.getLocationType().getFbiCode())){
-				returnAForm.getRows()[returnARowName.ordinal()].increaseReportedOffenses(offense.getNumberOfPremisesEntered());
+			else if (count.getTruckBusCount() > 0){
+				returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseReportedOffenses(count.getOtherVehicleCount() * propertyCount);
+				
+				numberOfStolenMotorVehicles -= count.getOtherVehicleCount();
+				if (numberOfStolenMotorVehicles > 0){
+					returnAForm.getRows()[ReturnARowName.TRUCKS_BUSES_THEFT.ordinal()].increaseReportedOffenses(numberOfStolenMotorVehicles * propertyCount);
+				}
 			}
-			else {
-				returnAForm.getRows()[returnARowName.ordinal()].increaseReportedOffenses(1);
+			else if (count.getOtherVehicleCount() > 0){
+				returnAForm.getRows()[ReturnARowName.OTHER_VEHICLES_THEFT.ordinal()].increaseReportedOffenses(numberOfStolenMotorVehicles * propertyCount);
 			}
 		}
+		
 	}
 
-	private ReturnARowName getReturnARowFor13B13COffense(OffenseSegment offense) {
-		ReturnARowName returnARowName = null; 
-		boolean containsValidWeaponForceType = 
-				offense.getTypeOfWeaponForceInvolveds()
-				.stream()
-				.filter(type -> Arrays.asList("40", "90", "95", "99", " ").contains(type.getTypeOfWeaponForceInvolvedType().getFbiCode()))
-				.count() > 0;
-				
-		if (containsValidWeaponForceType){
-			returnARowName = ReturnARowName.OTHER_ASSAULT_NOT_AGGRAVATED;
-		}
-		return returnARowName;
-	}
-
-	private ReturnARowName getReturnARowForRobbery(OffenseSegment offense) {
-		List<String> typeOfWeaponInvolvedCodes = offense.getTypeOfWeaponForceInvolveds()
-				.stream()
-				.map(TypeOfWeaponForceInvolved::getTypeOfWeaponForceInvolvedType)
-				.map(TypeOfWeaponForceInvolvedType::getFbiCode)
-				.collect(Collectors.toList()); 
-
-		if (CollectionUtils.containsAny(typeOfWeaponInvolvedCodes, Arrays.asList("11", "12", "13", "14", "15"))){
+	private ReturnARowName getReturnARowForRobbery(ReturnAOffenseCount offenseCount) {
+		switch (offenseCount.getWeaponCategory()){
+		case ReturnAFormRepository.WEAPON_FIREARM: 
 			return ReturnARowName.FIREARM_ROBBERY; 
-		}
-		else if (typeOfWeaponInvolvedCodes.contains("20")){
+		case ReturnAFormRepository.WEAPON_KNIFE: 
 			return ReturnARowName.KNIFE_CUTTING_INSTRUMENT_ROBBERY;
-		}
-		else if (CollectionUtils.containsAny(typeOfWeaponInvolvedCodes, 
-				Arrays.asList("30", "35", "50", "60", "65", "70", "85", "90", "95"))){
+		case ReturnAFormRepository.WEAPON_OTHER_DANGEROUS: 
 			return ReturnARowName.OTHER_DANGEROUS_WEAPON_ROBBERY;
-		}
-		else if (CollectionUtils.containsAny(typeOfWeaponInvolvedCodes, 
-				Arrays.asList("40", "99"))){
+		case ReturnAFormRepository.WEAPON_HANDS_FISTS_FEET: 
 			return ReturnARowName.STRONG_ARM_ROBBERY;
+		default: 
+			return null;
 		}
-			
-		return null;
 	}
 
-	private ReturnARowName getReturnARowForAssault(OffenseSegment offense) {
-		List<String> typeOfWeaponInvolvedCodes = offense.getTypeOfWeaponForceInvolveds()
-				.stream()
-				.map(TypeOfWeaponForceInvolved::getTypeOfWeaponForceInvolvedType)
-				.map(TypeOfWeaponForceInvolvedType::getFbiCode)
-				.collect(Collectors.toList()); 
-		
-		if (CollectionUtils.containsAny(typeOfWeaponInvolvedCodes, Arrays.asList("11", "12", "13", "14", "15"))){
+	private ReturnARowName getReturnARowForAssault(ReturnAOffenseCount offenseCount) {
+		switch (offenseCount.getWeaponCategory()){
+		case ReturnAFormRepository.WEAPON_FIREARM: 
 			return ReturnARowName.FIREARM_ASSAULT; 
-		}
-		else if (typeOfWeaponInvolvedCodes.contains("20")){
+		case ReturnAFormRepository.WEAPON_KNIFE: 
 			return ReturnARowName.KNIFE_CUTTING_INSTRUMENT_ASSAULT;
-		}
-		else if (CollectionUtils.containsAny(typeOfWeaponInvolvedCodes, 
-				Arrays.asList("30", "35", "50", "60", "65", "70", "85", "90", "95"))){
+		case ReturnAFormRepository.WEAPON_OTHER_DANGEROUS: 
 			return ReturnARowName.OTHER_DANGEROUS_WEAPON_ASSAULT;
-		}
-		else if (CollectionUtils.containsAny(typeOfWeaponInvolvedCodes, 
-				Arrays.asList("40", "99"))){
+		case ReturnAFormRepository.WEAPON_HANDS_FISTS_FEET: 
 			return ReturnARowName.HANDS_FISTS_FEET_AGGRAVATED_INJURY_ASSAULT;
+		default: 
+			return null;
 		}
-		
-		return null;
 	}
 	
-	private ReturnARowName getRowFor11AOffense(AdministrativeSegment administrativeSegment,
-			OffenseSegment offense) {
+	private ReturnARowName getRowFor11AOffense(ReturnAOffenseCount offenseCount) {
 		
 		ReturnARowName returnARowName = null;
-		List<VictimSegment> victimSegments = administrativeSegment.getVictimSegments()
-			.stream().filter(victim->victim.getOffenseSegments().contains(offense))
-			.filter(victim->victim.getSexOfPersonType().getFbiCode().equals("F"))
-			.collect(Collectors.toList());
-		if (victimSegments.size() > 0){
-			switch (offense.getOffenseAttemptedCompleted()){
+		if (offenseCount.isFemaleVictim()){
+			switch (offenseCount.getOffenseAttemptedCompleted()){
 			case "C": 
 				returnARowName = ReturnARowName.RAPE_BY_FORCE;
 				break; 
@@ -647,33 +578,4 @@ public class ReturnAFormService {
 		return returnARowName;
 	}
 
-	private List<OffenseSegment> getReturnAOffenses(AdministrativeSegment administrativeSegment) {
-		List<OffenseSegment> offenses = new ArrayList<>(); 
-		
-		OffenseSegment reportingOffense = null; 
-		Integer reportingOffenseValue = 99; 
-		for (OffenseSegment offense: administrativeSegment.getOffenseSegments()){
-			if (!Arrays.asList("A", "C").contains(offense.getOffenseAttemptedCompleted())){
-				continue;
-			}
-			
-			if (offense.getUcrOffenseCodeType().getFbiCode().equals(OffenseCode._09C.code)){
-				offenses.add(offense);
-				continue;
-			}
-			Integer offenseValue = Optional.ofNullable(partIOffensesMap.get(offense.getUcrOffenseCodeType().getFbiCode())).orElse(99); 
-			
-			if (offenseValue < reportingOffenseValue){
-				reportingOffense = offense; 
-				reportingOffenseValue = offenseValue; 
-			}
-		}
-		
-		if (reportingOffense != null){
-			offenses.add(reportingOffense);
-		}
-		return offenses;
-	}
-	
-	
 }
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service.summary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.model.reports.ReturnAFormRow;
+import org.search.nibrs.stagingdata.AppProperties;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryPeriod;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the ReturnASummary table in step with the incidents.  The writers count what the incidents add to the 
+ * months and the years they are counted in before the incidents are replaced or deleted, and again after they 
+ * are saved.  Only the difference is added to the stored rows, so a write counts the changed incidents and not 
+ * the whole months of their agencies.  
+ */
+@Service
+public class ReturnASummaryService {
+	private static final Log log = LogFactory.getLog(ReturnASummaryService.class);
+
+	@Autowired
+	ReturnASummaryRepository returnASummaryRepository;
+	@Autowired
+	ReturnAFormService returnAFormService;
+	@Autowired
+	ReturnAFormCache returnAFormCache;
+	@Autowired
+	AppProperties appProperties;
+	
+	/**
+	 * Count what the incidents add to the summary.  The forms are left empty when the summary table is disabled, 
+	 * they only carry the periods whose cached forms are evicted then. 
+	 * 
+	 * @return the forms of the months and the years the incidents are counted in, or an empty map when neither 
+	 * the summary table nor the form cache is enabled.  
+	 */
+	public Map<ReturnASummaryPeriod, ReturnAForm> countIncidents(Collection<String> incidentNumbers) {
+		Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = new LinkedHashMap<>(); 
+		if (!appProperties.getReturnASummaryEnabled() && appProperties.getReturnAFormCacheSize() <= 0){
+			return returnAForms;
+		}
+		
+		for (ReturnASummaryPeriod period : withYears(returnASummaryRepository.findIncidentPeriods(incidentNumbers))){
+			ReturnAForm returnAForm = new ReturnAForm(period.getOri(), period.getYear(), period.getMonth());
+			if (appProperties.getReturnASummaryEnabled()){
+				returnAFormService.fillReturnAForm(returnAForm, period.getOri(), period.getYear(), period.getMonth(), 
+						incidentNumbers);
+			}
+			returnAForms.put(period, returnAForm);
+		}
+		return returnAForms;
+	}
+	
+	/**
+	 * Count the incidents again after they are saved or deleted, add the difference with their previous counts to 
+	 * the summary and evict the cached forms of the periods.
+	 * 
+	 * @param previousReturnAForms the counts of the incidents before the change, from {@link #countIncidents}.
+	 */
+	public void update(Collection<String> incidentNumbers, Map<ReturnASummaryPeriod, ReturnAForm> previousReturnAForms) {
+		Map<ReturnASummaryPeriod, ReturnAForm> returnAForms = countIncidents(incidentNumbers);
+		Set<ReturnASummaryPeriod> periods = new LinkedHashSet<>(previousReturnAForms.keySet()); 
+		periods.addAll(returnAForms.keySet());
+		
+		if (appProperties.getReturnASummaryEnabled()){
+			for (ReturnASummaryPeriod period : periods){
+				ReturnAForm difference = new ReturnAForm(period.getOri(), period.getYear(), period.getMonth()); 
+				addRows(difference, returnAForms.get(period), 1);
+				addRows(difference, previousReturnAForms.get(period), -1);
+				returnASummaryRepository.addReturnAForm(period, difference);
+			}
+		}
+		returnAFormCache.invalidate(periods);
+	}
+	
+	/**
+	 * Regenerate the whole table from the segments, a month at a time with the agencies of the month counted in 
+	 * parallel.  
+	 * 
+	 * @return the periods whose stored rows did not match the segments.
+	 */
+	public List<ReturnASummaryPeriod> rebuild() {
+		Set<ReturnASummaryPeriod> periods = withYears(returnASummaryRepository.findAllIncidentPeriods());
+		List<ReturnASummaryPeriod> mismatchedPeriods = new ArrayList<>(); 
+		
+		for (ReturnASummaryPeriod period : returnASummaryRepository.findSummaryPeriods()){
+			if (!periods.contains(period)){
+				mismatchedPeriods.add(period);
+				ReturnAForm difference = new ReturnAForm(period.getOri(), period.getYear(), period.getMonth()); 
+				addRows(difference, findStoredReturnAForm(period), -1);
+				returnASummaryRepository.addReturnAForm(period, difference);
+			}
+		}
+		
+		Set<ReturnASummaryPeriod> months = new LinkedHashSet<>();
+		for (ReturnASummaryPeriod period : periods){
+			months.add(new ReturnASummaryPeriod(null, period.getYear(), period.getMonth()));
+		}
+		
+		for (ReturnASummaryPeriod month : months){
+			Map<String, ReturnAForm> returnAForms = 
+					returnAFormService.countAgencyReturnAForms(month.getYear(), month.getMonth());
+			for (ReturnAForm returnAForm : returnAForms.values()){
+				ReturnASummaryPeriod period = 
+						new ReturnASummaryPeriod(returnAForm.getOri(), month.getYear(), month.getMonth()); 
+				ReturnAForm storedForm = findStoredReturnAForm(period);
+				
+				if (!hasSameRows(storedForm, returnAForm)){
+					mismatchedPeriods.add(period);
+					ReturnAForm difference = new ReturnAForm(period.getOri(), period.getYear(), period.getMonth()); 
+					addRows(difference, returnAForm, 1);
+					addRows(difference, storedForm, -1);
+					returnASummaryRepository.addReturnAForm(period, difference);
+				}
+			}
+		}
+		
+		returnAFormCache.clear();
+		log.info("Rebuilt the Return A summary of " + periods.size() + " periods, " 
+				+ mismatchedPeriods.size() + " of them did not match");
+		return mismatchedPeriods;
+	}
+	
+	private ReturnAForm findStoredReturnAForm(ReturnASummaryPeriod period) {
+		ReturnAForm storedForm = new ReturnAForm(period.getOri(), period.getYear(), period.getMonth()); 
+		returnASummaryRepository.fillReturnAForm(storedForm, period.getOri(), period.getYear(), period.getMonth());
+		return storedForm;
+	}
+	
+	private void addRows(ReturnAForm returnAForm, ReturnAForm otherReturnAForm, int sign) {
+		if (otherReturnAForm == null){
+			return;
+		}
+		
+		for (int i = 0; i < returnAForm.getRows().length; i++){
+			ReturnAFormRow row = returnAForm.getRows()[i]; 
+			ReturnAFormRow otherRow = otherReturnAForm.getRows()[i]; 
+			row.increaseReportedOffenses(sign * otherRow.getReportedOffenses());
+			row.increaseUnfoundedOffenses(sign * otherRow.getUnfoundedOffenses());
+			row.increaseClearedOffenses(sign * otherRow.getClearedOffenses());
+			row.increaseClearanceInvolvingOnlyJuvenile(sign * otherRow.getClearanceInvolvingOnlyJuvenile());
+		}
+	}
+	
+	private boolean hasSameRows(ReturnAForm storedForm, ReturnAForm returnAForm) {
+		for (int i = 0; i < returnAForm.getRows().length; i++){
+			ReturnAFormRow storedRow = storedForm.getRows()[i]; 
+			ReturnAFormRow row = returnAForm.getRows()[i]; 
+			if (storedRow.getReportedOffenses() != row.getReportedOffenses() 
+					|| storedRow.getUnfoundedOffenses() != row.getUnfoundedOffenses()
+					|| storedRow.getClearedOffenses() != row.getClearedOffenses()
+					|| storedRow.getClearanceInvolvingOnlyJuvenile() != row.getClearanceInvolvingOnlyJuvenile()){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Add the whole year of each month.  The offenses cleared several times in a year are counted once in the 
+	 * year, so the year can't be summed from its months.
+	 */
+	private Set<ReturnASummaryPeriod> withYears(List<ReturnASummaryPeriod> months) {
+		Set<ReturnASummaryPeriod> periods = new LinkedHashSet<>(months);
+		for (ReturnASummaryPeriod month : months){
+			periods.add(new ReturnASummaryPeriod(month.getOri(), month.getYear(), 0));
+		}
+		return periods;
+	}
+	
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.search.nibrs.model.AbstractReport;
+
+/**
+ * A set of utility methods to process a batch of reports in chunks.
+ */
+public final class ReportBatchUtils {
+
+	private ReportBatchUtils() {
+	}
+
+	/**
+	 * Hand the reports to the saver in chunks of at most chunkSize reports.  Reports with the report action
+	 * type 'D' are handed to the deleter after the pending chunk is saved, and a chunk never contains two reports
+	 * with the same identifier, so the outcome is the same as processing the reports one at a time in order.
+	 *
+	 * @return the number of reports processed.
+	 */
+	public static <T extends AbstractReport> int processInChunks(Iterator<T> reports, int chunkSize,
+			Consumer<List<T>> saver, Consumer<T> deleter) {
+		int count = 0;
+		int size = Math.max(chunkSize, 1);
+		List<T> chunk = new ArrayList<>(size);
+		Set<String> identifiers = new HashSet<>();
+
+		while (reports.hasNext()){
+			T report = reports.next();
+			count++;
+
+			if (report.getReportActionType() == 'D'){
+				flush(chunk, identifiers, saver);
+				deleter.accept(report);
+				continue;
+			}
+
+			if (!identifiers.add(report.getIdentifier())){
+				flush(chunk, identifiers, saver);
+				identifiers.add(report.getIdentifier());
+			}
+
+			chunk.add(report);
+			if (chunk.size() >= size){
+				flush(chunk, identifiers, saver);
+			}
+		}
+
+		flush(chunk, identifiers, saver);
+		return count;
+	}
+
+	private static <T> void flush(List<T> chunk, Set<String> identifiers, Consumer<List<T>> saver) {
+		if (!chunk.isEmpty()){
+			saver.accept(new ArrayList<>(chunk));
+			chunk.clear();
+		}
+		identifiers.clear();
+	}
+}
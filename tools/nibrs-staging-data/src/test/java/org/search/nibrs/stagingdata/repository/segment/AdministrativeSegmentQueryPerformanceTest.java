@@ -0,0 +1,226 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.search.nibrs.stagingdata.PerformanceTests;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Runs the incident and clearance date lookups and the keyset lookups against a generated dataset in the 
+ * embedded database.  The results are checked against the generated dates and the plans of the date range 
+ * predicates must use the indexes of the schema.  The elapsed times are logged for comparison between runs.
+ * 
+ * The dataset is generated once, toggling the referential integrity commits the test transaction.  The context and 
+ * its embedded database are discarded after the class so the committed rows are not seen by the other tests.  The 
+ * test is only run with the performance-tests profile. 
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+@Category(PerformanceTests.class)
+public class AdministrativeSegmentQueryPerformanceTest {
+	private static final Log log = LogFactory.getLog(AdministrativeSegmentQueryPerformanceTest.class);
+	
+	private static final int INCIDENT_COUNT = 20000; 
+	private static final int AGENCY_COUNT = 10; 
+	private static final LocalDate FIRST_INCIDENT_DATE = LocalDate.of(2016, 1, 1); 
+
+	@Autowired
+	private AdministrativeSegmentRepository administrativeSegmentRepository; 
+	@Autowired
+	private JdbcTemplate jdbcTemplate; 
+	
+	private static List<LocalDate> incidentDates = new ArrayList<>(); 
+	private static List<LocalDate> clearanceDates = new ArrayList<>(); 
+	private static List<LocalDate> arrestDates = new ArrayList<>(); 
+	
+	@AfterClass
+	public static void clearIncidents() {
+		incidentDates.clear();
+		clearanceDates.clear();
+		arrestDates.clear();
+	}
+	
+	@Before
+	public void generateIncidents() {
+		if (!incidentDates.isEmpty()){
+			return;
+		}
+		
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		
+		List<Object[]> administrativeSegments = new ArrayList<>(); 
+		List<Object[]> arresteeSegments = new ArrayList<>(); 
+		for (int i = 1; i <= INCIDENT_COUNT; i++){
+			LocalDate incidentDate = FIRST_INCIDENT_DATE.plusDays(i % 730); 
+			LocalDate clearanceDate = i % 5 == 0 ? incidentDate.plusDays(10) : null; 
+			LocalDate arrestDate = i % 3 == 0 ? incidentDate.plusDays(20) : null; 
+			incidentDates.add(incidentDate);
+			clearanceDates.add(clearanceDate);
+			arrestDates.add(arrestDate);
+			
+			administrativeSegments.add(new Object[]{i, getOri(i), "I" + i, Date.valueOf(incidentDate), 
+					clearanceDate == null ? null : Date.valueOf(clearanceDate)});
+			if (arrestDate != null){
+				arresteeSegments.add(new Object[]{i, i, Date.valueOf(arrestDate)});
+			}
+		}
+		
+		jdbcTemplate.batchUpdate("INSERT INTO AdministrativeSegment (AdministrativeSegmentID, SegmentActionTypeTypeID, "
+				+ "ORI, AgencyID, IncidentNumber, IncidentDate, IncidentDateID, IncidentHour, ClearedExceptionallyTypeID, "
+				+ "ExceptionalClearanceDate, ExceptionalClearanceDateID, CargoTheftIndicatorTypeID) "
+				+ "VALUES (?, 1, ?, 1, ?, ?, 1, '01', 1, ?, 1, 1)", administrativeSegments);
+		jdbcTemplate.batchUpdate("INSERT INTO ArresteeSegment (ArresteeSegmentID, SegmentActionTypeTypeID, "
+				+ "AdministrativeSegmentID, ArresteeSequenceNumber, ArrestDate, ArrestDateID, TypeOfArrestTypeID, "
+				+ "MultipleArresteeSegmentsIndicatorTypeID, SexOfPersonTypeID, RaceOfPersonTypeID, EthnicityOfPersonTypeID, "
+				+ "ResidentStatusOfPersonTypeID, DispositionOfArresteeUnder18TypeID, UCROffenseCodeTypeID) "
+				+ "VALUES (?, 1, ?, 1, ?, 1, 1, 1, 1, 1, 1, 1, 1, 1)", arresteeSegments);
+		
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+		jdbcTemplate.execute("ANALYZE");
+	}
+	
+	@Test
+	public void testDateLookups() {
+		long start = System.currentTimeMillis(); 
+		for (int month = 1; month <= 12; month++){
+			for (int agency = 0; agency < AGENCY_COUNT; agency++){
+				String ori = "WA" + String.format("%07d", agency); 
+				assertThat(administrativeSegmentRepository.findIdsByOriAndIncidentDate(ori, 2016, month).size(), 
+						equalTo(countIncidents(ori, 2016, month)));
+				assertThat(administrativeSegmentRepository.findIdsByOriAndClearanceDate(ori, 2016, month).size(), 
+						equalTo(countClearances(ori, 2016, month)));
+			}
+		}
+		log.info("Looked up the incidents and the clearances of 120 agency months in " 
+				+ (System.currentTimeMillis() - start) + " ms");
+		
+		start = System.currentTimeMillis(); 
+		assertThat(administrativeSegmentRepository.findIdsByOriAndIncidentDate(null, 2017, 0).size(), 
+				equalTo(countIncidents(null, 2017, 0)));
+		assertThat(administrativeSegmentRepository.findIdsByOriAndClearanceDate(null, 2017, 0).size(), 
+				equalTo(countClearances(null, 2017, 0)));
+		log.info("Looked up the incidents and the clearances of the state in 2017 in " 
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+	
+	@Test
+	public void testKeysetLookups() {
+		String ori = getOri(1); 
+		LocalDate startDate = LocalDate.of(2016, 3, 1); 
+		LocalDate endDate = LocalDate.of(2016, 8, 31); 
+		int expectedCount = 0; 
+		for (int i = 0; i < incidentDates.size(); i++){
+			LocalDate incidentDate = incidentDates.get(i); 
+			if (ori.equals(getOri(i + 1)) && !incidentDate.isBefore(startDate) && !incidentDate.isAfter(endDate)){
+				expectedCount++;
+			}
+		}
+		
+		long start = System.currentTimeMillis(); 
+		List<Integer> pagedIds = new ArrayList<>(); 
+		List<Integer> page = administrativeSegmentRepository.findIdsAfter(null, ori, startDate, endDate, 100);
+		while (!page.isEmpty()){
+			pagedIds.addAll(page);
+			page = administrativeSegmentRepository.findIdsAfter(page.get(page.size() - 1), ori, startDate, endDate, 100);
+		}
+		log.info("Paged through the incidents of one agency in 6 months in " 
+				+ (System.currentTimeMillis() - start) + " ms");
+		assertThat(pagedIds.size(), equalTo(expectedCount));
+		assertThat(new HashSet<>(pagedIds).size(), equalTo(expectedCount));
+		
+		List<Integer> streamedIds; 
+		try (Stream<Integer> ids = administrativeSegmentRepository.streamIds(ori, startDate, endDate, 50)){
+			streamedIds = ids.collect(Collectors.toList());
+		}
+		assertThat(streamedIds, equalTo(pagedIds));
+		
+		try (Stream<Integer> ids = administrativeSegmentRepository.streamIds(null, null, null, 1000)){
+			assertThat((int) ids.count(), equalTo(INCIDENT_COUNT));
+		}
+	}
+	
+	@Test
+	public void testDateRangesUseIndexes() {
+		assertThat(explain("SELECT AdministrativeSegmentID FROM AdministrativeSegment "
+				+ "WHERE IncidentDate >= DATE '2016-05-01' AND IncidentDate < DATE '2016-06-01'"), 
+				containsString("ADMINISTRATIVESEGMENT_INCIDENTDATE_IDX"));
+		assertThat(explain("SELECT AdministrativeSegmentID FROM AdministrativeSegment "
+				+ "WHERE ExceptionalClearanceDate >= DATE '2016-05-01' AND ExceptionalClearanceDate < DATE '2016-06-01'"), 
+				containsString("ADMINISTRATIVESEGMENT_EXCEPTIONALCLEARANCEDATE_IDX"));
+		assertThat(explain("SELECT AdministrativeSegmentID FROM ArresteeSegment "
+				+ "WHERE ArrestDate >= DATE '2016-05-01' AND ArrestDate < DATE '2016-06-01'"), 
+				containsString("ARRESTEESEGMENT_ARRESTDATE_IDX"));
+	}
+	
+	private String explain(String sql) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).toUpperCase();
+	}
+	
+	private String getOri(int incident) {
+		return "WA" + String.format("%07d", incident % AGENCY_COUNT);
+	}
+	
+	private int countIncidents(String ori, int year, int month) {
+		int count = 0; 
+		for (int i = 0; i < incidentDates.size(); i++){
+			if ((ori == null || ori.equals(getOri(i + 1))) && isInMonth(incidentDates.get(i), year, month)){
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	private int countClearances(String ori, int year, int month) {
+		Set<Integer> incidents = new HashSet<>(); 
+		for (int i = 0; i < incidentDates.size(); i++){
+			if ((ori == null || ori.equals(getOri(i + 1))) 
+					&& (isInMonth(clearanceDates.get(i), year, month) || isInMonth(arrestDates.get(i), year, month))){
+				incidents.add(i);
+			}
+		}
+		return incidents.size();
+	}
+	
+	private boolean isInMonth(LocalDate date, int year, int month) {
+		return date != null && date.getYear() == year && (month == 0 || date.getMonthValue() == month);
+	}
+}
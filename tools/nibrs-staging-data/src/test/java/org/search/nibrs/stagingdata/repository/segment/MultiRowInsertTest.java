@@ -0,0 +1,60 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+public class MultiRowInsertTest {
+
+	private JdbcTemplate jdbcTemplate; 
+	
+	@Before
+	public void setUp() {
+		jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:multiRowInsertTest;DB_CLOSE_DELAY=-1"));
+		jdbcTemplate.execute("DROP TABLE IF EXISTS TypeInjury");
+		jdbcTemplate.execute("CREATE TABLE TypeInjury (TypeInjuryID INTEGER NOT NULL AUTO_INCREMENT, "
+				+ "VictimSegmentID INTEGER NOT NULL, TypeInjuryTypeID INTEGER NOT NULL, PRIMARY KEY (TypeInjuryID))");
+	}
+	
+	@Test
+	public void testExecute() {
+		MultiRowInsert insert = new MultiRowInsert("TypeInjury", "VictimSegmentID", "TypeInjuryTypeID");
+		for (int i = 1; i <= 5; i++){
+			insert.addRow(i, i * 10);
+		}
+		
+		assertThat(insert.execute(jdbcTemplate, 2), equalTo(5));
+		
+		List<Integer> typeIds = jdbcTemplate.queryForList(
+				"SELECT TypeInjuryTypeID FROM TypeInjury ORDER BY VictimSegmentID", Integer.class);
+		assertThat(typeIds, equalTo(Arrays.asList(10, 20, 30, 40, 50)));
+		assertThat(new MultiRowInsert("TypeInjury", "VictimSegmentID").execute(jdbcTemplate, 2), equalTo(0));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testAddRowWithWrongValueCount() {
+		new MultiRowInsert("TypeInjury", "VictimSegmentID", "TypeInjuryTypeID").addRow(1);
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.segment;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+public class SegmentKeyAllocatorTest {
+
+	private static DriverManagerDataSource dataSource; 
+	private SegmentKeyAllocator segmentKeyAllocator; 
+	
+	@BeforeClass
+	public static void createSchema() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:segmentKeyAllocatorTest;DB_CLOSE_DELAY=-1");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+	}
+	
+	@Before
+	public void setUp() {
+		segmentKeyAllocator = new SegmentKeyAllocator(); 
+		segmentKeyAllocator.jdbcTemplate = new JdbcTemplate(dataSource);
+		segmentKeyAllocator.transactionManager = new DataSourceTransactionManager(dataSource);
+		segmentKeyAllocator.jdbcTemplate.update("DELETE FROM SegmentKey");
+		segmentKeyAllocator.jdbcTemplate.update("DELETE FROM AgencyType");
+	}
+	
+	@Test
+	public void testAllocateAfterLargestKey() {
+		assertThat(segmentKeyAllocator.allocate("AgencyType", "AgencyTypeID", 10), equalTo(1));
+		assertThat(segmentKeyAllocator.allocate("AgencyType", "AgencyTypeID", 5), equalTo(11));
+		
+		segmentKeyAllocator.jdbcTemplate.update("INSERT INTO AgencyType (AgencyTypeID, StateCode, StateDescription, "
+				+ "FBICode, FBIDescription) VALUES (40, 'C', 'City', 'C', 'City')");
+		assertThat(segmentKeyAllocator.allocate("AgencyType", "AgencyTypeID", 5), equalTo(41));
+		assertThat(segmentKeyAllocator.allocate("AgencyType", "AgencyTypeID", 1), equalTo(46));
+	}
+	
+	@Test
+	public void testConcurrentAllocations() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		List<Future<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < 40; i++){
+			futures.add(executorService.submit(() -> segmentKeyAllocator.allocate("AgencyType", "AgencyTypeID", 3)));
+		}
+		
+		List<Integer> firstKeys = new ArrayList<>();
+		for (Future<Integer> future : futures){
+			firstKeys.add(future.get());
+		}
+		executorService.shutdown();
+		
+		Collections.sort(firstKeys);
+		for (int i = 0; i < firstKeys.size(); i++){
+			assertThat(firstKeys.get(i), equalTo(i * 3 + 1));
+		}
+	}
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.sql.Date;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.model.reports.ReturnAFormRow;
+import org.search.nibrs.model.reports.ReturnARowName;
+import org.search.nibrs.stagingdata.service.summary.ReturnAFormService;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Runs the aggregate queries on a fixture in the embedded database and fills the form with them.  The expected 
+ * counts are the counts the entity based computation, which loaded every segment of the incidents, returned for 
+ * the same incidents.  It differs in two cases only: 
+ * <ul>
+ * <li>of two reporting offenses of the same rank the one with the lower key is counted, where the entity based 
+ * computation counted the first one of an unordered set.</li>
+ * <li>a stolen motor vehicle property without a number of stolen motor vehicles is counted as 0 vehicles, 
+ * where the entity based computation failed with a NullPointerException when the incident was cleared.</li>
+ * </ul>
+ */
+public class ReturnAFormRepositoryTest {
+
+	private static final String ORI = "WA1234567"; 
+	
+	private static DriverManagerDataSource dataSource; 
+	private static JdbcTemplate jdbcTemplate; 
+	private ReturnAFormService returnAFormService; 
+	
+	@BeforeClass
+	public static void createFixture() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:returnAFormTest;DB_CLOSE_DELAY=-1");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource); 
+		
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		insertCodeRows("UCROffenseCodeType", 
+				"StateCode, StateDescription, FBICode, FBIDescription, OffenseCategory1, OffenseCategory2, OffenseCategory3, OffenseCategory4", 
+				"'%2$s', '%2$s', '%2$s', '%2$s', ' ', ' ', ' ', ' '", 
+				"09A", "09C", "120", "13A", "220", "240", "23H");
+		insertCodes("MethodOfEntryType", "F", " ");
+		insertCodes("LocationTypeType", "13", "19");
+		insertCodes("ClearedExceptionallyType", "N", "A");
+		insertCodes("TypeOfWeaponForceInvolvedType", "11", "40");
+		insertCodes("TypePropertyLossEtcType", "7", "5");
+		insertCodes("PropertyDescriptionType", "03", "05", "24");
+		
+		// A 09C and a 13A with a firearm, cleared by the arrest of an adult.  
+		insertIncident(1, ORI, "2017-03-05", 1, null);
+		insertOffense(1, 1, "09C", "C", 1, null, 2);
+		insertOffense(2, 1, "13A", "C", 1, null, 2, "11");
+		insertArrestee(1, 1, "2017-03-10", 30, 30);
+		
+		// A strong arm robbery and a shoplifting, cleared exceptionally with a juvenile offender.
+		insertIncident(2, ORI, "2017-03-06", 2, "2017-03-20");
+		insertOffense(3, 2, "120", "C", 1, null, 2, "40");
+		insertOffense(4, 2, "23H", "C", 1, null, 2);
+		insertOffender(1, 2, 15, 15);
+		
+		// Three stolen vehicles, an automobile, a truck and another vehicle, cleared by the arrest of a juvenile.  
+		// The recovered automobile is not counted. 
+		insertIncident(3, ORI, "2017-03-07", 1, null);
+		insertOffense(5, 3, "240", "C", 1, null, 2);
+		insertProperty(1, 3, "7", 3, "03", "05", "24");
+		insertProperty(2, 3, "5", 1, "03");
+		insertArrestee(2, 3, "2017-03-15", 16, 16);
+		
+		// A stolen automobile without the number of stolen vehicles. 
+		insertIncident(4, ORI, "2017-03-08", 1, null);
+		insertOffense(6, 4, "240", "C", 1, null, 2);
+		insertProperty(3, 4, "7", null, "03");
+		
+		// A burglary of three rental storage units, counted three times.  
+		insertIncident(5, ORI, "2017-03-09", 1, null);
+		insertOffense(7, 5, "220", "C", 2, 3, 1);
+		
+		// Two aggravated assaults of the same rank, the first one with a firearm.  
+		insertIncident(6, ORI, "2017-03-10", 1, null);
+		insertOffense(8, 6, "13A", "C", 1, null, 2, "11");
+		insertOffense(9, 6, "13A", "C", 1, null, 2, "40");
+		
+		// A theft of February cleared in March by the arrest of a juvenile and of an arrestee of unknown age. 
+		insertIncident(7, ORI, "2017-02-20", 1, null);
+		insertOffense(10, 7, "23H", "C", 1, null, 2);
+		insertArrestee(3, 7, "2017-03-02", 17, 17);
+		insertArrestee(4, 7, "2017-03-02", null, null);
+		
+		// An attempted theft of an automobile and a truck, counted as two automobiles.  
+		insertIncident(8, ORI, "2017-03-11", 1, null);
+		insertOffense(11, 8, "240", "A", 1, null, 2);
+		insertProperty(4, 8, "7", null, "03", "05");
+		
+		// A murder reported by another agency. 
+		insertIncident(9, "WA7654321", "2017-03-12", 1, null);
+		insertOffense(12, 9, "09A", "C", 1, null, 2);
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+	}
+	
+	@AfterClass
+	public static void dropFixture() {
+		jdbcTemplate.execute("DROP ALL OBJECTS");
+	}
+	
+	@Before
+	public void setUp() {
+		ReturnAFormRepository returnAFormRepository = new ReturnAFormRepository(); 
+		returnAFormRepository.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		returnAFormService = new ReturnAFormService(); 
+		ReflectionTestUtils.setField(returnAFormService, "returnAFormRepository", returnAFormRepository);
+	}
+	
+	@Test
+	public void testReportedOffenses() {
+		ReturnAForm returnAForm = fillReturnAForm(ORI); 
+		assertRow(returnAForm, ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE, 1, 1, 0, 0);
+		assertRow(returnAForm, ReturnARowName.FIREARM_ASSAULT, 2, 0, 1, 0);
+		assertRow(returnAForm, ReturnARowName.HANDS_FISTS_FEET_AGGRAVATED_INJURY_ASSAULT, 0, 0, 0, 0);
+		assertRow(returnAForm, ReturnARowName.STRONG_ARM_ROBBERY, 1, 0, 1, 1);
+		assertRow(returnAForm, ReturnARowName.FORCIBLE_ENTRY_BURGLARY, 3, 0, 0, 0);
+		assertRow(returnAForm, ReturnARowName.LARCENCY_THEFT_TOTAL, 0, 0, 1, 1);
+		assertRow(returnAForm, ReturnARowName.GRAND_TOTAL, 12, 1, 6, 5);
+	}
+	
+	@Test
+	public void testMotorVehicleThefts() {
+		ReturnAForm returnAForm = fillReturnAForm(ORI); 
+		assertRow(returnAForm, ReturnARowName.AUTOS_THEFT, 3, 0, 1, 1);
+		assertRow(returnAForm, ReturnARowName.TRUCKS_BUSES_THEFT, 1, 0, 1, 1);
+		assertRow(returnAForm, ReturnARowName.OTHER_VEHICLES_THEFT, 1, 0, 1, 1);
+		assertRow(returnAForm, ReturnARowName.MOTOR_VEHICLE_THEFT_TOTAL, 5, 0, 3, 3);
+	}
+	
+	@Test
+	public void testClearedMotorVehicleTheftWithoutNumberOfStolenVehicles() {
+		jdbcTemplate.update("UPDATE AdministrativeSegment SET ClearedExceptionallyTypeID = 2, "
+				+ "ExceptionalClearanceDate = DATE '2017-03-25' WHERE AdministrativeSegmentID = 4");
+		try {
+			ReturnAForm returnAForm = fillReturnAForm(ORI); 
+			assertRow(returnAForm, ReturnARowName.MOTOR_VEHICLE_THEFT_TOTAL, 5, 0, 3, 3);
+		}
+		finally {
+			jdbcTemplate.update("UPDATE AdministrativeSegment SET ClearedExceptionallyTypeID = 1, "
+					+ "ExceptionalClearanceDate = NULL WHERE AdministrativeSegmentID = 4");
+		}
+	}
+	
+	@Test
+	public void testStateWide() {
+		ReturnAForm returnAForm = fillReturnAForm("StateWide"); 
+		assertRow(returnAForm, ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE, 2, 1, 0, 0);
+		assertRow(returnAForm, ReturnARowName.GRAND_TOTAL, 13, 1, 6, 5);
+		
+		ReturnAForm otherAgencyForm = fillReturnAForm("WA7654321"); 
+		assertRow(otherAgencyForm, ReturnARowName.GRAND_TOTAL, 1, 0, 0, 0);
+	}
+	
+	private ReturnAForm fillReturnAForm(String ori) {
+		ReturnAForm returnAForm = new ReturnAForm(ori, 2017, 3); 
+		returnAFormService.fillReturnAForm(returnAForm, ori, 2017, 3);
+		return returnAForm;
+	}
+	
+	private void assertRow(ReturnAForm returnAForm, ReturnARowName rowName, int reportedOffenses, 
+			int unfoundedOffenses, int clearedOffenses, int clearanceInvolvingOnlyJuvenile) {
+		ReturnAFormRow row = returnAForm.getRows()[rowName.ordinal()]; 
+		assertThat(rowName + " reported", row.getReportedOffenses(), equalTo(reportedOffenses));
+		assertThat(rowName + " unfounded", row.getUnfoundedOffenses(), equalTo(unfoundedOffenses));
+		assertThat(rowName + " cleared", row.getClearedOffenses(), equalTo(clearedOffenses));
+		assertThat(rowName + " juvenile", row.getClearanceInvolvingOnlyJuvenile(), equalTo(clearanceInvolvingOnlyJuvenile));
+	}
+	
+	private static void insertCodes(String table, String... codes) {
+		insertCodeRows(table, "StateCode, StateDescription, FBICode, FBIDescription", 
+				"'%2$s', '%2$s', '%2$s', '%2$s'", codes);
+	}
+	
+	private static void insertCodeRows(String table, String columns, String values, String... codes) {
+		for (int i = 0; i < codes.length; i++){
+			jdbcTemplate.update(String.format("INSERT INTO " + table + " (" + table + "ID, " + columns + ") "
+					+ "VALUES (%1$d, " + values + ")", i + 1, codes[i]));
+		}
+	}
+	
+	private static int getCodeId(String table, String code) {
+		return jdbcTemplate.queryForObject("SELECT " + table + "ID FROM " + table + " WHERE FBICode = ?", 
+				Integer.class, code);
+	}
+	
+	private static void insertIncident(int id, String ori, String incidentDate, int clearedExceptionallyTypeId, 
+			String clearanceDate) {
+		jdbcTemplate.update("INSERT INTO AdministrativeSegment (AdministrativeSegmentID, SegmentActionTypeTypeID, "
+				+ "ORI, AgencyID, IncidentNumber, IncidentDate, IncidentDateID, IncidentHour, ClearedExceptionallyTypeID, "
+				+ "ExceptionalClearanceDate, ExceptionalClearanceDateID, CargoTheftIndicatorTypeID) "
+				+ "VALUES (?, 1, ?, 1, ?, ?, 1, '01', ?, ?, 1, 1)", 
+				id, ori, "I" + id, Date.valueOf(incidentDate), clearedExceptionallyTypeId, 
+				clearanceDate == null ? null : Date.valueOf(clearanceDate));
+	}
+	
+	private static void insertOffense(int id, int incidentId, String offenseCode, String attemptedCompleted, 
+			int locationTypeId, Integer premisesEntered, int methodOfEntryTypeId, String... weaponCodes) {
+		jdbcTemplate.update("INSERT INTO OffenseSegment (OffenseSegmentID, SegmentActionTypeTypeID, "
+				+ "AdministrativeSegmentID, UCROffenseCodeTypeID, OffenseAttemptedCompleted, LocationTypeTypeID, "
+				+ "NumberOfPremisesEntered, MethodOfEntryTypeID) VALUES (?, 1, ?, ?, ?, ?, ?, ?)", 
+				id, incidentId, getCodeId("UCROffenseCodeType", offenseCode), attemptedCompleted, locationTypeId, 
+				premisesEntered, methodOfEntryTypeId);
+		for (String weaponCode : weaponCodes){
+			jdbcTemplate.update("INSERT INTO TypeOfWeaponForceInvolved (AutomaticWeaponIndicator, OffenseSegmentID, "
+					+ "TypeOfWeaponForceInvolvedTypeID) VALUES (' ', ?, ?)", 
+					id, getCodeId("TypeOfWeaponForceInvolvedType", weaponCode));
+		}
+	}
+	
+	private static void insertArrestee(int id, int incidentId, String arrestDate, Integer ageMin, Integer ageMax) {
+		jdbcTemplate.update("INSERT INTO ArresteeSegment (ArresteeSegmentID, SegmentActionTypeTypeID, "
+				+ "AdministrativeSegmentID, ArresteeSequenceNumber, ArrestDate, ArrestDateID, TypeOfArrestTypeID, "
+				+ "MultipleArresteeSegmentsIndicatorTypeID, AgeOfArresteeMin, AgeOfArresteeMax, SexOfPersonTypeID, "
+				+ "RaceOfPersonTypeID, EthnicityOfPersonTypeID, ResidentStatusOfPersonTypeID, "
+				+ "DispositionOfArresteeUnder18TypeID, UCROffenseCodeTypeID) "
+				+ "VALUES (?, 1, ?, 1, ?, 1, 1, 1, ?, ?, 1, 1, 1, 1, 1, 1)", 
+				id, incidentId, Date.valueOf(arrestDate), ageMin, ageMax);
+	}
+	
+	private static void insertOffender(int id, int incidentId, Integer ageMin, Integer ageMax) {
+		jdbcTemplate.update("INSERT INTO OffenderSegment (OffenderSegmentID, SegmentActionTypeTypeID, "
+				+ "AdministrativeSegmentID, OffenderSequenceNumber, AgeOfOffenderMin, AgeOfOffenderMax, "
+				+ "SexOfPersonTypeID, RaceOfPersonTypeID, EthnicityOfPersonTypeID) VALUES (?, 1, ?, 1, ?, ?, 1, 1, 1)", 
+				id, incidentId, ageMin, ageMax);
+	}
+	
+	private static void insertProperty(int id, int incidentId, String lossCode, Integer numberOfStolenMotorVehicles, 
+			String... propertyDescriptionCodes) {
+		jdbcTemplate.update("INSERT INTO PropertySegment (PropertySegmentID, SegmentActionTypeTypeID, "
+				+ "AdministrativeSegmentID, TypePropertyLossEtcTypeID, NumberOfStolenMotorVehicles) VALUES (?, 1, ?, ?, ?)", 
+				id, incidentId, getCodeId("TypePropertyLossEtcType", lossCode), numberOfStolenMotorVehicles);
+		for (String propertyDescriptionCode : propertyDescriptionCodes){
+			jdbcTemplate.update("INSERT INTO PropertyType (PropertySegmentID, PropertyDescriptionTypeID, RecoveredDateID) "
+					+ "VALUES (?, ?, 1)", id, getCodeId("PropertyDescriptionType", propertyDescriptionCode));
+		}
+	}
+}
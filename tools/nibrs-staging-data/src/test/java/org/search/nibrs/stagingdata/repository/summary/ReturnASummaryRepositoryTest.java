@@ -0,0 +1,94 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.repository.summary;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.model.reports.ReturnAFormRow;
+import org.search.nibrs.model.reports.ReturnARowName;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+public class ReturnASummaryRepositoryTest {
+
+	private static DriverManagerDataSource dataSource; 
+	private ReturnASummaryRepository returnASummaryRepository; 
+	
+	@BeforeClass
+	public static void createSchema() {
+		dataSource = new DriverManagerDataSource("jdbc:h2:mem:returnASummaryTest;DB_CLOSE_DELAY=-1");
+		new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+	}
+	
+	@Before
+	public void setUp() {
+		returnASummaryRepository = new ReturnASummaryRepository(); 
+		returnASummaryRepository.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+		returnASummaryRepository.namedParameterJdbcTemplate.getJdbcOperations().update("DELETE FROM ReturnASummary");
+	}
+	
+	@Test
+	public void testAddAndFillReturnAForm() {
+		ReturnASummaryPeriod period = new ReturnASummaryPeriod("ORI000001", 2017, 3); 
+		ReturnAForm returnAForm = new ReturnAForm(period.getOri(), period.getYear(), period.getMonth()); 
+		returnAForm.getRows()[ReturnARowName.FIREARM_ROBBERY.ordinal()] = new ReturnAFormRow(3, 1, 2, 1);
+		returnASummaryRepository.addReturnAForm(period, returnAForm);
+		
+		returnAForm.getRows()[ReturnARowName.FIREARM_ROBBERY.ordinal()] = new ReturnAFormRow(1, -1, 0, -1);
+		returnASummaryRepository.addReturnAForm(period, returnAForm);
+		
+		ReturnAForm otherAgencyForm = new ReturnAForm("ORI000002", 2017, 3); 
+		otherAgencyForm.getRows()[ReturnARowName.FIREARM_ROBBERY.ordinal()] = new ReturnAFormRow(1, 1, 1, 1);
+		returnASummaryRepository.addReturnAForm(new ReturnASummaryPeriod("ORI000002", 2017, 3), otherAgencyForm);
+		
+		ReturnAForm storedForm = new ReturnAForm("ORI000001", 2017, 3);
+		returnASummaryRepository.fillReturnAForm(storedForm, "ORI000001", 2017, 3);
+		ReturnAFormRow row = storedForm.getRows()[ReturnARowName.FIREARM_ROBBERY.ordinal()]; 
+		assertThat(row.getReportedOffenses(), equalTo(4));
+		assertThat(row.getUnfoundedOffenses(), equalTo(0));
+		assertThat(row.getClearedOffenses(), equalTo(2));
+		assertThat(storedForm.getRows()[ReturnARowName.AUTOS_THEFT.ordinal()].getReportedOffenses(), equalTo(0));
+		
+		ReturnAForm stateWideForm = new ReturnAForm("StateWide", 2017, 3);
+		returnASummaryRepository.fillReturnAForm(stateWideForm, null, 2017, 3);
+		row = stateWideForm.getRows()[ReturnARowName.FIREARM_ROBBERY.ordinal()]; 
+		assertThat(row.getReportedOffenses(), equalTo(5));
+		assertThat(row.getClearanceInvolvingOnlyJuvenile(), equalTo(1));
+		
+		assertThat(returnASummaryRepository.findSummaryPeriods().size(), equalTo(2));
+		returnAForm.getRows()[ReturnARowName.FIREARM_ROBBERY.ordinal()] = new ReturnAFormRow(-4, 0, -2, 0);
+		returnASummaryRepository.addReturnAForm(period, returnAForm);
+		assertThat(returnASummaryRepository.findSummaryPeriods(), 
+				equalTo(Arrays.asList(new ReturnASummaryPeriod("ORI000002", 2017, 3))));
+	}
+	
+	@Test
+	public void testFindIncidentPeriods() {
+		assertThat(returnASummaryRepository.findIncidentPeriods(Collections.emptyList()).size(), equalTo(0));
+		assertThat(returnASummaryRepository.findIncidentPeriods(Arrays.asList("02-000895")).size(), equalTo(0));
+		assertThat(returnASummaryRepository.findAllIncidentPeriods().size(), equalTo(0));
+	}
+}
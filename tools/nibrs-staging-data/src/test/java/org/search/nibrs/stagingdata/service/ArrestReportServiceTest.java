@@ -23,6 +23,7 @@ import static org.junit.Assert.fail;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Set;
 import java.util.stream.StreamSupport;
@@ -49,6 +50,8 @@ import org.search.nibrs.stagingdata.repository.segment.ArrestReportSegmentReposi
 import org.search.nibrs.stagingdata.util.BaselineIncidentFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 
 @RunWith(SpringRunner.class)
@@ -84,6 +87,8 @@ public class ArrestReportServiceTest {
 	
 	@Autowired
 	public ArrestReportSegmentFactory arrestReportSegmentFactory; 
+	@Autowired
+	public JdbcTemplate jdbcTemplate; 
 	
 	@Test
 	public void test() {
@@ -286,4 +291,33 @@ public class ArrestReportServiceTest {
 		assertThat(arrestReportSegmentWasArmedWith.getAutomaticWeaponIndicator(), equalTo("Y"));
 	}
 
+	@Test
+	public void testSaveGroupBArrestReportsKeepsTheOldReportWhenTheInsertFails(){
+		GroupBArrestReport groupBArrestReport = BaselineIncidentFactory.getBaselineGroupBArrestReport();
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		jdbcTemplate.update("INSERT INTO ArrestReportSegment (SegmentActionTypeTypeID, AgencyID, ORI, ArrestTransactionNumber, "
+				+ "ArresteeSequenceNumber, ArrestDateID, TypeOfArrestTypeID, SexOfPersonTypeID, RaceOfPersonTypeID, "
+				+ "EthnicityOfPersonTypeID, ResidentStatusOfPersonTypeID, DispositionOfArresteeUnder18TypeID, UCROffenseCodeTypeID) "
+				+ "VALUES (1, 1, 'WA1234567', ?, 1, 1, 1, 1, 1, 1, 1, 1, 1)", groupBArrestReport.getIdentifier());
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+		
+		try{
+			groupBArrestReport.setCityIndicator("TOO LONG");
+			try{
+				arrestReportService.saveGroupBArrestReports(groupBArrestReport);
+				fail("The city indicator does not fit in its column");
+			}
+			catch (DataIntegrityViolationException e){
+				// the delete of the old arrest report is rolled back with the insert
+			}
+			
+			assertThat(jdbcTemplate.queryForList("SELECT ORI FROM ArrestReportSegment WHERE ArrestTransactionNumber = ?", 
+					String.class, groupBArrestReport.getIdentifier()), equalTo(Arrays.asList("WA1234567")));
+		}
+		finally{
+			jdbcTemplate.update("DELETE FROM ArrestReportSegment WHERE ArrestTransactionNumber = ?", 
+					groupBArrestReport.getIdentifier());
+		}
+	}
+
 }
@@ -17,17 +17,23 @@ package org.search.nibrs.stagingdata.service;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.HashMap;
 import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.search.nibrs.stagingdata.controller.CodeTableController;
 import org.search.nibrs.stagingdata.model.SegmentActionTypeType;
 import org.search.nibrs.stagingdata.repository.SegmentActionTypeRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -37,6 +43,10 @@ public class CodeTableServiceTest {
 	public CodeTableService codeTableService; 
 	@Autowired
 	public SegmentActionTypeRepository segmentActionTypeRepository; 
+	@Autowired
+	public CodeTableController codeTableController; 
+	@Autowired
+	public JdbcTemplate jdbcTemplate; 
 	
 	@Test
 	public void getCodeTableTypeTest() {
@@ -53,6 +63,47 @@ public class CodeTableServiceTest {
 		
 		assertThat(map.size(), equalTo(7));
 	}
+	
+	@Test
+	public void getPreloadedCodeTableTypeTest() {
+		SegmentActionTypeType segmentActionTypeTypeBlank = 
+				codeTableService.getCodeTableType(null, SegmentActionTypeType.class, SegmentActionTypeType::new);
+		assertThat(segmentActionTypeTypeBlank.getSegmentActionTypeTypeId(), equalTo(99998));
+		
+		SegmentActionTypeType segmentActionTypeTypeUnknown = 
+				codeTableService.getCodeTableType("?", SegmentActionTypeType.class, SegmentActionTypeType::new);
+		assertThat(segmentActionTypeTypeUnknown.getSegmentActionTypeTypeId(), equalTo(99998));
+		
+		codeTableService.refreshCodeTables();
+		assertThat(codeTableService.getCodeTableType("?", SegmentActionTypeType.class, null), equalTo(null));
+	}
+	
+	@Test
+	public void refreshCodeTablesTest() throws Exception {
+		jdbcTemplate.update("INSERT INTO SegmentActionTypeType (SegmentActionTypeTypeID, StateCode, StateDescription, "
+				+ "FBICode, FBIDescription) VALUES (90001, 'X', 'Test Action', 'X', 'Test Action')");
+		try{
+			codeTableService.refreshCodeTables();
+			SegmentActionTypeType segmentActionTypeType = 
+					codeTableService.getCodeTableType("X", SegmentActionTypeType.class, SegmentActionTypeType::new);
+			assertThat(segmentActionTypeType.getSegmentActionTypeTypeId(), equalTo(90001));
+			assertThat(segmentActionTypeType.getStateDescription(), equalTo("Test Action"));
+			
+			jdbcTemplate.update("UPDATE SegmentActionTypeType SET StateDescription = 'Changed Action' "
+					+ "WHERE SegmentActionTypeTypeID = 90001");
+			assertThat(codeTableService.getCodeTableType("X", SegmentActionTypeType.class, null).getStateDescription(), 
+					equalTo("Test Action"));
+			
+			MockMvc mockMvc = MockMvcBuilders.standaloneSetup(codeTableController).build();
+			mockMvc.perform(post("/codeTables/refresh")).andExpect(status().isOk());
+			assertThat(codeTableService.getCodeTableType("X", SegmentActionTypeType.class, null).getStateDescription(), 
+					equalTo("Changed Action"));
+		}
+		finally{
+			jdbcTemplate.update("DELETE FROM SegmentActionTypeType WHERE SegmentActionTypeTypeID = 90001");
+			codeTableService.refreshCodeTables();
+		}
+	}
 
 
 }
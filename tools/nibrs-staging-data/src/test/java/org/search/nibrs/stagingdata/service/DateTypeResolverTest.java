@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.search.nibrs.stagingdata.model.DateType;
+import org.search.nibrs.stagingdata.repository.DateTypeRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+public class DateTypeResolverTest {
+
+	private DateTypeResolver dateTypeResolver;
+	private List<DateType> savedDateTypes;
+	
+	@Before
+	public void setUp() {
+		DateType unknown = new DateType(99998); 
+		unknown.setYear(0);
+		DateType first = DateTypeResolver.createDateType(LocalDate.of(2016, 1, 1));
+		first.setDateTypeID(1);
+		DateType last = DateTypeResolver.createDateType(LocalDate.of(2016, 12, 31));
+		last.setDateTypeID(2);
+		
+		savedDateTypes = new ArrayList<>();
+		DateTypeRepository dateTypeRepository = mock(DateTypeRepository.class);
+		when(dateTypeRepository.findAll()).thenReturn(Arrays.asList(unknown, first, last));
+		when(dateTypeRepository.save(anyListOf(DateType.class))).thenAnswer(invocation -> {
+			@SuppressWarnings("unchecked")
+			List<DateType> dateTypes = invocation.getArgumentAt(0, List.class);
+			for (DateType dateType : dateTypes) {
+				dateType.setDateTypeID(1000 + savedDateTypes.size());
+				savedDateTypes.add(dateType);
+			}
+			return dateTypes;
+		});
+		
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any(TransactionDefinition.class))).thenReturn(new SimpleTransactionStatus());
+		
+		dateTypeResolver = new DateTypeResolver();
+		dateTypeResolver.dateTypeRepository = dateTypeRepository;
+		dateTypeResolver.transactionManager = transactionManager;
+	}
+	
+	@Test
+	public void testGetDateType() {
+		assertThat(dateTypeResolver.getDateType(LocalDate.of(2016, 12, 31)).getDateTypeId(), equalTo(2));
+		assertThat(dateTypeResolver.getDateType(LocalDate.of(2016, 1, 1)).getDateTypeId(), equalTo(1));
+		assertThat(dateTypeResolver.getDateType(null), equalTo(null));
+		assertThat(savedDateTypes.size(), equalTo(0));
+	}
+	
+	@Test
+	public void testCreateMissingDateTypes() {
+		DateType dateType = dateTypeResolver.getDateType(LocalDate.of(2016, 3, 15));
+		assertThat(savedDateTypes.size(), equalTo(364));
+		assertThat(dateType.getDateMMDDYYYY(), equalTo("03152016"));
+		assertThat(dateType.getFullMonth(), equalTo("2016-3"));
+		assertThat(dateType.getMonthName(), equalTo("March"));
+		assertThat(dateType.getDayOfWeek(), equalTo("Tuesday"));
+		assertThat(dateType.getDayOfWeekSort(), equalTo(3));
+		assertThat(dateType.getCalendarQuarter(), equalTo(1));
+		
+		assertThat(dateTypeResolver.getDateType(LocalDate.of(2016, 7, 4)), sameInstance(savedDateTypes.get(184)));
+		assertThat(dateTypeResolver.getDateType(LocalDate.of(2016, 1, 1)).getDateTypeId(), equalTo(1));
+		
+		dateTypeResolver.getDateType(LocalDate.of(2015, 6, 30));
+		assertThat(savedDateTypes.size(), equalTo(364 + 365));
+		verify(dateTypeResolver.dateTypeRepository, times(1)).findAll();
+	}
+}
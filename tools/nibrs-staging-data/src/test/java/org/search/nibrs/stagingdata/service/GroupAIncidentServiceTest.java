@@ -88,6 +88,8 @@ import org.search.nibrs.stagingdata.repository.segment.AdministrativeSegmentRepo
 import org.search.nibrs.stagingdata.util.BaselineIncidentFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.MethodMode;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -166,6 +168,8 @@ public class GroupAIncidentServiceTest {
 	
 	@Autowired
 	public AdministrativeSegmentFactory administrativeSegmentFactory; 
+	@Autowired
+	public JdbcTemplate jdbcTemplate; 
 
 	@Test
 	public void test() {
@@ -1040,4 +1044,32 @@ public class GroupAIncidentServiceTest {
 		}
 		
 	}
+	
+	@Test
+	public void testSaveGroupAIncidentReportsKeepsTheOldIncidentWhenTheInsertFails(){
+		GroupAIncidentReport groupAIncidentReport = BaselineIncidentFactory.getBaselineIncident();
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+		jdbcTemplate.update("INSERT INTO AdministrativeSegment (SegmentActionTypeTypeID, ORI, AgencyID, IncidentNumber, "
+				+ "IncidentDateID, IncidentHour, ClearedExceptionallyTypeID, ExceptionalClearanceDateID, CargoTheftIndicatorTypeID) "
+				+ "VALUES (1, 'WA1234567', 1, ?, 1, '01', 1, 1, 1)", groupAIncidentReport.getIncidentNumber());
+		jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+		
+		try{
+			groupAIncidentReport.setCityIndicator("TOO LONG");
+			try{
+				groupAIncidentService.saveGroupAIncidentReports(groupAIncidentReport);
+				fail("The city indicator does not fit in its column");
+			}
+			catch (DataIntegrityViolationException e){
+				// the delete of the old incident is rolled back with the insert
+			}
+			
+			assertThat(jdbcTemplate.queryForList("SELECT ORI FROM AdministrativeSegment WHERE IncidentNumber = ?", 
+					String.class, groupAIncidentReport.getIncidentNumber()), equalTo(Arrays.asList("WA1234567")));
+		}
+		finally{
+			jdbcTemplate.update("DELETE FROM AdministrativeSegment WHERE IncidentNumber = ?", 
+					groupAIncidentReport.getIncidentNumber());
+		}
+	}
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service.summary;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.stagingdata.AppProperties;
+import org.search.nibrs.stagingdata.repository.summary.ReturnASummaryPeriod;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ReturnAFormCacheTest {
+
+	private ReturnAFormCache returnAFormCache; 
+	private SimpleMeterRegistry meterRegistry; 
+	
+	@Before
+	public void setUp() {
+		AppProperties appProperties = new AppProperties(); 
+		appProperties.setReturnAFormCacheSize(2);
+		meterRegistry = new SimpleMeterRegistry(); 
+		
+		returnAFormCache = new ReturnAFormCache(); 
+		returnAFormCache.appProperties = appProperties; 
+		returnAFormCache.meterRegistry = meterRegistry; 
+		returnAFormCache.bindMetrics();
+	}
+	
+	@Test
+	public void testGet() {
+		ReturnAForm returnAForm = get("ORI000001", 2017, 3);
+		assertThat(get("ORI000001", 2017, 3), sameInstance(returnAForm));
+		
+		get("ORI000002", 2017, 3);
+		get("StateWide", 2017, 3);
+		assertThat(get("ORI000001", 2017, 3), not(sameInstance(returnAForm)));
+		
+		assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count(), equalTo(1.0));
+		assertThat(meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count(), equalTo(4.0));
+		assertThat(meterRegistry.get("cache.evictions").functionCounter().count(), equalTo(2.0));
+		assertThat(meterRegistry.get("cache.size").gauge().value(), equalTo(2.0));
+	}
+	
+	@Test
+	public void testInvalidate() {
+		ReturnAForm returnAForm = get("ORI000001", 2017, 3);
+		ReturnAForm stateWideForm = get("STATEWIDE", 2017, 3);
+		
+		returnAFormCache.invalidate(Collections.singleton(new ReturnASummaryPeriod("ORI000002", 2017, 4)));
+		assertThat(get("ORI000001", 2017, 3), sameInstance(returnAForm));
+		assertThat(get("StateWide", 2017, 3), sameInstance(stateWideForm));
+		
+		returnAFormCache.invalidate(Collections.singleton(new ReturnASummaryPeriod("ORI000002", 2017, 3)));
+		assertThat(get("ORI000001", 2017, 3), sameInstance(returnAForm));
+		assertThat(get("StateWide", 2017, 3), not(sameInstance(stateWideForm)));
+		
+		returnAFormCache.invalidate(Collections.singleton(new ReturnASummaryPeriod("ORI000001", 2017, 3)));
+		assertThat(get("ORI000001", 2017, 3), not(sameInstance(returnAForm)));
+	}
+	
+	private ReturnAForm get(String ori, int year, int month) {
+		return returnAFormCache.get(ori, year, month, () -> new ReturnAForm(ori, year, month));
+	}
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.service.summary;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.search.nibrs.model.reports.ReturnAForm;
+import org.search.nibrs.model.reports.ReturnAFormRow;
+import org.search.nibrs.model.reports.ReturnARowName;
+import org.search.nibrs.stagingdata.AppProperties;
+import org.search.nibrs.stagingdata.model.Agency;
+import org.search.nibrs.stagingdata.repository.AgencyRepository;
+import org.search.nibrs.stagingdata.repository.summary.ReturnAFormRepository;
+import org.search.nibrs.stagingdata.repository.summary.ReturnAMotorVehicleCount;
+import org.search.nibrs.stagingdata.repository.summary.ReturnAOffenseCount;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+public class ReturnAFormServiceTest {
+
+	private ReturnAFormService returnAFormService; 
+	private ReturnAFormRepository returnAFormRepository; 
+	private ThreadPoolTaskExecutor returnAFormExecutor; 
+	
+	@Before
+	public void setUp() {
+		returnAFormRepository = mock(ReturnAFormRepository.class);
+		when(returnAFormRepository.findReportedOffenseCounts(any(String.class), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Collections.emptyList());
+		when(returnAFormRepository.findClearedOffenseCounts(any(String.class), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Collections.emptyList());
+		when(returnAFormRepository.findReportedMotorVehicleCounts(any(String.class), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Collections.emptyList());
+		when(returnAFormRepository.findClearedMotorVehicleCounts(any(String.class), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Collections.emptyList());
+		
+		AppProperties appProperties = new AppProperties(); 
+		appProperties.setReturnASummaryEnabled(false);
+		appProperties.setReturnAFormCacheSize(0);
+		ReturnAFormCache returnAFormCache = new ReturnAFormCache(); 
+		returnAFormCache.appProperties = appProperties; 
+		
+		returnAFormService = new ReturnAFormService(); 
+		returnAFormService.returnAFormRepository = returnAFormRepository; 
+		returnAFormService.returnAFormCache = returnAFormCache; 
+		returnAFormService.appProperties = appProperties; 
+		
+		returnAFormExecutor = new ThreadPoolTaskExecutor(); 
+		returnAFormExecutor.setCorePoolSize(2);
+		returnAFormExecutor.initialize();
+		returnAFormService.returnAFormExecutor = returnAFormExecutor; 
+		
+		when(returnAFormRepository.findOris(anyInt(), anyInt())).thenReturn(Arrays.asList("ORI000001", "ORI000002"));
+	}
+	
+	@After
+	public void tearDown() {
+		returnAFormExecutor.shutdown();
+	}
+	
+	@Test
+	public void testReportedOffenses() {
+		when(returnAFormRepository.findReportedOffenseCounts(eq("ORI000001"), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Arrays.asList(
+				offenseCount("09C", "C", 0, false, null, false, 2, 2), 
+				offenseCount("11A", "A", 0, true, null, false, 1, 1), 
+				offenseCount("11A", "C", 0, false, null, false, 5, 5), 
+				offenseCount("120", "C", ReturnAFormRepository.WEAPON_KNIFE, false, null, false, 3, 3), 
+				offenseCount("13B", "C", 0, false, null, false, 4, 4), 
+				offenseCount("220", "C", 0, false, "F", false, 2, 7), 
+				offenseCount("23F", "C", 0, false, null, false, 6, 6)));
+		when(returnAFormRepository.findReportedMotorVehicleCounts(eq("ORI000001"), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Arrays.asList(
+				motorVehicleCount("C", 4, 1, 1, 1, false, 2), 
+				motorVehicleCount("A", 0, 1, 0, 1, false, 1)));
+		
+		ReturnAForm returnAForm = returnAFormService.createReturnASummaryReport("StateWide", 2017, 0);
+		
+		ReturnAFormRow murderRow = row(returnAForm, ReturnARowName.MURDER_NONNEGLIGENT_HOMICIDE); 
+		assertThat(murderRow.getReportedOffenses(), equalTo(2));
+		assertThat(murderRow.getUnfoundedOffenses(), equalTo(2));
+		assertThat(row(returnAForm, ReturnARowName.ATTEMPTS_TO_COMMIT_FORCIBLE_RAPE).getReportedOffenses(), equalTo(1));
+		assertThat(row(returnAForm, ReturnARowName.RAPE_BY_FORCE).getReportedOffenses(), equalTo(0));
+		assertThat(row(returnAForm, ReturnARowName.KNIFE_CUTTING_INSTRUMENT_ROBBERY).getReportedOffenses(), equalTo(3));
+		assertThat(row(returnAForm, ReturnARowName.OTHER_ASSAULT_NOT_AGGRAVATED).getReportedOffenses(), equalTo(0));
+		assertThat(row(returnAForm, ReturnARowName.FORCIBLE_ENTRY_BURGLARY).getReportedOffenses(), equalTo(7));
+		assertThat(row(returnAForm, ReturnARowName.LARCENCY_THEFT_TOTAL).getReportedOffenses(), equalTo(6));
+		
+		assertThat(row(returnAForm, ReturnARowName.TRUCKS_BUSES_THEFT).getReportedOffenses(), equalTo(2));
+		assertThat(row(returnAForm, ReturnARowName.OTHER_VEHICLES_THEFT).getReportedOffenses(), equalTo(2));
+		assertThat(row(returnAForm, ReturnARowName.AUTOS_THEFT).getReportedOffenses(), equalTo(6));
+		assertThat(row(returnAForm, ReturnARowName.MOTOR_VEHICLE_THEFT_TOTAL).getReportedOffenses(), equalTo(10));
+	}
+	
+	@Test
+	public void testClearedOffenses() {
+		when(returnAFormRepository.findClearedOffenseCounts(eq("ORI000001"), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Arrays.asList(
+				offenseCount("13A", "C", ReturnAFormRepository.WEAPON_FIREARM, false, null, true, 3, 3), 
+				offenseCount("13C", "C", 0, true, null, false, 2, 2)));
+		when(returnAFormRepository.findClearedMotorVehicleCounts(eq("ORI000001"), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Arrays.asList(
+				motorVehicleCount("C", 3, 0, 2, 0, true, 1)));
+		
+		ReturnAForm returnAForm = returnAFormService.createReturnASummaryReport("StateWide", 2017, 0);
+		
+		ReturnAFormRow firearmAssaultRow = row(returnAForm, ReturnARowName.FIREARM_ASSAULT); 
+		assertThat(firearmAssaultRow.getClearedOffenses(), equalTo(3));
+		assertThat(firearmAssaultRow.getClearanceInvolvingOnlyJuvenile(), equalTo(3));
+		
+		ReturnAFormRow simpleAssaultRow = row(returnAForm, ReturnARowName.OTHER_ASSAULT_NOT_AGGRAVATED); 
+		assertThat(simpleAssaultRow.getClearedOffenses(), equalTo(2));
+		assertThat(simpleAssaultRow.getClearanceInvolvingOnlyJuvenile(), equalTo(0));
+		
+		ReturnAFormRow truckRow = row(returnAForm, ReturnARowName.TRUCKS_BUSES_THEFT); 
+		assertThat(truckRow.getClearedOffenses(), equalTo(3));
+		assertThat(truckRow.getClearanceInvolvingOnlyJuvenile(), equalTo(3));
+	}
+	
+	@Test
+	public void testCreateAgencyReturnAForms() {
+		when(returnAFormRepository.findReportedOffenseCounts(eq("ORI000001"), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Arrays.asList(offenseCount("23F", "C", 0, false, null, false, 6, 6)));
+		when(returnAFormRepository.findReportedOffenseCounts(eq("ORI000002"), anyInt(), anyInt(), anyCollectionOf(String.class), anyMapOf(String.class, Integer.class)))
+			.thenReturn(Arrays.asList(offenseCount("23A", "C", 0, false, null, false, 2, 2)));
+		Agency agency = new Agency(); 
+		agency.setAgencyOri("ORI000001");
+		agency.setAgencyName("Agency 1");
+		AgencyRepository agencyRepository = mock(AgencyRepository.class);
+		when(agencyRepository.findByAgencyOriIn(anyCollectionOf(String.class))).thenReturn(Arrays.asList(agency));
+		returnAFormService.agencyRepository = agencyRepository; 
+		
+		List<ReturnAForm> returnAForms = returnAFormService.createAgencyReturnAForms(2017, 5);
+		
+		assertThat(returnAForms.size(), equalTo(3));
+		assertThat(returnAForms.get(0).getOri(), equalTo("StateWide"));
+		assertThat(row(returnAForms.get(0), ReturnARowName.LARCENCY_THEFT_TOTAL).getReportedOffenses(), equalTo(8));
+		assertThat(row(returnAForms.get(0), ReturnARowName.GRAND_TOTAL).getReportedOffenses(), equalTo(8));
+		assertThat(returnAForms.get(1).getAgencyName(), equalTo("Agency 1"));
+		assertThat(row(returnAForms.get(1), ReturnARowName.LARCENCY_THEFT_TOTAL).getReportedOffenses(), equalTo(6));
+		assertThat(returnAForms.get(2).getOri(), equalTo("ORI000002"));
+		assertThat(row(returnAForms.get(2), ReturnARowName.LARCENCY_THEFT_TOTAL).getReportedOffenses(), equalTo(2));
+	}
+	
+	@Test
+	public void testUnknownAgencyIsNotCached() {
+		returnAFormService.appProperties.setReturnAFormCacheSize(2);
+		AgencyRepository agencyRepository = mock(AgencyRepository.class);
+		returnAFormService.agencyRepository = agencyRepository; 
+		
+		ReturnAForm unknownAgencyForm = returnAFormService.createReturnASummaryReport("ORI000001", 2017, 5);
+		assertThat(unknownAgencyForm.getAgencyName(), nullValue());
+		
+		Agency agency = new Agency(); 
+		agency.setAgencyOri("ORI000001");
+		agency.setAgencyName("Agency 1");
+		when(agencyRepository.findFirstByAgencyOri("ORI000001")).thenReturn(agency);
+		
+		ReturnAForm returnAForm = returnAFormService.createReturnASummaryReport("ORI000001", 2017, 5);
+		assertThat(returnAForm.getAgencyName(), equalTo("Agency 1"));
+		assertThat(returnAFormService.createReturnASummaryReport("ORI000001", 2017, 5), sameInstance(returnAForm));
+	}
+	
+	private ReturnAFormRow row(ReturnAForm returnAForm, ReturnARowName returnARowName) {
+		return returnAForm.getRows()[returnARowName.ordinal()];
+	}
+	
+	private ReturnAOffenseCount offenseCount(String offenseCode, String offenseAttemptedCompleted, int weaponCategory,
+			boolean femaleVictim, String methodOfEntryCode, boolean onlyJuvenile, int offenseCount, int premisesCount) {
+		ReturnAOffenseCount count = new ReturnAOffenseCount(); 
+		count.setOffenseCode(offenseCode);
+		count.setOffenseAttemptedCompleted(offenseAttemptedCompleted);
+		count.setWeaponCategory(weaponCategory);
+		count.setNotAggravatedWeapon(!"13B".equals(offenseCode));
+		count.setFemaleVictim(femaleVictim);
+		count.setMethodOfEntryCode(methodOfEntryCode);
+		count.setOnlyJuvenile(onlyJuvenile);
+		count.setOffenseCount(offenseCount);
+		count.setPremisesCount(premisesCount);
+		return count;
+	}
+	
+	private ReturnAMotorVehicleCount motorVehicleCount(String offenseAttemptedCompleted, int numberOfStolenMotorVehicles, 
+			int autoCount, int truckBusCount, int otherVehicleCount, boolean onlyJuvenile, int propertyCount) {
+		ReturnAMotorVehicleCount count = new ReturnAMotorVehicleCount(); 
+		count.setOffenseAttemptedCompleted(offenseAttemptedCompleted);
+		count.setNumberOfStolenMotorVehicles(numberOfStolenMotorVehicles);
+		count.setAutoCount(autoCount);
+		count.setTruckBusCount(truckBusCount);
+		count.setOtherVehicleCount(otherVehicleCount);
+		count.setOnlyJuvenile(onlyJuvenile);
+		count.setPropertyCount(propertyCount);
+		return count;
+	}
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.stagingdata.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.search.nibrs.model.GroupAIncidentReport;
+
+public class ReportBatchUtilsTest {
+
+	@Test
+	public void testProcessInChunks() {
+		List<GroupAIncidentReport> reports = Arrays.asList(
+				createReport("1", 'I'), createReport("2", 'I'), createReport("3", 'I'),
+				createReport("2", 'D'), createReport("4", 'I'), createReport("4", 'R'), createReport("5", 'I'));
+
+		List<String> events = new ArrayList<>();
+		int count = ReportBatchUtils.processInChunks(reports.iterator(), 2,
+				chunk -> events.add("save" + chunk.stream().map(GroupAIncidentReport::getIdentifier).collect(Collectors.toList())),
+				report -> events.add("delete" + report.getIdentifier()));
+
+		assertThat(count, equalTo(7));
+		assertThat(events, equalTo(Arrays.asList("save[1, 2]", "save[3]", "delete2", "save[4]", "save[4, 5]")));
+	}
+
+	private GroupAIncidentReport createReport(String incidentNumber, char reportActionType) {
+		GroupAIncidentReport report = new GroupAIncidentReport();
+		report.setIncidentNumber(incidentNumber);
+		report.setReportActionType(reportActionType);
+		return report;
+	}
+}
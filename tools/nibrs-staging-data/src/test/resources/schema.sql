@@ -620,6 +620,33 @@ CREATE TABLE LEOKASegment (
                 CONSTRAINT idLEOKASegment PRIMARY KEY (LEOKASegmentID)
 );
 
+CREATE TABLE ReturnASummary (
+                ORI VARCHAR(9) NOT NULL,
+                Year INTEGER NOT NULL,
+                Month INTEGER NOT NULL,
+                ReturnARowName VARCHAR(50) NOT NULL,
+                ReportedOffenses INTEGER NOT NULL,
+                UnfoundedOffenses INTEGER NOT NULL,
+                ClearedOffenses INTEGER NOT NULL,
+                ClearanceInvolvingOnlyJuvenile INTEGER NOT NULL,
+                CONSTRAINT ReturnASummaryID PRIMARY KEY (ORI, Year, Month, ReturnARowName)
+);
+
+CREATE TABLE SegmentKey (
+                TableName VARCHAR(50) NOT NULL,
+                NextKey INTEGER NOT NULL,
+                CONSTRAINT SegmentKeyID PRIMARY KEY (TableName)
+);
+
+CREATE INDEX AdministrativeSegment_IncidentNumber_idx ON AdministrativeSegment (IncidentNumber);
+CREATE INDEX AdministrativeSegment_IncidentDate_idx ON AdministrativeSegment (IncidentDate);
+CREATE INDEX AdministrativeSegment_ORI_IncidentDate_idx ON AdministrativeSegment (ORI, IncidentDate);
+CREATE INDEX AdministrativeSegment_ExceptionalClearanceDate_idx ON AdministrativeSegment (ExceptionalClearanceDate);
+CREATE INDEX AdministrativeSegment_ORI_ExceptionalClearanceDate_idx ON AdministrativeSegment (ORI, ExceptionalClearanceDate);
+CREATE INDEX ArresteeSegment_ArrestDate_idx ON ArresteeSegment (ArrestDate, AdministrativeSegmentID);
+
+
+
 
 ALTER TABLE AdministrativeSegment ADD CONSTRAINT CargoTheftIndicatorType_AdministrativeSegment_fk
 FOREIGN KEY (CargoTheftIndicatorTypeID)
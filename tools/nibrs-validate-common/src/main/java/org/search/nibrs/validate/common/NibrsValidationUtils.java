@@ -44,8 +44,9 @@ public class NibrsValidationUtils {
 	public static void validateFile(ReportListener validatorListener, 
 			File file) throws ParserConfigurationException, IOException, TikaException, SAXException {
 		String fileType = NibrsFileUtils.getMediaType(file);
-		FileInputStream inputStream = new FileInputStream(file);
-		validateInputStream(validatorListener, fileType, inputStream, file.getAbsolutePath());
+		try (FileInputStream inputStream = new FileInputStream(file)) {
+			validateInputStream(validatorListener, fileType, inputStream, file.getAbsolutePath());
+		}
 	}
 
 	public static final void validateInputStream(ReportListener validatorListener, String fileContentType,
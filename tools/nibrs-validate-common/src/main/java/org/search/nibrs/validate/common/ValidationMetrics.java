@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.validate.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.search.nibrs.common.NIBRSError;
+import org.search.nibrs.importer.ReportListener;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.model.GroupAIncidentReport;
+import org.search.nibrs.validation.SubmissionValidator;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers and counters of the parse and validate stages, shared by the applications that validate submission 
+ * files.  The time spent by the incident builders between two reports is recorded as the parse time of the 
+ * report. 
+ */
+public class ValidationMetrics {
+	
+	private final MeterRegistry meterRegistry;
+	private final Timer parseTimer;
+	private final Timer validateTimer;
+	private final Timer fileTimer;
+	private final Counter reportCounter;
+	private final Counter segmentCounter;
+	private final DistributionSummary fileThroughput;
+
+	public ValidationMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		parseTimer = Timer.builder("nibrs.validation.parse")
+				.description("Time spent parsing a report").register(meterRegistry);
+		validateTimer = Timer.builder("nibrs.validation.validate")
+				.description("Time spent validating a report").register(meterRegistry);
+		fileTimer = Timer.builder("nibrs.validation.file")
+				.description("Time spent parsing and validating a submission file").register(meterRegistry);
+		reportCounter = Counter.builder("nibrs.validation.reports")
+				.description("Number of reports parsed").register(meterRegistry);
+		segmentCounter = Counter.builder("nibrs.validation.segments")
+				.description("Number of segments parsed").register(meterRegistry);
+		fileThroughput = DistributionSummary.builder("nibrs.validation.file.throughput")
+				.description("Segments parsed and validated per second in a submission file")
+				.baseUnit("segments/sec").register(meterRegistry);
+	}
+	
+	public MeterRegistry getMeterRegistry() {
+		return meterRegistry;
+	}
+
+	/**
+	 * Start tracking a submission file. 
+	 */
+	public FileMetrics startFile() {
+		return new FileMetrics();
+	}
+	
+	/**
+	 * Validate the report with the submission validator, recording the validation time and the errors by code. 
+	 */
+	public List<NIBRSError> validateReport(SubmissionValidator submissionValidator, AbstractReport report) {
+		List<NIBRSError> errorList = validateTimer.record(() -> submissionValidator.validateReport(report));
+		countErrors(errorList);
+		return errorList;
+	}
+	
+	public void countErrors(List<NIBRSError> errorList) {
+		for (NIBRSError error : errorList) {
+			String code = error.getNIBRSErrorCode() == null ? "unknown" : error.getNIBRSErrorCode().getCode();
+			meterRegistry.counter("nibrs.validation.errors", "code", code).increment();
+		}
+	}
+	
+	/**
+	 * @return the number of segments the report was built from. 
+	 */
+	public static int getSegmentCount(AbstractReport report) {
+		if (report instanceof GroupAIncidentReport) {
+			GroupAIncidentReport groupAIncidentReport = (GroupAIncidentReport) report;
+			return 1 + groupAIncidentReport.getOffenseCount() + groupAIncidentReport.getPropertyCount() 
+				+ groupAIncidentReport.getVictimCount() + groupAIncidentReport.getOffenderCount() 
+				+ groupAIncidentReport.getArresteeCount();
+		}
+		return 1;
+	}
+
+	/**
+	 * Metrics of one submission file. 
+	 */
+	public class FileMetrics {
+		private final long startTime = System.nanoTime();
+		private long lastReportTime = startTime;
+		private long segmentCount;
+		
+		/**
+		 * Wrap the listener, so the parse time, the segments and the parse errors of each report are recorded 
+		 * before the report is passed on. 
+		 */
+		public ReportListener instrument(ReportListener reportListener) {
+			return (report, errorList) -> {
+				long reportTime = System.nanoTime();
+				parseTimer.record(reportTime - lastReportTime, TimeUnit.NANOSECONDS);
+				
+				int segments = ValidationMetrics.getSegmentCount(report);
+				segmentCount += segments;
+				segmentCounter.increment(segments);
+				reportCounter.increment();
+				countErrors(errorList);
+				
+				try {
+					reportListener.newReport(report, errorList);
+				}
+				finally {
+					lastReportTime = System.nanoTime();
+				}
+			};
+		}
+		
+		/**
+		 * Record the file time and throughput. 
+		 */
+		public void complete() {
+			long elapsed = System.nanoTime() - startTime;
+			fileTimer.record(elapsed, TimeUnit.NANOSECONDS);
+			if (elapsed > 0) {
+				fileThroughput.record(segmentCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsed);
+			}
+		}
+		
+		public long getSegmentCount() {
+			return segmentCount;
+		}
+	}
+}
@@ -21,7 +21,6 @@ import java.util.List;
 import org.search.nibrs.common.NIBRSError;
 import org.search.nibrs.model.ArresteeSegment;
 import org.search.nibrs.model.GroupBArrestReport;
-import org.search.nibrs.model.codes.NIBRSErrorCode;
 import org.search.nibrs.validation.ArresteeSegmentRulesFactory;
 import org.search.nibrs.validation.ValidatorProperties;
 import org.search.nibrs.validation.rules.Rule;
@@ -56,25 +55,14 @@ public class GroupBArrestReportValidator {
 			}
 		}
 		
-		if (groupBIncidentReport.getArrestees().size() == 1){
+		for (ArresteeSegment arrestee : groupBIncidentReport.getArrestees()) {
 			for (Rule<ArresteeSegment> r : groupBArresteeSegmentRules) {
-				NIBRSError nibrsError = r.apply(groupBIncidentReport.getArrestees().get(0));
+				NIBRSError nibrsError = r.apply(arrestee);
 				if (nibrsError != null) {
 					errorsList.add(nibrsError);
 				}
 			}
 		}
-		else if (groupBIncidentReport.getArrestees().size() > 1) {
-			NIBRSError e = new NIBRSError();
-			e.setReport(groupBIncidentReport);
-			e.setContext(groupBIncidentReport.getSource());
-			e.setReportUniqueIdentifier(groupBIncidentReport.getIdentifier());
-			e.setValue(groupBIncidentReport.getArrestees().size());
-			e.setCrossSegment(true);
-			e.setWithinSegmentIdentifier(null); 
-			e.setNIBRSErrorCode(NIBRSErrorCode._099);
-			errorsList.add(e);
-		}
 		
 		return errorsList;
 		
@@ -26,7 +26,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.search.nibrs.common.NIBRSError;
-import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.common.ReportHeader;
 import org.search.nibrs.model.ArresteeSegment;
 import org.search.nibrs.model.OffenderSegment;
 import org.search.nibrs.model.OffenseSegment;
@@ -73,14 +73,14 @@ public final class ErrorExporter {
 		}
 		String line = null;
 		for (NIBRSError error : errorList) {
-			AbstractReport report = error.getReport();
+			ReportHeader report = error.getReportHeader();
 			line = blankLineTemplate;
 			if (report == null) continue;
 			line = modifyLine(line, 1-1, 4, String.valueOf(report.getYearOfTape()));
 			line = modifyLine(line, 5-1, 6, StringUtils.leftPad(String.valueOf(report.getMonthOfTape()), 2, '0'));
 			line = modifyLine(line, 7-1, 13, StringUtils.leftPad(String.valueOf(error.getContext().getSourceLocation()), 7, '0'));
-			line = modifyLine(line, 14-1, 14, String.valueOf(error.getReport().getReportActionType()));
-			line = modifyLine(line, 15-1, 23, error.getReport().getOri());
+			line = modifyLine(line, 14-1, 14, String.valueOf(report.getReportActionType()));
+			line = modifyLine(line, 15-1, 23, report.getOri());
 			line = modifyLine(line, 24-1, 35, StringUtils.rightPad(error.getReportUniqueIdentifier(), 12));
 			char segmentType = error.getSegmentType();
 			if (!error.isCrossSegment()) {
@@ -18,6 +18,7 @@ package org.search.nibrs.xmlfile.importer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
@@ -33,6 +34,10 @@ import java.util.Map;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -60,6 +65,7 @@ import org.search.nibrs.model.codes.NIBRSErrorCode;
 import org.search.nibrs.model.codes.PropertyDescriptionCode;
 import org.search.nibrs.model.codes.RelationshipOfVictimToOffenderCode;
 import org.search.nibrs.model.codes.TypeOfPropertyLossCode;
+import org.search.nibrs.xml.NibrsNamespaceContext.Namespace;
 import org.search.nibrs.xml.XmlUtils;
 import org.springframework.stereotype.Component;
 import org.w3c.dom.Document;
@@ -85,6 +91,7 @@ public class XmlIncidentBuilder extends AbstractIncidentBuilder{
 	private static final Log log = LogFactory.getLog(XmlIncidentBuilder.class);;
 	
 	private DocumentBuilder documentBuilder; 
+	private XMLInputFactory xmlInputFactory; 
 	private List<String> automaticWeaponCodes = Arrays.asList("11A", "12A", "13A", "14A", "15A");
 
 	public XmlIncidentBuilder() throws ParserConfigurationException {
@@ -103,6 +110,12 @@ public class XmlIncidentBuilder extends AbstractIncidentBuilder{
 
 		documentBuilder = documentBuilderFactory.newDocumentBuilder();
 		documentBuilder.setEntityResolver(new NullResolver());
+		
+		xmlInputFactory = XMLInputFactory.newInstance();
+		xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
 	}
 
 	public void addIncidentListener(ReportListener listener) {
@@ -114,11 +127,13 @@ public class XmlIncidentBuilder extends AbstractIncidentBuilder{
 	}
 
 	/**
-	 * Read NIBRS incidents in the XML format from the input stream.
+	 * Read NIBRS incidents in the XML format from the input stream.  The nibrs:Report elements of the 
+	 * nibrs:Submission are read one at a time with a StAX reader, so only the report being built is held in memory.
 	 * @param reader the source of the data
-	 * @throws Exception 
+	 * @throws IOException if the submission cannot be read, the reports read before the failure have been passed 
+	 * to the listeners.  An UncheckedIOException thrown by a listener is rethrown as is. 
 	 */
-	public void buildIncidents(InputStream inputStream, String readerLocationName) {
+	public void buildIncidents(InputStream inputStream, String readerLocationName) throws IOException {
 
 		AbstractReport currentReport = null;
 		
@@ -126,19 +141,39 @@ public class XmlIncidentBuilder extends AbstractIncidentBuilder{
 		
 		List<NIBRSError> errorList = new ArrayList<NIBRSError>();
 		
-		Document document;
+		XMLStreamReader xmlStreamReader = null;
+		int reportCount = 0;
 		
 		try {
-			document = documentBuilder.parse(inputStream);
-			NodeList reportElements = (NodeList) XmlUtils.xPathNodeListSearch(document, "nibrs:Submission/nibrs:Report");
-			
-			for(int i=0; i < reportElements.getLength(); i++){
+			xmlStreamReader = xmlInputFactory.createXMLStreamReader(inputStream);
+			int depth = 0;
+			
+			while (xmlStreamReader.hasNext()){
+				int event = xmlStreamReader.next();
+				if (event == XMLStreamConstants.END_ELEMENT){
+					depth--;
+					continue;
+				}
+				if (event != XMLStreamConstants.START_ELEMENT){
+					continue;
+				}
+				
+				depth++;
+				if (depth == 1 && !isNibrsElement(xmlStreamReader, "Submission")){
+					break;
+				}
+				if (depth != 2 || !isNibrsElement(xmlStreamReader, "Report")){
+					continue;
+				}
+				
+				Element reportNode = readElement(xmlStreamReader);
+				depth--;
+				reportCount++;
+				
 				ReportSource reportSource = new ReportSource();
-				reportSource.setSourceLocation(String.valueOf(i+1));
+				reportSource.setSourceLocation(String.valueOf(reportCount));
 				reportSource.setSourceName(readerLocationName);
 				
-				Element reportNode = (Element)reportElements.item(i);
-				
 				ReportBaseData reportBaseData = new ReportBaseData();
 				List<NIBRSError> reportBaseDataErrors = reportBaseData.setData(reportSource, reportNode);
 				errorList.addAll(reportBaseDataErrors);
@@ -150,9 +185,13 @@ public class XmlIncidentBuilder extends AbstractIncidentBuilder{
 				}
 			}
 
+		} catch (UncheckedIOException e) {
+			throw e;
 		} catch (Exception e) {
-			e.printStackTrace();
-			log.error(e.getMessage());
+			throw new IOException("Failed to read the XML submission " + readerLocationName + " after " 
+					+ reportCount + " report(s)", e);
+		} finally {
+			closeQuietly(xmlStreamReader);
 		}
 		
 		
@@ -162,6 +201,62 @@ public class XmlIncidentBuilder extends AbstractIncidentBuilder{
 
 	}
 
+	private boolean isNibrsElement(XMLStreamReader xmlStreamReader, String localName) {
+		return Namespace.NIBRS.uri.equals(xmlStreamReader.getNamespaceURI()) 
+				&& localName.equals(xmlStreamReader.getLocalName());
+	}
+	
+	/**
+	 * Read the element the reader is on into a DOM element of its own document.  The reader is left on the end of 
+	 * the element. 
+	 */
+	private Element readElement(XMLStreamReader xmlStreamReader) throws XMLStreamException {
+		Document document = documentBuilder.newDocument();
+		Node parent = document;
+		while (true){
+			switch (xmlStreamReader.getEventType()){
+			case XMLStreamConstants.START_ELEMENT:
+				Element element = document.createElementNS(xmlStreamReader.getNamespaceURI(), 
+						getQualifiedName(xmlStreamReader.getPrefix(), xmlStreamReader.getLocalName()));
+				for (int i = 0; i < xmlStreamReader.getAttributeCount(); i++){
+					element.setAttributeNS(StringUtils.trimToNull(xmlStreamReader.getAttributeNamespace(i)), 
+							getQualifiedName(xmlStreamReader.getAttributePrefix(i), xmlStreamReader.getAttributeLocalName(i)), 
+							xmlStreamReader.getAttributeValue(i));
+				}
+				parent.appendChild(element);
+				parent = element;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				parent = parent.getParentNode();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				parent.appendChild(document.createTextNode(xmlStreamReader.getText()));
+				break;
+			}
+			
+			if (parent == document){
+				return document.getDocumentElement();
+			}
+			xmlStreamReader.next();
+		}
+	}
+	
+	private String getQualifiedName(String prefix, String localName) {
+		return StringUtils.isEmpty(prefix) ? localName : prefix + ":" + localName;
+	}
+	
+	private void closeQuietly(XMLStreamReader xmlStreamReader) {
+		if (xmlStreamReader != null){
+			try {
+				xmlStreamReader.close();
+			} catch (XMLStreamException e) {
+				log.warn("Failed to close the XML reader", e);
+			}
+		}
+	}
+
 	AbstractReport buildReport(List<NIBRSError> errorList, Element reportElement, String readerLocationName, ReportBaseData reportBaseData) throws Exception {
 		int errorListSize = errorList.size();
 		AbstractReport ret = null;
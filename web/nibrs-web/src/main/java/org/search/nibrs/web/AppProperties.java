@@ -0,0 +1,107 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("app")
+public class AppProperties {
+
+	private Integer validationThreads = 2;
+	private Integer validationQueueCapacity = 10;
+	private Long validationJobRetentionMinutes = 30L;
+	private Integer zipEntryThreads = Runtime.getRuntime().availableProcessors();
+	private Long validationCacheMegabytes = 64L;
+	private Long validationReportCacheMegabytes = 32L;
+	private String validationCacheDirectory;
+	private Long validationCacheDiskMegabytes = 512L;
+	private Integer maxStreamingValidations = 4;
+
+	public Integer getValidationThreads() {
+		return validationThreads;
+	}
+
+	public void setValidationThreads(Integer validationThreads) {
+		this.validationThreads = validationThreads;
+	}
+
+	public Integer getValidationQueueCapacity() {
+		return validationQueueCapacity;
+	}
+
+	public void setValidationQueueCapacity(Integer validationQueueCapacity) {
+		this.validationQueueCapacity = validationQueueCapacity;
+	}
+
+	public Long getValidationJobRetentionMinutes() {
+		return validationJobRetentionMinutes;
+	}
+
+	public void setValidationJobRetentionMinutes(Long validationJobRetentionMinutes) {
+		this.validationJobRetentionMinutes = validationJobRetentionMinutes;
+	}
+
+	public Integer getZipEntryThreads() {
+		return zipEntryThreads;
+	}
+
+	public void setZipEntryThreads(Integer zipEntryThreads) {
+		this.zipEntryThreads = zipEntryThreads;
+	}
+
+	public Long getValidationCacheMegabytes() {
+		return validationCacheMegabytes;
+	}
+
+	public void setValidationCacheMegabytes(Long validationCacheMegabytes) {
+		this.validationCacheMegabytes = validationCacheMegabytes;
+	}
+
+	public Long getValidationReportCacheMegabytes() {
+		return validationReportCacheMegabytes;
+	}
+
+	public void setValidationReportCacheMegabytes(Long validationReportCacheMegabytes) {
+		this.validationReportCacheMegabytes = validationReportCacheMegabytes;
+	}
+
+	public String getValidationCacheDirectory() {
+		return validationCacheDirectory;
+	}
+
+	public void setValidationCacheDirectory(String validationCacheDirectory) {
+		this.validationCacheDirectory = validationCacheDirectory;
+	}
+
+	public Long getValidationCacheDiskMegabytes() {
+		return validationCacheDiskMegabytes;
+	}
+
+	public void setValidationCacheDiskMegabytes(Long validationCacheDiskMegabytes) {
+		this.validationCacheDiskMegabytes = validationCacheDiskMegabytes;
+	}
+
+	public Integer getMaxStreamingValidations() {
+		return maxStreamingValidations;
+	}
+
+	public void setMaxStreamingValidations(Integer maxStreamingValidations) {
+		this.maxStreamingValidations = maxStreamingValidations;
+	}
+
+}
@@ -15,10 +15,14 @@
  */
 package org.search.nibrs.web;
 
+import org.search.nibrs.validate.common.ValidationMetrics;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 @SpringBootApplication
 @ComponentScan({"org.search.nibrs"})
 public class NibrsWebApplication {
@@ -26,4 +30,9 @@ public class NibrsWebApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(NibrsWebApplication.class, args);
 	}
+	
+	@Bean
+	public ValidationMetrics validationMetrics(MeterRegistry meterRegistry) {
+		return new ValidationMetrics(meterRegistry);
+	}
 }
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+/**
+ * The parameters sent by a DataTables table in server-side processing mode.  The columns are identified by 
+ * their data index, so the parameters do not depend on the order the columns are displayed in.  
+ */
+public class DataTablesRequest {
+	
+	/**
+	 * The most rows of a page, also returned when all the rows are requested. 
+	 */
+	public static final int MAX_LENGTH = 100;
+	
+	private int draw;
+	private int start;
+	private int length;
+	private String search;
+	private final Map<Integer, String> columnSearches = new HashMap<>();
+	private Comparator<ValidationErrorRecord> order;
+	
+	public static DataTablesRequest of(Map<String, String> parameters) {
+		DataTablesRequest dataTablesRequest = new DataTablesRequest();
+		dataTablesRequest.draw = NumberUtils.toInt(parameters.get("draw"));
+		dataTablesRequest.start = Math.max(0, NumberUtils.toInt(parameters.get("start")));
+		int length = NumberUtils.toInt(parameters.get("length"), -1);
+		dataTablesRequest.length = length < 0 ? MAX_LENGTH : Math.min(length, MAX_LENGTH);
+		dataTablesRequest.search = parameters.get("search[value]");
+		
+		List<Integer> columns = new ArrayList<>();
+		for (int i = 0; parameters.containsKey("columns[" + i + "][data]"); i++){
+			int column = NumberUtils.toInt(parameters.get("columns[" + i + "][data]"), i);
+			if (column < 0 || column >= ValidationErrorRecord.COLUMN_NAMES.size()){
+				throw new IllegalArgumentException("Unknown column " + column);
+			}
+			columns.add(column);
+			dataTablesRequest.columnSearches.put(column, parameters.get("columns[" + i + "][search][value]"));
+		}
+		
+		RecordOrder order = new RecordOrder();
+		for (int i = 0; parameters.containsKey("order[" + i + "][column]"); i++){
+			int index = NumberUtils.toInt(parameters.get("order[" + i + "][column]"));
+			if (index < 0 || index >= columns.size()){
+				continue;
+			}
+			order.thenBy(columns.get(index), "desc".equals(parameters.get("order[" + i + "][dir]")));
+		}
+		dataTablesRequest.order = order.isEmpty() ? null : order;
+		return dataTablesRequest;
+	}
+	
+	public int getDraw() {
+		return draw;
+	}
+	public int getStart() {
+		return start;
+	}
+	/**
+	 * @return the number of rows of the page, at most {@link #MAX_LENGTH}. 
+	 */
+	public int getLength() {
+		return length;
+	}
+	public String getSearch() {
+		return search;
+	}
+	public Map<Integer, String> getColumnSearches() {
+		return columnSearches;
+	}
+	public Comparator<ValidationErrorRecord> getOrder() {
+		return order;
+	}
+}
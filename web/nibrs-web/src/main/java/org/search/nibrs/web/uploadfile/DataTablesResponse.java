@@ -0,0 +1,49 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.List;
+
+/**
+ * A page of rows in the format of the DataTables server-side processing. 
+ */
+public class DataTablesResponse {
+	
+	private int draw;
+	private int recordsTotal;
+	private int recordsFiltered;
+	private List<String[]> data;
+	
+	public DataTablesResponse(int draw, int recordsTotal, int recordsFiltered, List<String[]> data) {
+		this.draw = draw;
+		this.recordsTotal = recordsTotal;
+		this.recordsFiltered = recordsFiltered;
+		this.data = data;
+	}
+	
+	public int getDraw() {
+		return draw;
+	}
+	public int getRecordsTotal() {
+		return recordsTotal;
+	}
+	public int getRecordsFiltered() {
+		return recordsFiltered;
+	}
+	public List<String[]> getData() {
+		return data;
+	}
+}
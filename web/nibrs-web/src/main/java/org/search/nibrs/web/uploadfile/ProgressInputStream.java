@@ -0,0 +1,63 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Adds the bytes read from the upload to the progress of the validation job. 
+ */
+class ProgressInputStream extends FilterInputStream {
+	
+	private final ValidationJob validationJob;
+	
+	ProgressInputStream(InputStream inputStream, ValidationJob validationJob) {
+		super(inputStream);
+		this.validationJob = validationJob;
+	}
+	
+	@Override
+	public int read() throws IOException {
+		int b = super.read();
+		if (b != -1){
+			validationJob.addBytesRead(1);
+		}
+		return b;
+	}
+	
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int count = super.read(b, off, len);
+		if (count > 0){
+			validationJob.addBytesRead(count);
+		}
+		return count;
+	}
+	
+	@Override
+	public long skip(long n) throws IOException {
+		long count = super.skip(n);
+		validationJob.addBytesRead(count);
+		return count;
+	}
+	
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+}
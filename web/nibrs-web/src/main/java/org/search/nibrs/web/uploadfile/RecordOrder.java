@@ -0,0 +1,69 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The order of the rows of the validation report by one or more columns, each ascending or descending.  Two 
+ * orders by the same columns are equal, so the rows sorted in an order can be reused by the next requests. 
+ */
+class RecordOrder implements Comparator<ValidationErrorRecord> {
+	
+	private final List<Integer> columns = new ArrayList<>();
+	private final List<Boolean> descending = new ArrayList<>();
+	
+	/**
+	 * @return this order, followed by the column ascending or descending. 
+	 */
+	RecordOrder thenBy(int column, boolean columnDescending) {
+		columns.add(column);
+		descending.add(columnDescending);
+		return this;
+	}
+	
+	boolean isEmpty() {
+		return columns.isEmpty();
+	}
+	
+	@Override
+	public int compare(ValidationErrorRecord record, ValidationErrorRecord otherRecord) {
+		for (int i = 0; i < columns.size(); i++){
+			int column = columns.get(i);
+			int result = record.getValue(column).compareTo(otherRecord.getValue(column));
+			if (result != 0){
+				return descending.get(i) ? -result : result;
+			}
+		}
+		return 0;
+	}
+	
+	@Override
+	public boolean equals(Object object) {
+		if (!(object instanceof RecordOrder)){
+			return false;
+		}
+		RecordOrder other = (RecordOrder) object;
+		return columns.equals(other.columns) && descending.equals(other.descending);
+	}
+	
+	@Override
+	public int hashCode() {
+		return 31 * columns.hashCode() + descending.hashCode();
+	}
+}
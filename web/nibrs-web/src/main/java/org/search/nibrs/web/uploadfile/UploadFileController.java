@@ -15,42 +15,35 @@
  */
 package org.search.nibrs.web.uploadfile;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
 
-import javax.xml.parsers.ParserConfigurationException;
+import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.search.nibrs.common.NIBRSError;
-import org.search.nibrs.importer.ReportListener;
-import org.search.nibrs.model.AbstractReport;
-import org.search.nibrs.util.NibrsFileUtils;
-import org.search.nibrs.validate.common.NibrsValidationUtils;
-import org.search.nibrs.validation.SubmissionValidator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
 public class UploadFileController {
 	private final Log log = LogFactory.getLog(this.getClass());
 	
 	@Autowired
-	SubmissionValidator submissionValidator;
+	ValidationJobService validationJobService;
 
 	final List<String> acceptedFileTypes = 
 			Arrays.asList("application/zip", "text/plain", "application/octet-stream", "text/xml", "application/xml");
@@ -61,41 +54,91 @@ public class UploadFileController {
 	    return "index";
 	}
 	
-    @PostMapping("/")
-	public String handleFileUpload(@RequestParam("file") MultipartFile[] multipartFiles,
-			RedirectAttributes redirectAttributes, Model model) throws IOException, ParserConfigurationException {
+	/**
+	 * Queue the validation of the uploaded files.  The request returns once the files are copied, the progress 
+	 * of the validation is polled from /validationJobs/{id}.  
+	 */
+    @PostMapping("/validationJobs")
+    @ResponseBody
+	public ResponseEntity<ValidationJob> submitValidationJob(@RequestParam("file") MultipartFile[] multipartFiles) 
+			throws IOException {
 
 		log.info("processing file: " + multipartFiles.length);
 		
-		final List<NIBRSError> errorList = new ArrayList<>();
-		ReportListener validatorListener = new ReportListener() {
-			@Override
-			public void newReport(AbstractReport report, List<NIBRSError> el) {
-				errorList.addAll(el);
-				errorList.addAll(submissionValidator.validateReport(report));
-			}
-		};
-		
 		for (MultipartFile multipartFile: multipartFiles){
 			if (!acceptedFileTypes.contains(multipartFile.getContentType())){
 				throw new IllegalArgumentException("The file type is not supported"); 
 			}
-			
-			if (multipartFile.getContentType().equals("application/zip")){
-				validateZippedFile( validatorListener, multipartFile.getInputStream());
-			}
-			else {
-				NibrsValidationUtils.validateInputStream(
-						validatorListener, multipartFile.getContentType(), multipartFile.getInputStream(), "console");
+		}
+		
+		List<UploadedFile> uploadedFiles = new ArrayList<>();
+		try {
+			for (MultipartFile multipartFile: multipartFiles){
+				uploadedFiles.add(UploadedFile.copyOf(multipartFile));
 			}
-			
+		}
+		catch (IOException e){
+			uploadedFiles.forEach(UploadedFile::delete);
+			throw e;
 		}
 		
-		List<NIBRSError> filteredErrorList = errorList.stream()
-				.filter(error->error.getReport() != null)
-				.collect(Collectors.toList()); 
-		model.addAttribute("errorList", filteredErrorList);
-        return "validationReport :: #content";
+		return ResponseEntity.accepted().body(validationJobService.submit(uploadedFiles));
+    }
+    
+    @GetMapping("/validationJobs/{id}")
+    @ResponseBody
+    public ValidationJob getValidationJob(@PathVariable String id){
+    	return validationJobService.getValidationJob(id);
+    }
+    
+    /**
+     * Render the validation report, the table loads its rows from /validationJobs/{id}/errors. 
+     */
+    @GetMapping("/validationJobs/{id}/report")
+    public String getValidationReport(@PathVariable String id, Model model){
+    	model.addAttribute("validationJob", validationJobService.getValidationJob(id));
+    	return "validationReport :: #content";
+    }
+    
+    /**
+     * Page, sort and filter the rows of the validation report for the DataTables server-side processing. 
+     */
+    @GetMapping("/validationJobs/{id}/errors")
+    @ResponseBody
+    public DataTablesResponse getValidationErrors(@PathVariable String id, @RequestParam Map<String, String> parameters){
+    	ValidationErrorStore errorStore = validationJobService.getValidationJob(id).getErrorStore();
+    	DataTablesRequest dataTablesRequest = DataTablesRequest.of(parameters);
+    	List<ValidationErrorRecord> validationErrorRecords = errorStore.find(
+    			dataTablesRequest.getSearch(), dataTablesRequest.getColumnSearches(), dataTablesRequest.getOrder());
+    	
+    	int end = Math.min(validationErrorRecords.size(), dataTablesRequest.getStart() + dataTablesRequest.getLength());
+    	List<String[]> data = validationErrorRecords.subList(Math.min(dataTablesRequest.getStart(), end), end)
+    			.stream()
+    			.map(ValidationErrorRecord::getValues)
+    			.collect(Collectors.toList());
+    	return new DataTablesResponse(dataTablesRequest.getDraw(), errorStore.size(), validationErrorRecords.size(), data);
+    }
+    
+    /**
+     * Write the rows of the validation report selected by the table filters and in the table order as CSV, 
+     * which Excel opens as well. 
+     */
+    @GetMapping("/validationJobs/{id}/errors.csv")
+    public void exportValidationErrors(@PathVariable String id, @RequestParam Map<String, String> parameters, 
+    		HttpServletResponse response) throws IOException{
+    	ValidationErrorStore errorStore = validationJobService.getValidationJob(id).getErrorStore();
+    	DataTablesRequest dataTablesRequest = DataTablesRequest.of(parameters);
+    	List<ValidationErrorRecord> validationErrorRecords = errorStore.find(
+    			dataTablesRequest.getSearch(), dataTablesRequest.getColumnSearches(), dataTablesRequest.getOrder());
+    	
+    	response.setContentType("text/csv;charset=UTF-8");
+    	response.setHeader("Content-Disposition", "attachment; filename=\"nibrs-errors.csv\"");
+    	Writer writer = response.getWriter();
+    	writeCsvLine(writer, ValidationErrorRecord.COLUMN_NAMES);
+    	for (ValidationErrorRecord validationErrorRecord : validationErrorRecords){
+    		writeCsvLine(writer, Arrays.asList(validationErrorRecord.getValues()));
+    	}
+    	writer.flush();
     }
 
 	@GetMapping("/about")
@@ -122,42 +165,21 @@ public class UploadFileController {
 		return "testFiles";
 	}
 	
-
-	/**
-	 * Get only the first entry of the zipped resource. 
-	 * @param multipartFile
-	 * @return
-	 * @throws IOException
-	 */
-	private void validateZippedFile(ReportListener validatorlistener, InputStream inputStream) throws IOException {
-		ZipInputStream zippedStream = new ZipInputStream(inputStream);
-
-		ZipEntry zipEntry = zippedStream.getNextEntry();
-		while ( zipEntry != null)
-		{
-			log.info("Unzipping " + zipEntry.getName());
-	        ByteArrayOutputStream bout = new ByteArrayOutputStream();
-	        for (int c = zippedStream.read(); c != -1; c = zippedStream.read()) {
-	          bout.write(c);
-	        }
-	        
-	        zippedStream.closeEntry();
-			
-			ByteArrayInputStream inStream = new ByteArrayInputStream( bout.toByteArray() );
-			bout.close();
-			
-		    String mediaType = NibrsFileUtils.getMediaType(inStream);
-
-		    try {
-		    	NibrsValidationUtils.validateInputStream(validatorlistener, mediaType, inStream, "console");
-			} catch (ParserConfigurationException e) {
-				log.error("Got exception while parsing the file " + zipEntry.getName(), e);
+	private void writeCsvLine(Writer writer, List<String> values) throws IOException {
+		for (int i = 0; i < values.size(); i++){
+			if (i > 0){
+				writer.write(',');
+			}
+			String value = values.get(i);
+			if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0){
+				value = "'" + value;
 			}
-			zipEntry = zippedStream.getNextEntry();
+			if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")){
+				value = '"' + value.replace("\"", "\"\"") + '"';
+			}
+			writer.write(value);
 		}
-		zippedStream.close();
-        inputStream.close();
+		writer.write("\r\n");
 	}
 	
 }
-
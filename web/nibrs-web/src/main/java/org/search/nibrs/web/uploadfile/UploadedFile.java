@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * An uploaded file copied to a temporary file, so it outlives the upload request.  
+ */
+class UploadedFile {
+	
+	private final Path path;
+	private final String contentType;
+	private final byte[] digest;
+	
+	private UploadedFile(Path path, String contentType, byte[] digest) {
+		this.path = path;
+		this.contentType = contentType;
+		this.digest = digest;
+	}
+	
+	/**
+	 * Copy the upload to a temporary file, computing the SHA-256 digest of the content on the way. 
+	 */
+	static UploadedFile copyOf(MultipartFile multipartFile) throws IOException {
+		MessageDigest messageDigest = newMessageDigest();
+		Path path = Files.createTempFile("nibrs-upload-", ".tmp");
+		try (InputStream inputStream = new DigestInputStream(multipartFile.getInputStream(), messageDigest)){
+			Files.copy(inputStream, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e){
+			Files.deleteIfExists(path);
+			throw e;
+		}
+		return new UploadedFile(path, multipartFile.getContentType(), messageDigest.digest());
+	}
+	
+	static MessageDigest newMessageDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not supported", e);
+		}
+	}
+	
+	Path getPath() {
+		return path;
+	}
+	
+	String getContentType() {
+		return contentType;
+	}
+	
+	byte[] getDigest() {
+		return digest.clone();
+	}
+	
+	long size() throws IOException {
+		return Files.size(path);
+	}
+	
+	void delete() {
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			path.toFile().deleteOnExit();
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.search.nibrs.common.NIBRSError;
+
+/**
+ * One row of the validation report, the column values of an error as text.  The errors of the rules 342 and 
+ * 404 on data element 35 take one row per rejected value.  The records do not reference the reports, so the 
+ * reports are garbage collected as soon as they are validated. 
+ */
+public class ValidationErrorRecord {
+	
+	public static final List<String> COLUMN_NAMES = Collections.unmodifiableList(Arrays.asList(
+			"Submission Date", "Source Location", "Action Type", "ORI", "Incident Number", "Segment", 
+			"Within Offense", "Within Offender Arrestee Victim", "Within Property", "DE", "Error Code", 
+			"Rejected Value", "Error Message"));
+	/**
+	 * The names of the columns in the JSON records. 
+	 */
+	public static final List<String> FIELD_NAMES = Collections.unmodifiableList(Arrays.asList(
+			"submissionDate", "sourceLocation", "actionType", "ori", "incidentNumber", "segment", 
+			"withinOffense", "withinOffenderArresteeVictim", "withinProperty", "dataElement", "errorCode", 
+			"rejectedValue", "errorMessage"));
+	static final int SOURCE_LOCATION_COLUMN = 1;
+	
+	private final String[] values;
+	
+	private ValidationErrorRecord(String[] values) {
+		this.values = values;
+	}
+	
+	/**
+	 * @param values the column values, owned by the record.
+	 */
+	static ValidationErrorRecord of(String[] values) {
+		return new ValidationErrorRecord(values);
+	}
+	
+	/**
+	 * @return a row with the error message only, for an error that is not about one report. 
+	 */
+	static ValidationErrorRecord of(String errorMessage) {
+		String[] values = new String[COLUMN_NAMES.size()];
+		Arrays.fill(values, "");
+		values[values.length - 1] = errorMessage;
+		return new ValidationErrorRecord(values);
+	}
+	
+	/**
+	 * @param intern returns the shared instance of the repeated values.
+	 */
+	static List<ValidationErrorRecord> of(NIBRSError nibrsError, UnaryOperator<String> intern) {
+		List<ValidationErrorRecord> validationErrorRecords = new ArrayList<>(1);
+		if (("404".equals(nibrsError.getRuleNumber()) && "35".equals(nibrsError.getDataElementIdentifier())) 
+				|| "342".equals(nibrsError.getRuleNumber())){
+			for (Object rejectedValue : toList(nibrsError.getValue())){
+				validationErrorRecords.add(of(nibrsError, rejectedValue == null ? "" : rejectedValue.toString(), intern));
+			}
+		}
+		else {
+			validationErrorRecords.add(of(nibrsError, nibrsError.getOffendingValues(), intern));
+		}
+		return validationErrorRecords;
+	}
+	
+	private static ValidationErrorRecord of(NIBRSError nibrsError, String rejectedValue, UnaryOperator<String> intern) {
+		String[] values = {
+				nibrsError.getDateOfTape(),
+				nibrsError.getContext() == null ? "" : nibrsError.getContext().getSourceLocation(),
+				String.valueOf(nibrsError.getReport().getReportActionType()),
+				nibrsError.getReport().getOri(),
+				nibrsError.getReportUniqueIdentifier(),
+				nibrsError.getSegmentTypeOutput(),
+				nibrsError.getOffenseSegmentIdentifier(),
+				nibrsError.getOffenderArresteeVictimSegmentIdentifier(),
+				nibrsError.getPropertySegmentIdentifier(),
+				nibrsError.getDataElementIdentifierOutput(),
+				nibrsError.getNIBRSErrorCode().getCode(),
+				rejectedValue,
+				nibrsError.getErrorMessage()
+		};
+		for (int i = 0; i < values.length; i++){
+			values[i] = values[i] == null ? "" : intern.apply(values[i]);
+		}
+		return new ValidationErrorRecord(values);
+	}
+	
+	private static List<?> toList(Object value) {
+		if (value instanceof Collection){
+			return new ArrayList<>((Collection<?>) value);
+		}
+		if (value instanceof Object[]){
+			return Arrays.asList((Object[]) value);
+		}
+		return Collections.singletonList(value);
+	}
+	
+	public String getValue(int column) {
+		return values[column];
+	}
+	
+	/**
+	 * @return a copy of the record with the value of the column replaced. 
+	 */
+	ValidationErrorRecord withValue(int column, String value) {
+		String[] values = this.values.clone();
+		values[column] = value;
+		return new ValidationErrorRecord(values);
+	}
+	
+	/**
+	 * @return a copy of the column values.
+	 */
+	public String[] getValues() {
+		return values.clone();
+	}
+	
+	/**
+	 * @return the column values by their {@link #FIELD_NAMES}. 
+	 */
+	public Map<String, String> getFields() {
+		Map<String, String> fields = new LinkedHashMap<>();
+		for (int column = 0; column < values.length; column++){
+			fields.put(FIELD_NAMES.get(column), values[column]);
+		}
+		return fields;
+	}
+}
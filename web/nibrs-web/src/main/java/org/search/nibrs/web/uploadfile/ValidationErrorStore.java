@@ -0,0 +1,164 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.search.nibrs.common.NIBRSError;
+
+/**
+ * The rows of the validation report of one job.  The values repeated across the rows, like the ORIs, the 
+ * incident numbers and the error messages, are kept once.  The rows sorted in the last orders requested are 
+ * kept until rows are added, so paging through the table does not sort the rows again. 
+ */
+public class ValidationErrorStore {
+	
+	private static final int SORTED_VIEW_COUNT = 4;
+	
+	private final List<ValidationErrorRecord> validationErrorRecords = new ArrayList<>();
+	private final Map<String, String> values = new HashMap<>();
+	private List<ValidationErrorRecord> view;
+	private final Map<Comparator<ValidationErrorRecord>, List<ValidationErrorRecord>> sortedViews = 
+			new LinkedHashMap<Comparator<ValidationErrorRecord>, List<ValidationErrorRecord>>(16, 0.75f, true){
+				private static final long serialVersionUID = 1L;
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Comparator<ValidationErrorRecord>, List<ValidationErrorRecord>> eldest) {
+					return size() > SORTED_VIEW_COUNT;
+				}
+			};
+	
+	/**
+	 * @return the number of rows added. 
+	 */
+	public int add(List<NIBRSError> errorList) {
+		List<ValidationErrorRecord> records = new ArrayList<>(errorList.size());
+		for (NIBRSError nibrsError : errorList){
+			records.addAll(ValidationErrorRecord.of(nibrsError, this::intern));
+		}
+		return addRecords(records);
+	}
+	
+	/**
+	 * @return the number of rows added. 
+	 */
+	public synchronized int addRecords(List<ValidationErrorRecord> records) {
+		if (!records.isEmpty()){
+			validationErrorRecords.addAll(records);
+			view = null;
+			sortedViews.clear();
+		}
+		return records.size();
+	}
+	
+	/**
+	 * @return the instance of the value shared by the rows of the store. 
+	 */
+	synchronized String intern(String value) {
+		return values.computeIfAbsent(value, key -> key);
+	}
+	
+	public synchronized int size() {
+		return validationErrorRecords.size();
+	}
+	
+	/**
+	 * @return a copy of the rows in the order of the file. 
+	 */
+	public synchronized List<ValidationErrorRecord> getRecords() {
+		return new ArrayList<>(validationErrorRecords);
+	}
+	
+	/**
+	 * Find the rows containing the search text in any column and the column search texts in their columns, 
+	 * ignoring the case. 
+	 * 
+	 * @param search the text searched in all the columns, or blank. 
+	 * @param columnSearches the texts searched by column. 
+	 * @param order the order of the rows, or null to keep the order of the file. 
+	 * @return the rows found, which should not be modified. 
+	 */
+	public List<ValidationErrorRecord> find(String search, Map<Integer, String> columnSearches, 
+			Comparator<ValidationErrorRecord> order) {
+		List<ValidationErrorRecord> records = getView(order);
+		
+		String searchText = search == null ? "" : search.trim().toLowerCase();
+		Map<Integer, String> columnSearchTexts = new HashMap<>();
+		columnSearches.forEach((column, columnSearch) -> {
+			if (columnSearch != null && !columnSearch.trim().isEmpty()){
+				columnSearchTexts.put(column, columnSearch.trim().toLowerCase());
+			}
+		});
+		
+		if (!searchText.isEmpty() || !columnSearchTexts.isEmpty()){
+			records = records.stream()
+					.filter(record -> searchText.isEmpty() || containsInAnyColumn(record, searchText))
+					.filter(record -> columnSearchTexts.entrySet().stream()
+							.allMatch(entry -> contains(record.getValue(entry.getKey()), entry.getValue())))
+					.collect(Collectors.toList());
+		}
+		return records;
+	}
+	
+	/**
+	 * @return the unmodifiable list of all the rows in the order, sorted once until rows are added. 
+	 */
+	private List<ValidationErrorRecord> getView(Comparator<ValidationErrorRecord> order) {
+		List<ValidationErrorRecord> records;
+		synchronized (this) {
+			if (view == null){
+				view = Collections.unmodifiableList(new ArrayList<>(validationErrorRecords));
+			}
+			if (order == null){
+				return view;
+			}
+			List<ValidationErrorRecord> sortedView = sortedViews.get(order);
+			if (sortedView != null){
+				return sortedView;
+			}
+			records = view;
+		}
+		
+		List<ValidationErrorRecord> sortedRecords = new ArrayList<>(records);
+		sortedRecords.sort(order);
+		List<ValidationErrorRecord> sortedView = Collections.unmodifiableList(sortedRecords);
+		synchronized (this) {
+			if (view == records){
+				sortedViews.put(order, sortedView);
+			}
+		}
+		return sortedView;
+	}
+	
+	private boolean containsInAnyColumn(ValidationErrorRecord record, String searchText) {
+		for (int column = 0; column < ValidationErrorRecord.COLUMN_NAMES.size(); column++){
+			if (contains(record.getValue(column), searchText)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private boolean contains(String value, String searchText) {
+		return value.toLowerCase().contains(searchText);
+	}
+}
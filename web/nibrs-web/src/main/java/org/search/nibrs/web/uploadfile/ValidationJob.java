@@ -0,0 +1,138 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * The progress and the errors of the validation of one upload.  The error count is the number of rows of the 
+ * validation report.  The counters are updated by the validation 
+ * thread and read by the polling requests. 
+ */
+public class ValidationJob {
+	
+	public enum Status {QUEUED, RUNNING, COMPLETE, FAILED}
+	
+	private final String id = UUID.randomUUID().toString();
+	private final AtomicLong totalBytes = new AtomicLong();
+	private final AtomicLong bytesRead = new AtomicLong();
+	private final AtomicLong segmentsProcessed = new AtomicLong();
+	private final AtomicInteger errorCount = new AtomicInteger();
+	private final ValidationErrorStore errorStore = new ValidationErrorStore();
+	private volatile Status status = Status.QUEUED;
+	private volatile String message;
+	private volatile long completedTime;
+	private volatile boolean cached;
+	
+	public ValidationJob(long totalBytes) {
+		this.totalBytes.set(totalBytes);
+	}
+	
+	public String getId() {
+		return id;
+	}
+	public Status getStatus() {
+		return status;
+	}
+	public long getTotalBytes() {
+		return totalBytes.get();
+	}
+	public long getBytesRead() {
+		return bytesRead.get();
+	}
+	public long getSegmentsProcessed() {
+		return segmentsProcessed.get();
+	}
+	public int getErrorCount() {
+		return errorCount.get();
+	}
+	public String getMessage() {
+		return message;
+	}
+	/**
+	 * @return true when the result of an identical upload was reused. 
+	 */
+	public boolean isCached() {
+		return cached;
+	}
+	
+	@JsonIgnore
+	public ValidationErrorStore getErrorStore() {
+		return errorStore;
+	}
+	
+	@JsonIgnore
+	public boolean isDone() {
+		return status == Status.COMPLETE || status == Status.FAILED;
+	}
+	
+	/**
+	 * @return true when the job has been done for longer than the retention time. 
+	 */
+	boolean isExpired(long now, long retentionMillis) {
+		return isDone() && now - completedTime > retentionMillis;
+	}
+	
+	/**
+	 * Correct the total when the bytes read are counted differently from the uploaded bytes. 
+	 */
+	void addTotalBytes(long bytes) {
+		totalBytes.addAndGet(bytes);
+	}
+	
+	void addBytesRead(long bytes) {
+		bytesRead.addAndGet(bytes);
+	}
+	
+	void addSegmentsProcessed(int segments) {
+		segmentsProcessed.addAndGet(segments);
+	}
+	
+	void addErrorRecords(List<ValidationErrorRecord> validationErrorRecords) {
+		errorCount.addAndGet(errorStore.addRecords(validationErrorRecords));
+	}
+	
+	void start() {
+		status = Status.RUNNING;
+	}
+	
+	void complete() {
+		completedTime = System.currentTimeMillis();
+		status = Status.COMPLETE;
+	}
+	
+	/**
+	 * Complete the job with the result of an identical upload. 
+	 */
+	void complete(ValidationResult validationResult) {
+		cached = true;
+		bytesRead.set(totalBytes.get());
+		segmentsProcessed.set(validationResult.getSegmentsProcessed());
+		addErrorRecords(validationResult.getValidationErrorRecords());
+		complete();
+	}
+	
+	void fail(String message) {
+		this.message = message;
+		completedTime = System.currentTimeMillis();
+		status = Status.FAILED;
+	}
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.common.NIBRSError;
+import org.search.nibrs.importer.ReportListener;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.util.NibrsFileUtils;
+import org.search.nibrs.validate.common.NibrsValidationUtils;
+import org.search.nibrs.validate.common.ValidationMetrics;
+import org.search.nibrs.validate.common.ValidationMetrics.FileMetrics;
+import org.search.nibrs.validation.SubmissionValidator;
+import org.search.nibrs.web.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Validates the uploads on a fixed number of threads.  At most app.validationQueueCapacity uploads wait for a 
+ * thread, the uploads beyond that are rejected.  The jobs are kept for app.validationJobRetentionMinutes after 
+ * they are done.  The entries of the ZIP files are validated on app.zipEntryThreads threads shared by the jobs. 
+ * The results of the uploads and of their reports are reused through the {@link ValidationResultCache}.  The 
+ * submissions streamed by the clients are validated on their request threads, at most 
+ * app.maxStreamingValidations at a time. 
+ */
+@Service
+public class ValidationJobService {
+	private final Log log = LogFactory.getLog(this.getClass());
+	private static final int ENTRY_BUFFER_SIZE = 64 * 1024;
+	
+	@Autowired
+	SubmissionValidator submissionValidator;
+	@Autowired
+	ValidationMetrics validationMetrics;
+	@Autowired
+	AppProperties appProperties;
+	@Autowired
+	ValidationResultCache validationResultCache;
+	
+	private final Map<String, ValidationJob> validationJobs = new ConcurrentHashMap<>();
+	private ThreadPoolExecutor executorService;
+	private ExecutorService entryExecutorService;
+	private Semaphore streamingPermits;
+	
+	@PostConstruct
+	public void init() {
+		executorService = new ThreadPoolExecutor(appProperties.getValidationThreads(), appProperties.getValidationThreads(), 
+				0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(appProperties.getValidationQueueCapacity()));
+		entryExecutorService = Executors.newFixedThreadPool(appProperties.getZipEntryThreads());
+		streamingPermits = new Semaphore(appProperties.getMaxStreamingValidations());
+	}
+	
+	@PreDestroy
+	public void destroy() {
+		executorService.shutdownNow();
+		entryExecutorService.shutdownNow();
+	}
+	
+	/**
+	 * Queue the validation of the uploaded files.  The files are deleted when the job is done.  The job of files 
+	 * identical to a cached upload is complete when it is returned. 
+	 * 
+	 * @throws ValidationJobRejectedException when the queue is full. 
+	 */
+	public ValidationJob submit(List<UploadedFile> uploadedFiles) throws IOException {
+		evictExpiredJobs();
+		
+		long totalBytes = 0; 
+		for (UploadedFile uploadedFile : uploadedFiles){
+			totalBytes += uploadedFile.size();
+		}
+		
+		ValidationJob validationJob = new ValidationJob(totalBytes);
+		String uploadKey = validationResultCache.getUploadKey(uploadedFiles);
+		ValidationResult validationResult = validationResultCache.getValidationResult(uploadKey);
+		if (validationResult != null){
+			log.info("Reusing the validation result of the upload " + uploadKey);
+			validationJob.complete(validationResult);
+			validationJobs.put(validationJob.getId(), validationJob);
+			uploadedFiles.forEach(UploadedFile::delete);
+			return validationJob;
+		}
+		
+		validationJobs.put(validationJob.getId(), validationJob);
+		try {
+			executorService.execute(() -> validate(validationJob, uploadKey, uploadedFiles));
+		}
+		catch (RejectedExecutionException e){
+			validationJobs.remove(validationJob.getId());
+			uploadedFiles.forEach(UploadedFile::delete);
+			throw new ValidationJobRejectedException("Too many files are being validated, please try again later");
+		}
+		return validationJob;
+	}
+	
+	public ValidationJob getValidationJob(String id) {
+		evictExpiredJobs();
+		
+		ValidationJob validationJob = validationJobs.get(id);
+		if (validationJob == null){
+			throw new ValidationJobNotFoundException("The validation job " + id + " is not found or has expired");
+		}
+		return validationJob;
+	}
+	
+	private void evictExpiredJobs() {
+		long now = System.currentTimeMillis(); 
+		long retentionMillis = TimeUnit.MINUTES.toMillis(appProperties.getValidationJobRetentionMinutes());
+		validationJobs.values().removeIf(validationJob -> validationJob.isExpired(now, retentionMillis));
+	}
+	
+	private void validate(ValidationJob validationJob, String uploadKey, List<UploadedFile> uploadedFiles) {
+		validationJob.start();
+		
+		try {
+			for (UploadedFile uploadedFile : uploadedFiles){
+				if (uploadedFile.getContentType().equals("application/zip")){
+					validateZippedFile(validationJob, uploadedFile);
+				}
+				else {
+					try (InputStream inputStream = 
+							new ProgressInputStream(Files.newInputStream(uploadedFile.getPath()), validationJob)){
+						validateInputStream(uploadedFile.getContentType(), inputStream, validationJob.getErrorStore()::intern, 
+								validationJob::addSegmentsProcessed, validationJob::addErrorRecords);
+					}
+				}
+			}
+			validationResultCache.putValidationResult(uploadKey, new ValidationResult(
+					validationJob.getSegmentsProcessed(), validationJob.getErrorStore().getRecords()));
+			validationJob.complete();
+		}
+		catch (Exception e){
+			log.error("Got exception while validating the validation job " + validationJob.getId(), e);
+			validationJob.fail(e.getMessage());
+		}
+		finally {
+			uploadedFiles.forEach(UploadedFile::delete);
+		}
+	}
+	
+	/**
+	 * Validate a submission streamed by the client on the calling thread, passing the rows of each report to the 
+	 * record consumer as soon as the report is validated.  Nothing is kept once the rows are consumed. 
+	 * 
+	 * @return the number of segments processed. 
+	 * @throws ValidationJobRejectedException when app.maxStreamingValidations submissions are being validated. 
+	 */
+	public long validateStream(String mediaType, InputStream inputStream, 
+			Consumer<List<ValidationErrorRecord>> recordConsumer) throws IOException, ParserConfigurationException {
+		if (!streamingPermits.tryAcquire()){
+			throw new ValidationJobRejectedException("Too many submissions are being validated, please try again later");
+		}
+		
+		try {
+			LongAdder segmentsProcessed = new LongAdder();
+			validateInputStream(mediaType, inputStream, UnaryOperator.identity(), segmentsProcessed::add, recordConsumer);
+			return segmentsProcessed.sum();
+		}
+		finally {
+			streamingPermits.release();
+		}
+	}
+	
+	/**
+	 * Validate one submission file, passing the segment count and the rows of each report to the consumers. 
+	 * 
+	 * @param intern returns the shared instance of the repeated values of the rows. 
+	 */
+	private void validateInputStream(String mediaType, InputStream inputStream, UnaryOperator<String> intern, 
+			IntConsumer segmentConsumer, Consumer<List<ValidationErrorRecord>> recordConsumer) 
+			throws IOException, ParserConfigurationException {
+		FileMetrics fileMetrics = validationMetrics.startFile();
+		ReportListener validatorListener = fileMetrics.instrument((report, errorList) -> {
+			segmentConsumer.accept(ValidationMetrics.getSegmentCount(report));
+			recordConsumer.accept(toRecords(intern, errorList));
+			recordConsumer.accept(validateReport(intern, report));
+		});
+		NibrsValidationUtils.validateInputStream(validatorListener, mediaType, inputStream, "console");
+		fileMetrics.complete();
+	}
+	
+	/**
+	 * Validate the report, unless a report of the same content is cached.  The cached rows are reused with the 
+	 * source location of this report. 
+	 */
+	private List<ValidationErrorRecord> validateReport(UnaryOperator<String> intern, AbstractReport report) {
+		String sourceLocation = 
+				report.getSource() == null ? "" : Objects.toString(report.getSource().getSourceLocation(), "");
+		String reportKey = validationResultCache.getReportKey(report);
+		List<ValidationErrorRecord> validationErrorRecords = 
+				reportKey == null ? null : validationResultCache.getReportErrors(reportKey, sourceLocation);
+		if (validationErrorRecords == null){
+			validationErrorRecords = toRecords(intern, validationMetrics.validateReport(submissionValidator, report));
+			if (reportKey != null){
+				validationResultCache.putReportErrors(reportKey, sourceLocation, validationErrorRecords);
+			}
+		}
+		return validationErrorRecords;
+	}
+	
+	/**
+	 * Only the errors of a report are shown in the validation report. 
+	 */
+	private List<ValidationErrorRecord> toRecords(UnaryOperator<String> intern, List<NIBRSError> errorList) {
+		List<ValidationErrorRecord> validationErrorRecords = new ArrayList<>();
+		for (NIBRSError nibrsError : errorList){
+			if (nibrsError.getReport() != null){
+				validationErrorRecords.addAll(ValidationErrorRecord.of(nibrsError, intern));
+			}
+		}
+		return validationErrorRecords;
+	}
+	
+	/**
+	 * Validate the entries of the ZIP file in parallel, each entry streamed from the uploaded file.  The errors of 
+	 * an entry are added to the job once the entries before it are done, so the rows of the validation report 
+	 * follow the order of the entries.  The progress of a ZIP file is counted in uncompressed bytes. 
+	 */
+	private void validateZippedFile(ValidationJob validationJob, UploadedFile uploadedFile) 
+			throws IOException, InterruptedException, ExecutionException {
+		try (ZipFile zipFile = new ZipFile(uploadedFile.getPath().toFile())){
+			List<ZipEntry> zipEntries = zipFile.stream()
+					.filter(zipEntry -> !zipEntry.isDirectory())
+					.collect(Collectors.toList());
+			long uncompressedSize = zipEntries.stream().mapToLong(ZipEntry::getSize).filter(size -> size > 0).sum();
+			validationJob.addTotalBytes(uncompressedSize - uploadedFile.size());
+			
+			List<Future<List<ValidationErrorRecord>>> futures = new ArrayList<>();
+			for (ZipEntry zipEntry : zipEntries){
+				futures.add(entryExecutorService.submit(() -> validateZipEntry(validationJob, zipFile, zipEntry)));
+			}
+			
+			try {
+				for (Future<List<ValidationErrorRecord>> future : futures){
+					validationJob.addErrorRecords(future.get());
+				}
+			}
+			finally {
+				futures.forEach(future -> future.cancel(true));
+			}
+		}
+	}
+	
+	private List<ValidationErrorRecord> validateZipEntry(ValidationJob validationJob, ZipFile zipFile, ZipEntry zipEntry) 
+			throws IOException {
+		log.info("Unzipping " + zipEntry.getName());
+		
+		List<ValidationErrorRecord> entryErrors = new ArrayList<>();
+		try (InputStream inputStream = new BufferedInputStream(
+				new ProgressInputStream(zipFile.getInputStream(zipEntry), validationJob), ENTRY_BUFFER_SIZE)){
+			String mediaType = NibrsFileUtils.getMediaType(inputStream);
+			validateInputStream(mediaType, inputStream, validationJob.getErrorStore()::intern, 
+					validationJob::addSegmentsProcessed, entryErrors::addAll);
+		} 
+		catch (ParserConfigurationException e) {
+			log.error("Got exception while parsing the file " + zipEntry.getName(), e);
+		}
+		return entryErrors;
+	}
+	
+}
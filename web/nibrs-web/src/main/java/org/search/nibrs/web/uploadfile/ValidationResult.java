@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The segments processed and the rows of the validation report of an upload, kept by the 
+ * {@link ValidationResultCache}. 
+ */
+class ValidationResult {
+	
+	private final long segmentsProcessed;
+	private final List<ValidationErrorRecord> validationErrorRecords;
+	private final long weight;
+	
+	ValidationResult(long segmentsProcessed, List<ValidationErrorRecord> validationErrorRecords) {
+		this.segmentsProcessed = segmentsProcessed;
+		this.validationErrorRecords = Collections.unmodifiableList(validationErrorRecords);
+		this.weight = getWeight(validationErrorRecords);
+	}
+	
+	/**
+	 * @return the estimated bytes held by the rows, the repeated values counted for every row. 
+	 */
+	static long getWeight(List<ValidationErrorRecord> validationErrorRecords) {
+		long weight = 64; 
+		for (ValidationErrorRecord validationErrorRecord : validationErrorRecords){
+			weight += 32 + 8 * ValidationErrorRecord.COLUMN_NAMES.size();
+			for (int column = 0; column < ValidationErrorRecord.COLUMN_NAMES.size(); column++){
+				weight += 40 + 2 * validationErrorRecord.getValue(column).length();
+			}
+		}
+		return weight;
+	}
+	
+	long getSegmentsProcessed() {
+		return segmentsProcessed;
+	}
+	
+	List<ValidationErrorRecord> getValidationErrorRecords() {
+		return validationErrorRecords;
+	}
+	
+	long getWeight() {
+		return weight;
+	}
+}
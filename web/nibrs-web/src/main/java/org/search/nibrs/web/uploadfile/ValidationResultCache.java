@@ -0,0 +1,368 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.common.ReportSource;
+import org.search.nibrs.model.AbstractReport;
+import org.search.nibrs.validation.SubmissionValidator;
+import org.search.nibrs.web.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the validation results of the recent uploads by the digest of their content, so an upload validated 
+ * before is not validated again.  The results are kept in memory up to app.validationCacheMegabytes, least 
+ * recently used first out.  When app.validationCacheDirectory is set, the results are also written there and 
+ * are kept up to app.validationCacheDiskMegabytes.  
+ * 
+ * The rows of each report are kept by the digest of the report content up to app.validationReportCacheMegabytes, 
+ * so only the changed reports of a corrected upload are validated.  
+ */
+@Component
+public class ValidationResultCache {
+	private final Log log = LogFactory.getLog(this.getClass());
+	private static final int FILE_FORMAT_VERSION = 1;
+	private static final String FILE_EXTENSION = ".gz";
+	private static final long MEGABYTE = 1024L * 1024L;
+	
+	@Autowired
+	AppProperties appProperties;
+	
+	/**
+	 * Writes the content of a report without its source, sorted so equal reports give equal bytes. 
+	 */
+	private final ObjectMapper reportContentMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToEnable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+			.mixIn(AbstractReport.class, ReportContentMixIn.class)
+			.build();
+	private final String validatorVersion = loadValidatorVersion();
+	
+	private LruCache<ValidationResult> validationResults;
+	private LruCache<ReportErrors> reportErrors;
+	private Path directory;
+	
+	abstract static class ReportContentMixIn {
+		@JsonIgnore
+		abstract ReportSource getSource();
+	}
+	
+	private static class ReportErrors {
+		final String sourceLocation;
+		final List<ValidationErrorRecord> validationErrorRecords;
+		final long weight;
+		
+		ReportErrors(String sourceLocation, List<ValidationErrorRecord> validationErrorRecords) {
+			this.sourceLocation = sourceLocation;
+			this.validationErrorRecords = validationErrorRecords;
+			this.weight = ValidationResult.getWeight(validationErrorRecords) + 160;
+		}
+	}
+	
+	/**
+	 * @return the version and the build timestamp of the validation rules.  Without them, an id of this run, so 
+	 * the results written to the disk by other builds are not used. 
+	 */
+	static String loadValidatorVersion() {
+		Properties buildProperties = new Properties();
+		try (InputStream inputStream = SubmissionValidator.class.getResourceAsStream("build.properties")){
+			if (inputStream != null){
+				buildProperties.load(inputStream);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		String timestamp = buildProperties.getProperty("timestamp", "");
+		if (!timestamp.matches("[0-9]+")){
+			return UUID.randomUUID().toString();
+		}
+		return buildProperties.getProperty("version") + "-" + timestamp;
+	}
+	
+	@PostConstruct
+	public void init() throws IOException {
+		log.info("Caching the validation results of the validator build " + validatorVersion);
+		validationResults = new LruCache<>(appProperties.getValidationCacheMegabytes() * MEGABYTE, 
+				ValidationResult::getWeight);
+		reportErrors = new LruCache<>(appProperties.getValidationReportCacheMegabytes() * MEGABYTE, 
+				errors -> errors.weight);
+		
+		if (StringUtils.hasText(appProperties.getValidationCacheDirectory())){
+			directory = Paths.get(appProperties.getValidationCacheDirectory());
+			Files.createDirectories(directory);
+		}
+	}
+	
+	/**
+	 * @return the digest of the content and the type of the uploaded files, in order. 
+	 */
+	String getUploadKey(List<UploadedFile> uploadedFiles) {
+		MessageDigest messageDigest = UploadedFile.newMessageDigest();
+		messageDigest.update(validatorVersion.getBytes(StandardCharsets.UTF_8));
+		for (UploadedFile uploadedFile : uploadedFiles){
+			messageDigest.update((byte) 0);
+			messageDigest.update(Objects.toString(uploadedFile.getContentType(), "").getBytes(StandardCharsets.UTF_8));
+			messageDigest.update((byte) 0);
+			messageDigest.update(uploadedFile.getDigest());
+		}
+		return toHex(messageDigest.digest());
+	}
+	
+	/**
+	 * @return the result of the upload from memory or from the directory, or null if it is not cached. 
+	 */
+	ValidationResult getValidationResult(String uploadKey) {
+		ValidationResult validationResult = validationResults.get(uploadKey);
+		if (validationResult == null && directory != null){
+			validationResult = readValidationResult(directory.resolve(uploadKey + FILE_EXTENSION));
+			if (validationResult != null){
+				validationResults.put(uploadKey, validationResult);
+			}
+		}
+		return validationResult;
+	}
+	
+	void putValidationResult(String uploadKey, ValidationResult validationResult) {
+		validationResults.put(uploadKey, validationResult);
+		if (directory != null){
+			writeValidationResult(uploadKey, validationResult);
+			evictFiles();
+		}
+	}
+	
+	/**
+	 * @return the digest of the report content, or null if the report can not be written. 
+	 */
+	String getReportKey(AbstractReport report) {
+		try {
+			MessageDigest messageDigest = UploadedFile.newMessageDigest();
+			messageDigest.update(report.getClass().getName().getBytes(StandardCharsets.UTF_8));
+			messageDigest.update(reportContentMapper.writeValueAsBytes(report));
+			return toHex(messageDigest.digest());
+		}
+		catch (JsonProcessingException e){
+			log.debug("The report " + report.getIdentifier() + " is not cached", e);
+			return null;
+		}
+	}
+	
+	/**
+	 * @return the rows of the report of the same content, with the source location of this report, or null if no 
+	 * such report is cached. 
+	 */
+	List<ValidationErrorRecord> getReportErrors(String reportKey, String sourceLocation) {
+		ReportErrors errors = reportErrors.get(reportKey);
+		if (errors == null){
+			return null;
+		}
+		if (errors.sourceLocation.equals(sourceLocation)){
+			return errors.validationErrorRecords;
+		}
+		return errors.validationErrorRecords.stream()
+				.map(record -> errors.sourceLocation.equals(record.getValue(ValidationErrorRecord.SOURCE_LOCATION_COLUMN)) ? 
+						record.withValue(ValidationErrorRecord.SOURCE_LOCATION_COLUMN, sourceLocation) : record)
+				.collect(Collectors.toList());
+	}
+	
+	void putReportErrors(String reportKey, String sourceLocation, List<ValidationErrorRecord> validationErrorRecords) {
+		reportErrors.put(reportKey, new ReportErrors(sourceLocation, new ArrayList<>(validationErrorRecords)));
+	}
+	
+	private void writeValidationResult(String uploadKey, ValidationResult validationResult) {
+		Path tempFile = null; 
+		try {
+			tempFile = Files.createTempFile(directory, uploadKey, ".tmp");
+			try (DataOutputStream outputStream = new DataOutputStream(new GZIPOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile))))){
+				outputStream.writeInt(FILE_FORMAT_VERSION);
+				outputStream.writeLong(validationResult.getSegmentsProcessed());
+				outputStream.writeInt(validationResult.getValidationErrorRecords().size());
+				for (ValidationErrorRecord validationErrorRecord : validationResult.getValidationErrorRecords()){
+					for (int column = 0; column < ValidationErrorRecord.COLUMN_NAMES.size(); column++){
+						byte[] value = validationErrorRecord.getValue(column).getBytes(StandardCharsets.UTF_8);
+						outputStream.writeInt(value.length);
+						outputStream.write(value);
+					}
+				}
+			}
+			Files.move(tempFile, directory.resolve(uploadKey + FILE_EXTENSION), StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException e){
+			log.warn("Failed to write the validation result " + uploadKey, e);
+			deleteFile(tempFile);
+		}
+	}
+	
+	private ValidationResult readValidationResult(Path file) {
+		if (!Files.exists(file)){
+			return null;
+		}
+		
+		try (DataInputStream inputStream = new DataInputStream(new GZIPInputStream(
+				new BufferedInputStream(Files.newInputStream(file))))){
+			if (inputStream.readInt() != FILE_FORMAT_VERSION){
+				deleteFile(file);
+				return null;
+			}
+			long segmentsProcessed = inputStream.readLong();
+			int size = inputStream.readInt();
+			List<ValidationErrorRecord> validationErrorRecords = new ArrayList<>(size);
+			Map<String, String> values = new HashMap<>();
+			for (int i = 0; i < size; i++){
+				String[] recordValues = new String[ValidationErrorRecord.COLUMN_NAMES.size()];
+				for (int column = 0; column < recordValues.length; column++){
+					byte[] value = new byte[inputStream.readInt()];
+					inputStream.readFully(value);
+					recordValues[column] = values.computeIfAbsent(new String(value, StandardCharsets.UTF_8), key -> key);
+				}
+				validationErrorRecords.add(ValidationErrorRecord.of(recordValues));
+			}
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+			return new ValidationResult(segmentsProcessed, validationErrorRecords);
+		}
+		catch (IOException e){
+			log.warn("Failed to read the validation result " + file, e);
+			deleteFile(file);
+			return null;
+		}
+	}
+	
+	/**
+	 * Delete the least recently used files beyond app.validationCacheDiskMegabytes. 
+	 */
+	private void evictFiles() {
+		List<Path> files;
+		try (Stream<Path> paths = Files.list(directory)){
+			files = paths.filter(path -> path.toString().endsWith(FILE_EXTENSION)).collect(Collectors.toList());
+		}
+		catch (IOException e){
+			log.warn("Failed to list the validation results in " + directory, e);
+			return;
+		}
+		
+		Map<Path, Long> lastModifiedTimes = new HashMap<>();
+		for (Path file : files){
+			lastModifiedTimes.put(file, file.toFile().lastModified());
+		}
+		files.sort(Comparator.comparing(lastModifiedTimes::get, Comparator.reverseOrder()));
+		
+		long maxBytes = appProperties.getValidationCacheDiskMegabytes() * MEGABYTE;
+		long bytes = 0; 
+		for (Path file : files){
+			bytes += file.toFile().length();
+			if (bytes > maxBytes){
+				deleteFile(file);
+			}
+		}
+	}
+	
+	private void deleteFile(Path file) {
+		if (file == null){
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Failed to delete " + file, e);
+		}
+	}
+	
+	static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes){
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+	
+	/**
+	 * A map of bounded total weight, evicting the least recently used entries first.  An entry heavier than the 
+	 * bound is not kept. 
+	 */
+	private static class LruCache<V> {
+		private final Map<String, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+		private final long maxWeight;
+		private final ToLongFunction<V> weigher;
+		private long weight;
+		
+		LruCache(long maxWeight, ToLongFunction<V> weigher) {
+			this.maxWeight = maxWeight;
+			this.weigher = weigher;
+		}
+		
+		synchronized V get(String key) {
+			return entries.get(key);
+		}
+		
+		synchronized void put(String key, V value) {
+			long valueWeight = weigher.applyAsLong(value);
+			if (valueWeight > maxWeight){
+				return;
+			}
+			
+			V previous = entries.put(key, value);
+			weight += valueWeight - (previous == null ? 0 : weigher.applyAsLong(previous));
+			Iterator<V> iterator = entries.values().iterator();
+			while (weight > maxWeight && iterator.hasNext()){
+				weight -= weigher.applyAsLong(iterator.next());
+				iterator.remove();
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.search.nibrs.util.NibrsFileUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Validates a flat file or XML submission posted as the request body, for the records management systems.  The 
+ * submission is validated while it is read and the errors are written back as NDJSON, one JSON object of 
+ * {@link ValidationErrorRecord#FIELD_NAMES} per line, as soon as each report is validated.  A body posted as 
+ * application/octet-stream is recognized from its content. 
+ * <p/>
+ * The response is committed with the first rows, so a submission that cannot be read to the end ends with a row 
+ * of the error message only. 
+ */
+@RestController
+public class ValidationStreamController {
+	private final Log log = LogFactory.getLog(this.getClass());
+	private static final String APPLICATION_NDJSON = "application/x-ndjson";
+	private static final int REQUEST_BUFFER_SIZE = 64 * 1024;
+	
+	@Autowired
+	ValidationJobService validationJobService;
+	@Autowired
+	ObjectMapper objectMapper;
+	
+	final List<String> streamedFileTypes = Arrays.asList("text/plain", "text/xml", "application/xml");
+	
+	@PostMapping(value="/validations", 
+			consumes={"text/plain", "text/xml", "application/xml", "application/octet-stream"}, 
+			produces=APPLICATION_NDJSON)
+	public void validate(HttpServletRequest request, HttpServletResponse response) 
+			throws IOException, ParserConfigurationException, HttpMediaTypeNotSupportedException {
+		InputStream inputStream = new BufferedInputStream(request.getInputStream(), REQUEST_BUFFER_SIZE);
+		
+		String mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE;
+		if (StringUtils.hasText(request.getContentType())){
+			MediaType contentType = MediaType.parseMediaType(request.getContentType());
+			mediaType = contentType.getType() + "/" + contentType.getSubtype();
+		}
+		if (mediaType.equals(MediaType.APPLICATION_OCTET_STREAM_VALUE)){
+			mediaType = NibrsFileUtils.getMediaType(inputStream);
+		}
+		if (!streamedFileTypes.contains(mediaType)){
+			throw new HttpMediaTypeNotSupportedException("The file type " + mediaType + " is not supported");
+		}
+		
+		response.setContentType(APPLICATION_NDJSON);
+		OutputStream outputStream = response.getOutputStream();
+		try {
+			long segmentsProcessed = validationJobService.validateStream(mediaType, inputStream, 
+					validationErrorRecords -> writeNdjson(outputStream, validationErrorRecords));
+			log.info("Validated a streamed submission of " + segmentsProcessed + " segments");
+		}
+		catch (IOException e) {
+			log.warn("Failed to read a streamed submission", e);
+			writeNdjson(outputStream, Collections.singletonList(
+					ValidationErrorRecord.of("The submission could not be read to the end: " + e.getMessage())));
+		}
+	}
+	
+	/**
+	 * Write the rows of a report and flush them to the client. 
+	 */
+	private void writeNdjson(OutputStream outputStream, List<ValidationErrorRecord> validationErrorRecords) {
+		if (validationErrorRecords.isEmpty()){
+			return;
+		}
+		
+		try {
+			for (ValidationErrorRecord validationErrorRecord : validationErrorRecords){
+				outputStream.write(objectMapper.writeValueAsBytes(validationErrorRecord.getFields()));
+				outputStream.write('\n');
+			}
+			outputStream.flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+}
@@ -20,6 +20,7 @@ var isAdvancedUpload = function() {
 
 $(function(){
 	xhr = null;
+	jobUrl = null;
 	$.ajaxSetup ({
 	      // Disable caching of AJAX responses on IE.
 	      cache: false
@@ -30,7 +31,10 @@ $(function(){
  	$(document).ajaxStart(function(){
       	$("#loadingAjaxPane").css({"display": "block"}); 
     }).ajaxStop(function() {
-        $("#loadingAjaxPane").css({"display": "none"});                
+    	// Keep the pane up between the polls of a running validation job
+    	if (!jobUrl){
+    		$("#loadingAjaxPane").css({"display": "none"});
+    	}
     });
 
 	var $form = $(".box");
@@ -92,15 +96,41 @@ $(function(){
 	    cache: false,
 	    contentType: false,
 	    processData: false,
-	    complete: function() {
-	      $form.removeClass('is-uploading');
-	    },
-	    success: function(data) {
-	    	console.log(data);
-	        $form.addClass( data.success == true ? 'is-success' : 'is-error' );
-	        $("#mainContent").html(data);
+	    success: function(validationJob) {
+	    	jobUrl = $form.attr('action') + "/" + validationJob.id;
+	    	poll(validationJob);
 	    }
-	  }).fail(ojbc.displayFailMessage);;
+	  }).fail(function(jqXHR, textStatus, errorThrown){
+		  $form.removeClass('is-uploading');
+		  ojbc.displayFailMessage(jqXHR, textStatus, errorThrown);
+	  });
+	}
+	
+	/**
+	 * Show the progress of the validation job until it is done, then load its report. 
+	 */
+	var poll = function(validationJob){
+		$("#progress").html(ojbc.formatProgress(validationJob));
+		
+		if (validationJob.status == "COMPLETE"){
+			xhr = $.get(jobUrl + "/report", function(data) {
+				jobUrl = null;
+				$form.removeClass('is-uploading').addClass('is-success');
+				$("#mainContent").html(data);
+			}).fail(ojbc.failJob);
+		}
+		else if (validationJob.status == "FAILED"){
+			ojbc.failJob();
+			$('#errorMsg').html("<span class='error'>An error occurred while validating the file. Details: </span>" 
+					+ validationJob.message);
+		}
+		else {
+			setTimeout(function(){
+				if (jobUrl){
+					xhr = $.getJSON(jobUrl, poll).fail(ojbc.failJob);
+				}
+			}, 1000);
+		}
 	}
 		
 
@@ -118,12 +148,36 @@ ojbc = {
 			  		  xhr.textStatus="aborted"; 
 			  		  xhr.abort();
 			  	  }
+			  	  // Stop polling, the job itself runs to completion on the server
+			  	  if (jobUrl){
+			  		  ojbc.failJob();
+			  	  }
 			  }
 		   }); 
 		},
 		
+		formatProgress : function(validationJob) {
+			var percent = validationJob.totalBytes > 0 ? 
+					Math.floor(100 * validationJob.bytesRead / validationJob.totalBytes) : 0;
+			if (validationJob.status == "QUEUED"){
+				return "Waiting for the validation to start";
+			}
+			return "Validated " + validationJob.segmentsProcessed + " segments, " + percent + "% of the upload, " 
+				+ validationJob.errorCount + " errors found";
+		},
+		
+		failJob : function(jqXHR, textStatus, errorThrown) {
+			jobUrl = null;
+			$(".box").removeClass('is-uploading').addClass('is-error');
+			$("#loadingAjaxPane").css({"display": "none"});
+			$("#progress").html("");
+			if (jqXHR){
+				ojbc.displayFailMessage(jqXHR, textStatus, errorThrown);
+			}
+		},
+		
 		displayFailMessage : function(jqXHR, textStatus, errorThrown) {
-	    	if (jqXHR.status == 500) {
+	    	if (jqXHR.status == 500 || jqXHR.status == 503 || jqXHR.status == 404) {
 		    	var errorHeader = "<span class='error'>An error occurred while processing your request. Details: </span>";
 		    	responseText = jQuery.parseJSON(jqXHR.responseText)
 		    	$('#errorMsg').html(errorHeader + responseText.message + "<!--" + responseText.exception + " -->");
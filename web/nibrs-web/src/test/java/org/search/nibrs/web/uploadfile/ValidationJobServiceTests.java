@@ -0,0 +1,183 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.search.nibrs.web.uploadfile.ValidationJob.Status;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.StreamUtils;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ValidationJobServiceTests {
+	
+	@Autowired
+	private ValidationJobService validationJobService;
+
+	@Test
+	public void testValidationJob() throws Exception {
+		MockMultipartFile multipartFile;
+		try (InputStream inputStream = getClass().getResourceAsStream("/test.txt")){
+			multipartFile = new MockMultipartFile("file", "test.txt", "text/plain", inputStream);
+		}
+		UploadedFile uploadedFile = UploadedFile.copyOf(multipartFile);
+		
+		ValidationJob validationJob = validationJobService.submit(Collections.singletonList(uploadedFile));
+		assertThat(validationJobService.getValidationJob(validationJob.getId()), is(validationJob));
+		
+		for (int i = 0; i < 100 && !validationJob.isDone(); i++){
+			Thread.sleep(100);
+		}
+		assertThat(validationJob.getStatus(), equalTo(Status.COMPLETE));
+		assertThat(validationJob.getBytesRead(), equalTo(multipartFile.getSize()));
+		assertThat(validationJob.getTotalBytes(), equalTo(multipartFile.getSize()));
+		assertThat(validationJob.getSegmentsProcessed(), equalTo(8L));
+		assertThat(validationJob.getErrorCount(), equalTo(validationJob.getErrorStore().size()));
+		assertThat(validationJob.getErrorCount() > 0, is(true));
+		assertThat(Files.exists(uploadedFile.getPath()), is(false));
+		
+		ValidationErrorStore errorStore = validationJob.getErrorStore();
+		Map<String, String> parameters = new HashMap<>();
+		for (int i = 0; i < ValidationErrorRecord.COLUMN_NAMES.size(); i++){
+			parameters.put("columns[" + i + "][data]", String.valueOf(i));
+		}
+		parameters.put("order[0][column]", "10");
+		parameters.put("order[0][dir]", "desc");
+		DataTablesRequest dataTablesRequest = DataTablesRequest.of(parameters);
+		List<ValidationErrorRecord> validationErrorRecords = errorStore.find(
+				dataTablesRequest.getSearch(), dataTablesRequest.getColumnSearches(), dataTablesRequest.getOrder());
+		assertThat(validationErrorRecords.size(), equalTo(errorStore.size()));
+		for (int i = 1; i < validationErrorRecords.size(); i++){
+			assertThat(validationErrorRecords.get(i - 1).getValue(10).compareTo(validationErrorRecords.get(i).getValue(10)) >= 0, 
+					is(true));
+		}
+		assertThat(errorStore.find(null, Collections.emptyMap(), DataTablesRequest.of(parameters).getOrder()), 
+				sameInstance(validationErrorRecords));
+		assertThat(dataTablesRequest.getLength(), equalTo(DataTablesRequest.MAX_LENGTH));
+		
+		parameters.put("columns[3][search][value]", "md0160400");
+		dataTablesRequest = DataTablesRequest.of(parameters);
+		assertThat(errorStore.find(dataTablesRequest.getSearch(), dataTablesRequest.getColumnSearches(), null).size(), 
+				equalTo(errorStore.size()));
+		
+		parameters.put("search[value]", "no such value");
+		dataTablesRequest = DataTablesRequest.of(parameters);
+		assertThat(errorStore.find(dataTablesRequest.getSearch(), dataTablesRequest.getColumnSearches(), null).size(), 
+				equalTo(0));
+	}
+	
+	@Test
+	public void testZippedValidationJob() throws Exception {
+		byte[] submission;
+		try (InputStream inputStream = getClass().getResourceAsStream("/test.txt")){
+			submission = StreamUtils.copyToByteArray(inputStream);
+		}
+		ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipBytes)){
+			zipOutputStream.putNextEntry(new ZipEntry("agencies/"));
+			for (int i = 0; i < 4; i++){
+				zipOutputStream.putNextEntry(new ZipEntry("agencies/test" + i + ".txt"));
+				zipOutputStream.write(submission);
+			}
+		}
+		MockMultipartFile multipartFile = new MockMultipartFile("file", "test.zip", "application/zip", zipBytes.toByteArray());
+		
+		ValidationJob validationJob = validationJobService.submit(
+				Collections.singletonList(UploadedFile.copyOf(multipartFile)));
+		for (int i = 0; i < 100 && !validationJob.isDone(); i++){
+			Thread.sleep(100);
+		}
+		assertThat(validationJob.getStatus(), equalTo(Status.COMPLETE));
+		assertThat(validationJob.getSegmentsProcessed(), equalTo(32L));
+		assertThat(validationJob.getTotalBytes(), equalTo(4L * submission.length));
+		assertThat(validationJob.getBytesRead(), equalTo(validationJob.getTotalBytes()));
+		
+		List<ValidationErrorRecord> validationErrorRecords = 
+				validationJob.getErrorStore().find(null, Collections.emptyMap(), null);
+		int entryErrorCount = validationErrorRecords.size() / 4; 
+		assertThat(entryErrorCount > 0, is(true));
+		for (int i = entryErrorCount; i < validationErrorRecords.size(); i++){
+			assertThat(validationErrorRecords.get(i).getValues(), 
+					equalTo(validationErrorRecords.get(i % entryErrorCount).getValues()));
+		}
+	}
+	
+	@Test
+	public void testCachedValidationJob() throws Exception {
+		byte[] submission;
+		try (InputStream inputStream = getClass().getResourceAsStream("/test.txt")){
+			submission = StreamUtils.copyToByteArray(inputStream);
+		}
+		ByteArrayOutputStream twoReports = new ByteArrayOutputStream();
+		twoReports.write(submission);
+		twoReports.write(submission);
+		MockMultipartFile multipartFile = new MockMultipartFile("file", "test.txt", "text/plain", twoReports.toByteArray());
+		
+		ValidationJob validationJob = validationJobService.submit(
+				Collections.singletonList(UploadedFile.copyOf(multipartFile)));
+		for (int i = 0; i < 100 && !validationJob.isDone(); i++){
+			Thread.sleep(100);
+		}
+		assertThat(validationJob.getStatus(), equalTo(Status.COMPLETE));
+		assertThat(validationJob.isCached(), is(false));
+		
+		List<ValidationErrorRecord> validationErrorRecords = validationJob.getErrorStore().getRecords();
+		int reportErrorCount = validationErrorRecords.size() / 2; 
+		assertThat(reportErrorCount > 0, is(true));
+		for (int i = reportErrorCount; i < validationErrorRecords.size(); i++){
+			String[] values = validationErrorRecords.get(i).getValues();
+			String[] firstReportValues = validationErrorRecords.get(i - reportErrorCount).getValues();
+			assertThat(values[ValidationErrorRecord.SOURCE_LOCATION_COLUMN], 
+					equalTo(String.valueOf(Integer.parseInt(firstReportValues[ValidationErrorRecord.SOURCE_LOCATION_COLUMN]) + 8)));
+			values[ValidationErrorRecord.SOURCE_LOCATION_COLUMN] = firstReportValues[ValidationErrorRecord.SOURCE_LOCATION_COLUMN];
+			assertThat(values, equalTo(firstReportValues));
+		}
+		
+		ValidationJob cachedValidationJob = validationJobService.submit(
+				Collections.singletonList(UploadedFile.copyOf(multipartFile)));
+		assertThat(cachedValidationJob.getStatus(), equalTo(Status.COMPLETE));
+		assertThat(cachedValidationJob.isCached(), is(true));
+		assertThat(cachedValidationJob.getSegmentsProcessed(), equalTo(16L));
+		assertThat(cachedValidationJob.getBytesRead(), equalTo(multipartFile.getSize()));
+		assertThat(cachedValidationJob.getErrorCount(), equalTo(validationJob.getErrorCount()));
+		assertThat(cachedValidationJob.getErrorStore().getRecords(), equalTo(validationErrorRecords));
+	}
+	
+	@Test(expected=ValidationJobNotFoundException.class)
+	public void testUnknownValidationJob() {
+		validationJobService.getValidationJob("unknown");
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.search.nibrs.web.AppProperties;
+
+public class ValidationResultCacheTests {
+	
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+	
+	@Test
+	public void testDiskTier() throws Exception {
+		List<ValidationErrorRecord> validationErrorRecords = new ArrayList<>();
+		for (int i = 0; i < 3; i++){
+			String[] values = new String[ValidationErrorRecord.COLUMN_NAMES.size()];
+			for (int column = 0; column < values.length; column++){
+				values[column] = column == 12 ? "Error message é " + i : String.valueOf(column);
+			}
+			validationErrorRecords.add(ValidationErrorRecord.of(values));
+		}
+		
+		ValidationResultCache validationResultCache = newValidationResultCache();
+		validationResultCache.putValidationResult("upload", new ValidationResult(8, validationErrorRecords));
+		
+		ValidationResult validationResult = newValidationResultCache().getValidationResult("upload");
+		assertThat(validationResult.getSegmentsProcessed(), equalTo(8L));
+		assertThat(validationResult.getValidationErrorRecords().size(), equalTo(3));
+		for (int i = 0; i < 3; i++){
+			assertThat(validationResult.getValidationErrorRecords().get(i).getValues(), 
+					equalTo(validationErrorRecords.get(i).getValues()));
+		}
+		assertThat(newValidationResultCache().getValidationResult("unknown"), nullValue());
+	}
+	
+	@Test
+	public void testValidatorVersion() throws Exception {
+		String validatorVersion = ValidationResultCache.loadValidatorVersion();
+		assertThat(validatorVersion.matches(".+-[0-9]{14}"), is(true));
+		assertThat(ValidationResultCache.loadValidatorVersion(), equalTo(validatorVersion));
+	}
+	
+	@Test
+	public void testMemoryBound() throws Exception {
+		AppProperties appProperties = new AppProperties();
+		appProperties.setValidationCacheMegabytes(0L);
+		ValidationResultCache validationResultCache = new ValidationResultCache();
+		validationResultCache.appProperties = appProperties;
+		validationResultCache.init();
+		
+		validationResultCache.putValidationResult("upload", new ValidationResult(8, new ArrayList<>()));
+		assertThat(validationResultCache.getValidationResult("upload"), nullValue());
+	}
+	
+	private ValidationResultCache newValidationResultCache() throws Exception {
+		AppProperties appProperties = new AppProperties();
+		appProperties.setValidationCacheMegabytes(0L);
+		appProperties.setValidationCacheDirectory(temporaryFolder.getRoot().getPath());
+		ValidationResultCache validationResultCache = new ValidationResultCache();
+		validationResultCache.appProperties = appProperties;
+		validationResultCache.init();
+		return validationResultCache;
+	}
+
+}
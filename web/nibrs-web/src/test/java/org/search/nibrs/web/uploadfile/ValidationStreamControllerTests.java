@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 SEARCH-The National Consortium for Justice Information and Statistics
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.search.nibrs.web.uploadfile;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ValidationStreamControllerTests {
+	
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	private byte[] submission;
+	private String xmlSubmission;
+	
+	@Before
+	public void readSubmission() throws Exception {
+		try (InputStream inputStream = getClass().getResourceAsStream("/test.txt")){
+			submission = StreamUtils.copyToByteArray(inputStream);
+		}
+		try (InputStream inputStream = getClass().getResourceAsStream("/test.xml")){
+			xmlSubmission = StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Test
+	public void testValidateStream() throws Exception {
+		String[] lines = validate(MediaType.TEXT_PLAIN, submission);
+		assertThat(lines.length > 0, is(true));
+		for (String line : lines){
+			Map<?, ?> fields = objectMapper.readValue(line, Map.class);
+			assertThat(fields.keySet().size(), equalTo(ValidationErrorRecord.FIELD_NAMES.size()));
+			assertThat(fields.get("ori"), equalTo("MD0160400"));
+		}
+		
+		assertThat(validate(MediaType.APPLICATION_OCTET_STREAM, submission), equalTo(lines));
+	}
+	
+	@Test
+	public void testValidateXmlStream() throws Exception {
+		String[] lines = validate(MediaType.APPLICATION_XML, xmlSubmission.getBytes(StandardCharsets.UTF_8));
+		assertThat(lines.length > 0, is(true));
+		for (String line : lines){
+			Map<?, ?> fields = objectMapper.readValue(line, Map.class);
+			assertThat(fields.keySet().size(), equalTo(ValidationErrorRecord.FIELD_NAMES.size()));
+			assertThat(fields.get("ori"), equalTo("WVNDX0100"));
+		}
+		
+		assertThat(validate(MediaType.APPLICATION_OCTET_STREAM, xmlSubmission.getBytes(StandardCharsets.UTF_8)), 
+				equalTo(lines));
+	}
+	
+	@Test
+	public void testTruncatedXmlSubmission() throws Exception {
+		String[] reportLines = validate(MediaType.APPLICATION_XML, xmlSubmission.getBytes(StandardCharsets.UTF_8));
+		
+		int reportStart = xmlSubmission.indexOf("<nibrs:Report>");
+		int reportEnd = xmlSubmission.indexOf("</nibrs:Report>") + "</nibrs:Report>".length();
+		String report = xmlSubmission.substring(reportStart, reportEnd);
+		String truncatedSubmission = xmlSubmission.substring(0, reportEnd) + report.substring(0, report.length() / 2);
+		
+		String[] lines = validate(MediaType.APPLICATION_XML, truncatedSubmission.getBytes(StandardCharsets.UTF_8));
+		assertThat(lines.length, equalTo(reportLines.length + 1));
+		assertThat(Arrays.copyOf(lines, reportLines.length), equalTo(reportLines));
+		
+		Map<?, ?> fields = objectMapper.readValue(lines[reportLines.length], Map.class);
+		assertThat(fields.keySet().size(), equalTo(ValidationErrorRecord.FIELD_NAMES.size()));
+		assertThat(fields.get("ori"), equalTo(""));
+		assertThat(fields.get("errorMessage").toString(), startsWith("The submission could not be read to the end"));
+	}
+	
+	@Test
+	public void testUnsupportedFileType() throws Exception {
+		ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipBytes)){
+			zipOutputStream.putNextEntry(new ZipEntry("test.txt"));
+			zipOutputStream.write(submission);
+		}
+		mockMvc.perform(post("/validations").contentType(MediaType.APPLICATION_OCTET_STREAM).content(zipBytes.toByteArray()))
+				.andExpect(status().isUnsupportedMediaType());
+	}
+	
+	private String[] validate(MediaType mediaType, byte[] content) throws Exception {
+		return mockMvc.perform(post("/validations").contentType(mediaType).content(content))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString().split("\n");
+	}
+
+}